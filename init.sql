@@ -1,3 +1,6 @@
+-- Requiere MySQL 8.0.19 o superior (INSERT ... AS alias ON DUPLICATE KEY UPDATE).
+-- El script es idempotente: sobre una base existente agrega las columnas e índices que falten.
+
 -- ===============================
 -- order-service (orderdb)
 -- ===============================
@@ -8,18 +11,116 @@ CREATE TABLE IF NOT EXISTS orders (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     store_id BIGINT NOT NULL,
     user_id BIGINT NOT NULL,
-    created_at DATETIME NOT NULL
+    created_at DATETIME NOT NULL,
+    -- Clave Idempotency-Key del cliente, única por usuario; un reintento devuelve la orden ya creada
+    idempotency_key VARCHAR(64) NULL,
+    UNIQUE KEY uk_orders_user_idempotency_key (user_id, idempotency_key),
+    -- Historial por usuario/tienda paginado por (created_at, id)
+    INDEX idx_orders_user_created (user_id, created_at, id),
+    INDEX idx_orders_store_created (store_id, created_at, id)
 );
 
+-- Bases creadas antes de la clave Idempotency-Key: se agregan la columna y su índice único si faltan
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders' AND COLUMN_NAME = 'idempotency_key') = 0,
+              'ALTER TABLE orders ADD COLUMN idempotency_key VARCHAR(64) NULL',
+              'DO 0');
+PREPARE add_idempotency_key FROM @ddl;
+EXECUTE add_idempotency_key;
+DEALLOCATE PREPARE add_idempotency_key;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders' AND INDEX_NAME = 'uk_orders_user_idempotency_key') = 0,
+              'ALTER TABLE orders ADD UNIQUE KEY uk_orders_user_idempotency_key (user_id, idempotency_key)',
+              'DO 0');
+PREPARE add_uk_user_idempotency_key FROM @ddl;
+EXECUTE add_uk_user_idempotency_key;
+DEALLOCATE PREPARE add_uk_user_idempotency_key;
+
+-- La clave era global en versiones anteriores; ahora se acota por usuario y se elimina el índice viejo
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders' AND INDEX_NAME = 'uk_orders_idempotency_key') > 0,
+              'ALTER TABLE orders DROP INDEX uk_orders_idempotency_key',
+              'DO 0');
+PREPARE drop_uk_idempotency_key FROM @ddl;
+EXECUTE drop_uk_idempotency_key;
+DEALLOCATE PREPARE drop_uk_idempotency_key;
+
 CREATE TABLE IF NOT EXISTS order_items (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     order_id BIGINT NOT NULL,
     product_id BIGINT NOT NULL,
     quantity INT NOT NULL,
+    INDEX idx_order_items_order (order_id),
     FOREIGN KEY (order_id) REFERENCES orders(id)
         ON DELETE CASCADE
 );
 
+-- Bases creadas antes de la paginación keyset: se crean los índices si faltan
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders' AND INDEX_NAME = 'idx_orders_user_created') = 0,
+              'CREATE INDEX idx_orders_user_created ON orders (user_id, created_at, id)',
+              'DO 0');
+PREPARE add_idx_orders_user_created FROM @ddl;
+EXECUTE add_idx_orders_user_created;
+DEALLOCATE PREPARE add_idx_orders_user_created;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders' AND INDEX_NAME = 'idx_orders_store_created') = 0,
+              'CREATE INDEX idx_orders_store_created ON orders (store_id, created_at, id)',
+              'DO 0');
+PREPARE add_idx_orders_store_created FROM @ddl;
+EXECUTE add_idx_orders_store_created;
+DEALLOCATE PREPARE add_idx_orders_store_created;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'order_items' AND INDEX_NAME = 'idx_order_items_order') = 0,
+              'CREATE INDEX idx_order_items_order ON order_items (order_id)',
+              'DO 0');
+PREPARE add_idx_order_items_order FROM @ddl;
+EXECUTE add_idx_order_items_order;
+DEALLOCATE PREPARE add_idx_order_items_order;
+
+-- Órdenes recibidas en modo asíncrono; el worker las procesa en orden por tienda
+CREATE TABLE IF NOT EXISTS order_requests (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    store_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    items JSON NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    order_id BIGINT NULL,
+    error VARCHAR(1000) NULL,
+    created_at DATETIME(3) NOT NULL,
+    updated_at DATETIME(3) NOT NULL,
+    INDEX idx_order_requests_status (status, id)
+);
+
+-- Devoluciones de stock pendientes de órdenes fallidas; el worker las envía a inventory-service en lotes
+CREATE TABLE IF NOT EXISTS inventory_compensations (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    compensation_key VARCHAR(64) NOT NULL,
+    -- Reserva que tomó el stock; inventory-service solo lo devuelve si la reserva se aplicó
+    reservation_key VARCHAR(64) NULL,
+    product_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(3) NOT NULL,
+    last_error VARCHAR(1000) NULL,
+    created_at DATETIME(3) NOT NULL,
+    completed_at DATETIME(3) NULL,
+    UNIQUE KEY uk_inventory_compensations_key (compensation_key),
+    INDEX idx_inventory_compensations_due (completed_at, next_attempt_at)
+);
+
+-- Bases creadas antes de la columna reservation_key: se agrega si falta
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'inventory_compensations' AND COLUMN_NAME = 'reservation_key') = 0,
+              'ALTER TABLE inventory_compensations ADD COLUMN reservation_key VARCHAR(64) NULL AFTER compensation_key',
+              'DO 0');
+PREPARE add_reservation_key FROM @ddl;
+EXECUTE add_reservation_key;
+DEALLOCATE PREPARE add_reservation_key;
+
 
 -- ===============================
 -- inventory-service (inventorydb)
@@ -39,10 +140,83 @@ CREATE TABLE IF NOT EXISTS products (
     category_id BIGINT NOT NULL,
     quantity INT NOT NULL,
     description TEXT,
+    -- Se incrementa con cada cambio de stock y viaja en los eventos
+    version BIGINT NOT NULL DEFAULT 0,
+    -- Listado por categoría paginado por id (keyset)
+    INDEX idx_products_category (category_id, id),
     FOREIGN KEY (category_id) REFERENCES categories(id)
         ON DELETE CASCADE
 );
 
+-- Bases creadas antes de la columna version: se agrega si falta (MySQL no admite ADD COLUMN IF NOT EXISTS)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND COLUMN_NAME = 'version') = 0,
+              'ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0',
+              'DO 0');
+PREPARE add_version FROM @ddl;
+EXECUTE add_version;
+DEALLOCATE PREPARE add_version;
+
+-- Bases creadas antes del listado por categoría paginado: se crea el índice si falta
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND INDEX_NAME = 'idx_products_category') = 0,
+              'CREATE INDEX idx_products_category ON products (category_id, id)',
+              'DO 0');
+PREPARE add_idx_products_category FROM @ddl;
+EXECUTE add_idx_products_category;
+DEALLOCATE PREPARE add_idx_products_category;
+
+-- Eventos pendientes de publicar, escritos en la misma transacción que el cambio que describen
+CREATE TABLE IF NOT EXISTS inventory_outbox (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255) NOT NULL,
+    payload JSON NOT NULL,
+    created_at DATETIME(3) NOT NULL,
+    sent_at DATETIME(3) NULL,
+    INDEX idx_inventory_outbox_pending (sent_at, id)
+);
+
+-- Compensaciones de stock ya aplicadas, por clave de idempotencia; un reenvío de order-service no suma dos veces
+CREATE TABLE IF NOT EXISTS applied_compensations (
+    compensation_key VARCHAR(64) PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    applied_at DATETIME(3) NOT NULL,
+    -- Purga de claves más antiguas que la retención
+    INDEX idx_applied_compensations_applied (applied_at)
+);
+
+-- Bases creadas antes de la purga de compensaciones: se crea el índice si falta
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'applied_compensations'
+                 AND INDEX_NAME = 'idx_applied_compensations_applied') = 0,
+              'CREATE INDEX idx_applied_compensations_applied ON applied_compensations (applied_at)',
+              'DO 0');
+PREPARE add_idx_applied_compensations_applied FROM @ddl;
+EXECUTE add_idx_applied_compensations_applied;
+DEALLOCATE PREPARE add_idx_applied_compensations_applied;
+
+-- Reservas enviadas con clave: un reenvío no descuenta dos veces y una compensación solo devuelve lo que se reservó
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    reservation_key VARCHAR(64) PRIMARY KEY,
+    status VARCHAR(16) NOT NULL,
+    created_at DATETIME(3) NOT NULL,
+    updated_at DATETIME(3) NOT NULL,
+    -- Purga de reservas resueltas más antiguas que la retención
+    INDEX idx_stock_reservations_updated (updated_at)
+);
+
+-- Bases creadas antes de la purga de reservas: se crea el índice si falta
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'stock_reservations'
+                 AND INDEX_NAME = 'idx_stock_reservations_updated') = 0,
+              'CREATE INDEX idx_stock_reservations_updated ON stock_reservations (updated_at)',
+              'DO 0');
+PREPARE add_idx_stock_reservations_updated FROM @ddl;
+EXECUTE add_idx_stock_reservations_updated;
+DEALLOCATE PREPARE add_idx_stock_reservations_updated;
+
 
 -- ===============================
 -- store-service (storedb_a)
@@ -63,7 +237,29 @@ CREATE TABLE IF NOT EXISTS products (
     category_id BIGINT NOT NULL,
     quantity INT NOT NULL,
     description TEXT,
+    -- Versión del último evento aplicado; los eventos con versión menor o igual se descartan
+    version BIGINT NOT NULL DEFAULT 0,
+    -- Listado por categoría paginado por id (keyset)
+    INDEX idx_products_category (category_id, id),
     FOREIGN KEY (category_id) REFERENCES categories(id)
         ON DELETE CASCADE
 );
 
+-- Bases creadas antes de la columna version: se agrega si falta (MySQL no admite ADD COLUMN IF NOT EXISTS)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND COLUMN_NAME = 'version') = 0,
+              'ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0',
+              'DO 0');
+PREPARE add_version FROM @ddl;
+EXECUTE add_version;
+DEALLOCATE PREPARE add_version;
+
+-- Bases creadas antes del listado por categoría paginado: se crea el índice si falta
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND INDEX_NAME = 'idx_products_category') = 0,
+              'CREATE INDEX idx_products_category ON products (category_id, id)',
+              'DO 0');
+PREPARE add_idx_products_category FROM @ddl;
+EXECUTE add_idx_products_category;
+DEALLOCATE PREPARE add_idx_products_category;
+
@@ -0,0 +1,120 @@
+package org.inventorysystem.inventorybenchmarks;
+
+import org.inventorysystem.inventorybenchmarks.support.InventoryContext;
+import org.inventorysystem.inventoryservice.config.EnvironmentConfig;
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.entity.CategoryEntity;
+import org.inventorysystem.inventoryservice.entity.OutboxEntity;
+import org.inventorysystem.inventoryservice.entity.ProductEntity;
+import org.inventorysystem.inventoryservice.event.InventoryEventType;
+import org.inventorysystem.inventoryservice.event.InventoryUpdatedEvent;
+import org.inventorysystem.inventoryservice.outbox.OutboxMessageMapper;
+import org.inventorysystem.inventoryservice.outbox.OutboxRelay;
+import org.inventorysystem.inventoryservice.repository.OutboxRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of producing inventory events: building and serializing an {@code inventory-updated}
+ * event into an outbox row, and relaying a batch of outbox rows through the publisher to a
+ * stub KafkaTemplate.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class EventBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Serialization {
+
+        private InventoryContext inventory;
+        private OutboxMessageMapper mapper;
+        private String topic;
+        private ProductEntity product;
+        private CategoryEntity category;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            inventory = InventoryContext.start(InventoryConfig.MutationMode.DIRECT, 1);
+            mapper = inventory.bean(OutboxMessageMapper.class);
+            topic = inventory.bean(EnvironmentConfig.class).getTopics().getInventoryUpdated();
+            product = ProductEntity.builder().id(42L).name("Seiko Presage").price(425.0).categoryId(3L)
+                    .quantity(17).description("Automatic dress watch with enamel dial").build();
+            category = CategoryEntity.builder().id(3L).name("Watches").build();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            inventory.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Relay {
+
+        @Param({"500"})
+        public int pending;
+
+        @Param({"1", "50"})
+        public int keys;
+
+        private InventoryContext inventory;
+        private OutboxRepository outboxRepository;
+        private OutboxRelay relay;
+        private String payload;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            inventory = InventoryContext.start(InventoryConfig.MutationMode.DIRECT, 1);
+            outboxRepository = inventory.bean(OutboxRepository.class);
+            relay = inventory.bean(OutboxRelay.class);
+            payload = "{\"productId\":1,\"productName\":\"Product 1\",\"newQuantity\":10,\"eventType\":\"STOCK_DECREASE\"}";
+        }
+
+        /**
+         * Refills the outbox before every drain; the insert is not part of the measurement.
+         */
+        @Setup(Level.Invocation)
+        public void fillOutbox() {
+            inventory.clearOutbox();
+            outboxRepository.saveAll(Flux.range(0, pending)
+                            .map(i -> OutboxEntity.of("inventory-updated", String.valueOf(i % keys), payload)))
+                    .blockLast();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            inventory.close();
+        }
+    }
+
+    @Benchmark
+    public OutboxEntity buildUpdateEvent(Serialization state) {
+        InventoryUpdatedEvent event = InventoryUpdatedEvent.of(state.product, state.category, InventoryEventType.STOCK_DECREASE);
+        return state.mapper.toMessage(state.topic, String.valueOf(state.product.getId()), event);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 200)
+    @Warmup(iterations = 50)
+    public void relayOutboxBatch(Relay state) {
+        state.relay.drain().block();
+    }
+}
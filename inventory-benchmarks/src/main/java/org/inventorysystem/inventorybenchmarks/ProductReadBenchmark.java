@@ -0,0 +1,68 @@
+package org.inventorysystem.inventorybenchmarks;
+
+import org.inventorysystem.inventorybenchmarks.support.Contention;
+import org.inventorysystem.inventorybenchmarks.support.InventoryContext;
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.dto.response.ValidateStockResponse;
+import org.inventorysystem.inventoryservice.entity.ProductEntity;
+import org.inventorysystem.inventoryservice.service.InventoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product reads as served to order-service and the stores. Both go through the product cache,
+ * so the uniform scenario with a large catalog also exercises cache misses.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class ProductReadBenchmark {
+
+    @Param({"SINGLE_SKU", "UNIFORM"})
+    public Contention contention;
+
+    @Param({"1000", "50000"})
+    public int products;
+
+    private InventoryContext inventory;
+    private InventoryService inventoryService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        inventory = InventoryContext.start(InventoryConfig.MutationMode.DIRECT, products);
+        inventoryService = inventory.bean(InventoryService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        inventory.close();
+    }
+
+    @Benchmark
+    public ProductEntity getById() {
+        return inventoryService.getById(contention.nextProductId(products)).block();
+    }
+
+    @Benchmark
+    public ValidateStockResponse validateStock() {
+        return inventoryService.validateStock(contention.nextProductId(products), 1).block();
+    }
+}
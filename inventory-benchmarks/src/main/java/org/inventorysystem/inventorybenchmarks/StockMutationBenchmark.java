@@ -0,0 +1,73 @@
+package org.inventorysystem.inventorybenchmarks;
+
+import org.inventorysystem.inventorybenchmarks.support.Contention;
+import org.inventorysystem.inventorybenchmarks.support.InventoryContext;
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.entity.ProductEntity;
+import org.inventorysystem.inventoryservice.service.InventoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link InventoryService#updateQuantity} end to end: category lookup, the stock mutation
+ * strategy, the outbox insert and the cache update. Deltas are a random walk of +1/-1 so
+ * stock never runs out.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class StockMutationBenchmark {
+
+    @Param({"DIRECT", "SHARDED"})
+    public InventoryConfig.MutationMode mutationMode;
+
+    @Param({"SINGLE_SKU", "UNIFORM"})
+    public Contention contention;
+
+    @Param({"1000"})
+    public int products;
+
+    private InventoryContext inventory;
+    private InventoryService inventoryService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        inventory = InventoryContext.start(mutationMode, products);
+        inventoryService = inventory.bean(InventoryService.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearOutbox() {
+        inventory.clearOutbox();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        inventory.close();
+    }
+
+    @Benchmark
+    public ProductEntity updateQuantity() {
+        int delta = ThreadLocalRandom.current().nextBoolean() ? 1 : -1;
+        return inventoryService.updateQuantity(contention.nextProductId(products), delta).block();
+    }
+}
@@ -0,0 +1,30 @@
+package org.inventorysystem.inventorybenchmarks.support;
+
+import org.inventorysystem.inventoryservice.repository.ProductStockRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+@Configuration
+public class BenchmarkConfig {
+
+    /**
+     * Takes precedence over the real template declared by KafkaProducerConfig.
+     */
+    @Bean
+    @Primary
+    public KafkaTemplate<String, Object> stubKafkaTemplate() {
+        return new StubKafkaTemplate();
+    }
+
+    /**
+     * Takes precedence over the MySQL repository, whose UPDATE relies on LAST_INSERT_ID(expr).
+     */
+    @Bean
+    @Primary
+    public ProductStockRepository h2ProductStockRepository(DatabaseClient databaseClient) {
+        return new H2ProductStockRepository(databaseClient);
+    }
+}
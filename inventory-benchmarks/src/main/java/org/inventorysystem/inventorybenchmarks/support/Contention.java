@@ -0,0 +1,29 @@
+package org.inventorysystem.inventorybenchmarks.support;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How benchmark threads choose the product they touch.
+ */
+public enum Contention {
+    /**
+     * Every thread hits the same product, as during a flash sale of one item.
+     */
+    SINGLE_SKU {
+        @Override
+        public long nextProductId(int products) {
+            return 1;
+        }
+    },
+    /**
+     * Threads pick a product uniformly at random, so they rarely collide.
+     */
+    UNIFORM {
+        @Override
+        public long nextProductId(int products) {
+            return 1 + ThreadLocalRandom.current().nextInt(products);
+        }
+    };
+
+    public abstract long nextProductId(int products);
+}
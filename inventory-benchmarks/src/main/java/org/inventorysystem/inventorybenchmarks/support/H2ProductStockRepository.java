@@ -0,0 +1,30 @@
+package org.inventorysystem.inventorybenchmarks.support;
+
+import org.inventorysystem.inventoryservice.repository.ProductStockRepository;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * ProductStockRepository for H2, which has no {@code LAST_INSERT_ID(expr)}. The updated row is read
+ * from {@code FINAL TABLE} of the same conditional UPDATE, so a mutation is still a single statement.
+ */
+public class H2ProductStockRepository extends ProductStockRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public H2ProductStockRepository(DatabaseClient databaseClient) {
+        super(databaseClient);
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<StockLevel> applyQuantityDelta(Long id, int delta) {
+        return databaseClient.sql("SELECT quantity, version FROM FINAL TABLE ("
+                        + "UPDATE products SET quantity = quantity + :delta, version = version + 1 "
+                        + "WHERE id = :id AND quantity + :delta >= 0)")
+                .bind("id", id)
+                .bind("delta", delta)
+                .map(row -> new StockLevel(row.get("quantity", Integer.class), row.get("version", Long.class)))
+                .first();
+    }
+}
@@ -0,0 +1,86 @@
+package org.inventorysystem.inventorybenchmarks.support;
+
+import org.inventorysystem.inventoryservice.Application;
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.entity.CategoryEntity;
+import org.inventorysystem.inventoryservice.entity.ProductEntity;
+import org.inventorysystem.inventoryservice.repository.CategoryRepository;
+import org.inventorysystem.inventoryservice.repository.ProductRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.UUID;
+
+/**
+ * Boots inventory-service without a web server, against a fresh in-memory H2 database
+ * and a {@link StubKafkaTemplate}, and seeds it with a catalog.
+ * The outbox relay is disabled; benchmarks that need it call it explicitly.
+ */
+public final class InventoryContext implements AutoCloseable {
+
+    public static final int CATEGORIES = 10;
+    public static final int INITIAL_QUANTITY = 1_000_000;
+
+    private final ConfigurableApplicationContext context;
+
+    private InventoryContext(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * @param mutationMode The stock mutation strategy to wire.
+     * @param products     Number of products to create; their IDs are 1 to {@code products}.
+     */
+    public static InventoryContext start(InventoryConfig.MutationMode mutationMode, int products) {
+        String database = "inventory-" + UUID.randomUUID();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class, BenchmarkConfig.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.r2dbc.url=r2dbc:h2:mem:///" + database + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.r2dbc.username=sa",
+                        "--spring.r2dbc.password=",
+                        "--spring.sql.init.mode=always",
+                        "--spring.sql.init.schema-locations=classpath:benchmark-schema.sql",
+                        "--spring.kafka.admin.auto-create=false",
+                        "--app.inventory.mutation-mode=" + mutationMode,
+                        "--app.inventory.outbox.relay-enabled=false",
+                        "--logging.level.root=WARN");
+        InventoryContext inventory = new InventoryContext(context);
+        inventory.seed(products);
+        return inventory;
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Deletes every outbox row so the table does not grow across iterations.
+     */
+    public void clearOutbox() {
+        bean(DatabaseClient.class).sql("DELETE FROM inventory_outbox").fetch().rowsUpdated().block();
+    }
+
+    private void seed(int products) {
+        bean(CategoryRepository.class)
+                .saveAll(Flux.range(1, CATEGORIES).map(i -> CategoryEntity.builder().name("Category " + i).build()))
+                .blockLast();
+        bean(ProductRepository.class)
+                .saveAll(Flux.range(1, products).map(i -> ProductEntity.builder()
+                        .name("Product " + i)
+                        .price(10.0 + i % 100)
+                        .categoryId((long) (1 + i % CATEGORIES))
+                        .quantity(INITIAL_QUANTITY)
+                        .description("Benchmark product " + i)
+                        .version(0L)
+                        .build()))
+                .blockLast();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
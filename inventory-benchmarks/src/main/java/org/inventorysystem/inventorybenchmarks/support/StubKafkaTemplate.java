@@ -0,0 +1,40 @@
+package org.inventorysystem.inventorybenchmarks.support;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * KafkaTemplate that acknowledges every send immediately without a broker, so benchmarks
+ * measure the service's own cost of publishing rather than network and broker latency.
+ */
+public class StubKafkaTemplate extends KafkaTemplate<String, Object> {
+
+    private final AtomicLong offsets = new AtomicLong();
+
+    public StubKafkaTemplate() {
+        super(new DefaultKafkaProducerFactory<>(Map.of()));
+    }
+
+    @Override
+    public CompletableFuture<SendResult<String, Object>> send(String topic, String key, Object data) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(topic, key, data);
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(topic, 0), offsets.getAndIncrement(),
+                0, System.currentTimeMillis(), -1, -1);
+        return CompletableFuture.completedFuture(new SendResult<>(record, metadata));
+    }
+
+    /**
+     * @return Number of records "sent" so far.
+     */
+    public long sent() {
+        return offsets.get();
+    }
+}
@@ -0,0 +1,31 @@
+-- Esquema de inventorydb (init.sql) adaptado a H2
+CREATE TABLE IF NOT EXISTS categories (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    price DOUBLE NOT NULL,
+    category_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    description VARCHAR(65535),
+    version BIGINT NOT NULL DEFAULT 0,
+    FOREIGN KEY (category_id) REFERENCES categories(id)
+        ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_products_category ON products (category_id, id);
+
+-- TEXT y JSON pasan a VARCHAR: H2 devolvería CLOB y trataría un parámetro String en una columna JSON como un string JSON
+CREATE TABLE IF NOT EXISTS inventory_outbox (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255) NOT NULL,
+    payload VARCHAR(1048576) NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL,
+    sent_at TIMESTAMP(3) NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_outbox_pending ON inventory_outbox (sent_at, id);
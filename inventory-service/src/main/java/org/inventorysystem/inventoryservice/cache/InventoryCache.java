@@ -0,0 +1,115 @@
+package org.inventorysystem.inventoryservice.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.entity.CategoryEntity;
+import org.inventorysystem.inventoryservice.entity.ProductEntity;
+import org.inventorysystem.inventoryservice.repository.CategoryRepository;
+import org.inventorysystem.inventoryservice.repository.ProductRepository;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded read-through cache for products and categories.
+ * Entries are evicted by size and by time since they were written, and concurrent misses
+ * for the same key share a single database read. Hit, miss and eviction counters are
+ * published as {@code cache.*} meters tagged with the cache name.
+ * <p>
+ * Products change on every stock mutation, so their TTL is short: writes made by this
+ * instance refresh the entry, while writes made elsewhere are only picked up on expiry.
+ */
+@Component
+@Slf4j
+public class InventoryCache {
+
+    public static final String PRODUCTS = "inventory.products";
+    public static final String CATEGORIES = "inventory.categories";
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final AsyncCache<Long, ProductEntity> products;
+    private final AsyncCache<Long, CategoryEntity> categories;
+
+    public InventoryCache(ProductRepository productRepository,
+                          CategoryRepository categoryRepository,
+                          InventoryConfig inventoryConfig,
+                          MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        InventoryConfig.Cache config = inventoryConfig.getCache();
+        this.products = Caffeine.newBuilder()
+                .maximumSize(config.getProductMaxSize())
+                .expireAfterWrite(Duration.ofMillis(config.getProductTtlMs()))
+                .recordStats()
+                .buildAsync();
+        this.categories = Caffeine.newBuilder()
+                .maximumSize(config.getCategoryMaxSize())
+                .expireAfterWrite(Duration.ofMillis(config.getCategoryTtlMs()))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, PRODUCTS);
+        CaffeineCacheMetrics.monitor(meterRegistry, categories, CATEGORIES);
+    }
+
+    /**
+     * Returns a product, loading it from the database on a miss.
+     * Missing products are not cached.
+     *
+     * @param id The product ID.
+     * @return Mono emitting a copy of the cached product, or empty if it does not exist.
+     */
+    public Mono<ProductEntity> getProduct(Long id) {
+        return Mono.fromFuture(() -> products.get(id, (key, executor) -> productRepository.findById(key).toFuture()))
+                .map(product -> product.toBuilder().build());
+    }
+
+    /**
+     * Returns a category, loading it from the database on a miss.
+     * Missing categories are not cached.
+     *
+     * @param id The category ID.
+     * @return Mono emitting the cached category, or empty if it does not exist.
+     */
+    public Mono<CategoryEntity> getCategory(Long id) {
+        return Mono.fromFuture(() -> categories.get(id, (key, executor) -> categoryRepository.findById(key).toFuture()))
+                .map(category -> new CategoryEntity(category.getId(), category.getName()));
+    }
+
+    /**
+     * Stores the latest known state of a product, replacing any cached entry.
+     */
+    public void putProduct(ProductEntity product) {
+        products.put(product.getId(), CompletableFuture.completedFuture(product.toBuilder().build()));
+    }
+
+    /**
+     * Stores the latest known state of a category, replacing any cached entry.
+     */
+    public void putCategory(CategoryEntity category) {
+        categories.put(category.getId(),
+                CompletableFuture.completedFuture(new CategoryEntity(category.getId(), category.getName())));
+    }
+
+    /**
+     * Drops a product so the next read goes to the database.
+     */
+    public void invalidateProduct(Long id) {
+        products.synchronous().invalidate(id);
+    }
+
+    public CacheStats productStats() {
+        return products.synchronous().stats();
+    }
+
+    public CacheStats categoryStats() {
+        return categories.synchronous().stats();
+    }
+}
@@ -10,7 +10,9 @@ import org.springframework.context.annotation.Configuration;
 public class EnvironmentConfig {
 
     private Topics topics = new Topics();
+    private Partitions partitions = new Partitions();
     private Retry retry = new Retry();
+    private Producer producer = new Producer();
 
     @Data
     public static class Topics {
@@ -19,9 +21,40 @@ public class EnvironmentConfig {
         private String newCategory;
     }
 
+    /**
+     * Partition count per topic. Events are keyed by product (or category) ID, so every event
+     * for a key lands on the same partition. Raising a count on an existing topic adds partitions
+     * and remaps some keys, which consumers tolerate by applying events by version; see {@code KafkaTopicConfig}.
+     */
+    @Data
+    public static class Partitions {
+        private int newInventory = 1;
+        private int inventoryUpdated = 1;
+        private int newCategory = 1;
+        private short replicas = 1;
+    }
+
     @Data
     public static class Retry {
         private int maxAttempts;
         private long delayMs;
     }
+
+    @Data
+    public static class Producer {
+        private String acks = "all";
+        private int batchSize = 65_536;
+        private int lingerMs = 10;
+        private String compressionType = "lz4";
+        private long bufferMemory = 33_554_432L;
+        private long maxBlockMs = 5_000;
+        /**
+         * Threads calling {@code send}, kept off the Netty event loop.
+         */
+        private int publisherThreads = 4;
+        /**
+         * Sends waiting for a publisher thread. Further sends are rejected.
+         */
+        private int publisherQueueSize = 10_000;
+    }
 }
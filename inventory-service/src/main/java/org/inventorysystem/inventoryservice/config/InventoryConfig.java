@@ -0,0 +1,105 @@
+package org.inventorysystem.inventoryservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.inventory")
+@Data
+public class InventoryConfig {
+
+    private MutationMode mutationMode = MutationMode.DIRECT;
+    private Shards shards = new Shards();
+    private Cache cache = new Cache();
+    private Outbox outbox = new Outbox();
+    private BulkImport bulkImport = new BulkImport();
+    private Listing listing = new Listing();
+    private ReservationBatch reservationBatch = new ReservationBatch();
+    private Reservations reservations = new Reservations();
+
+    public enum MutationMode {
+        /**
+         * Every stock mutation is a conditional UPDATE against the database.
+         */
+        DIRECT,
+        /**
+         * Stock mutations are applied by in-memory single-writer shards and
+         * group-committed to the database. Requires a single inventory-service writer.
+         */
+        SHARDED
+    }
+
+    @Data
+    public static class Shards {
+        private int count = 8;
+        private long flushIntervalMs = 50;
+        private int batchSize = 500;
+        private long idleEvictMs = 60_000;
+    }
+
+    @Data
+    public static class Cache {
+        private long productMaxSize = 10_000;
+        private long productTtlMs = 5_000;
+        private long categoryMaxSize = 1_000;
+        private long categoryTtlMs = 600_000;
+    }
+
+    @Data
+    public static class Outbox {
+        /**
+         * Whether this instance relays outbox rows. Only one instance should.
+         */
+        private boolean relayEnabled = true;
+        private long pollIntervalMs = 100;
+        private int batchSize = 500;
+        /**
+         * Message keys published in parallel; rows sharing a key are always published in order.
+         */
+        private int concurrency = 32;
+        private long retentionHours = 24;
+        private long cleanupIntervalMs = 60_000;
+    }
+
+    @Data
+    public static class BulkImport {
+        /**
+         * Rows inserted per multi-row INSERT and per transaction.
+         */
+        private int batchSize = 500;
+    }
+
+    @Data
+    public static class Listing {
+        private int defaultPageSize = 100;
+        /**
+         * Upper bound for a requested page size, and the rows read per query when streaming.
+         */
+        private int maxPageSize = 1_000;
+    }
+
+    @Data
+    public static class ReservationBatch {
+        /**
+         * Reservations of a batch processed at the same time; each still runs in its own transaction.
+         */
+        private int concurrency = 16;
+    }
+
+    @Data
+    public static class Reservations {
+        /**
+         * A keyed reservation still PENDING after this long is taken as abandoned, and a compensation
+         * for it cancels it instead of waiting.
+         */
+        private long pendingTimeoutMs = 60_000;
+        /**
+         * Settled reservation keys and applied compensation keys are deleted after this long. A reservation
+         * or compensation sent again after that is no longer recognised, so this must outlast the longest
+         * time order-service keeps retrying them.
+         */
+        private long retentionHours = 168;
+        private long cleanupIntervalMs = 3_600_000;
+    }
+}
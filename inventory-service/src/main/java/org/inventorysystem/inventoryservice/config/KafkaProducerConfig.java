@@ -19,6 +19,8 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    private final EnvironmentConfig environmentConfig;
+
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> config = new HashMap<>();
@@ -26,6 +28,14 @@ public class KafkaProducerConfig {
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false); // optional, if needed
+
+        EnvironmentConfig.Producer producer = environmentConfig.getProducer();
+        config.put(ProducerConfig.ACKS_CONFIG, producer.getAcks());
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, producer.getBatchSize());
+        config.put(ProducerConfig.LINGER_MS_CONFIG, producer.getLingerMs());
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producer.getCompressionType());
+        config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, producer.getBufferMemory());
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, producer.getMaxBlockMs());
         return new DefaultKafkaProducerFactory<>(config);
     }
 
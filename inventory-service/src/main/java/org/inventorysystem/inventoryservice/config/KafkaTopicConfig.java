@@ -1,29 +1,49 @@
 package org.inventorysystem.inventoryservice.config;
 
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 
+/**
+ * Declares the inventory topics with the partition counts from {@code app.kafka.partitions}.
+ * <p>
+ * On startup, {@code KafkaAdmin} adds partitions to existing topics whose count is lower than
+ * the configured one; it never removes them. Adding partitions remaps some keys, so the events of
+ * a product that moved are split between its old and new partition and may be consumed out of order.
+ * Every inventory event carries the product's version, and store-service applies an event only if
+ * it is newer than the product it holds, so its replica still ends at the latest state of each
+ * product whichever partition is drained first.
+ */
 @Configuration
+@RequiredArgsConstructor
 public class KafkaTopicConfig {
 
+    private final EnvironmentConfig environmentConfig;
+
     @Bean
-    public NewTopic newInventoryTopic(
-            @Value("${app.kafka.topics.new-inventory}") String topicName) {
-        return TopicBuilder.name(topicName).partitions(1).replicas(1).build();
+    public NewTopic newInventoryTopic() {
+        return topic(environmentConfig.getTopics().getNewInventory(),
+                environmentConfig.getPartitions().getNewInventory());
     }
 
     @Bean
-    public NewTopic inventoryUpdatedTopic(
-            @Value("${app.kafka.topics.inventory-updated}") String topicName) {
-        return TopicBuilder.name(topicName).partitions(1).replicas(1).build();
+    public NewTopic inventoryUpdatedTopic() {
+        return topic(environmentConfig.getTopics().getInventoryUpdated(),
+                environmentConfig.getPartitions().getInventoryUpdated());
     }
 
     @Bean
-    public NewTopic newCategoryTopic(
-            @Value("${app.kafka.topics.new-category}") String topicName) {
-        return TopicBuilder.name(topicName).partitions(1).replicas(1).build();
+    public NewTopic newCategoryTopic() {
+        return topic(environmentConfig.getTopics().getNewCategory(),
+                environmentConfig.getPartitions().getNewCategory());
+    }
+
+    private NewTopic topic(String name, int partitions) {
+        return TopicBuilder.name(name)
+                .partitions(partitions)
+                .replicas(environmentConfig.getPartitions().getReplicas())
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -4,21 +4,32 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.inventoryservice.dto.request.BatchReservationRequest;
+import org.inventorysystem.inventoryservice.dto.request.CompensationBatchRequest;
 import org.inventorysystem.inventoryservice.dto.request.CreateCategoryRequest;
 import org.inventorysystem.inventoryservice.dto.request.CreateProductRequest;
+import org.inventorysystem.inventoryservice.dto.request.StockReservationRequest;
 import org.inventorysystem.inventoryservice.dto.request.StockValidationRequest;
+import org.inventorysystem.inventoryservice.dto.response.BatchReservationResponse;
+import org.inventorysystem.inventoryservice.dto.response.CompensationBatchResponse;
+import org.inventorysystem.inventoryservice.dto.response.ImportProgressResponse;
+import org.inventorysystem.inventoryservice.dto.response.ProductPageResponse;
+import org.inventorysystem.inventoryservice.dto.response.StockReservationResponse;
 import org.inventorysystem.inventoryservice.dto.response.ValidateStockResponse;
 import org.inventorysystem.inventoryservice.entity.CategoryEntity;
 import org.inventorysystem.inventoryservice.entity.ProductEntity;
 import org.inventorysystem.inventoryservice.service.InventoryService;
+import org.inventorysystem.inventoryservice.service.ProductImportService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/inventory")
 @RequiredArgsConstructor
@@ -27,6 +38,7 @@ import java.util.List;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final ProductImportService productImportService;
 
     @Operation(summary = "Create a new category", description = "Creates a new product category")
     @ApiResponse(responseCode = "200", description = "Category created successfully")
@@ -46,6 +58,21 @@ public class InventoryController {
                 .map(ResponseEntity::ok);
     }
 
+    @Operation(summary = "Import products",
+            description = "Streams products from an NDJSON or CSV body (CSV needs a header with name, price, categoryId, "
+                    + "quantity and optionally description) and inserts them in batches")
+    @ApiResponse(responseCode = "200", description = "Running import summary, one line per batch and a final one with done=true")
+    @PostMapping(value = "/import",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ImportProgressResponse> importProducts(
+            ServerHttpRequest request,
+            @RequestBody @Parameter(description = "One product per line") Flux<String> lines) {
+        ProductImportService.ImportFormat format =
+                ProductImportService.ImportFormat.from(request.getHeaders().getContentType());
+        return productImportService.importProducts(lines, format);
+    }
+
     @Operation(summary = "Increase stock", description = "Increases the quantity of a product in inventory")
     @PutMapping("/{id}/increase")
     public Mono<ResponseEntity<ProductEntity>> increaseStock(
@@ -64,6 +91,40 @@ public class InventoryController {
                 .map(ResponseEntity::ok);
     }
 
+    @Operation(summary = "Reserve stock",
+            description = "Decreases stock for every item of an order in one transaction; all items are reserved or none is")
+    @ApiResponse(responseCode = "200", description = "Reservation processed; check 'reserved' for the outcome")
+    @ApiResponse(responseCode = "409", description = "A reservation with the same key is still being applied")
+    @PostMapping("/reservations")
+    public Mono<ResponseEntity<StockReservationResponse>> reserveStock(
+            @RequestBody @Valid @Parameter(description = "Items to reserve") StockReservationRequest request) {
+        return inventoryService.reserve(request.getItems(), request.getKey())
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Reserve stock for several orders",
+            description = "Processes independent reservations sent together; each one is all-or-nothing on its own")
+    @ApiResponse(responseCode = "200", description = "One reservation outcome per request entry, in the same order")
+    @PostMapping("/reservations/batch")
+    public Mono<ResponseEntity<BatchReservationResponse>> reserveStockBatch(
+            @RequestBody @Valid @Parameter(description = "Reservations to process") BatchReservationRequest request) {
+        return inventoryService.reserveBatch(request.getReservations())
+                .map(results -> ResponseEntity.ok(BatchReservationResponse.builder()
+                        .results(results)
+                        .build()));
+    }
+
+    @Operation(summary = "Apply stock compensations",
+            description = "Adds back stock reserved by orders that could not be completed. Each compensation is "
+                    + "applied once per key, so a batch can safely be sent again after a failure")
+    @ApiResponse(responseCode = "200", description = "One result per compensation, in the same order")
+    @PostMapping("/compensations/batch")
+    public Mono<ResponseEntity<CompensationBatchResponse>> applyCompensations(
+            @RequestBody @Valid @Parameter(description = "Compensations to apply") CompensationBatchRequest request) {
+        return inventoryService.applyCompensations(request.getCompensations())
+                .map(ResponseEntity::ok);
+    }
+
     @Operation(summary = "Get product by ID", description = "Retrieves a product by its ID")
     @GetMapping("/{id}")
     public Mono<ResponseEntity<ProductEntity>> getProductById(@PathVariable Long id) {
@@ -71,13 +132,27 @@ public class InventoryController {
                 .map(ResponseEntity::ok);
     }
 
-    @Operation(summary = "Get products by category ID", description = "Retrieves products that belong to a category")
+    @Operation(summary = "Get products by category ID",
+            description = "Retrieves one page of the products of a category, ordered by ID")
+    @ApiResponse(responseCode = "200", description = "Page of products; pass nextCursor as 'after' for the next one")
     @GetMapping("/category/{id}")
-    public Mono<ResponseEntity<List<ProductEntity>>> getByCategoryId(@PathVariable(name = "id") Long categoryId) {
-        return inventoryService.getByCategoryId(categoryId)
+    public Mono<ResponseEntity<ProductPageResponse>> getByCategoryId(
+            @PathVariable(name = "id") Long categoryId,
+            @RequestParam(required = false) @Parameter(description = "Cursor returned by the previous page") Long after,
+            @RequestParam(required = false) @Parameter(description = "Page size") Integer limit) {
+        return inventoryService.getByCategoryId(categoryId, after, limit)
                 .map(ResponseEntity::ok);
     }
 
+    @Operation(summary = "Stream products by category ID",
+            description = "Streams every product of a category as NDJSON, ordered by ID")
+    @GetMapping(value = "/category/{id}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductEntity> streamByCategoryId(
+            @PathVariable(name = "id") Long categoryId,
+            @RequestParam(required = false) @Parameter(description = "Only stream products with a greater ID") Long after) {
+        return inventoryService.streamByCategoryId(categoryId, after);
+    }
+
     @Operation(summary = "Validate stock", description = "Checks if sufficient stock is available for a product")
     @PostMapping("/validate-stock")
     public Mono<ResponseEntity<ValidateStockResponse>> validateStock(
@@ -0,0 +1,22 @@
+package org.inventorysystem.inventoryservice.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Independent stock reservations sent together, typically for several orders")
+public class BatchReservationRequest {
+
+    @NotEmpty(message = "Batch must contain at least one reservation")
+    @Valid
+    @Schema(description = "Reservations; each one is all-or-nothing on its own", required = true)
+    private List<StockReservationRequest> reservations;
+}
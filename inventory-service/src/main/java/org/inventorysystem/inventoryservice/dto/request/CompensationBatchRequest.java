@@ -0,0 +1,22 @@
+package org.inventorysystem.inventoryservice.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Stock compensations sent together, typically for orders that failed after reserving stock")
+public class CompensationBatchRequest {
+
+    @NotEmpty(message = "Batch must contain at least one compensation")
+    @Valid
+    @Schema(description = "Compensations to apply", required = true)
+    private List<CompensationRequest> compensations;
+}
@@ -0,0 +1,37 @@
+package org.inventorysystem.inventoryservice.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Stock to return to a product, identified by an idempotency key")
+public class CompensationRequest {
+
+    @NotBlank(message = "Compensation key must not be blank")
+    @Size(max = 64, message = "Compensation key must be at most 64 characters")
+    @Schema(description = "Idempotency key; a compensation is applied once however many times it is sent",
+            example = "7f1c2a9e-4b1d-4c62-9f0e-2d7b8e3a1c55", required = true)
+    private String key;
+
+    @NotNull(message = "Product ID must not be null")
+    @Schema(description = "Product ID", example = "1", required = true)
+    private Long productId;
+
+    @NotNull(message = "Quantity must not be null")
+    @Positive(message = "Quantity must be greater than zero")
+    @Schema(description = "Quantity to add back", example = "5", required = true)
+    private Integer quantity;
+
+    @Size(max = 64, message = "Reservation key must be at most 64 characters")
+    @Schema(description = "Key of the reservation that took the stock, if any; the stock is then only returned "
+            + "if that reservation was applied", example = "3b8e1f7a-2c4d-4e9b-8a1f-6d2c9e7b5a31")
+    private String reservationKey;
+}
@@ -1,6 +1,9 @@
 package org.inventorysystem.inventoryservice.dto.request;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,15 +14,21 @@ import lombok.NoArgsConstructor;
 @Schema(description = "Request to create a product")
 public class CreateProductRequest {
 
+    @NotBlank(message = "Name must not be blank")
     @Schema(description = "Name of the product", example = "Smartphone", required = true)
     private String name;
 
+    @NotNull(message = "Price must not be null")
+    @PositiveOrZero(message = "Price must not be negative")
     @Schema(description = "Price of the product", example = "999.99", required = true)
     private Double price;
 
+    @NotNull(message = "Category ID must not be null")
     @Schema(description = "ID of the category the product belongs to", example = "1", required = true)
     private Long categoryId;
 
+    @NotNull(message = "Quantity must not be null")
+    @PositiveOrZero(message = "Quantity must not be negative")
     @Schema(description = "Initial quantity in stock", example = "10", required = true)
     private Integer quantity;
 
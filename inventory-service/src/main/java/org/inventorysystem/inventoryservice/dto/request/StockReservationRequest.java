@@ -0,0 +1,28 @@
+package org.inventorysystem.inventoryservice.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request to reserve stock for every line of an order at once")
+public class StockReservationRequest {
+
+    @NotEmpty(message = "Reservation must contain at least one item")
+    @Valid
+    @Schema(description = "Items to reserve; either all of them are reserved or none is", required = true)
+    private List<StockValidationRequest> items;
+
+    @Size(max = 64, message = "Reservation key must be at most 64 characters")
+    @Schema(description = "Optional idempotency key; a reservation sent again with the same key is not applied twice",
+            example = "3b8e1f7a-2c4d-4e9b-8a1f-6d2c9e7b5a31")
+    private String key;
+}
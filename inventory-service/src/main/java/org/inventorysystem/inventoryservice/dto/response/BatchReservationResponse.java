@@ -0,0 +1,20 @@
+package org.inventorysystem.inventoryservice.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a batch of stock reservations")
+public class BatchReservationResponse {
+
+    @Schema(description = "One result per reservation, in request order")
+    private List<StockReservationResponse> results;
+}
@@ -0,0 +1,46 @@
+package org.inventorysystem.inventoryservice.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a batch of stock compensations")
+public class CompensationBatchResponse {
+
+    @Schema(description = "One result per compensation key, in request order")
+    private List<Result> results;
+
+    public enum Status {
+        APPLIED,
+        DUPLICATE,
+        NOT_FOUND,
+        NOT_RESERVED,
+        PENDING
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Result for a single compensation")
+    public static class Result {
+
+        @Schema(description = "Idempotency key of the compensation")
+        private String key;
+
+        @Schema(description = "Product ID", example = "1")
+        private Long productId;
+
+        @Schema(description = "APPLIED now, DUPLICATE if applied by an earlier request, NOT_FOUND if the product does not exist, "
+                + "NOT_RESERVED if its reservation never took the stock, PENDING if its reservation is still being applied")
+        private Status status;
+    }
+}
@@ -0,0 +1,46 @@
+package org.inventorysystem.inventoryservice.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Running summary of a bulk product import, emitted after every batch")
+public class ImportProgressResponse {
+
+    @Schema(description = "Non-empty data lines read so far", example = "1500")
+    private Long rowsRead;
+
+    @Schema(description = "Products inserted so far", example = "1497")
+    private Long imported;
+
+    @Schema(description = "Rows rejected so far", example = "3")
+    private Long rejected;
+
+    @Schema(description = "Rows rejected in the latest batch")
+    private List<RowError> errors;
+
+    @Schema(description = "True on the final summary, once the whole body has been processed")
+    private Boolean done;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "A rejected import row")
+    public static class RowError {
+
+        @Schema(description = "Line number in the request body, starting at 1", example = "42")
+        private Long line;
+
+        @Schema(description = "Why the row was rejected", example = "price: must be greater than or equal to 0")
+        private String reason;
+    }
+}
@@ -0,0 +1,61 @@
+package org.inventorysystem.inventoryservice.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of an all-or-nothing stock reservation")
+public class StockReservationResponse {
+
+    @Schema(description = "True if every item was reserved, false if the whole reservation was rejected")
+    private Boolean reserved;
+
+    @Schema(description = "Per-product results, ordered by product ID")
+    private List<LineResult> items;
+
+    @Schema(description = "Set on a reservation of a batch that could not be processed, whose outcome is therefore "
+            + "unknown: INV-0005 while an earlier request with its key is still being applied, INV-0006 on any other "
+            + "failure. The other reservations of the batch are not affected", example = "INV-0005")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+
+    public enum LineStatus {
+        RESERVED,
+        NOT_RESERVED,
+        INSUFFICIENT_STOCK,
+        NOT_FOUND
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Reservation result for a single product")
+    public static class LineResult {
+
+        @Schema(description = "Product ID", example = "1")
+        private Long productId;
+
+        @Schema(description = "Quantity requested for the product", example = "5")
+        private Integer requestedQuantity;
+
+        @Schema(description = "Remaining stock if reserved, otherwise the stock that was available", example = "10")
+        private Integer availableQuantity;
+
+        @Schema(description = "Line status")
+        private LineStatus status;
+
+        @Schema(description = "Product version after the reservation, carried by its inventory event; "
+                + "only set on lines reserved by this request", example = "42")
+        private Long version;
+    }
+}
@@ -0,0 +1,51 @@
+package org.inventorysystem.inventoryservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Event waiting to be relayed to Kafka. Rows are written in the same transaction
+ * as the change they describe and marked as sent once the broker acknowledges them.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("inventory_outbox")
+public class OutboxEntity {
+    @Id
+    private Long id;
+
+    private String topic;
+
+    @Column("message_key")
+    private String messageKey;
+
+    /**
+     * Event serialized as JSON.
+     */
+    private String payload;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @Column("sent_at")
+    private LocalDateTime sentAt;
+
+    public static OutboxEntity of(String topic, String messageKey, String payload) {
+        return OutboxEntity.builder()
+                .topic(topic)
+                .messageKey(messageKey)
+                .payload(payload)
+                .createdAt(LocalDateTime.now(ZoneOffset.UTC))
+                .build();
+    }
+}
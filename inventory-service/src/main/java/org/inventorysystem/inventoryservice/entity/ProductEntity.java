@@ -26,6 +26,12 @@ public class ProductEntity {
 
     private String description;
 
+    /**
+     * Incremented by every stock mutation and carried by the events describing it, so
+     * replicas can discard events older than the state they already hold.
+     */
+    private Long version;
+
     public static ProductEntity fromRequest(CreateProductRequest request) {
         return ProductEntity.builder()
                 .categoryId(request.getCategoryId())
@@ -33,6 +39,7 @@ public class ProductEntity {
                 .description(request.getDescription())
                 .name(request.getName())
                 .quantity(request.getQuantity())
+                .version(0L)
                 .build();
     }
 
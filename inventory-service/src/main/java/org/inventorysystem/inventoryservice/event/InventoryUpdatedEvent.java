@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.inventorysystem.inventoryservice.entity.CategoryEntity;
+import org.inventorysystem.inventoryservice.entity.ProductEntity;
 
 @Data
 @Builder
@@ -20,4 +22,19 @@ public class InventoryUpdatedEvent {
     private String categoryName;
     private InventoryEventType eventType;
     private Double price;
+    private Long version;
+
+    public static InventoryUpdatedEvent of(ProductEntity product, CategoryEntity category, InventoryEventType eventType) {
+        return InventoryUpdatedEvent.builder()
+                .categoryId(category.getId())
+                .categoryName(category.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .newQuantity(product.getQuantity())
+                .productName(product.getName())
+                .productId(product.getId())
+                .eventType(eventType)
+                .version(product.getVersion())
+                .build();
+    }
 }
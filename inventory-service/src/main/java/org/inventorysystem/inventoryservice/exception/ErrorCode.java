@@ -10,5 +10,8 @@ public class ErrorCode {
     public static final String INSUFFICIENT_STOCK_ERROR = BASE_CODE + "01";
     public static final String INVENTORY_NOT_FOUND_ERROR = BASE_CODE + "02";
     public static final String KAFKA_PUBLISH_ERROR = BASE_CODE + "03";
+    public static final String RESERVATION_REJECTED_ERROR = BASE_CODE + "04";
+    public static final String RESERVATION_IN_PROGRESS_ERROR = BASE_CODE + "05";
+    public static final String RESERVATION_FAILED_ERROR = BASE_CODE + "06";
 
 }
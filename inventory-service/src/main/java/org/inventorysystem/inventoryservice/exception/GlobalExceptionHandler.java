@@ -24,6 +24,11 @@ public class GlobalExceptionHandler {
         return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage()));
     }
 
+    @ExceptionHandler(ReservationInProgressException.class)
+    public Mono<ResponseEntity<String>> handleReservationInProgress(ReservationInProgressException ex) {
+        return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage()));
+    }
+
     @ExceptionHandler(ServerWebInputException.class)
     public Mono<ResponseEntity<String>> handleWebInputException(ServerWebInputException ex) {
         return Mono.just(ResponseEntity
@@ -0,0 +1,17 @@
+package org.inventorysystem.inventoryservice.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a reservation is sent again while the first request with its key is still being applied.
+ */
+@Getter
+public class ReservationInProgressException extends RuntimeException {
+
+    private final String errorCode;
+
+    public ReservationInProgressException(String reservationKey) {
+        super("Reservation " + reservationKey + " is still being applied");
+        this.errorCode = ErrorCode.RESERVATION_IN_PROGRESS_ERROR;
+    }
+}
@@ -0,0 +1,23 @@
+package org.inventorysystem.inventoryservice.exception;
+
+import lombok.Getter;
+import org.inventorysystem.inventoryservice.repository.StockMutationResult;
+
+import java.util.List;
+
+/**
+ * Signals that at least one line of a reservation could not be applied,
+ * so the surrounding transaction must be rolled back.
+ */
+@Getter
+public class StockReservationRejectedException extends RuntimeException {
+
+    private final String errorCode;
+    private final List<StockMutationResult> results;
+
+    public StockReservationRejectedException(List<StockMutationResult> results) {
+        super("Stock reservation rejected for " + results.size() + " product(s)");
+        this.errorCode = ErrorCode.RESERVATION_REJECTED_ERROR;
+        this.results = results;
+    }
+}
@@ -1,35 +1,95 @@
 package org.inventorysystem.inventoryservice.kafka;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.inventoryservice.config.EnvironmentConfig;
+import org.inventorysystem.inventoryservice.exception.KafkaPublishException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.inventorysystem.inventoryservice.exception.ErrorCode.KAFKA_PUBLISH_ERROR;
 
 /**
  * Centralized service to publish events to Kafka.
+ * <p>
+ * {@code send} may block while the producer fetches metadata or waits for buffer space,
+ * so it runs on a dedicated bounded scheduler instead of the Netty event loop. Once its
+ * queue is full, further sends fail fast instead of piling up, which pushes back on callers.
+ * Every send is timed per topic and outcome under {@value #SEND_TIMER}.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
-public class KafkaPublisherService {
+public class KafkaPublisherService implements DisposableBean {
+
+    public static final String SEND_TIMER = "inventory.kafka.send";
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final EnvironmentConfig.Retry retry;
+    private final Scheduler scheduler;
+
+    public KafkaPublisherService(KafkaTemplate<String, Object> kafkaTemplate,
+                                 MeterRegistry meterRegistry,
+                                 EnvironmentConfig environmentConfig) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.retry = environmentConfig.getRetry();
+        EnvironmentConfig.Producer producer = environmentConfig.getProducer();
+        this.scheduler = Schedulers.newBoundedElastic(
+                producer.getPublisherThreads(), producer.getPublisherQueueSize(), "kafka-publisher");
+    }
 
     /**
-     * Publishes an event to a Kafka topic.
+     * Publishes an event to a Kafka topic and waits for the broker acknowledgement.
+     * Failed sends are retried according to {@code app.kafka.retry}; rejected sends are not.
      *
      * @param topic The Kafka topic name.
      * @param key   The message key (optional, can be null).
      * @param event The event payload.
+     * @return Mono emitting the send result once acknowledged.
+     * @throws KafkaPublishException if the event could not be published.
      */
-    public void publish(String topic, String key, Object event) {
-        try {
-            kafkaTemplate.send(topic, key, event);
-            log.info("Published event to topic [{}], key: {}, payload: {}", topic, key, event);
-        } catch (Exception e) {
-            log.error(KAFKA_PUBLISH_ERROR + " - Failed to publish event to topic [{}]: {}", topic, e.getMessage(), e);
-        }
+    public Mono<SendResult<String, Object>> publish(String topic, String key, Object event) {
+        return Mono.defer(() -> send(topic, key, event))
+                .retryWhen(Retry.fixedDelay(retry.getMaxAttempts(), Duration.ofMillis(retry.getDelayMs()))
+                        .filter(e -> !(e instanceof RejectedExecutionException))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .publishOn(Schedulers.parallel())
+                .doOnSuccess(result -> log.debug("Published event to topic [{}], key: {}, partition: {}, offset: {}",
+                        topic, key, result.getRecordMetadata().partition(), result.getRecordMetadata().offset()))
+                .onErrorMap(e -> !(e instanceof KafkaPublishException),
+                        e -> new KafkaPublishException("Failed to publish event to topic [" + topic + "], key: " + key, e))
+                .doOnError(e -> log.error(KAFKA_PUBLISH_ERROR + " - Failed to publish event to topic [{}]: {}", topic, e.getMessage(), e));
+    }
+
+    private Mono<SendResult<String, Object>> send(String topic, String key, Object event) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return Mono.fromFuture(() -> kafkaTemplate.send(topic, key, event))
+                .subscribeOn(scheduler)
+                .doOnSuccess(result -> sample.stop(timer(topic, "success")))
+                .doOnError(e -> sample.stop(timer(topic, e instanceof RejectedExecutionException ? "rejected" : "error")));
+    }
+
+    private Timer timer(String topic, String outcome) {
+        return Timer.builder(SEND_TIMER)
+                .description("Time until a Kafka send is acknowledged")
+                .tag("topic", topic)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
     }
-}
\ No newline at end of file
+}
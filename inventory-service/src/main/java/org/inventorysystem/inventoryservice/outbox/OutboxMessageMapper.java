@@ -0,0 +1,31 @@
+package org.inventorysystem.inventoryservice.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.inventorysystem.inventoryservice.entity.OutboxEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serializes events into outbox rows.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxMessageMapper {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param topic The Kafka topic the event is relayed to.
+     * @param key   The message key; rows with the same key are relayed in order.
+     * @param event The event payload.
+     * @return the outbox row, not yet persisted.
+     */
+    public OutboxEntity toMessage(String topic, String key, Object event) {
+        try {
+            return OutboxEntity.of(topic, key, objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize event for topic [" + topic + "], key: " + key, e);
+        }
+    }
+}
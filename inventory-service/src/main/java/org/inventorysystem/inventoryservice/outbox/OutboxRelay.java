@@ -0,0 +1,179 @@
+package org.inventorysystem.inventoryservice.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.entity.OutboxEntity;
+import org.inventorysystem.inventoryservice.kafka.KafkaPublisherService;
+import org.inventorysystem.inventoryservice.repository.OutboxRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Relays outbox rows to Kafka in the background.
+ * <p>
+ * Each poll reads the oldest unsent rows, groups them by message key and publishes the groups in
+ * parallel. Rows sharing a key are published one after the other, and a failure stops the rest of
+ * its group, so events for a product always reach Kafka in the order they were written. Delivery is
+ * at least once: a crash between the acknowledgement and marking the row sent republishes it.
+ * <p>
+ * Publishes {@value #LAG_TIMER} (time from write to acknowledgement), {@value #SENT_COUNTER} and
+ * {@value #FAILED_COUNTER} per topic, and the {@value #PENDING_GAUGE} backlog.
+ */
+@Component
+@Slf4j
+public class OutboxRelay implements DisposableBean {
+
+    public static final String LAG_TIMER = "inventory.outbox.lag";
+    public static final String SENT_COUNTER = "inventory.outbox.sent";
+    public static final String FAILED_COUNTER = "inventory.outbox.failed";
+    public static final String PENDING_GAUGE = "inventory.outbox.pending";
+
+    private static final int PURGE_BATCH_SIZE = 5_000;
+
+    private final OutboxRepository outboxRepository;
+    private final KafkaPublisherService kafkaPublisherService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final InventoryConfig.Outbox config;
+    private final AtomicLong pending = new AtomicLong();
+
+    private Disposable relay;
+    private Disposable cleanup;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       KafkaPublisherService kafkaPublisherService,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       InventoryConfig inventoryConfig) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaPublisherService = kafkaPublisherService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.config = inventoryConfig.getOutbox();
+        Gauge.builder(PENDING_GAUGE, pending, AtomicLong::get)
+                .description("Outbox rows not yet acknowledged by Kafka")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isRelayEnabled()) {
+            log.info("Outbox relay disabled on this instance");
+            return;
+        }
+        relay = Flux.interval(Duration.ofMillis(config.getPollIntervalMs()))
+                .onBackpressureDrop()
+                .concatMap(tick -> drain()
+                        .onErrorResume(e -> {
+                            log.error("Outbox relay cycle failed", e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+        cleanup = Flux.interval(Duration.ofMillis(config.getCleanupIntervalMs()))
+                .onBackpressureDrop()
+                .concatMap(tick -> purge()
+                        .onErrorResume(e -> {
+                            log.error("Outbox cleanup failed", e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+        log.info("Outbox relay started, polling every {} ms", config.getPollIntervalMs());
+    }
+
+    /**
+     * Relays pending rows until the outbox is empty or a batch could not be fully published.
+     *
+     * @return Mono completing once the pending rows have been handled.
+     */
+    public Mono<Void> drain() {
+        return relayBatch()
+                .expand(sent -> sent == config.getBatchSize() ? relayBatch() : Mono.empty())
+                .then(outboxRepository.countBySentAtIsNull())
+                .doOnNext(pending::set)
+                .then();
+    }
+
+    /**
+     * @return Mono emitting the number of rows published and marked as sent.
+     */
+    private Mono<Integer> relayBatch() {
+        return outboxRepository.findPending(config.getBatchSize())
+                .collect(Collectors.groupingBy(OutboxEntity::getMessageKey, LinkedHashMap::new, Collectors.toList()))
+                .flatMap(byKey -> Flux.fromIterable(byKey.values())
+                        .flatMap(this::publishInOrder, config.getConcurrency())
+                        .collectList())
+                .flatMap(sentIds -> sentIds.isEmpty()
+                        ? Mono.just(0)
+                        : outboxRepository.markSent(sentIds, LocalDateTime.now(ZoneOffset.UTC)).thenReturn(sentIds.size()));
+    }
+
+    /**
+     * Publishes rows sharing a key one by one, stopping at the first failure.
+     *
+     * @return Flux emitting the IDs of the rows that were acknowledged.
+     */
+    private Flux<Long> publishInOrder(List<OutboxEntity> rows) {
+        return Flux.fromIterable(rows)
+                .concatMap(row -> publish(row).thenReturn(row.getId()))
+                .onErrorResume(e -> {
+                    log.warn("Stopped relaying key {} after a failed publish, retrying on next poll: {}",
+                            rows.get(0).getMessageKey(), e.getMessage());
+                    return Flux.empty();
+                });
+    }
+
+    private Mono<Void> publish(OutboxEntity row) {
+        return Mono.fromCallable(() -> objectMapper.readTree(row.getPayload()))
+                .flatMap(payload -> kafkaPublisherService.publish(row.getTopic(), row.getMessageKey(), payload))
+                .doOnSuccess(result -> {
+                    meterRegistry.counter(SENT_COUNTER, "topic", row.getTopic()).increment();
+                    Timer.builder(LAG_TIMER)
+                            .description("Time from writing an outbox row to its acknowledgement by Kafka")
+                            .tag("topic", row.getTopic())
+                            .register(meterRegistry)
+                            .record(Duration.between(row.getCreatedAt(), LocalDateTime.now(ZoneOffset.UTC)));
+                })
+                .doOnError(e -> meterRegistry.counter(FAILED_COUNTER, "topic", row.getTopic()).increment())
+                .then();
+    }
+
+    /**
+     * Deletes rows sent longer ago than the retention period.
+     */
+    private Mono<Integer> purge() {
+        LocalDateTime cutoff = LocalDateTime.now(ZoneOffset.UTC).minusHours(config.getRetentionHours());
+        return outboxRepository.deleteSentBefore(cutoff, PURGE_BATCH_SIZE)
+                .expand(deleted -> deleted == PURGE_BATCH_SIZE
+                        ? outboxRepository.deleteSentBefore(cutoff, PURGE_BATCH_SIZE)
+                        : Mono.empty())
+                .reduce(0, Integer::sum)
+                .doOnNext(deleted -> log.debug("Purged {} sent outbox row(s)", deleted));
+    }
+
+    @Override
+    public void destroy() {
+        if (relay != null) {
+            relay.dispose();
+        }
+        if (cleanup != null) {
+            cleanup.dispose();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.inventorysystem.inventoryservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.inventorysystem.inventoryservice.dto.request.CompensationRequest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the idempotency keys of the stock compensations that have been applied.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AppliedCompensationRepository {
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * @param keys Compensation keys to look up.
+     * @return Flux emitting the keys that were already applied.
+     */
+    public Flux<String> findApplied(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql("SELECT compensation_key FROM applied_compensations WHERE compensation_key IN (:keys)")
+                .bind("keys", keys)
+                .map(row -> row.get("compensation_key", String.class))
+                .all();
+    }
+
+    /**
+     * Records the compensations as applied in one INSERT. A key that was recorded concurrently
+     * fails the statement, so the caller's transaction is rolled back instead of applying it twice.
+     *
+     * @param compensations Compensations about to be applied.
+     * @param appliedAt     Time to record.
+     * @return Mono emitting the number of inserted rows.
+     */
+    public Mono<Long> insertAll(List<CompensationRequest> compensations, LocalDateTime appliedAt) {
+        if (compensations.isEmpty()) {
+            return Mono.just(0L);
+        }
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO applied_compensations (compensation_key, product_id, quantity, applied_at) VALUES ");
+        for (int i = 0; i < compensations.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:key").append(i)
+                    .append(", :productId").append(i)
+                    .append(", :quantity").append(i)
+                    .append(", :appliedAt)");
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                .bind("appliedAt", appliedAt);
+        for (int i = 0; i < compensations.size(); i++) {
+            CompensationRequest compensation = compensations.get(i);
+            spec = spec.bind("key" + i, compensation.getKey())
+                    .bind("productId" + i, compensation.getProductId())
+                    .bind("quantity" + i, compensation.getQuantity());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    /**
+     * Deletes up to {@code limit} compensations that were applied before the given instant.
+     *
+     * @param before Compensations applied before this time are deleted.
+     * @param limit  Maximum number of rows to delete.
+     * @return Mono emitting the number of deleted rows.
+     */
+    public Mono<Long> deleteAppliedBefore(LocalDateTime before, int limit) {
+        return databaseClient.sql("DELETE FROM applied_compensations WHERE applied_at < :before LIMIT :limit")
+                .bind("before", before)
+                .bind("limit", limit)
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -0,0 +1,47 @@
+package org.inventorysystem.inventoryservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.inventorysystem.inventoryservice.entity.OutboxEntity;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Inserts many outbox rows with a single multi-row statement.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxBatchRepository {
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * @param messages Outbox rows without IDs.
+     * @return Mono emitting the number of inserted rows.
+     */
+    public Mono<Long> insertAll(List<OutboxEntity> messages) {
+        if (messages.isEmpty()) {
+            return Mono.just(0L);
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO inventory_outbox (topic, message_key, payload, created_at) VALUES ");
+        for (int i = 0; i < messages.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:topic").append(i)
+                    .append(", :key").append(i)
+                    .append(", :payload").append(i)
+                    .append(", :createdAt").append(i).append(')');
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < messages.size(); i++) {
+            OutboxEntity message = messages.get(i);
+            spec = spec.bind("topic" + i, message.getTopic())
+                    .bind("key" + i, message.getMessageKey())
+                    .bind("payload" + i, message.getPayload())
+                    .bind("createdAt" + i, message.getCreatedAt());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+}
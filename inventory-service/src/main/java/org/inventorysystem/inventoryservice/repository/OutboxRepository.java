@@ -0,0 +1,35 @@
+package org.inventorysystem.inventoryservice.repository;
+
+import org.inventorysystem.inventoryservice.entity.OutboxEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface OutboxRepository extends ReactiveCrudRepository<OutboxEntity, Long> {
+
+    /**
+     * @return the oldest unsent rows, in insertion order.
+     */
+    @Query("SELECT * FROM inventory_outbox WHERE sent_at IS NULL ORDER BY id LIMIT :limit")
+    Flux<OutboxEntity> findPending(int limit);
+
+    Mono<Long> countBySentAtIsNull();
+
+    @Modifying
+    @Query("UPDATE inventory_outbox SET sent_at = :sentAt WHERE id IN (:ids)")
+    Mono<Integer> markSent(Collection<Long> ids, LocalDateTime sentAt);
+
+    /**
+     * Deletes up to {@code limit} rows that were sent before the given instant.
+     */
+    @Modifying
+    @Query("DELETE FROM inventory_outbox WHERE sent_at < :before LIMIT :limit")
+    Mono<Integer> deleteSentBefore(LocalDateTime before, int limit);
+}
@@ -0,0 +1,65 @@
+package org.inventorysystem.inventoryservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.inventorysystem.inventoryservice.entity.ProductEntity;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Inserts many products with a single multi-row statement.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductBatchRepository {
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Inserts the products in one INSERT and assigns their generated IDs.
+     * <p>
+     * A multi-row INSERT with an explicit row list is an InnoDB "simple insert": its auto-increment
+     * values are reserved at once and are consecutive, so the IDs are derived from the first one.
+     * This assumes {@code auto_increment_increment = 1}.
+     *
+     * @param products Products without IDs; they are updated in place.
+     * @return Mono emitting the same products with their IDs set.
+     */
+    public Mono<List<ProductEntity>> insertAll(List<ProductEntity> products) {
+        if (products.isEmpty()) {
+            return Mono.just(products);
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO products (name, price, category_id, quantity, description) VALUES ");
+        for (int i = 0; i < products.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:name").append(i)
+                    .append(", :price").append(i)
+                    .append(", :categoryId").append(i)
+                    .append(", :quantity").append(i)
+                    .append(", :description").append(i).append(')');
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                .filter(statement -> statement.returnGeneratedValues("id"));
+        for (int i = 0; i < products.size(); i++) {
+            ProductEntity product = products.get(i);
+            spec = spec.bind("name" + i, product.getName())
+                    .bind("price" + i, product.getPrice())
+                    .bind("categoryId" + i, product.getCategoryId())
+                    .bind("quantity" + i, product.getQuantity());
+            spec = product.getDescription() != null
+                    ? spec.bind("description" + i, product.getDescription())
+                    : spec.bindNull("description" + i, String.class);
+        }
+        return spec.map(row -> row.get("id", Long.class))
+                .first()
+                .map(firstId -> {
+                    for (int i = 0; i < products.size(); i++) {
+                        products.get(i).setId(firstId + i);
+                    }
+                    return products;
+                });
+    }
+}
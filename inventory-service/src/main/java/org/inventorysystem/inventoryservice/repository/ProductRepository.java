@@ -1,11 +1,23 @@
 package org.inventorysystem.inventoryservice.repository;
 
 import org.inventorysystem.inventoryservice.entity.ProductEntity;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 
 @Repository
 public interface ProductRepository extends ReactiveCrudRepository<ProductEntity, Long> {
-    Flux<ProductEntity> findByCategoryId(Long categoryId);
+
+    /**
+     * Reads one page of a category using the {@code (category_id, id)} index, so the
+     * cost of a page does not depend on how far into the category it is.
+     *
+     * @param categoryId The category ID.
+     * @param afterId    Only products with a greater ID are returned; 0 for the first page.
+     * @param limit      Maximum number of rows.
+     * @return Flux emitting the products ordered by ID.
+     */
+    @Query("SELECT * FROM products WHERE category_id = :categoryId AND id > :afterId ORDER BY id LIMIT :limit")
+    Flux<ProductEntity> findPageByCategoryId(Long categoryId, long afterId, int limit);
 }
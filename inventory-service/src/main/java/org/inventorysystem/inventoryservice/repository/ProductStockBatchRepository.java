@@ -0,0 +1,56 @@
+package org.inventorysystem.inventoryservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes accumulated stock deltas and versions for many products with a single statement.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductStockBatchRepository {
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Adds each delta to the matching product's quantity and raises its version in one UPDATE.
+     * Deltas are applied unconditionally; callers are expected to have validated them.
+     * Versions never go backwards, so a batch retried after a newer one cannot lower them.
+     *
+     * @param deltas   Quantity deltas by product ID; products missing here keep their quantity.
+     * @param versions Versions reached by the products, by product ID. Every product in
+     *                 {@code deltas} is expected to have one.
+     * @return Mono emitting the number of affected rows.
+     */
+    public Mono<Long> applyQuantityDeltas(Map<Long, Integer> deltas, Map<Long, Long> versions) {
+        if (versions.isEmpty()) {
+            return Mono.just(0L);
+        }
+        StringBuilder sql = new StringBuilder("UPDATE products SET quantity = quantity + CASE id");
+        for (int i = 0; i < versions.size(); i++) {
+            sql.append(" WHEN :id").append(i).append(" THEN :delta").append(i);
+        }
+        sql.append(" ELSE 0 END, version = GREATEST(version, CASE id");
+        for (int i = 0; i < versions.size(); i++) {
+            sql.append(" WHEN :id").append(i).append(" THEN :version").append(i);
+        }
+        sql.append(" ELSE version END) WHERE id IN (:ids)");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        List<Long> ids = new ArrayList<>(versions.keySet());
+        for (int i = 0; i < ids.size(); i++) {
+            spec = spec.bind("id" + i, ids.get(i))
+                    .bind("delta" + i, deltas.getOrDefault(ids.get(i), 0))
+                    .bind("version" + i, versions.get(ids.get(i)));
+        }
+        return spec.bind("ids", ids)
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -0,0 +1,69 @@
+package org.inventorysystem.inventoryservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.inventorysystem.inventoryservice.entity.ProductEntity;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Applies a stock delta to one product with a single statement that also returns the resulting stock.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductStockRepository {
+
+    /**
+     * MySQL has no UPDATE ... RETURNING, so the new version and quantity are packed into
+     * {@code LAST_INSERT_ID(expr)}. The server returns that value in the OK packet of the UPDATE itself,
+     * and the driver exposes it as a generated value. Assignments are evaluated left to right, so the
+     * expression sees the updated quantity. The version is stored from the high 32 bits.
+     */
+    private static final String APPLY_DELTA = "UPDATE products SET quantity = quantity + :delta, "
+            + "version = LAST_INSERT_ID(((version + 1) << 32) | quantity) >> 32 "
+            + "WHERE id = :id AND quantity + :delta >= 0";
+    private static final String STOCK = "stock";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Applies a quantity delta in a single conditional statement. The row is only touched when
+     * the resulting quantity stays non-negative, so concurrent mutations on the same product can
+     * neither lose updates nor oversell. Each applied delta also increments the product's version.
+     *
+     * @param id    The product ID.
+     * @param delta The change in quantity; must not be 0, since an UPDATE that changes nothing
+     *              reports no affected row.
+     * @return Mono emitting the resulting stock, or empty if the product is missing or the stock insufficient.
+     */
+    public Mono<StockLevel> applyQuantityDelta(Long id, int delta) {
+        return databaseClient.sql(APPLY_DELTA)
+                .bind("id", id)
+                .bind("delta", delta)
+                .filter(statement -> statement.returnGeneratedValues(STOCK))
+                .map(row -> row.get(STOCK, Long.class))
+                .first()
+                .filter(packed -> packed != 0)
+                .map(StockLevel::unpack);
+    }
+
+    /**
+     * Quantity and version of a product right after a mutation.
+     */
+    public record StockLevel(int quantity, long version) {
+
+        private static StockLevel unpack(long packed) {
+            return new StockLevel((int) (packed & 0xFFFFFFFFL), packed >>> 32);
+        }
+
+        /**
+         * @return a copy of the product carrying this quantity and version.
+         */
+        public ProductEntity applyTo(ProductEntity product) {
+            return product.toBuilder()
+                    .quantity(quantity)
+                    .version(version)
+                    .build();
+        }
+    }
+}
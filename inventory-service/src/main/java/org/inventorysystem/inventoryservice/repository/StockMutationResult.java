@@ -0,0 +1,47 @@
+package org.inventorysystem.inventoryservice.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.inventorysystem.inventoryservice.entity.ProductEntity;
+
+/**
+ * Outcome of a conditional stock mutation, carrying the product's state after it was applied
+ * or, if it was rejected, the state that rejected it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMutationResult {
+
+    public enum Status {
+        UPDATED,
+        NOT_FOUND,
+        INSUFFICIENT_STOCK
+    }
+
+    private Status status;
+    private Long productId;
+    private ProductEntity product;
+
+    public static StockMutationResult updated(ProductEntity product) {
+        return new StockMutationResult(Status.UPDATED, product.getId(), product);
+    }
+
+    public static StockMutationResult insufficient(ProductEntity product) {
+        return new StockMutationResult(Status.INSUFFICIENT_STOCK, product.getId(), product);
+    }
+
+    public static StockMutationResult notFound(Long productId) {
+        return new StockMutationResult(Status.NOT_FOUND, productId, null);
+    }
+
+    /**
+     * @return the quantity currently stored for the product, or null if it does not exist.
+     */
+    public Integer getQuantity() {
+        return product != null ? product.getQuantity() : null;
+    }
+}
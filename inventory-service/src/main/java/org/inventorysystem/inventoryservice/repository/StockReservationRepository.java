@@ -0,0 +1,148 @@
+package org.inventorysystem.inventoryservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the outcome of every reservation sent with a key, so a reservation sent again is not applied twice
+ * and a compensation only returns stock that its reservation actually took.
+ * <p>
+ * A key is claimed as PENDING before its decrements are applied and then completed as RESERVED or REJECTED.
+ * A compensation that arrives for a key that was never claimed leaves a CANCELLED tombstone, so the
+ * reservation is refused if it arrives late.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockReservationRepository {
+
+    public enum Status {
+        PENDING,
+        RESERVED,
+        REJECTED,
+        CANCELLED
+    }
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Records the key as PENDING unless it is already known.
+     *
+     * @param key Reservation key.
+     * @param now Time to record.
+     * @return Mono emitting true if this call claimed the key, false if it already existed.
+     */
+    public Mono<Boolean> claim(String key, LocalDateTime now) {
+        return databaseClient.sql("INSERT IGNORE INTO stock_reservations (reservation_key, status, created_at, updated_at) "
+                        + "VALUES (:key, :status, :now, :now)")
+                .bind("key", key)
+                .bind("status", Status.PENDING.name())
+                .bind("now", now)
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows > 0);
+    }
+
+    /**
+     * @param key Reservation key.
+     * @return Mono emitting the status of the key, or empty if it is unknown.
+     */
+    public Mono<Status> findStatus(String key) {
+        return databaseClient.sql("SELECT status FROM stock_reservations WHERE reservation_key = :key")
+                .bind("key", key)
+                .map(row -> Status.valueOf(row.get("status", String.class)))
+                .one();
+    }
+
+    /**
+     * Moves a PENDING key to its outcome.
+     *
+     * @param key    Reservation key.
+     * @param status RESERVED or REJECTED.
+     * @param now    Time to record.
+     * @return Mono emitting false if the key was no longer PENDING, because it was cancelled as abandoned.
+     */
+    public Mono<Boolean> complete(String key, Status status, LocalDateTime now) {
+        return databaseClient.sql("UPDATE stock_reservations SET status = :status, updated_at = :now "
+                        + "WHERE reservation_key = :key AND status = :pending")
+                .bind("key", key)
+                .bind("status", status.name())
+                .bind("now", now)
+                .bind("pending", Status.PENDING.name())
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows > 0);
+    }
+
+    /**
+     * Settles the keys named by compensations: unknown keys are recorded as CANCELLED, and so are keys
+     * still PENDING since before {@code pendingBefore}, whose reservation is taken as abandoned.
+     * Meant to run in the transaction that applies the compensations.
+     *
+     * @param keys          Reservation keys.
+     * @param now           Time to record.
+     * @param pendingBefore PENDING keys claimed before this time are cancelled.
+     * @return Mono emitting the resulting status of every key.
+     */
+    public Mono<Map<String, Status>> cancelUnreserved(Collection<String> keys, LocalDateTime now, LocalDateTime pendingBefore) {
+        if (keys.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        List<String> ordered = new ArrayList<>(keys);
+        StringBuilder sql = new StringBuilder(
+                "INSERT IGNORE INTO stock_reservations (reservation_key, status, created_at, updated_at) VALUES ");
+        for (int i = 0; i < ordered.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(:key").append(i).append(", :cancelled, :now, :now)");
+        }
+        DatabaseClient.GenericExecuteSpec tombstones = databaseClient.sql(sql.toString())
+                .bind("cancelled", Status.CANCELLED.name())
+                .bind("now", now);
+        for (int i = 0; i < ordered.size(); i++) {
+            tombstones = tombstones.bind("key" + i, ordered.get(i));
+        }
+
+        Mono<Long> abandoned = databaseClient.sql("UPDATE stock_reservations SET status = :cancelled, updated_at = :now "
+                        + "WHERE reservation_key IN (:keys) AND status = :pending AND created_at < :pendingBefore")
+                .bind("cancelled", Status.CANCELLED.name())
+                .bind("now", now)
+                .bind("keys", ordered)
+                .bind("pending", Status.PENDING.name())
+                .bind("pendingBefore", pendingBefore)
+                .fetch()
+                .rowsUpdated();
+
+        return tombstones.fetch().rowsUpdated()
+                .then(abandoned)
+                .thenMany(databaseClient.sql("SELECT reservation_key, status FROM stock_reservations "
+                                + "WHERE reservation_key IN (:keys)")
+                        .bind("keys", ordered)
+                        .map(row -> Map.entry(row.get("reservation_key", String.class),
+                                Status.valueOf(row.get("status", String.class))))
+                        .all())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    /**
+     * Deletes up to {@code limit} keys that were settled before the given instant. PENDING keys are kept.
+     *
+     * @param before Keys last updated before this time are deleted.
+     * @param limit  Maximum number of rows to delete.
+     * @return Mono emitting the number of deleted rows.
+     */
+    public Mono<Long> deleteSettledBefore(LocalDateTime before, int limit) {
+        return databaseClient.sql("DELETE FROM stock_reservations WHERE updated_at < :before AND status <> :pending LIMIT :limit")
+                .bind("before", before)
+                .bind("pending", Status.PENDING.name())
+                .bind("limit", limit)
+                .fetch()
+                .rowsUpdated();
+    }
+}
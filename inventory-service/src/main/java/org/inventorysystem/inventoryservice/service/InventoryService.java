@@ -2,9 +2,17 @@ package org.inventorysystem.inventoryservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.inventoryservice.cache.InventoryCache;
 import org.inventorysystem.inventoryservice.config.EnvironmentConfig;
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.dto.request.CompensationRequest;
 import org.inventorysystem.inventoryservice.dto.request.CreateCategoryRequest;
 import org.inventorysystem.inventoryservice.dto.request.CreateProductRequest;
+import org.inventorysystem.inventoryservice.dto.request.StockReservationRequest;
+import org.inventorysystem.inventoryservice.dto.request.StockValidationRequest;
+import org.inventorysystem.inventoryservice.dto.response.CompensationBatchResponse;
+import org.inventorysystem.inventoryservice.dto.response.ProductPageResponse;
+import org.inventorysystem.inventoryservice.dto.response.StockReservationResponse;
 import org.inventorysystem.inventoryservice.dto.response.ValidateStockResponse;
 import org.inventorysystem.inventoryservice.entity.CategoryEntity;
 import org.inventorysystem.inventoryservice.entity.ProductEntity;
@@ -13,19 +21,41 @@ import org.inventorysystem.inventoryservice.event.InventoryUpdatedEvent;
 import org.inventorysystem.inventoryservice.exception.ErrorCode;
 import org.inventorysystem.inventoryservice.exception.InsufficientStockException;
 import org.inventorysystem.inventoryservice.exception.InventoryNotFoundException;
-import org.inventorysystem.inventoryservice.exception.KafkaPublishException;
+import org.inventorysystem.inventoryservice.exception.ReservationInProgressException;
+import org.inventorysystem.inventoryservice.exception.StockReservationRejectedException;
 import org.inventorysystem.inventoryservice.event.CategoryCreatedEvent;
-import org.inventorysystem.inventoryservice.kafka.KafkaPublisherService;
+import org.inventorysystem.inventoryservice.outbox.OutboxMessageMapper;
+import org.inventorysystem.inventoryservice.repository.AppliedCompensationRepository;
 import org.inventorysystem.inventoryservice.repository.CategoryRepository;
+import org.inventorysystem.inventoryservice.repository.OutboxRepository;
 import org.inventorysystem.inventoryservice.repository.ProductRepository;
+import org.inventorysystem.inventoryservice.repository.StockMutationResult;
+import org.inventorysystem.inventoryservice.repository.StockReservationRepository;
+import org.inventorysystem.inventoryservice.service.mutation.StockEventFactory;
+import org.inventorysystem.inventoryservice.service.mutation.StockMutationStrategy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 /**
  * Service layer responsible for handling inventory operations including creation,
  * stock updates, validations, and publishing inventory changes to Kafka.
+ * Events are recorded in the outbox in the same transaction as the change they
+ * describe and relayed to Kafka by {@link org.inventorysystem.inventoryservice.outbox.OutboxRelay}.
  */
 @Service
 @RequiredArgsConstructor
@@ -34,44 +64,55 @@ public class InventoryService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
-    private final KafkaPublisherService kafkaPublisherService;
     private final EnvironmentConfig environmentConfig;
+    private final StockMutationStrategy stockMutationStrategy;
+    private final InventoryCache inventoryCache;
+    private final OutboxRepository outboxRepository;
+    private final OutboxMessageMapper outboxMessageMapper;
+    private final TransactionalOperator transactionalOperator;
+    private final InventoryConfig inventoryConfig;
+    private final AppliedCompensationRepository appliedCompensationRepository;
+    private final StockReservationRepository stockReservationRepository;
 
     /**
      * Handles the creation of a new product in the inventory.
-     * This method orchestrates the saving of the product entity
-     * and the subsequent publication of a creation event to Kafka.
+     * This method saves the product entity and records its creation
+     * event in the outbox within a single transaction.
      *
      * @param productRequest The request payload containing product details.
-     * @return Mono emitting the created ProductEntity after publishing the Kafka event.
+     * @return Mono emitting the created ProductEntity once the transaction commits.
      */
     public Mono<ProductEntity> create(CreateProductRequest productRequest) {
         log.info("Creating inventory item: {}", productRequest.getName());
-        return saveProduct(productRequest)
-                .flatMap(this::publishCreationEvent);
+        return transactionalOperator.transactional(saveProduct(productRequest)
+                        .flatMap(this::recordCreationEvent))
+                .doOnNext(inventoryCache::putProduct);
     }
 
     /**
      * Handles the creation of a new category in the inventory.
-     * This method orchestrates the saving of the category entity
-     * and the subsequent publication of a creation event to Kafka.
+     * This method saves the category entity and records its creation
+     * event in the outbox within a single transaction.
      *
      * @param categoryRequest The request payload containing category details.
-     * @return Mono emitting the created CategoryEntity after publishing the Kafka event.
+     * @return Mono emitting the created CategoryEntity once the transaction commits.
      */
     public Mono<CategoryEntity> createCategory(CreateCategoryRequest categoryRequest) {
         log.info("Creating category item: {}", categoryRequest.getName());
-        return categoryRepository.save(CategoryEntity.fromRequest(categoryRequest))
-                .doOnSuccess(saved -> {
+        Mono<CategoryEntity> creation = categoryRepository.save(CategoryEntity.fromRequest(categoryRequest))
+                .flatMap(saved -> {
                     CategoryCreatedEvent event = CategoryCreatedEvent.builder()
                             .categoryId(saved.getId())
                             .categoryName(saved.getName())
                             .build();
 
                     String topic = environmentConfig.getTopics().getNewCategory();
-                    kafkaPublisherService.publish(topic, String.valueOf(saved.getId()), event);
-                    log.info("Published category creation event for ID: {}", saved.getId());
-                })
+                    return outboxRepository.save(outboxMessageMapper.toMessage(topic, String.valueOf(saved.getId()), event))
+                            .doOnSuccess(message -> log.info("Recorded category creation event for ID: {}", saved.getId()))
+                            .thenReturn(saved);
+                });
+        return transactionalOperator.transactional(creation)
+                .doOnNext(inventoryCache::putCategory)
                 .doOnError(e -> log.error("Failed to create and publish category: {}", categoryRequest.getName(), e));
     }
 
@@ -88,36 +129,29 @@ public class InventoryService {
     }
 
     /**
-     * Publishes a Kafka event indicating that a new product has been created.
+     * Records an outbox event indicating that a new product has been created.
      * The event includes the product details and associated category information.
      *
-     * @param product The product entity for which the event is to be published.
-     * @return Mono emitting the original ProductEntity after event publication.
+     * @param product The product entity for which the event is to be recorded.
+     * @return Mono emitting the original ProductEntity after the event is recorded.
      */
-    private Mono<ProductEntity> publishCreationEvent(ProductEntity product) {
-        return categoryRepository.findById(product.getCategoryId())
-                .doOnNext(category -> {
-                    InventoryUpdatedEvent event = InventoryUpdatedEvent.builder()
-                            .categoryId(category.getId())
-                            .categoryName(category.getName())
-                            .description(product.getDescription())
-                            .price(product.getPrice())
-                            .newQuantity(product.getQuantity())
-                            .productName(product.getName())
-                            .productId(product.getId())
-                            .eventType(InventoryEventType.CREATED)
-                            .build();
+    private Mono<ProductEntity> recordCreationEvent(ProductEntity product) {
+        return inventoryCache.getCategory(product.getCategoryId())
+                .flatMap(category -> {
+                    InventoryUpdatedEvent event = InventoryUpdatedEvent.of(product, category, InventoryEventType.CREATED);
                     String topic = environmentConfig.getTopics().getNewInventory();
-                    kafkaPublisherService.publish(topic, String.valueOf(product.getId()), event);
-                    log.info("Published creation event for product ID: {}", product.getId());
+                    return outboxRepository.save(outboxMessageMapper.toMessage(topic, String.valueOf(product.getId()), event))
+                            .doOnSuccess(message -> log.info("Recorded creation event for product ID: {}", product.getId()));
                 })
-                .doOnError(e -> log.error("Failed to publish Kafka creation event for product ID: {}", product.getId(), e))
+                .doOnError(e -> log.error("Failed to record creation event for product ID: {}", product.getId(), e))
                 .thenReturn(product);
     }
 
     /**
      * Updates the quantity of an existing product by applying the delta value.
-     * Emits a Kafka event after a successful update.
+     * The change is applied atomically by the configured {@link StockMutationStrategy},
+     * so concurrent mutations on the same product are never lost and stock never goes negative.
+     * The update event is recorded in the outbox together with the mutation.
      *
      * @param id    The ID of the product to update.
      * @param delta The change in quantity (positive to increase, negative to decrease).
@@ -127,29 +161,301 @@ public class InventoryService {
      */
     public Mono<ProductEntity> updateQuantity(Long id, int delta) {
         log.info("Updating quantity for product ID: {} with delta: {}", id, delta);
-        return productRepository.findById(id)
-                .switchIfEmpty(Mono.defer(() -> {
-                    log.warn("{} - Product with ID {} not found for quantity update", ErrorCode.INVENTORY_NOT_FOUND_ERROR, id);
-                    return Mono.error(new InventoryNotFoundException(id));
-                }))
-                .flatMap(p -> {
-                    int newQty = p.getQuantity() + delta;
-                    if (newQty < 0) {
-                        log.warn("{} - Insufficient stock for product ID {}. Available: {}, Requested delta: {}",
-                                ErrorCode.INSUFFICIENT_STOCK_ERROR, id, p.getQuantity(), delta);
-                        return Mono.error(new InsufficientStockException(id, -delta, p.getQuantity()));
+        return stockUpdateEvents(List.of(id))
+                .flatMap(events -> stockMutationStrategy.apply(id, delta, events))
+                .flatMap(result -> toUpdatedProduct(result, delta))
+                .doOnSuccess(p -> log.info("Product quantity updated successfully for ID: {}", p.getId()))
+                .doOnError(e -> log.error("Error updating quantity for product ID: {}", id, e));
+    }
+
+    /**
+     * Translates the outcome of a conditional stock mutation into the updated product
+     * or the matching domain error.
+     *
+     * @param result The mutation outcome reported by the repository.
+     * @param delta  The delta that was requested.
+     * @return Mono emitting the updated product, or an error if the mutation was rejected.
+     */
+    private Mono<ProductEntity> toUpdatedProduct(StockMutationResult result, int delta) {
+        Long id = result.getProductId();
+        return switch (result.getStatus()) {
+            case UPDATED -> {
+                log.debug("New quantity for product ID {}: {}", id, result.getQuantity());
+                inventoryCache.putProduct(result.getProduct());
+                yield Mono.just(result.getProduct());
+            }
+            case NOT_FOUND -> {
+                log.warn("{} - Product with ID {} not found for quantity update", ErrorCode.INVENTORY_NOT_FOUND_ERROR, id);
+                yield Mono.error(new InventoryNotFoundException(id));
+            }
+            case INSUFFICIENT_STOCK -> {
+                log.warn("{} - Insufficient stock for product ID {}. Available: {}, Requested delta: {}",
+                        ErrorCode.INSUFFICIENT_STOCK_ERROR, id, result.getQuantity(), delta);
+                yield Mono.error(new InsufficientStockException(id, -delta, result.getQuantity()));
+            }
+        };
+    }
+
+    /**
+     * Reserves stock for every item of an order at once, without an idempotency key.
+     *
+     * @param items The items to reserve.
+     * @return Mono emitting the reservation outcome.
+     * @see #reserve(List, String)
+     */
+    public Mono<StockReservationResponse> reserve(List<StockValidationRequest> items) {
+        return reserve(items, null);
+    }
+
+    /**
+     * Reserves stock for every item of an order at once.
+     * Either all decrements are applied or none is; the response carries a
+     * result per product in both cases. Items for the same product are merged,
+     * and products are locked in ascending ID order so concurrent baskets that
+     * share SKUs cannot deadlock each other.
+     * <p>
+     * With a key, the reservation is applied at most once: a request sent again after its outcome
+     * was lost gets the recorded outcome back, without per-product quantities, and fails with
+     * {@link ReservationInProgressException} while the first request is still being applied. The key
+     * is completed in the transaction of the decrements, so a reservation cancelled as abandoned in
+     * the meantime is rolled back. With the SHARDED mutation mode the decrements are not part of that
+     * transaction and stay applied in that case.
+     *
+     * @param items          The items to reserve.
+     * @param reservationKey Idempotency key of the reservation, or null.
+     * @return Mono emitting the reservation outcome.
+     */
+    public Mono<StockReservationResponse> reserve(List<StockValidationRequest> items, String reservationKey) {
+        Map<Long, Integer> requested = new TreeMap<>();
+        items.forEach(item -> requested.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+        if (reservationKey == null) {
+            return applyReservation(requested, null);
+        }
+        return stockReservationRepository.claim(reservationKey, LocalDateTime.now())
+                .flatMap(claimed -> claimed
+                        ? applyReservation(requested, reservationKey)
+                        : replayReservation(reservationKey, requested));
+    }
+
+    private Mono<StockReservationResponse> applyReservation(Map<Long, Integer> requested, String reservationKey) {
+        log.info("Reserving stock for {} product(s)", requested.size());
+
+        Map<Long, Integer> decrements = new TreeMap<>();
+        requested.forEach((productId, quantity) -> decrements.put(productId, -quantity));
+
+        Mono<List<StockMutationResult>> applied = stockUpdateEvents(requested.keySet())
+                .flatMap(events -> stockMutationStrategy.applyAll(decrements, events));
+        if (reservationKey != null) {
+            applied = transactionalOperator.transactional(applied.flatMap(results -> stockReservationRepository
+                    .complete(reservationKey, StockReservationRepository.Status.RESERVED, LocalDateTime.now())
+                    .flatMap(completed -> completed
+                            ? Mono.just(results)
+                            : Mono.<List<StockMutationResult>>error(new StockReservationRejectedException(results)))));
+        }
+        return applied
+                .doOnNext(results -> results.forEach(r -> inventoryCache.putProduct(r.getProduct())))
+                .map(results -> toReservationResponse(true, results, requested))
+                .doOnSuccess(r -> log.info("Stock reserved for {} product(s)", requested.size()))
+                .onErrorResume(StockReservationRejectedException.class, e -> {
+                    log.warn("{} - {}", e.getErrorCode(), e.getMessage());
+                    Mono<Boolean> outcome = reservationKey != null
+                            ? stockReservationRepository.complete(reservationKey,
+                                    StockReservationRepository.Status.REJECTED, LocalDateTime.now())
+                            : Mono.just(true);
+                    return outcome.thenReturn(toReservationResponse(false, e.getResults(), requested));
+                });
+    }
+
+    /**
+     * Answers a reservation whose key was already claimed with the recorded outcome.
+     */
+    private Mono<StockReservationResponse> replayReservation(String reservationKey, Map<Long, Integer> requested) {
+        return stockReservationRepository.findStatus(reservationKey)
+                .flatMap(status -> {
+                    log.info("Reservation {} sent again, recorded as {}", reservationKey, status);
+                    return switch (status) {
+                        case PENDING -> Mono.<StockReservationResponse>error(new ReservationInProgressException(reservationKey));
+                        case RESERVED -> Mono.just(replayedResponse(true, requested));
+                        case REJECTED, CANCELLED -> Mono.just(replayedResponse(false, requested));
+                    };
+                });
+    }
+
+    private StockReservationResponse replayedResponse(boolean reserved, Map<Long, Integer> requested) {
+        StockReservationResponse.LineStatus status = reserved
+                ? StockReservationResponse.LineStatus.RESERVED
+                : StockReservationResponse.LineStatus.NOT_RESERVED;
+        return StockReservationResponse.builder()
+                .reserved(reserved)
+                .items(requested.entrySet().stream()
+                        .map(entry -> StockReservationResponse.LineResult.builder()
+                                .productId(entry.getKey())
+                                .requestedQuantity(entry.getValue())
+                                .status(status)
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    /**
+     * Processes several independent reservations received in one request, typically the
+     * orders that order-service coalesced over a short window. Each reservation is
+     * all-or-nothing on its own, so one rejected order does not affect the others.
+     * A reservation that fails, for instance because it is still being applied under its key,
+     * is reported with an error code in its own result instead of failing the batch.
+     *
+     * @param reservations The reservations, each with its items and optional key.
+     * @return Mono emitting one outcome per reservation, in request order.
+     */
+    public Mono<List<StockReservationResponse>> reserveBatch(List<StockReservationRequest> reservations) {
+        log.info("Processing batch of {} reservation(s)", reservations.size());
+        return Flux.fromIterable(reservations)
+                .flatMapSequential(reservation -> reserve(reservation.getItems(), reservation.getKey())
+                                .onErrorResume(error -> {
+                                    log.warn("Reservation {} of batch failed: {}", reservation.getKey(), error.getMessage());
+                                    return Mono.just(failedReservation(error));
+                                }),
+                        inventoryConfig.getReservationBatch().getConcurrency())
+                .collectList();
+    }
+
+    private static StockReservationResponse failedReservation(Throwable error) {
+        return StockReservationResponse.builder()
+                .reserved(false)
+                .items(List.of())
+                .error(error instanceof ReservationInProgressException
+                        ? ErrorCode.RESERVATION_IN_PROGRESS_ERROR
+                        : ErrorCode.RESERVATION_FAILED_ERROR)
+                .build();
+    }
+
+    /**
+     * Returns stock for compensations sent by order-service, applying each idempotency key once.
+     * Keys applied by an earlier request are reported as DUPLICATE and compensations for unknown
+     * products as NOT_FOUND. A compensation naming a reservation only returns stock if that
+     * reservation was applied: otherwise it is reported as NOT_RESERVED and the reservation is
+     * cancelled, or as PENDING while the reservation is still being applied. The remaining keys
+     * are recorded and their quantities added, merged per product, in one transaction, so a
+     * batch that fails can be sent again as a whole.
+     * With the SHARDED mutation mode the increments are written by the next shard flush instead.
+     *
+     * @param compensations The compensations to apply.
+     * @return Mono emitting one result per compensation, in request order.
+     */
+    public Mono<CompensationBatchResponse> applyCompensations(List<CompensationRequest> compensations) {
+        log.info("Applying batch of {} stock compensation(s)", compensations.size());
+        List<String> keys = compensations.stream().map(CompensationRequest::getKey).distinct().toList();
+        List<String> reservationKeys = compensations.stream()
+                .map(CompensationRequest::getReservationKey)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime pendingBefore = now.minus(Duration.ofMillis(inventoryConfig.getReservations().getPendingTimeoutMs()));
+        Mono<CompensationBatchResponse> application = stockReservationRepository
+                .cancelUnreserved(reservationKeys, now, pendingBefore)
+                .flatMap(reservations -> appliedCompensationRepository.findApplied(keys)
+                        .collect(Collectors.toSet())
+                        .zipWith(existingProductIds(compensations))
+                        .map(found -> Tuples.of(found.getT1(), found.getT2(), reservations)))
+                .flatMap(found -> {
+                    Set<String> applied = found.getT1();
+                    Set<Long> existing = found.getT2();
+                    Map<String, StockReservationRepository.Status> reservations = found.getT3();
+                    Map<String, CompensationRequest> toApply = new LinkedHashMap<>();
+                    List<CompensationBatchResponse.Result> results = new ArrayList<>();
+                    for (CompensationRequest compensation : compensations) {
+                        CompensationBatchResponse.Status status;
+                        StockReservationRepository.Status reservation = compensation.getReservationKey() != null
+                                ? reservations.get(compensation.getReservationKey())
+                                : StockReservationRepository.Status.RESERVED;
+                        if (applied.contains(compensation.getKey()) || toApply.containsKey(compensation.getKey())) {
+                            status = CompensationBatchResponse.Status.DUPLICATE;
+                        } else if (reservation == StockReservationRepository.Status.PENDING) {
+                            status = CompensationBatchResponse.Status.PENDING;
+                        } else if (reservation != StockReservationRepository.Status.RESERVED) {
+                            status = CompensationBatchResponse.Status.NOT_RESERVED;
+                        } else if (!existing.contains(compensation.getProductId())) {
+                            status = CompensationBatchResponse.Status.NOT_FOUND;
+                        } else {
+                            toApply.put(compensation.getKey(), compensation);
+                            status = CompensationBatchResponse.Status.APPLIED;
+                        }
+                        results.add(CompensationBatchResponse.Result.builder()
+                                .key(compensation.getKey())
+                                .productId(compensation.getProductId())
+                                .status(status)
+                                .build());
                     }
-                    p.setQuantity(newQty);
-                    log.debug("New quantity for product ID {}: {}", id, newQty);
-                    return productRepository.save(p);
+
+                    Map<Long, Integer> increments = new TreeMap<>();
+                    toApply.values().forEach(c -> increments.merge(c.getProductId(), c.getQuantity(), Integer::sum));
+                    return appliedCompensationRepository.insertAll(new ArrayList<>(toApply.values()), LocalDateTime.now())
+                            .then(increaseAll(increments))
+                            .doOnSuccess(v -> log.info("Applied {} of {} stock compensation(s) over {} product(s)",
+                                    toApply.size(), compensations.size(), increments.size()))
+                            .thenReturn(CompensationBatchResponse.builder()
+                                    .results(results)
+                                    .build());
+                });
+        return transactionalOperator.transactional(application);
+    }
+
+    private Mono<Set<Long>> existingProductIds(List<CompensationRequest> compensations) {
+        return Flux.fromIterable(compensations)
+                .map(CompensationRequest::getProductId)
+                .distinct()
+                .flatMap(inventoryCache::getProduct)
+                .map(ProductEntity::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private Mono<Void> increaseAll(Map<Long, Integer> increments) {
+        if (increments.isEmpty()) {
+            return Mono.empty();
+        }
+        return stockUpdateEvents(increments.keySet())
+                .flatMap(events -> stockMutationStrategy.applyAll(increments, events))
+                .doOnNext(results -> results.forEach(r -> inventoryCache.putProduct(r.getProduct())))
+                .then();
+    }
+
+    /**
+     * Builds the reservation response from the per-product mutation results.
+     * When the reservation was rolled back, lines that had been applied are
+     * reported as NOT_RESERVED with the quantity that was available before.
+     */
+    private StockReservationResponse toReservationResponse(boolean reserved,
+                                                           List<StockMutationResult> results,
+                                                           Map<Long, Integer> requested) {
+        List<StockReservationResponse.LineResult> lines = results.stream()
+                .map(r -> {
+                    int quantity = requested.get(r.getProductId());
+                    StockReservationResponse.LineResult.LineResultBuilder line = StockReservationResponse.LineResult.builder()
+                            .productId(r.getProductId())
+                            .requestedQuantity(quantity)
+                            .availableQuantity(r.getQuantity());
+                    return switch (r.getStatus()) {
+                        case UPDATED -> reserved
+                                ? line.status(StockReservationResponse.LineStatus.RESERVED)
+                                        .version(r.getProduct().getVersion())
+                                        .build()
+                                : line.status(StockReservationResponse.LineStatus.NOT_RESERVED)
+                                        .availableQuantity(r.getQuantity() + quantity)
+                                        .build();
+                        case INSUFFICIENT_STOCK -> line.status(StockReservationResponse.LineStatus.INSUFFICIENT_STOCK).build();
+                        case NOT_FOUND -> line.status(StockReservationResponse.LineStatus.NOT_FOUND).build();
+                    };
                 })
-                .doOnSuccess(p -> log.info("Product quantity updated successfully for ID: {}", p.getId()))
-                .doOnError(e -> log.error("Error updating quantity for product ID: {}", id, e))
-                .flatMap(productEntity -> sendUpdateEvent(productEntity, delta));
+                .toList();
+        return StockReservationResponse.builder()
+                .reserved(reserved)
+                .items(lines)
+                .build();
     }
 
     /**
-     * Retrieves a product by its ID.
+     * Retrieves a product by its ID, served from the product cache when present.
      *
      * @param id The ID of the product to retrieve.
      * @return Mono emitting the found product.
@@ -157,7 +463,7 @@ public class InventoryService {
      */
     public Mono<ProductEntity> getById(Long id) {
         log.debug("Fetching inventory item with ID: {}", id);
-        return productRepository.findById(id)
+        return inventoryCache.getProduct(id)
                 .switchIfEmpty(Mono.defer(() -> {
                     log.warn("Product with ID {} not found", id);
                     return Mono.error(new InventoryNotFoundException(id));
@@ -167,25 +473,76 @@ public class InventoryService {
     }
 
     /**
-     * Retrieves a list of products by its category ID.
+     * Retrieves one page of the products of a category, ordered by ID.
+     * Pages are addressed by the last ID seen rather than an offset, so every page
+     * costs the same and at most one page is held in memory.
      *
      * @param categoryId The ID of the category of the products to retrieve.
-     * @return Mono of List emitting the found product.
-     * @throws InventoryNotFoundException if the products are not found.
+     * @param after      The {@code nextCursor} of the previous page, or null for the first page.
+     * @param limit      The page size, or null for the default; capped at the configured maximum.
+     * @return Mono emitting the page and the cursor of the next one.
+     * @throws InventoryNotFoundException if the category has no products.
      */
-    public Mono<List<ProductEntity>> getByCategoryId(Long categoryId) {
-        log.debug("Fetching inventory item with category ID: {}", categoryId);
-        return productRepository.findByCategoryId(categoryId)
-                .switchIfEmpty(Mono.defer(() -> {
-                    log.warn("Product with category ID {} not found", categoryId);
-                    return Mono.error(new InventoryNotFoundException(categoryId));
-                }))
-                .doOnError(e -> log.error("Error fetching product with ID: {}", categoryId, e))
-                .collectList();
+    public Mono<ProductPageResponse> getByCategoryId(Long categoryId, Long after, Integer limit) {
+        log.debug("Fetching inventory page for category ID: {} after: {}", categoryId, after);
+        int pageSize = pageSize(limit);
+        return productRepository.findPageByCategoryId(categoryId, after == null ? 0 : after, pageSize + 1)
+                .collectList()
+                .flatMap(rows -> {
+                    if (rows.isEmpty() && after == null) {
+                        log.warn("Product with category ID {} not found", categoryId);
+                        return Mono.error(new InventoryNotFoundException(categoryId));
+                    }
+                    boolean hasMore = rows.size() > pageSize;
+                    List<ProductEntity> items = hasMore ? rows.subList(0, pageSize) : rows;
+                    return Mono.just(ProductPageResponse.builder()
+                            .items(items)
+                            .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                            .build());
+                })
+                .doOnError(e -> log.error("Error fetching products with category ID: {}", categoryId, e));
+    }
+
+    /**
+     * Streams every product of a category, ordered by ID. The category is read in
+     * keyset pages of the configured maximum size, one query at a time, so memory
+     * stays bounded by one page however large the category is.
+     *
+     * @param categoryId The ID of the category of the products to retrieve.
+     * @param after      Only products with a greater ID are streamed; null to start at the beginning.
+     * @return Flux emitting the products.
+     * @throws InventoryNotFoundException if the category has no products.
+     */
+    public Flux<ProductEntity> streamByCategoryId(Long categoryId, Long after) {
+        log.debug("Streaming inventory for category ID: {} after: {}", categoryId, after);
+        int pageSize = inventoryConfig.getListing().getMaxPageSize();
+        return fetchPage(categoryId, after == null ? 0 : after, pageSize)
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : fetchPage(categoryId, page.get(page.size() - 1).getId(), pageSize))
+                .flatMapIterable(page -> page)
+                .switchIfEmpty(Mono.defer(() -> after == null
+                        ? Mono.error(new InventoryNotFoundException(categoryId))
+                        : Mono.empty()))
+                .doOnError(e -> log.error("Error streaming products with category ID: {}", categoryId, e));
+    }
+
+    private Mono<List<ProductEntity>> fetchPage(Long categoryId, long afterId, int pageSize) {
+        return productRepository.findPageByCategoryId(categoryId, afterId, pageSize).collectList();
+    }
+
+    private int pageSize(Integer limit) {
+        InventoryConfig.Listing listing = inventoryConfig.getListing();
+        if (limit == null || limit <= 0) {
+            return listing.getDefaultPageSize();
+        }
+        return Math.min(limit, listing.getMaxPageSize());
     }
 
     /**
      * Validates if there is sufficient stock for a given product and quantity.
+     * The check reads the cached product, so it is advisory: the reservation itself
+     * is what guarantees the stock.
      *
      * @param productId         The product ID to validate.
      * @param requestedQuantity The quantity requested.
@@ -217,7 +574,7 @@ public class InventoryService {
      * @throws InventoryNotFoundException if the product is not found.
      */
     private Mono<ProductEntity> findProductOrFail(Long productId) {
-        return productRepository.findById(productId)
+        return inventoryCache.getProduct(productId)
                 .switchIfEmpty(Mono.defer(() -> {
                     log.warn("Product with ID {} not found for stock validation", productId);
                     return Mono.error(new InventoryNotFoundException(productId));
@@ -244,35 +601,44 @@ public class InventoryService {
     }
 
     /**
-     * Publishes an InventoryUpdatedEvent to Kafka based on the product's current state.
+     * Resolves the categories of the given products through the cache and returns a factory
+     * describing their stock changes as {@code inventory-updated} outbox messages.
+     * Products whose category cannot be resolved produce no message.
      *
-     * @param product The product for which the event will be published.
-     * @return Mono emitting the original product after publishing the event.
+     * @param productIds The products about to be mutated.
+     * @return Mono emitting the event factory to hand to the {@link StockMutationStrategy}.
      */
-    private Mono<ProductEntity> sendUpdateEvent(ProductEntity product, int delta) {
-        return categoryRepository.findById(product.getCategoryId())
-                .doOnNext(category -> {
-                    InventoryEventType eventType = delta > 0 ? InventoryEventType.STOCK_INCREASE
-                            : InventoryEventType.STOCK_DECREASE;
-                    InventoryUpdatedEvent event = InventoryUpdatedEvent.builder()
-                            .categoryId(category.getId())
-                            .categoryName(category.getName())
-                            .newQuantity(product.getQuantity())
-                            .price(product.getPrice())
-                            .description(product.getDescription())
-                            .productName(product.getName())
-                            .productId(product.getId())
-                            .eventType(eventType)
-                            .build();
+    private Mono<StockEventFactory> stockUpdateEvents(Collection<Long> productIds) {
+        String topic = environmentConfig.getTopics().getInventoryUpdated();
+        return Flux.fromIterable(productIds)
+                .flatMap(inventoryCache::getProduct)
+                .map(ProductEntity::getCategoryId)
+                .distinct()
+                .flatMap(inventoryCache::getCategory)
+                .collectMap(CategoryEntity::getId)
+                .<StockEventFactory>map(categories -> (result, delta) -> {
+                    ProductEntity product = result.getProduct();
+                    CategoryEntity category = categories.get(product.getCategoryId());
+                    if (category == null) {
+                        return null;
+                    }
+                    return outboxMessageMapper.toMessage(topic, String.valueOf(product.getId()),
+                            toUpdatedEvent(product, category, delta));
+                });
+    }
 
-                    String topic = environmentConfig.getTopics().getInventoryUpdated();
-                    kafkaPublisherService.publish(topic, String.valueOf(product.getId()), event);
-                })
-                .doOnError(e -> {
-                    log.error("Failed to publish Kafka event for product ID: {}", product.getId(), e);
-                    throw new KafkaPublishException("Error publishing Kafka event for product ID: " + product.getId(), e);
-                })
-                .thenReturn(product);
+    /**
+     * Builds the InventoryUpdatedEvent for a product's current state.
+     *
+     * @param product  The product after the stock change.
+     * @param category The product's category.
+     * @param delta    The applied delta.
+     * @return the event describing the change.
+     */
+    private InventoryUpdatedEvent toUpdatedEvent(ProductEntity product, CategoryEntity category, int delta) {
+        InventoryEventType eventType = delta > 0 ? InventoryEventType.STOCK_INCREASE
+                : InventoryEventType.STOCK_DECREASE;
+        return InventoryUpdatedEvent.of(product, category, eventType);
     }
 
 }
@@ -0,0 +1,315 @@
+package org.inventorysystem.inventoryservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.inventoryservice.cache.InventoryCache;
+import org.inventorysystem.inventoryservice.config.EnvironmentConfig;
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.dto.request.CreateProductRequest;
+import org.inventorysystem.inventoryservice.dto.response.ImportProgressResponse;
+import org.inventorysystem.inventoryservice.entity.CategoryEntity;
+import org.inventorysystem.inventoryservice.entity.OutboxEntity;
+import org.inventorysystem.inventoryservice.entity.ProductEntity;
+import org.inventorysystem.inventoryservice.event.InventoryEventType;
+import org.inventorysystem.inventoryservice.event.InventoryUpdatedEvent;
+import org.inventorysystem.inventoryservice.outbox.OutboxMessageMapper;
+import org.inventorysystem.inventoryservice.repository.OutboxBatchRepository;
+import org.inventorysystem.inventoryservice.repository.ProductBatchRepository;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports products from a streamed NDJSON or CSV body.
+ * <p>
+ * Rows are parsed and validated as they arrive and grouped into batches. Each batch is inserted
+ * with one multi-row INSERT, together with the matching {@code new-inventory} outbox rows, in a
+ * single transaction. Batches are processed one at a time, so at most one batch is held in memory
+ * and the request body is only read as fast as the database accepts rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportService {
+
+    public enum ImportFormat {
+        NDJSON,
+        CSV;
+
+        public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+        public static ImportFormat from(MediaType contentType) {
+            if (contentType != null && TEXT_CSV.isCompatibleWith(contentType)) {
+                return CSV;
+            }
+            return NDJSON;
+        }
+    }
+
+    private static final List<String> CSV_REQUIRED_COLUMNS = List.of("name", "price", "categoryid", "quantity");
+
+    private final ProductBatchRepository productBatchRepository;
+    private final OutboxBatchRepository outboxBatchRepository;
+    private final InventoryCache inventoryCache;
+    private final OutboxMessageMapper outboxMessageMapper;
+    private final TransactionalOperator transactionalOperator;
+    private final EnvironmentConfig environmentConfig;
+    private final InventoryConfig inventoryConfig;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Imports the products described by the given lines.
+     *
+     * @param lines  The request body, one row per line. For CSV, the first non-empty line is the header.
+     * @param format The body format.
+     * @return Flux emitting a cumulative summary after every batch and a final one with {@code done = true}.
+     */
+    public Flux<ImportProgressResponse> importProducts(Flux<String> lines, ImportFormat format) {
+        RowParser parser = format == ImportFormat.CSV ? new CsvRowParser() : this::parseJson;
+        AtomicReference<ImportProgressResponse> progress = new AtomicReference<>(ImportProgressResponse.builder()
+                .rowsRead(0L)
+                .imported(0L)
+                .rejected(0L)
+                .errors(List.of())
+                .done(false)
+                .build());
+        log.info("Starting {} product import", format);
+
+        return lines.index()
+                .filter(line -> !line.getT2().isBlank())
+                .map(line -> parser.parse(line.getT1() + 1, line.getT2()))
+                .filter(row -> row != ParsedRow.HEADER)
+                .buffer(inventoryConfig.getBulkImport().getBatchSize())
+                .concatMap(this::importBatch)
+                .map(batch -> progress.updateAndGet(current -> current.toBuilder()
+                        .rowsRead(current.getRowsRead() + batch.rows())
+                        .imported(current.getImported() + batch.imported())
+                        .rejected(current.getRejected() + batch.errors().size())
+                        .errors(batch.errors())
+                        .build()))
+                .concatWith(Mono.fromSupplier(() -> progress.get().toBuilder()
+                        .errors(List.of())
+                        .done(true)
+                        .build()))
+                .doOnComplete(() -> log.info("Product import finished: {} imported, {} rejected",
+                        progress.get().getImported(), progress.get().getRejected()));
+    }
+
+    /**
+     * Inserts the valid rows of a batch whose category exists and reports the rest as rejected.
+     */
+    private Mono<BatchResult> importBatch(List<ParsedRow> rows) {
+        List<ImportProgressResponse.RowError> errors = new ArrayList<>();
+        List<ParsedRow> valid = new ArrayList<>();
+        for (ParsedRow row : rows) {
+            if (row.error() != null) {
+                errors.add(rowError(row.line(), row.error()));
+            } else {
+                valid.add(row);
+            }
+        }
+
+        return Flux.fromIterable(valid)
+                .map(row -> row.request().getCategoryId())
+                .distinct()
+                .flatMap(inventoryCache::getCategory)
+                .collectMap(CategoryEntity::getId)
+                .flatMap(categories -> {
+                    List<ProductEntity> products = new ArrayList<>();
+                    List<ParsedRow> accepted = new ArrayList<>();
+                    for (ParsedRow row : valid) {
+                        if (categories.containsKey(row.request().getCategoryId())) {
+                            products.add(ProductEntity.fromRequest(row.request()));
+                            accepted.add(row);
+                        } else {
+                            errors.add(rowError(row.line(), "Unknown category ID: " + row.request().getCategoryId()));
+                        }
+                    }
+                    return insert(products, categories)
+                            .onErrorResume(e -> {
+                                log.error("Failed to import batch of {} product(s)", products.size(), e);
+                                accepted.forEach(row -> errors.add(rowError(row.line(), "Batch insert failed: " + e.getMessage())));
+                                return Mono.just(0);
+                            });
+                })
+                .map(imported -> {
+                    errors.sort(Comparator.comparing(ImportProgressResponse.RowError::getLine));
+                    return new BatchResult(rows.size(), imported, errors);
+                });
+    }
+
+    /**
+     * Inserts the products and their creation events in one transaction.
+     *
+     * @return Mono emitting the number of inserted products.
+     */
+    private Mono<Integer> insert(List<ProductEntity> products, Map<Long, CategoryEntity> categories) {
+        if (products.isEmpty()) {
+            return Mono.just(0);
+        }
+        String topic = environmentConfig.getTopics().getNewInventory();
+        Mono<Integer> write = productBatchRepository.insertAll(products)
+                .flatMap(saved -> {
+                    List<OutboxEntity> messages = saved.stream()
+                            .map(product -> outboxMessageMapper.toMessage(topic, String.valueOf(product.getId()),
+                                    InventoryUpdatedEvent.of(product, categories.get(product.getCategoryId()), InventoryEventType.CREATED)))
+                            .toList();
+                    return outboxBatchRepository.insertAll(messages).thenReturn(saved.size());
+                });
+        return transactionalOperator.transactional(write);
+    }
+
+    private ParsedRow parseJson(long line, String text) {
+        try {
+            return validate(line, objectMapper.readValue(text, CreateProductRequest.class));
+        } catch (JsonProcessingException e) {
+            return ParsedRow.rejected(line, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private ParsedRow validate(long line, CreateProductRequest request) {
+        String violations = validator.validate(request).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        return violations.isEmpty() ? new ParsedRow(line, request, null) : ParsedRow.rejected(line, violations);
+    }
+
+    private static ImportProgressResponse.RowError rowError(long line, String reason) {
+        return ImportProgressResponse.RowError.builder()
+                .line(line)
+                .reason(reason)
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        ParsedRow parse(long line, String text);
+    }
+
+    private record ParsedRow(long line, CreateProductRequest request, String error) {
+
+        private static final ParsedRow HEADER = new ParsedRow(0, null, null);
+
+        private static ParsedRow rejected(long line, String error) {
+            return new ParsedRow(line, null, error);
+        }
+    }
+
+    private record BatchResult(int rows, int imported, List<ImportProgressResponse.RowError> errors) {
+    }
+
+    /**
+     * Parses CSV rows whose columns are named by the first line. Column names are matched
+     * case-insensitively, ignoring underscores, so both {@code categoryId} and {@code category_id} work.
+     * Fields may be quoted; a quoted field cannot span lines.
+     */
+    private final class CsvRowParser implements RowParser {
+
+        private Map<String, Integer> columns;
+
+        @Override
+        public ParsedRow parse(long line, String text) {
+            if (columns == null) {
+                columns = readHeader(text);
+                return ParsedRow.HEADER;
+            }
+            try {
+                List<String> fields = split(text);
+                CreateProductRequest request = new CreateProductRequest(
+                        field(fields, "name"),
+                        number(field(fields, "price"), "price", Double::valueOf),
+                        number(field(fields, "categoryid"), "categoryId", Long::valueOf),
+                        number(field(fields, "quantity"), "quantity", Integer::valueOf),
+                        field(fields, "description"));
+                return validate(line, request);
+            } catch (IllegalArgumentException e) {
+                return ParsedRow.rejected(line, e.getMessage());
+            }
+        }
+
+        private Map<String, Integer> readHeader(String text) {
+            Map<String, Integer> header = new HashMap<>();
+            List<String> names = split(text);
+            for (int i = 0; i < names.size(); i++) {
+                header.put(names.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+            }
+            List<String> missing = CSV_REQUIRED_COLUMNS.stream()
+                    .filter(column -> !header.containsKey(column))
+                    .toList();
+            if (!missing.isEmpty()) {
+                throw new ServerWebInputException("CSV header is missing column(s): " + missing);
+            }
+            return header;
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private <T> T number(String value, String column, Function<String, T> parser) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return parser.apply(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number in column " + column + ": " + value);
+            }
+        }
+
+        private List<String> split(String text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.inventorysystem.inventoryservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.repository.AppliedCompensationRepository;
+import org.inventorysystem.inventoryservice.repository.StockReservationRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Deletes settled reservation keys and applied compensation keys once they are older than the
+ * retention period, so both tables stay bounded. PENDING reservations are kept whatever their age.
+ */
+@Component
+@Slf4j
+public class ReservationCleanup implements DisposableBean {
+
+    private static final int PURGE_BATCH_SIZE = 5_000;
+
+    private final StockReservationRepository stockReservationRepository;
+    private final AppliedCompensationRepository appliedCompensationRepository;
+    private final InventoryConfig.Reservations config;
+
+    private Disposable cleanup;
+
+    public ReservationCleanup(StockReservationRepository stockReservationRepository,
+                              AppliedCompensationRepository appliedCompensationRepository,
+                              InventoryConfig inventoryConfig) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.appliedCompensationRepository = appliedCompensationRepository;
+        this.config = inventoryConfig.getReservations();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        cleanup = Flux.interval(Duration.ofMillis(config.getCleanupIntervalMs()))
+                .onBackpressureDrop()
+                .concatMap(tick -> purge()
+                        .onErrorResume(e -> {
+                            log.error("Reservation cleanup failed", e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    /**
+     * Deletes the reservation and compensation keys older than the retention period.
+     *
+     * @return Mono completing once both tables have been purged.
+     */
+    public Mono<Void> purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(config.getRetentionHours());
+        return purge(limit -> stockReservationRepository.deleteSettledBefore(cutoff, limit))
+                .doOnNext(deleted -> log.debug("Purged {} settled reservation key(s)", deleted))
+                .then(purge(limit -> appliedCompensationRepository.deleteAppliedBefore(cutoff, limit)))
+                .doOnNext(deleted -> log.debug("Purged {} applied compensation key(s)", deleted))
+                .then();
+    }
+
+    private Mono<Long> purge(Function<Integer, Mono<Long>> deleteBatch) {
+        return deleteBatch.apply(PURGE_BATCH_SIZE)
+                .expand(deleted -> deleted == PURGE_BATCH_SIZE ? deleteBatch.apply(PURGE_BATCH_SIZE) : Mono.empty())
+                .reduce(0L, Long::sum);
+    }
+
+    @Override
+    public void destroy() {
+        if (cleanup != null) {
+            cleanup.dispose();
+        }
+    }
+}
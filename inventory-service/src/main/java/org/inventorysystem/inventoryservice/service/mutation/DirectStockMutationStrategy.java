@@ -0,0 +1,87 @@
+package org.inventorysystem.inventoryservice.service.mutation;
+
+import lombok.RequiredArgsConstructor;
+import org.inventorysystem.inventoryservice.cache.InventoryCache;
+import org.inventorysystem.inventoryservice.entity.OutboxEntity;
+import org.inventorysystem.inventoryservice.exception.StockReservationRejectedException;
+import org.inventorysystem.inventoryservice.repository.OutboxRepository;
+import org.inventorysystem.inventoryservice.repository.ProductRepository;
+import org.inventorysystem.inventoryservice.repository.ProductStockRepository;
+import org.inventorysystem.inventoryservice.repository.StockMutationResult;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Applies every stock mutation as a conditional UPDATE against the database, which also returns
+ * the resulting quantity and version; the other product fields come from the {@link InventoryCache}.
+ * Multi-product mutations run in one transaction that is rolled back if any delta is rejected.
+ * Outbox messages are inserted in the transaction of the mutation they describe.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.inventory", name = "mutation-mode", havingValue = "DIRECT", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DirectStockMutationStrategy implements StockMutationStrategy {
+
+    private final ProductRepository productRepository;
+    private final ProductStockRepository productStockRepository;
+    private final InventoryCache inventoryCache;
+    private final OutboxRepository outboxRepository;
+    private final TransactionalOperator transactionalOperator;
+
+    @Override
+    public Mono<StockMutationResult> apply(Long productId, int delta, StockEventFactory events) {
+        if (events == StockEventFactory.NONE) {
+            return mutate(productId, delta);
+        }
+        Mono<StockMutationResult> mutation = mutate(productId, delta)
+                .flatMap(result -> result.getStatus() == StockMutationResult.Status.UPDATED
+                        ? record(List.of(result), Map.of(productId, delta), events).thenReturn(result)
+                        : Mono.just(result));
+        return transactionalOperator.transactional(mutation);
+    }
+
+    @Override
+    public Mono<List<StockMutationResult>> applyAll(Map<Long, Integer> deltas, StockEventFactory events) {
+        Mono<List<StockMutationResult>> mutations = Flux.fromIterable(deltas.entrySet())
+                .concatMap(entry -> mutate(entry.getKey(), entry.getValue()))
+                .collectList()
+                .flatMap(results -> StockMutationStrategy.allUpdated(results)
+                        ? record(results, deltas, events).thenReturn(results)
+                        : Mono.error(new StockReservationRejectedException(results)));
+        return transactionalOperator.transactional(mutations);
+    }
+
+    /**
+     * Applies one delta in a single round trip. The row is only read when there is nothing to write,
+     * or when the delta was rejected, to tell a missing product from insufficient stock.
+     */
+    private Mono<StockMutationResult> mutate(Long productId, int delta) {
+        if (delta == 0) {
+            return productRepository.findById(productId)
+                    .map(StockMutationResult::updated)
+                    .defaultIfEmpty(StockMutationResult.notFound(productId));
+        }
+        return productStockRepository.applyQuantityDelta(productId, delta)
+                .flatMap(stock -> inventoryCache.getProduct(productId)
+                        .map(product -> StockMutationResult.updated(stock.applyTo(product))))
+                .switchIfEmpty(Mono.defer(() -> productRepository.findById(productId)
+                        .map(StockMutationResult::insufficient)
+                        .defaultIfEmpty(StockMutationResult.notFound(productId))));
+    }
+
+    private Mono<Void> record(List<StockMutationResult> results, Map<Long, Integer> deltas, StockEventFactory events) {
+        List<OutboxEntity> messages = results.stream()
+                .filter(result -> deltas.get(result.getProductId()) != 0)
+                .map(result -> events.create(result, deltas.get(result.getProductId())))
+                .filter(Objects::nonNull)
+                .toList();
+        return messages.isEmpty() ? Mono.empty() : outboxRepository.saveAll(messages).then();
+    }
+}
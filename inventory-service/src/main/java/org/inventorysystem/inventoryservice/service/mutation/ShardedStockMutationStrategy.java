@@ -0,0 +1,281 @@
+package org.inventorysystem.inventoryservice.service.mutation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.entity.OutboxEntity;
+import org.inventorysystem.inventoryservice.entity.ProductEntity;
+import org.inventorysystem.inventoryservice.exception.StockReservationRejectedException;
+import org.inventorysystem.inventoryservice.repository.OutboxRepository;
+import org.inventorysystem.inventoryservice.repository.ProductRepository;
+import org.inventorysystem.inventoryservice.repository.ProductStockBatchRepository;
+import org.inventorysystem.inventoryservice.repository.StockMutationResult;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes every mutation for a product to a fixed single-threaded shard, chosen by hashing the product ID.
+ * Each shard owns the authoritative quantity of its products in memory, so it accepts or rejects a delta
+ * without touching the database and without contending for row locks. Accepted deltas are accumulated
+ * per product and group-committed to {@code products} every flush interval or once a batch fills up.
+ * Outbox messages for the accepted deltas are inserted in the same transaction as the batch that
+ * carries them. Each accepted delta increments the product's version in memory, and the batch raises
+ * the stored versions to match, so the events of a product keep increasing across flushes and restarts.
+ * Products left untouched for {@code app.inventory.shards.idle-evict-ms} after their deltas were committed
+ * are dropped from memory and loaded again on their next mutation.
+ * <p>
+ * The in-memory quantities are only authoritative if this instance is the single writer of {@code products}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.inventory", name = "mutation-mode", havingValue = "SHARDED")
+@Slf4j
+public class ShardedStockMutationStrategy implements StockMutationStrategy, DisposableBean {
+
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ProductRepository productRepository;
+    private final ProductStockBatchRepository batchRepository;
+    private final OutboxRepository outboxRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final int batchSize;
+    private final Shard[] shards;
+
+    public ShardedStockMutationStrategy(ProductRepository productRepository,
+                                        ProductStockBatchRepository batchRepository,
+                                        OutboxRepository outboxRepository,
+                                        TransactionalOperator transactionalOperator,
+                                        InventoryConfig inventoryConfig) {
+        this.productRepository = productRepository;
+        this.batchRepository = batchRepository;
+        this.outboxRepository = outboxRepository;
+        this.transactionalOperator = transactionalOperator;
+        InventoryConfig.Shards config = inventoryConfig.getShards();
+        this.batchSize = config.getBatchSize();
+        this.shards = new Shard[config.getCount()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i, config.getFlushIntervalMs(), config.getIdleEvictMs());
+        }
+        log.info("Sharded stock mutations enabled with {} shards", shards.length);
+    }
+
+    @Override
+    public Mono<StockMutationResult> apply(Long productId, int delta, StockEventFactory events) {
+        Shard shard = shardFor(productId);
+        return Mono.fromCallable(() -> shard.tryApply(productId, delta, events))
+                .subscribeOn(shard.scheduler)
+                // Subscribed on the shard thread once tryApply completes empty
+                .switchIfEmpty(Mono.defer(() -> {
+                    shard.loading++;
+                    return productRepository.findById(productId)
+                            .publishOn(shard.scheduler)
+                            .map(product -> shard.loadAndApply(product, delta, events))
+                            .defaultIfEmpty(StockMutationResult.notFound(productId))
+                            .doFinally(signal -> shard.scheduler.schedule(() -> shard.loading--));
+                }));
+    }
+
+    /**
+     * Applies the deltas one by one on their shards. If any of them is rejected,
+     * the ones already applied are reverted before failing. Both the applied and the
+     * reverting deltas are recorded as events, so consumers converge on the restored quantity.
+     */
+    @Override
+    public Mono<List<StockMutationResult>> applyAll(Map<Long, Integer> deltas, StockEventFactory events) {
+        return Flux.fromIterable(deltas.entrySet())
+                .concatMap(entry -> apply(entry.getKey(), entry.getValue(), events))
+                .collectList()
+                .flatMap(results -> {
+                    if (StockMutationStrategy.allUpdated(results)) {
+                        return Mono.just(results);
+                    }
+                    return Flux.fromIterable(results)
+                            .filter(r -> r.getStatus() == StockMutationResult.Status.UPDATED)
+                            .concatMap(r -> apply(r.getProductId(), -deltas.get(r.getProductId()), events))
+                            .then(Mono.error(new StockReservationRejectedException(results)));
+                });
+    }
+
+    /**
+     * Writes every delta and outbox message accumulated so far, regardless of the flush interval.
+     *
+     * @return Mono completing once the pending deltas are committed.
+     */
+    public Mono<Void> flushAll() {
+        return Flux.fromArray(shards)
+                .concatMap(shard -> Mono.fromCallable(shard::drain).subscribeOn(shard.scheduler))
+                .filter(batch -> !batch.isEmpty())
+                .concatMap(this::commit)
+                .then();
+    }
+
+    /**
+     * Drops the products that have not been mutated for the given time and whose deltas are all
+     * committed, regardless of the eviction interval.
+     *
+     * @param idleFor Minimum time since the last mutation of an evicted product.
+     * @return Mono completing once every shard has been swept.
+     */
+    public Mono<Void> evictIdle(Duration idleFor) {
+        return Flux.fromArray(shards)
+                .concatMap(shard -> Mono.fromRunnable(() -> shard.evictIdle(idleFor.toNanos())).subscribeOn(shard.scheduler))
+                .then();
+    }
+
+    /**
+     * Writes a batch of deltas and the outbox messages describing them in one transaction.
+     */
+    private Mono<Void> commit(Batch batch) {
+        Mono<Void> write = batchRepository.applyQuantityDeltas(batch.deltas(), batch.versions())
+                .doOnNext(rows -> log.debug("Committed stock deltas for {} product(s)", rows))
+                .then(batch.messages().isEmpty()
+                        ? Mono.empty()
+                        : outboxRepository.saveAll(batch.messages()).then());
+        return transactionalOperator.transactional(write);
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            flushAll().block(SHUTDOWN_FLUSH_TIMEOUT);
+        } catch (Exception e) {
+            log.error("Failed to flush pending stock deltas on shutdown", e);
+        }
+        for (Shard shard : shards) {
+            shard.scheduler.dispose();
+        }
+    }
+
+    private Shard shardFor(Long productId) {
+        return shards[Math.floorMod(Long.hashCode(productId), shards.length)];
+    }
+
+    private record Batch(Map<Long, Integer> deltas, Map<Long, Long> versions, List<OutboxEntity> messages) {
+
+        private boolean isEmpty() {
+            return versions.isEmpty() && messages.isEmpty();
+        }
+    }
+
+    /**
+     * Mailbox owning a subset of products. All state is only touched from its single thread.
+     */
+    private final class Shard {
+
+        private final Scheduler scheduler;
+        private final Map<Long, ProductEntity> products = new HashMap<>();
+        private final Map<Long, Long> touchedAt = new HashMap<>();
+        private Map<Long, Integer> pending = new HashMap<>();
+        private Map<Long, Long> versions = new HashMap<>();
+        private List<OutboxEntity> outbox = new ArrayList<>();
+        private boolean flushing;
+        /**
+         * Product reads in flight; a product is only evicted while there are none, so a row read
+         * before a commit cannot be loaded back after the product was dropped.
+         */
+        private int loading;
+
+        private Shard(int index, long flushIntervalMs, long idleEvictMs) {
+            this.scheduler = Schedulers.newSingle("stock-shard-" + index);
+            scheduler.schedulePeriodically(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+            long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleEvictMs);
+            scheduler.schedulePeriodically(() -> evictIdle(idleNanos), idleEvictMs, idleEvictMs, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * @return the mutation outcome, or null if the product is not loaded in this shard yet.
+         */
+        private StockMutationResult tryApply(Long productId, int delta, StockEventFactory events) {
+            ProductEntity product = products.get(productId);
+            if (product == null) {
+                return null;
+            }
+            int newQuantity = product.getQuantity() + delta;
+            if (newQuantity < 0) {
+                return StockMutationResult.insufficient(product.toBuilder().build());
+            }
+            product.setQuantity(newQuantity);
+            product.setVersion(product.getVersion() + 1);
+            touchedAt.put(productId, System.nanoTime());
+            pending.merge(productId, delta, (a, b) -> a + b == 0 ? null : a + b);
+            versions.put(productId, product.getVersion());
+            StockMutationResult result = StockMutationResult.updated(product.toBuilder().build());
+            OutboxEntity message = events.create(result, delta);
+            if (message != null) {
+                outbox.add(message);
+            }
+            if (versions.size() >= batchSize || outbox.size() >= batchSize) {
+                flush();
+            }
+            return result;
+        }
+
+        private StockMutationResult loadAndApply(ProductEntity loaded, int delta, StockEventFactory events) {
+            if (products.putIfAbsent(loaded.getId(), loaded) == null) {
+                touchedAt.put(loaded.getId(), System.nanoTime());
+            }
+            return tryApply(loaded.getId(), delta, events);
+        }
+
+        /**
+         * Drops products idle for at least the given time. Skipped while a batch or a product read is
+         * in flight; otherwise every product without pending deltas matches the database.
+         */
+        private void evictIdle(long idleNanos) {
+            if (flushing || loading > 0) {
+                return;
+            }
+            long now = System.nanoTime();
+            touchedAt.entrySet().removeIf(entry -> {
+                boolean idle = now - entry.getValue() >= idleNanos && !versions.containsKey(entry.getKey());
+                if (idle) {
+                    products.remove(entry.getKey());
+                }
+                return idle;
+            });
+        }
+
+        private Batch drain() {
+            Batch batch = new Batch(pending, versions, outbox);
+            pending = new HashMap<>();
+            versions = new HashMap<>();
+            outbox = new ArrayList<>();
+            return batch;
+        }
+
+        /**
+         * Group-commits the accumulated deltas and outbox messages. Only one write per shard is in
+         * flight at a time; a failed batch is merged back ahead of the pending state and retried on
+         * the next flush.
+         */
+        private void flush() {
+            if (flushing || (versions.isEmpty() && outbox.isEmpty())) {
+                return;
+            }
+            Batch batch = drain();
+            flushing = true;
+            commit(batch)
+                    .subscribe(
+                            null,
+                            e -> scheduler.schedule(() -> {
+                                log.error("Failed to commit stock deltas for {} product(s), retrying", batch.versions().size(), e);
+                                batch.deltas().forEach((id, delta) -> pending.merge(id, delta, (a, b) -> a + b == 0 ? null : a + b));
+                                batch.versions().forEach((id, version) -> versions.merge(id, version, Math::max));
+                                outbox.addAll(0, batch.messages());
+                                flushing = false;
+                            }),
+                            () -> scheduler.schedule(() -> flushing = false));
+        }
+    }
+}
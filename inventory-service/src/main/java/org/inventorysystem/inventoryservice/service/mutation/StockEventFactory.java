@@ -0,0 +1,22 @@
+package org.inventorysystem.inventoryservice.service.mutation;
+
+import org.inventorysystem.inventoryservice.entity.OutboxEntity;
+import org.inventorysystem.inventoryservice.repository.StockMutationResult;
+
+/**
+ * Describes an applied stock mutation as an outbox message, so that a
+ * {@link StockMutationStrategy} can persist it atomically with the mutation.
+ * Implementations must not block or perform I/O.
+ */
+@FunctionalInterface
+public interface StockEventFactory {
+
+    StockEventFactory NONE = (result, delta) -> null;
+
+    /**
+     * @param result The applied mutation, with the product's resulting state.
+     * @param delta  The applied delta.
+     * @return the message to record, or null if none should be.
+     */
+    OutboxEntity create(StockMutationResult result, int delta);
+}
@@ -0,0 +1,50 @@
+package org.inventorysystem.inventoryservice.service.mutation;
+
+import org.inventorysystem.inventoryservice.exception.StockReservationRejectedException;
+import org.inventorysystem.inventoryservice.repository.StockMutationResult;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies stock deltas to products. The active implementation is selected
+ * through {@code app.inventory.mutation-mode}.
+ * <p>
+ * Outbox messages produced by the given {@link StockEventFactory} are persisted in
+ * the same database write as the mutation they describe.
+ */
+public interface StockMutationStrategy {
+
+    /**
+     * Applies a single delta to a product.
+     *
+     * @param productId The product ID.
+     * @param delta     The change in quantity (positive to increase, negative to decrease).
+     * @param events    Describes the mutation if it is applied.
+     * @return Mono emitting the mutation outcome.
+     */
+    Mono<StockMutationResult> apply(Long productId, int delta, StockEventFactory events);
+
+    default Mono<StockMutationResult> apply(Long productId, int delta) {
+        return apply(productId, delta, StockEventFactory.NONE);
+    }
+
+    /**
+     * Applies every delta or none of them.
+     *
+     * @param deltas Deltas by product ID, applied in iteration order.
+     * @param events Describes each applied mutation.
+     * @return Mono emitting one result per product if all deltas were applied,
+     * or failing with {@link StockReservationRejectedException} carrying every result otherwise.
+     */
+    Mono<List<StockMutationResult>> applyAll(Map<Long, Integer> deltas, StockEventFactory events);
+
+    default Mono<List<StockMutationResult>> applyAll(Map<Long, Integer> deltas) {
+        return applyAll(deltas, StockEventFactory.NONE);
+    }
+
+    static boolean allUpdated(List<StockMutationResult> results) {
+        return results.stream().allMatch(r -> r.getStatus() == StockMutationResult.Status.UPDATED);
+    }
+}
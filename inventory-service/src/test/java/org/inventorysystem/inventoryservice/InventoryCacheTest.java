@@ -0,0 +1,88 @@
+package org.inventorysystem.inventoryservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.inventorysystem.inventoryservice.cache.InventoryCache;
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.entity.CategoryEntity;
+import org.inventorysystem.inventoryservice.entity.ProductEntity;
+import org.inventorysystem.inventoryservice.repository.CategoryRepository;
+import org.inventorysystem.inventoryservice.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryCache inventoryCache;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        inventoryCache = new InventoryCache(productRepository, categoryRepository, new InventoryConfig(), meterRegistry);
+    }
+
+    @Test
+    void getCategory_shouldLoadOnceAndCountHitsAndMisses() {
+        when(categoryRepository.findById(2L)).thenReturn(Mono.just(new CategoryEntity(2L, "Mechanical")));
+
+        StepVerifier.create(inventoryCache.getCategory(2L).then(inventoryCache.getCategory(2L)))
+                .expectNextMatches(c -> c.getName().equals("Mechanical"))
+                .verifyComplete();
+
+        verify(categoryRepository, times(1)).findById(2L);
+        assertThat(inventoryCache.categoryStats().hitCount()).isEqualTo(1);
+        assertThat(inventoryCache.categoryStats().missCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", InventoryCache.CATEGORIES).tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void getProduct_missing_shouldNotBeCached() {
+        when(productRepository.findById(1L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(inventoryCache.getProduct(1L).then(inventoryCache.getProduct(1L)))
+                .verifyComplete();
+
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void putProduct_shouldReplaceEntryWithoutSharingInstances() {
+        ProductEntity product = ProductEntity.builder().id(1L).name("Seiko").quantity(4).build();
+        inventoryCache.putProduct(product);
+        product.setQuantity(0);
+
+        StepVerifier.create(inventoryCache.getProduct(1L))
+                .expectNextMatches(p -> p.getQuantity() == 4)
+                .verifyComplete();
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void invalidateProduct_shouldReloadFromDatabase() {
+        ProductEntity product = ProductEntity.builder().id(1L).name("Seiko").quantity(4).build();
+        inventoryCache.putProduct(product);
+        inventoryCache.invalidateProduct(1L);
+        when(productRepository.findById(1L)).thenReturn(Mono.just(product.toBuilder().quantity(9).build()));
+
+        StepVerifier.create(inventoryCache.getProduct(1L))
+                .expectNextMatches(p -> p.getQuantity() == 9)
+                .verifyComplete();
+    }
+}
@@ -1,33 +1,53 @@
 package org.inventorysystem.inventoryservice;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.inventorysystem.inventoryservice.cache.InventoryCache;
 import org.inventorysystem.inventoryservice.config.EnvironmentConfig;
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.dto.request.CompensationRequest;
 import org.inventorysystem.inventoryservice.dto.request.CreateCategoryRequest;
 import org.inventorysystem.inventoryservice.dto.request.CreateProductRequest;
+import org.inventorysystem.inventoryservice.dto.request.StockReservationRequest;
+import org.inventorysystem.inventoryservice.dto.request.StockValidationRequest;
+import org.inventorysystem.inventoryservice.dto.response.CompensationBatchResponse;
+import org.inventorysystem.inventoryservice.dto.response.StockReservationResponse;
 import org.inventorysystem.inventoryservice.dto.response.ValidateStockResponse;
 import org.inventorysystem.inventoryservice.entity.CategoryEntity;
+import org.inventorysystem.inventoryservice.entity.OutboxEntity;
 import org.inventorysystem.inventoryservice.entity.ProductEntity;
-import org.inventorysystem.inventoryservice.event.InventoryUpdatedEvent;
 import org.inventorysystem.inventoryservice.exception.InsufficientStockException;
 import org.inventorysystem.inventoryservice.exception.InventoryNotFoundException;
-import org.inventorysystem.inventoryservice.event.CategoryCreatedEvent;
-import org.inventorysystem.inventoryservice.kafka.KafkaPublisherService;
+import org.inventorysystem.inventoryservice.exception.ErrorCode;
+import org.inventorysystem.inventoryservice.exception.ReservationInProgressException;
+import org.inventorysystem.inventoryservice.outbox.OutboxMessageMapper;
+import org.inventorysystem.inventoryservice.repository.AppliedCompensationRepository;
 import org.inventorysystem.inventoryservice.repository.CategoryRepository;
+import org.inventorysystem.inventoryservice.repository.OutboxRepository;
 import org.inventorysystem.inventoryservice.repository.ProductRepository;
+import org.inventorysystem.inventoryservice.repository.ProductStockRepository;
+import org.inventorysystem.inventoryservice.repository.StockReservationRepository;
 import org.inventorysystem.inventoryservice.service.InventoryService;
+import org.inventorysystem.inventoryservice.service.mutation.DirectStockMutationStrategy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,11 +60,25 @@ class InventoryServiceTest {
     private CategoryRepository categoryRepository;
 
     @Mock
-    private KafkaPublisherService kafkaPublisherService;
+    private ProductStockRepository productStockRepository;
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Mock
+    private AppliedCompensationRepository appliedCompensationRepository;
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
 
     @InjectMocks
     private InventoryService inventoryService;
 
+    private InventoryConfig inventoryConfig;
+
     @BeforeEach
     void setup() {
         EnvironmentConfig.Topics topics = new EnvironmentConfig.Topics();
@@ -55,43 +89,64 @@ class InventoryServiceTest {
         EnvironmentConfig realConfig = new EnvironmentConfig();
         realConfig.setTopics(topics);
 
+        inventoryConfig = new InventoryConfig();
+        inventoryConfig.getListing().setDefaultPageSize(2);
+        inventoryConfig.getListing().setMaxPageSize(3);
+
+        lenient().when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        InventoryCache inventoryCache = new InventoryCache(productRepository, categoryRepository, inventoryConfig, new SimpleMeterRegistry());
         inventoryService = new InventoryService(
                 productRepository,
                 categoryRepository,
-                kafkaPublisherService,
-                realConfig
+                realConfig,
+                new DirectStockMutationStrategy(productRepository, productStockRepository, inventoryCache,
+                        outboxRepository, transactionalOperator),
+                inventoryCache,
+                outboxRepository,
+                new OutboxMessageMapper(new ObjectMapper()),
+                transactionalOperator,
+                inventoryConfig,
+                appliedCompensationRepository,
+                stockReservationRepository
         );
     }
 
     @Test
-    void testCreateProduct_shouldPublishToKafka() {
+    void testCreateProduct_shouldRecordEventInTransaction() {
         CreateProductRequest request = new CreateProductRequest("Product A", 99.99, 1L, 5, "Test product");
         ProductEntity savedProduct = ProductEntity.fromRequest(request);
         savedProduct.setId(100L);
 
         when(productRepository.save(any())).thenReturn(Mono.just(savedProduct));
         when(categoryRepository.findById(1L)).thenReturn(Mono.just(new CategoryEntity(1L, "Category A")));
+        when(outboxRepository.save(any())).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
 
         StepVerifier.create(inventoryService.create(request))
                 .expectNext(savedProduct)
                 .verifyComplete();
 
-        verify(productRepository).save(any());
-        verify(kafkaPublisherService).publish(eq("new-inventory-topic"), eq("100"), any(InventoryUpdatedEvent.class));
+        ArgumentCaptor<OutboxEntity> message = ArgumentCaptor.forClass(OutboxEntity.class);
+        verify(outboxRepository).save(message.capture());
+        assertThat(message.getValue().getTopic()).isEqualTo("new-inventory-topic");
+        assertThat(message.getValue().getMessageKey()).isEqualTo("100");
+        assertThat(message.getValue().getPayload()).contains("\"eventType\":\"CREATED\"", "\"categoryName\":\"Category A\"");
+        verify(transactionalOperator).transactional(any(Mono.class));
     }
 
     @Test
-    void testCreateCategory_shouldSaveAndPublish() {
+    void testCreateCategory_shouldSaveAndRecordEvent() {
         CreateCategoryRequest request = new CreateCategoryRequest("Luxury");
         CategoryEntity saved = new CategoryEntity(10L, "Luxury");
 
         when(categoryRepository.save(any())).thenReturn(Mono.just(saved));
+        when(outboxRepository.save(any())).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
 
         StepVerifier.create(inventoryService.createCategory(request))
                 .expectNext(saved)
                 .verifyComplete();
 
-        verify(kafkaPublisherService).publish(eq("new-category-topic"), eq("10"), any(CategoryCreatedEvent.class));
+        verify(outboxRepository).save(argThat(m -> m.getTopic().equals("new-category-topic") && m.getMessageKey().equals("10")));
     }
 
     @Test
@@ -100,19 +155,65 @@ class InventoryServiceTest {
                 .id(1L)
                 .name("Test Watch")
                 .categoryId(2L)
-                .quantity(5)
+                .quantity(8)
                 .price(100.0)
                 .build();
 
         when(productRepository.findById(1L)).thenReturn(Mono.just(product));
-        when(productRepository.save(any())).thenReturn(Mono.just(product));
+        when(productStockRepository.applyQuantityDelta(1L, 3)).thenReturn(stockOf(product));
         when(categoryRepository.findById(2L)).thenReturn(Mono.just(new CategoryEntity(2L, "Mechanical")));
+        when(outboxRepository.saveAll(anyList())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
 
         StepVerifier.create(inventoryService.updateQuantity(1L, 3))
                 .expectNextMatches(updated -> updated.getQuantity() == 8)
                 .verifyComplete();
 
-        verify(kafkaPublisherService).publish(eq("inventory-updated-topic"), eq("1"), any(InventoryUpdatedEvent.class));
+        verify(outboxRepository).saveAll(argThat((List<OutboxEntity> messages) -> messages.size() == 1
+                && messages.get(0).getTopic().equals("inventory-updated-topic")
+                && messages.get(0).getMessageKey().equals("1")
+                && messages.get(0).getPayload().contains("\"eventType\":\"STOCK_INCREASE\"")));
+    }
+
+    @Test
+    void testUpdateQuantity_shouldRefreshCacheAndReuseCategory() {
+        ProductEntity product = ProductEntity.builder()
+                .id(1L)
+                .name("Test Watch")
+                .categoryId(2L)
+                .quantity(8)
+                .build();
+        ProductEntity updated = product.toBuilder().quantity(6).build();
+
+        when(productRepository.findById(1L)).thenReturn(Mono.just(product));
+        when(productStockRepository.applyQuantityDelta(1L, 3)).thenReturn(stockOf(product));
+        when(productStockRepository.applyQuantityDelta(1L, -2)).thenReturn(stockOf(updated));
+        when(categoryRepository.findById(2L)).thenReturn(Mono.just(new CategoryEntity(2L, "Mechanical")));
+        when(outboxRepository.saveAll(anyList())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
+
+        StepVerifier.create(inventoryService.updateQuantity(1L, 3).then(inventoryService.updateQuantity(1L, -2)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(inventoryService.getById(1L))
+                .expectNextMatches(p -> p.getQuantity() == 6)
+                .verifyComplete();
+
+        verify(categoryRepository, times(1)).findById(2L);
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testUpdateQuantity_outboxWriteFails_shouldFail() {
+        ProductEntity product = ProductEntity.builder().id(1L).categoryId(2L).quantity(8).build();
+
+        when(productRepository.findById(1L)).thenReturn(Mono.just(product));
+        when(productStockRepository.applyQuantityDelta(1L, 3)).thenReturn(stockOf(product));
+        when(categoryRepository.findById(2L)).thenReturn(Mono.just(new CategoryEntity(2L, "Mechanical")));
+        when(outboxRepository.saveAll(anyList())).thenReturn(Flux.error(new IllegalStateException("connection lost")));
+
+        StepVerifier.create(inventoryService.updateQuantity(1L, 3))
+                .expectError(IllegalStateException.class)
+                .verify();
     }
 
     @Test
@@ -125,21 +226,41 @@ class InventoryServiceTest {
                 .build();
 
         when(productRepository.findById(1L)).thenReturn(Mono.just(product));
+        when(categoryRepository.findById(2L)).thenReturn(Mono.just(new CategoryEntity(2L, "Mechanical")));
+        when(productStockRepository.applyQuantityDelta(1L, -5)).thenReturn(Mono.empty());
 
         StepVerifier.create(inventoryService.updateQuantity(1L, -5))
                 .expectError(InsufficientStockException.class)
                 .verify();
+
+        verify(productRepository, never()).save(any());
+        verifyNoInteractions(outboxRepository);
     }
 
     @Test
     void testUpdateQuantity_productNotFound_shouldFail() {
         when(productRepository.findById(1L)).thenReturn(Mono.empty());
+        when(productStockRepository.applyQuantityDelta(1L, 1)).thenReturn(Mono.empty());
 
         StepVerifier.create(inventoryService.updateQuantity(1L, 1))
                 .expectError(InventoryNotFoundException.class)
                 .verify();
     }
 
+    @Test
+    void testUpdateQuantity_zeroDelta_shouldReturnCurrentProductWithoutWriting() {
+        ProductEntity product = ProductEntity.builder().id(1L).name("Test Watch").categoryId(2L).quantity(8).build();
+
+        when(productRepository.findById(1L)).thenReturn(Mono.just(product));
+        when(categoryRepository.findById(2L)).thenReturn(Mono.just(new CategoryEntity(2L, "Mechanical")));
+
+        StepVerifier.create(inventoryService.updateQuantity(1L, 0))
+                .expectNextMatches(updated -> updated.getQuantity() == 8)
+                .verifyComplete();
+
+        verifyNoInteractions(productStockRepository, outboxRepository);
+    }
+
     @Test
     void testValidateStock_sufficient() {
         ProductEntity product = ProductEntity.builder()
@@ -185,6 +306,23 @@ class InventoryServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void testGetById_shouldReadDatabaseOnlyOnce() {
+        ProductEntity product = ProductEntity.builder()
+                .id(1L)
+                .name("Rolex Submariner")
+                .quantity(3)
+                .build();
+
+        when(productRepository.findById(1L)).thenReturn(Mono.just(product));
+
+        StepVerifier.create(inventoryService.getById(1L).then(inventoryService.getById(1L)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(productRepository, times(1)).findById(1L);
+    }
+
     @Test
     void testGetById_notFound_shouldThrow() {
         when(productRepository.findById(1L)).thenReturn(Mono.empty());
@@ -195,28 +333,302 @@ class InventoryServiceTest {
     }
 
     @Test
-    void testGetByCategoryId_shouldReturnList() {
-        List<ProductEntity> productList = List.of(
-                ProductEntity.builder().id(1L).name("Omega Seamaster").categoryId(10L).build(),
-                ProductEntity.builder().id(2L).name("Tag Heuer Carrera").categoryId(10L).build()
-        );
+    void testGetByCategoryId_firstPage_shouldReturnItemsAndCursor() {
+        ProductEntity first = ProductEntity.builder().id(1L).name("Omega Seamaster").categoryId(10L).build();
+        ProductEntity second = ProductEntity.builder().id(2L).name("Tag Heuer Carrera").categoryId(10L).build();
+        ProductEntity third = ProductEntity.builder().id(5L).name("Tudor Pelagos").categoryId(10L).build();
+
+        when(productRepository.findPageByCategoryId(10L, 0L, 3)).thenReturn(Flux.just(first, second, third));
+
+        StepVerifier.create(inventoryService.getByCategoryId(10L, null, null))
+                .expectNextMatches(page -> page.getItems().equals(List.of(first, second))
+                        && page.getNextCursor().equals(2L))
+                .verifyComplete();
+    }
 
-        when(productRepository.findByCategoryId(10L)).thenReturn(Flux.fromIterable(productList));
+    @Test
+    void testGetByCategoryId_lastPage_shouldHaveNoCursor() {
+        ProductEntity last = ProductEntity.builder().id(5L).name("Tudor Pelagos").categoryId(10L).build();
 
-        StepVerifier.create(inventoryService.getByCategoryId(10L))
-                .expectNextMatches(list -> list.size() == 2 &&
-                        list.get(0).getName().equals("Omega Seamaster") &&
-                        list.get(1).getId().equals(2L))
+        when(productRepository.findPageByCategoryId(10L, 2L, 4)).thenReturn(Flux.just(last));
+
+        StepVerifier.create(inventoryService.getByCategoryId(10L, 2L, 50))
+                .expectNextMatches(page -> page.getItems().equals(List.of(last)) && page.getNextCursor() == null)
                 .verifyComplete();
     }
 
     @Test
     void testGetByCategoryId_notFound_shouldThrow() {
-        when(productRepository.findByCategoryId(10L)).thenReturn(Flux.empty());
+        when(productRepository.findPageByCategoryId(10L, 0L, 3)).thenReturn(Flux.empty());
 
-        StepVerifier.create(inventoryService.getByCategoryId(10L))
+        StepVerifier.create(inventoryService.getByCategoryId(10L, null, null))
                 .expectError(InventoryNotFoundException.class)
                 .verify();
     }
 
+    @Test
+    void testStreamByCategoryId_shouldReadCategoryInKeysetPages() {
+        List<ProductEntity> products = LongStream.rangeClosed(1, 7)
+                .mapToObj(id -> ProductEntity.builder().id(id).categoryId(10L).build())
+                .toList();
+
+        when(productRepository.findPageByCategoryId(10L, 0L, 3)).thenReturn(Flux.fromIterable(products.subList(0, 3)));
+        when(productRepository.findPageByCategoryId(10L, 3L, 3)).thenReturn(Flux.fromIterable(products.subList(3, 6)));
+        when(productRepository.findPageByCategoryId(10L, 6L, 3)).thenReturn(Flux.fromIterable(products.subList(6, 7)));
+
+        StepVerifier.create(inventoryService.streamByCategoryId(10L, null))
+                .expectNextSequence(products)
+                .verifyComplete();
+    }
+
+    @Test
+    void testStreamByCategoryId_notFound_shouldThrow() {
+        when(productRepository.findPageByCategoryId(10L, 0L, 3)).thenReturn(Flux.empty());
+
+        StepVerifier.create(inventoryService.streamByCategoryId(10L, null))
+                .expectError(InventoryNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void testReserve_allItemsAvailable_shouldReserveAndRecordEvents() {
+        ProductEntity first = ProductEntity.builder().id(1L).name("Seiko").categoryId(2L).quantity(7).build();
+        ProductEntity second = ProductEntity.builder().id(2L).name("Tudor").categoryId(2L).quantity(0).build();
+
+        when(productRepository.findById(1L)).thenReturn(Mono.just(first));
+        when(productRepository.findById(2L)).thenReturn(Mono.just(second));
+        when(productStockRepository.applyQuantityDelta(1L, -3)).thenReturn(stockOf(first));
+        when(productStockRepository.applyQuantityDelta(2L, -1)).thenReturn(stockOf(second));
+        when(categoryRepository.findById(2L)).thenReturn(Mono.just(new CategoryEntity(2L, "Mechanical")));
+        when(outboxRepository.saveAll(anyList())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
+
+        List<StockValidationRequest> items = List.of(
+                new StockValidationRequest(2L, 1),
+                new StockValidationRequest(1L, 2),
+                new StockValidationRequest(1L, 1));
+
+        StepVerifier.create(inventoryService.reserve(items))
+                .expectNextMatches(res -> res.getReserved()
+                        && res.getItems().size() == 2
+                        && res.getItems().get(0).getProductId().equals(1L)
+                        && res.getItems().get(0).getRequestedQuantity() == 3
+                        && res.getItems().get(0).getAvailableQuantity() == 7
+                        && res.getItems().get(0).getVersion() == 1L
+                        && res.getItems().stream().allMatch(l -> l.getStatus() == StockReservationResponse.LineStatus.RESERVED))
+                .verifyComplete();
+
+        verify(outboxRepository).saveAll(argThat((List<OutboxEntity> messages) -> messages.size() == 2
+                && messages.stream().allMatch(m -> m.getTopic().equals("inventory-updated-topic"))));
+        verify(transactionalOperator).transactional(any(Mono.class));
+    }
+
+    @Test
+    void testReserve_oneItemInsufficient_shouldRejectWholeReservation() {
+        ProductEntity first = ProductEntity.builder().id(1L).name("Seiko").categoryId(2L).quantity(7).build();
+        ProductEntity second = ProductEntity.builder().id(2L).name("Tudor").categoryId(2L).quantity(1).build();
+
+        when(productRepository.findById(1L)).thenReturn(Mono.just(first));
+        when(productRepository.findById(2L)).thenReturn(Mono.just(second));
+        when(categoryRepository.findById(2L)).thenReturn(Mono.just(new CategoryEntity(2L, "Mechanical")));
+        when(productStockRepository.applyQuantityDelta(1L, -3)).thenReturn(stockOf(first));
+        when(productStockRepository.applyQuantityDelta(2L, -5)).thenReturn(Mono.empty());
+
+        List<StockValidationRequest> items = List.of(
+                new StockValidationRequest(1L, 3),
+                new StockValidationRequest(2L, 5));
+
+        StepVerifier.create(inventoryService.reserve(items))
+                .expectNextMatches(res -> !res.getReserved()
+                        && res.getItems().get(0).getStatus() == StockReservationResponse.LineStatus.NOT_RESERVED
+                        && res.getItems().get(0).getAvailableQuantity() == 10
+                        && res.getItems().get(1).getStatus() == StockReservationResponse.LineStatus.INSUFFICIENT_STOCK
+                        && res.getItems().get(1).getAvailableQuantity() == 1)
+                .verifyComplete();
+
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    void testReserveBatch_shouldReserveEachIndependentlyAndKeepOrder() {
+        ProductEntity first = ProductEntity.builder().id(1L).name("Seiko").categoryId(2L).quantity(7).build();
+        ProductEntity second = ProductEntity.builder().id(2L).name("Tudor").categoryId(2L).quantity(1).build();
+
+        when(productRepository.findById(1L)).thenReturn(Mono.just(first));
+        when(productRepository.findById(2L)).thenReturn(Mono.just(second));
+        when(categoryRepository.findById(2L)).thenReturn(Mono.just(new CategoryEntity(2L, "Mechanical")));
+        when(productStockRepository.applyQuantityDelta(1L, -3)).thenReturn(stockOf(first));
+        when(productStockRepository.applyQuantityDelta(2L, -5)).thenReturn(Mono.empty());
+        when(outboxRepository.saveAll(anyList())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
+
+        List<StockReservationRequest> reservations = List.of(
+                new StockReservationRequest(List.of(new StockValidationRequest(2L, 5)), null),
+                new StockReservationRequest(List.of(new StockValidationRequest(1L, 3)), null));
+
+        StepVerifier.create(inventoryService.reserveBatch(reservations))
+                .expectNextMatches(results -> results.size() == 2
+                        && !results.get(0).getReserved()
+                        && results.get(0).getItems().get(0).getProductId().equals(2L)
+                        && results.get(1).getReserved()
+                        && results.get(1).getItems().get(0).getProductId().equals(1L))
+                .verifyComplete();
+
+        verify(outboxRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void testReserveBatch_oneReservationFails_shouldReportItWithoutFailingTheOthers() {
+        ProductEntity product = ProductEntity.builder().id(1L).name("Seiko").categoryId(2L).quantity(7).build();
+
+        when(stockReservationRepository.claim(eq("busy"), any())).thenReturn(Mono.just(false));
+        when(stockReservationRepository.findStatus("busy")).thenReturn(Mono.just(StockReservationRepository.Status.PENDING));
+        when(productRepository.findById(1L)).thenReturn(Mono.just(product));
+        when(productStockRepository.applyQuantityDelta(1L, -3)).thenReturn(stockOf(product));
+        when(categoryRepository.findById(2L)).thenReturn(Mono.just(new CategoryEntity(2L, "Mechanical")));
+        when(outboxRepository.saveAll(anyList())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
+
+        List<StockReservationRequest> reservations = List.of(
+                new StockReservationRequest(List.of(new StockValidationRequest(1L, 3)), "busy"),
+                new StockReservationRequest(List.of(new StockValidationRequest(1L, 3)), null));
+
+        StepVerifier.create(inventoryService.reserveBatch(reservations))
+                .assertNext(results -> {
+                    assertThat(results).hasSize(2);
+                    assertThat(results.get(0).getReserved()).isFalse();
+                    assertThat(results.get(0).getError()).isEqualTo(ErrorCode.RESERVATION_IN_PROGRESS_ERROR);
+                    assertThat(results.get(1).getReserved()).isTrue();
+                    assertThat(results.get(1).getError()).isNull();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testApplyCompensations_shouldApplyEachKeyOnceAndMergePerProduct() {
+        ProductEntity product = ProductEntity.builder().id(1L).name("Seiko").categoryId(2L).quantity(12).build();
+
+        when(stockReservationRepository.cancelUnreserved(anyCollection(), any(), any())).thenReturn(Mono.just(Map.of()));
+        when(appliedCompensationRepository.findApplied(anyCollection())).thenReturn(Flux.just("k-old"));
+        when(productRepository.findById(1L)).thenReturn(Mono.just(product));
+        when(productRepository.findById(3L)).thenReturn(Mono.empty());
+        when(appliedCompensationRepository.insertAll(anyList(), any())).thenReturn(Mono.just(2L));
+        when(productStockRepository.applyQuantityDelta(1L, 5)).thenReturn(stockOf(product));
+        when(categoryRepository.findById(2L)).thenReturn(Mono.just(new CategoryEntity(2L, "Mechanical")));
+        when(outboxRepository.saveAll(anyList())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
+
+        List<CompensationRequest> compensations = List.of(
+                new CompensationRequest("k1", 1L, 2, null),
+                new CompensationRequest("k2", 1L, 3, null),
+                new CompensationRequest("k-old", 1L, 4, null),
+                new CompensationRequest("k1", 1L, 2, null),
+                new CompensationRequest("k3", 3L, 1, null));
+
+        StepVerifier.create(inventoryService.applyCompensations(compensations))
+                .assertNext(response -> assertThat(response.getResults())
+                        .extracting(CompensationBatchResponse.Result::getStatus)
+                        .containsExactly(
+                                CompensationBatchResponse.Status.APPLIED,
+                                CompensationBatchResponse.Status.APPLIED,
+                                CompensationBatchResponse.Status.DUPLICATE,
+                                CompensationBatchResponse.Status.DUPLICATE,
+                                CompensationBatchResponse.Status.NOT_FOUND))
+                .verifyComplete();
+
+        verify(appliedCompensationRepository).insertAll(argThat((List<CompensationRequest> recorded) -> recorded.size() == 2
+                && recorded.stream().map(CompensationRequest::getKey).toList().equals(List.of("k1", "k2"))), any());
+        verify(productStockRepository, times(1)).applyQuantityDelta(anyLong(), anyInt());
+        verify(outboxRepository).saveAll(argThat((List<OutboxEntity> messages) -> messages.size() == 1
+                && messages.get(0).getPayload().contains("STOCK_INCREASE")));
+    }
+
+    @Test
+    void testApplyCompensations_allAlreadyApplied_shouldNotChangeStock() {
+        when(stockReservationRepository.cancelUnreserved(anyCollection(), any(), any())).thenReturn(Mono.just(Map.of()));
+        when(appliedCompensationRepository.findApplied(anyCollection())).thenReturn(Flux.just("k1"));
+        when(productRepository.findById(1L)).thenReturn(Mono.just(
+                ProductEntity.builder().id(1L).name("Seiko").categoryId(2L).quantity(12).build()));
+        when(appliedCompensationRepository.insertAll(anyList(), any())).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(inventoryService.applyCompensations(List.of(new CompensationRequest("k1", 1L, 2, null))))
+                .expectNextMatches(response -> response.getResults().get(0).getStatus()
+                        == CompensationBatchResponse.Status.DUPLICATE)
+                .verifyComplete();
+
+        verify(productStockRepository, never()).applyQuantityDelta(anyLong(), anyInt());
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    void testReserve_keyAlreadyReserved_shouldReplayOutcomeWithoutChangingStock() {
+        when(stockReservationRepository.claim(eq("r1"), any())).thenReturn(Mono.just(false));
+        when(stockReservationRepository.findStatus("r1")).thenReturn(Mono.just(StockReservationRepository.Status.RESERVED));
+
+        StepVerifier.create(inventoryService.reserve(List.of(new StockValidationRequest(1L, 3)), "r1"))
+                .expectNextMatches(res -> res.getReserved()
+                        && res.getItems().get(0).getStatus() == StockReservationResponse.LineStatus.RESERVED
+                        && res.getItems().get(0).getRequestedQuantity() == 3)
+                .verifyComplete();
+
+        verifyNoInteractions(productStockRepository, outboxRepository);
+    }
+
+    @Test
+    void testReserve_keyStillPending_shouldFailAsInProgress() {
+        when(stockReservationRepository.claim(eq("r1"), any())).thenReturn(Mono.just(false));
+        when(stockReservationRepository.findStatus("r1")).thenReturn(Mono.just(StockReservationRepository.Status.PENDING));
+
+        StepVerifier.create(inventoryService.reserve(List.of(new StockValidationRequest(1L, 3)), "r1"))
+                .expectError(ReservationInProgressException.class)
+                .verify();
+
+        verifyNoInteractions(productStockRepository);
+    }
+
+    @Test
+    void testReserve_newKey_shouldRecordReservedInSameTransaction() {
+        ProductEntity product = ProductEntity.builder().id(1L).name("Seiko").categoryId(2L).quantity(7).build();
+
+        when(stockReservationRepository.claim(eq("r1"), any())).thenReturn(Mono.just(true));
+        when(productRepository.findById(1L)).thenReturn(Mono.just(product));
+        when(productStockRepository.applyQuantityDelta(1L, -3)).thenReturn(stockOf(product));
+        when(categoryRepository.findById(2L)).thenReturn(Mono.just(new CategoryEntity(2L, "Mechanical")));
+        when(outboxRepository.saveAll(anyList())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
+        when(stockReservationRepository.complete(eq("r1"), eq(StockReservationRepository.Status.RESERVED), any()))
+                .thenReturn(Mono.just(true));
+
+        StepVerifier.create(inventoryService.reserve(List.of(new StockValidationRequest(1L, 3)), "r1"))
+                .expectNextMatches(StockReservationResponse::getReserved)
+                .verifyComplete();
+
+        verify(transactionalOperator, times(2)).transactional(any(Mono.class));
+    }
+
+    @Test
+    void testApplyCompensations_reservationNotApplied_shouldNotReturnStock() {
+        when(stockReservationRepository.cancelUnreserved(eq(List.of("r-lost", "r-slow")), any(), any()))
+                .thenReturn(Mono.just(Map.of(
+                        "r-lost", StockReservationRepository.Status.CANCELLED,
+                        "r-slow", StockReservationRepository.Status.PENDING)));
+        when(appliedCompensationRepository.findApplied(anyCollection())).thenReturn(Flux.empty());
+        when(productRepository.findById(1L)).thenReturn(Mono.just(
+                ProductEntity.builder().id(1L).name("Seiko").categoryId(2L).quantity(12).build()));
+        when(appliedCompensationRepository.insertAll(anyList(), any())).thenReturn(Mono.just(0L));
+
+        List<CompensationRequest> compensations = List.of(
+                new CompensationRequest("k1", 1L, 2, "r-lost"),
+                new CompensationRequest("k2", 1L, 3, "r-slow"));
+
+        StepVerifier.create(inventoryService.applyCompensations(compensations))
+                .assertNext(response -> assertThat(response.getResults())
+                        .extracting(CompensationBatchResponse.Result::getStatus)
+                        .containsExactly(
+                                CompensationBatchResponse.Status.NOT_RESERVED,
+                                CompensationBatchResponse.Status.PENDING))
+                .verifyComplete();
+
+        verify(productStockRepository, never()).applyQuantityDelta(anyLong(), anyInt());
+        verifyNoInteractions(outboxRepository);
+    }
+
+    private static Mono<ProductStockRepository.StockLevel> stockOf(ProductEntity product) {
+        return Mono.just(new ProductStockRepository.StockLevel(product.getQuantity(), 1L));
+    }
 }
@@ -0,0 +1,77 @@
+package org.inventorysystem.inventoryservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.inventorysystem.inventoryservice.config.EnvironmentConfig;
+import org.inventorysystem.inventoryservice.exception.KafkaPublishException;
+import org.inventorysystem.inventoryservice.kafka.KafkaPublisherService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaPublisherServiceTest {
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private KafkaPublisherService publisherService;
+
+    @BeforeEach
+    void setup() {
+        EnvironmentConfig config = new EnvironmentConfig();
+        config.getRetry().setMaxAttempts(2);
+        config.getRetry().setDelayMs(1);
+
+        meterRegistry = new SimpleMeterRegistry();
+        publisherService = new KafkaPublisherService(kafkaTemplate, meterRegistry, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisherService.destroy();
+    }
+
+    @Test
+    void publish_acknowledged_shouldEmitResultAndRecordLatency() {
+        SendResult<String, Object> result = new SendResult<>(
+                new ProducerRecord<>("topic", "1", "event"),
+                new RecordMetadata(new TopicPartition("topic", 0), 42L, 0, 0L, 1, 5));
+        when(kafkaTemplate.send("topic", "1", "event")).thenReturn(CompletableFuture.completedFuture(result));
+
+        StepVerifier.create(publisherService.publish("topic", "1", "event"))
+                .expectNextMatches(r -> r.getRecordMetadata().offset() == 42L)
+                .verifyComplete();
+
+        assertThat(meterRegistry.get(KafkaPublisherService.SEND_TIMER)
+                .tag("topic", "topic").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void publish_brokerFailure_shouldRetryThenFail() {
+        when(kafkaTemplate.send("topic", "1", "event"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        StepVerifier.create(publisherService.publish("topic", "1", "event"))
+                .expectError(KafkaPublishException.class)
+                .verify();
+
+        verify(kafkaTemplate, times(3)).send("topic", "1", "event");
+        assertThat(meterRegistry.get(KafkaPublisherService.SEND_TIMER)
+                .tag("topic", "topic").tag("outcome", "error").timer().count()).isEqualTo(3);
+    }
+}
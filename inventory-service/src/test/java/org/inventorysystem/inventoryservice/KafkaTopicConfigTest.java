@@ -0,0 +1,35 @@
+package org.inventorysystem.inventoryservice;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.inventorysystem.inventoryservice.config.EnvironmentConfig;
+import org.inventorysystem.inventoryservice.config.KafkaTopicConfig;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaTopicConfigTest {
+
+    @Test
+    void topics_shouldTakePartitionsAndReplicasFromConfiguration() {
+        EnvironmentConfig environmentConfig = new EnvironmentConfig();
+        environmentConfig.getTopics().setNewInventory("new-inventory");
+        environmentConfig.getTopics().setInventoryUpdated("inventory-updated");
+        environmentConfig.getTopics().setNewCategory("new-category");
+        environmentConfig.getPartitions().setNewInventory(6);
+        environmentConfig.getPartitions().setInventoryUpdated(12);
+        environmentConfig.getPartitions().setNewCategory(1);
+        environmentConfig.getPartitions().setReplicas((short) 3);
+
+        KafkaTopicConfig topics = new KafkaTopicConfig(environmentConfig);
+
+        assertThat(topics.newInventoryTopic())
+                .extracting(NewTopic::name, NewTopic::numPartitions, NewTopic::replicationFactor)
+                .containsExactly("new-inventory", 6, (short) 3);
+        assertThat(topics.inventoryUpdatedTopic())
+                .extracting(NewTopic::name, NewTopic::numPartitions, NewTopic::replicationFactor)
+                .containsExactly("inventory-updated", 12, (short) 3);
+        assertThat(topics.newCategoryTopic())
+                .extracting(NewTopic::name, NewTopic::numPartitions, NewTopic::replicationFactor)
+                .containsExactly("new-category", 1, (short) 3);
+    }
+}
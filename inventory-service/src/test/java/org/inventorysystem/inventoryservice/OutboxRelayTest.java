@@ -0,0 +1,89 @@
+package org.inventorysystem.inventoryservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.entity.OutboxEntity;
+import org.inventorysystem.inventoryservice.exception.KafkaPublishException;
+import org.inventorysystem.inventoryservice.kafka.KafkaPublisherService;
+import org.inventorysystem.inventoryservice.outbox.OutboxRelay;
+import org.inventorysystem.inventoryservice.repository.OutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final String TOPIC = "inventory-updated";
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private KafkaPublisherService kafkaPublisherService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxRepository, kafkaPublisherService, new ObjectMapper(), meterRegistry, new InventoryConfig());
+    }
+
+    @Test
+    void drain_allAcknowledged_shouldMarkRowsSentAndRecordMetrics() {
+        when(outboxRepository.findPending(500)).thenReturn(Flux.just(row(1L, "1"), row(2L, "2"), row(3L, "1")));
+        when(kafkaPublisherService.publish(eq(TOPIC), anyString(), any())).thenReturn(Mono.empty());
+        when(outboxRepository.markSent(anyCollection(), any())).thenReturn(Mono.just(3));
+        when(outboxRepository.countBySentAtIsNull()).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(relay.drain())
+                .verifyComplete();
+
+        verify(outboxRepository).markSent(argThat(ids -> ids.containsAll(List.of(1L, 2L, 3L)) && ids.size() == 3), any());
+        assertThat(meterRegistry.get(OutboxRelay.SENT_COUNTER).tag("topic", TOPIC).counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(OutboxRelay.LAG_TIMER).tag("topic", TOPIC).timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(OutboxRelay.PENDING_GAUGE).gauge().value()).isZero();
+    }
+
+    @Test
+    void drain_failedPublish_shouldHoldBackLaterRowsWithSameKey() {
+        when(outboxRepository.findPending(500)).thenReturn(Flux.just(row(1L, "1"), row(2L, "2"), row(3L, "1")));
+        when(kafkaPublisherService.publish(eq(TOPIC), eq("1"), any()))
+                .thenReturn(Mono.error(new KafkaPublishException("broker unavailable")));
+        when(kafkaPublisherService.publish(eq(TOPIC), eq("2"), any())).thenReturn(Mono.empty());
+        when(outboxRepository.markSent(anyCollection(), any())).thenReturn(Mono.just(1));
+        when(outboxRepository.countBySentAtIsNull()).thenReturn(Mono.just(2L));
+
+        StepVerifier.create(relay.drain())
+                .verifyComplete();
+
+        verify(kafkaPublisherService, times(1)).publish(eq(TOPIC), eq("1"), any());
+        verify(outboxRepository).markSent(eq(List.of(2L)), any());
+        assertThat(meterRegistry.get(OutboxRelay.FAILED_COUNTER).tag("topic", TOPIC).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(OutboxRelay.PENDING_GAUGE).gauge().value()).isEqualTo(2);
+    }
+
+    private OutboxEntity row(Long id, String key) {
+        return OutboxEntity.builder()
+                .id(id)
+                .topic(TOPIC)
+                .messageKey(key)
+                .payload("{\"productId\":" + key + "}")
+                .createdAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+}
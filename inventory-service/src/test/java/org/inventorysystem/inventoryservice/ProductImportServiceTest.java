@@ -0,0 +1,155 @@
+package org.inventorysystem.inventoryservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.inventorysystem.inventoryservice.cache.InventoryCache;
+import org.inventorysystem.inventoryservice.config.EnvironmentConfig;
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.entity.CategoryEntity;
+import org.inventorysystem.inventoryservice.entity.OutboxEntity;
+import org.inventorysystem.inventoryservice.entity.ProductEntity;
+import org.inventorysystem.inventoryservice.outbox.OutboxMessageMapper;
+import org.inventorysystem.inventoryservice.repository.CategoryRepository;
+import org.inventorysystem.inventoryservice.repository.OutboxBatchRepository;
+import org.inventorysystem.inventoryservice.repository.ProductBatchRepository;
+import org.inventorysystem.inventoryservice.repository.ProductRepository;
+import org.inventorysystem.inventoryservice.service.ProductImportService;
+import org.inventorysystem.inventoryservice.service.ProductImportService.ImportFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductBatchRepository productBatchRepository;
+
+    @Mock
+    private OutboxBatchRepository outboxBatchRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    private InventoryConfig inventoryConfig;
+    private ProductImportService importService;
+
+    @BeforeEach
+    void setup() {
+        EnvironmentConfig environmentConfig = new EnvironmentConfig();
+        environmentConfig.getTopics().setNewInventory("new-inventory-topic");
+        inventoryConfig = new InventoryConfig();
+
+        lenient().when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+        lenient().when(productBatchRepository.insertAll(anyList())).thenAnswer(inv -> {
+            List<ProductEntity> products = inv.getArgument(0);
+            for (int i = 0; i < products.size(); i++) {
+                products.get(i).setId(100L + i);
+            }
+            return Mono.just(products);
+        });
+        lenient().when(outboxBatchRepository.insertAll(anyList()))
+                .thenAnswer(inv -> Mono.just((long) ((List<?>) inv.getArgument(0)).size()));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        importService = new ProductImportService(
+                productBatchRepository,
+                outboxBatchRepository,
+                new InventoryCache(productRepository, categoryRepository, inventoryConfig, new SimpleMeterRegistry()),
+                new OutboxMessageMapper(objectMapper),
+                transactionalOperator,
+                environmentConfig,
+                inventoryConfig,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                objectMapper);
+    }
+
+    @Test
+    void importNdjson_shouldInsertValidRowsAndReportRejectedOnes() {
+        when(categoryRepository.findById(1L)).thenReturn(Mono.just(new CategoryEntity(1L, "Watches")));
+        when(categoryRepository.findById(9L)).thenReturn(Mono.empty());
+
+        Flux<String> lines = Flux.just(
+                "{\"name\":\"Seiko\",\"price\":250.0,\"categoryId\":1,\"quantity\":4}",
+                "{\"name\":\"Broken\"",
+                "",
+                "{\"name\":\"Tudor\",\"price\":900.0,\"categoryId\":1,\"quantity\":-1}",
+                "{\"name\":\"Casio\",\"price\":50.0,\"categoryId\":9,\"quantity\":2}");
+
+        StepVerifier.create(importService.importProducts(lines, ImportFormat.NDJSON))
+                .assertNext(progress -> {
+                    assertThat(progress.getRowsRead()).isEqualTo(4);
+                    assertThat(progress.getImported()).isEqualTo(1);
+                    assertThat(progress.getRejected()).isEqualTo(3);
+                    assertThat(progress.getErrors()).extracting("line").containsExactly(2L, 4L, 5L);
+                    assertThat(progress.getErrors().get(1).getReason()).isEqualTo("Quantity must not be negative");
+                    assertThat(progress.getDone()).isFalse();
+                })
+                .assertNext(summary -> {
+                    assertThat(summary.getImported()).isEqualTo(1);
+                    assertThat(summary.getDone()).isTrue();
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<List<OutboxEntity>> messages = ArgumentCaptor.forClass(List.class);
+        verify(outboxBatchRepository).insertAll(messages.capture());
+        assertThat(messages.getValue()).hasSize(1);
+        assertThat(messages.getValue().get(0).getTopic()).isEqualTo("new-inventory-topic");
+        assertThat(messages.getValue().get(0).getMessageKey()).isEqualTo("100");
+        verify(categoryRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void importCsv_shouldParseQuotedFieldsAndInsertInBatches() {
+        inventoryConfig.getBulkImport().setBatchSize(2);
+        when(categoryRepository.findById(1L)).thenReturn(Mono.just(new CategoryEntity(1L, "Watches")));
+
+        Flux<String> lines = Flux.just(
+                "name,price,category_id,quantity,description",
+                "\"Watch, steel\",10.5,1,3,\"Says \"\"hi\"\"\"",
+                "Strap,2,1,5,",
+                "Box,1,1,1,");
+
+        StepVerifier.create(importService.importProducts(lines, ImportFormat.CSV))
+                .expectNextMatches(progress -> progress.getImported() == 2 && progress.getRejected() == 0)
+                .expectNextMatches(progress -> progress.getImported() == 3)
+                .expectNextMatches(summary -> summary.getDone() && summary.getRowsRead() == 3)
+                .verifyComplete();
+
+        ArgumentCaptor<List<ProductEntity>> products = ArgumentCaptor.forClass(List.class);
+        verify(productBatchRepository, times(2)).insertAll(products.capture());
+        ProductEntity first = products.getAllValues().get(0).get(0);
+        assertThat(first.getName()).isEqualTo("Watch, steel");
+        assertThat(first.getDescription()).isEqualTo("Says \"hi\"");
+        assertThat(products.getAllValues().get(0).get(1).getDescription()).isNull();
+    }
+
+    @Test
+    void importCsv_withoutRequiredColumns_shouldFail() {
+        StepVerifier.create(importService.importProducts(Flux.just("name,price", "Strap,2"), ImportFormat.CSV))
+                .expectError(ServerWebInputException.class)
+                .verify();
+
+        verifyNoInteractions(productBatchRepository);
+    }
+}
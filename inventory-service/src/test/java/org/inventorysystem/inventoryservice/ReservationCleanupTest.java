@@ -0,0 +1,51 @@
+package org.inventorysystem.inventoryservice;
+
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.repository.AppliedCompensationRepository;
+import org.inventorysystem.inventoryservice.repository.StockReservationRepository;
+import org.inventorysystem.inventoryservice.service.ReservationCleanup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationCleanupTest {
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    @Mock
+    private AppliedCompensationRepository appliedCompensationRepository;
+
+    private ReservationCleanup cleanup;
+
+    @BeforeEach
+    void setup() {
+        cleanup = new ReservationCleanup(stockReservationRepository, appliedCompensationRepository, new InventoryConfig());
+    }
+
+    @Test
+    void purge_shouldDeleteBothTablesInBatchesUntilNothingOlderIsLeft() {
+        when(stockReservationRepository.deleteSettledBefore(any(), eq(5_000)))
+                .thenReturn(Mono.just(5_000L), Mono.just(12L));
+        when(appliedCompensationRepository.deleteAppliedBefore(any(), eq(5_000))).thenReturn(Mono.just(3L));
+
+        StepVerifier.create(cleanup.purge())
+                .verifyComplete();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(stockReservationRepository, times(2)).deleteSettledBefore(cutoff.capture(), eq(5_000));
+        verify(appliedCompensationRepository, times(1)).deleteAppliedBefore(eq(cutoff.getValue()), eq(5_000));
+        assertThat(cutoff.getValue()).isBefore(LocalDateTime.now().minusHours(167));
+    }
+}
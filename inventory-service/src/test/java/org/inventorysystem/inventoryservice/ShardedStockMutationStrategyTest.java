@@ -0,0 +1,176 @@
+package org.inventorysystem.inventoryservice;
+
+import org.inventorysystem.inventoryservice.config.InventoryConfig;
+import org.inventorysystem.inventoryservice.entity.OutboxEntity;
+import org.inventorysystem.inventoryservice.entity.ProductEntity;
+import org.inventorysystem.inventoryservice.exception.StockReservationRejectedException;
+import org.inventorysystem.inventoryservice.repository.OutboxRepository;
+import org.inventorysystem.inventoryservice.repository.ProductRepository;
+import org.inventorysystem.inventoryservice.repository.ProductStockBatchRepository;
+import org.inventorysystem.inventoryservice.repository.StockMutationResult;
+import org.inventorysystem.inventoryservice.service.mutation.ShardedStockMutationStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedStockMutationStrategyTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductStockBatchRepository batchRepository;
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    private ShardedStockMutationStrategy strategy;
+
+    @BeforeEach
+    void setup() {
+        InventoryConfig config = new InventoryConfig();
+        config.getShards().setCount(4);
+        config.getShards().setFlushIntervalMs(60_000);
+        config.getShards().setBatchSize(10_000);
+
+        lenient().when(batchRepository.applyQuantityDeltas(any(), any())).thenReturn(Mono.just(1L));
+        lenient().when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        strategy = new ShardedStockMutationStrategy(productRepository, batchRepository, outboxRepository,
+                transactionalOperator, config);
+    }
+
+    @AfterEach
+    void teardown() {
+        strategy.destroy();
+    }
+
+    @Test
+    void apply_concurrentDecrements_shouldNeverOversell() {
+        stubProduct(1L, 50);
+
+        StepVerifier.create(Flux.range(0, 200)
+                        .flatMap(i -> strategy.apply(1L, -1), 64)
+                        .filter(r -> r.getStatus() == StockMutationResult.Status.UPDATED)
+                        .count())
+                .expectNext(50L)
+                .verifyComplete();
+
+        StepVerifier.create(strategy.flushAll())
+                .verifyComplete();
+
+        verify(batchRepository).applyQuantityDeltas(Map.of(1L, -50), Map.of(1L, 50L));
+    }
+
+    @Test
+    void apply_withEvents_shouldCommitMessagesWithTheirBatch() {
+        stubProduct(1L, 5);
+        when(outboxRepository.saveAll(anyList())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
+
+        StepVerifier.create(strategy.apply(1L, -2, (result, delta) ->
+                        OutboxEntity.of("inventory-updated", "1", "{\"newQuantity\":" + result.getQuantity() + "}")))
+                .expectNextMatches(r -> r.getQuantity() == 3)
+                .verifyComplete();
+
+        StepVerifier.create(strategy.flushAll())
+                .verifyComplete();
+
+        verify(batchRepository).applyQuantityDeltas(Map.of(1L, -2), Map.of(1L, 1L));
+        verify(outboxRepository).saveAll(argThat((List<OutboxEntity> messages) -> messages.size() == 1
+                && messages.get(0).getPayload().equals("{\"newQuantity\":3}")));
+        verify(transactionalOperator).transactional(any(Mono.class));
+    }
+
+    @Test
+    void apply_deltasCancellingOut_shouldStillCommitTheirVersion() {
+        stubProduct(1L, 5);
+
+        StepVerifier.create(strategy.apply(1L, -1).then(strategy.apply(1L, 1)))
+                .expectNextMatches(r -> r.getQuantity() == 5 && r.getProduct().getVersion() == 2L)
+                .verifyComplete();
+
+        StepVerifier.create(strategy.flushAll())
+                .verifyComplete();
+
+        verify(batchRepository).applyQuantityDeltas(Map.of(), Map.of(1L, 2L));
+    }
+
+    @Test
+    void evictIdle_afterFlush_shouldReloadProductOnNextMutation() {
+        stubProduct(1L, 5);
+
+        StepVerifier.create(strategy.apply(1L, -1)
+                        .then(strategy.flushAll())
+                        .then(strategy.evictIdle(Duration.ZERO))
+                        .then(strategy.apply(1L, -1)))
+                .expectNextMatches(r -> r.getQuantity() == 4)
+                .verifyComplete();
+
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void evictIdle_withPendingDeltas_shouldKeepProduct() {
+        stubProduct(1L, 5);
+
+        StepVerifier.create(strategy.apply(1L, -1)
+                        .then(strategy.evictIdle(Duration.ZERO))
+                        .then(strategy.apply(1L, -1)))
+                .expectNextMatches(r -> r.getQuantity() == 3)
+                .verifyComplete();
+
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void apply_unknownProduct_shouldReportNotFound() {
+        when(productRepository.findById(9L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(strategy.apply(9L, -1))
+                .expectNextMatches(r -> r.getStatus() == StockMutationResult.Status.NOT_FOUND)
+                .verifyComplete();
+    }
+
+    @Test
+    void applyAll_withRejectedDelta_shouldRevertAppliedDeltas() {
+        stubProduct(1L, 5);
+        stubProduct(2L, 1);
+
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        deltas.put(1L, -3);
+        deltas.put(2L, -2);
+
+        StepVerifier.create(strategy.applyAll(deltas))
+                .expectError(StockReservationRejectedException.class)
+                .verify();
+
+        StepVerifier.create(strategy.apply(1L, -5))
+                .expectNextMatches(r -> r.getStatus() == StockMutationResult.Status.UPDATED && r.getQuantity() == 0)
+                .verifyComplete();
+    }
+
+    private void stubProduct(Long id, int quantity) {
+        ProductEntity product = ProductEntity.builder().id(id).name("Product " + id).categoryId(1L).quantity(quantity).version(0L).build();
+        lenient().when(productRepository.findById(id)).thenReturn(Mono.fromSupplier(() -> product.toBuilder().build()));
+    }
+}
@@ -0,0 +1,209 @@
+package org.inventorysystem.orderservice.admission;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.orderservice.config.EnvironmentConfig;
+import org.inventorysystem.orderservice.exception.OrderRejectedException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits how many orders are processed at once and sheds the excess.
+ * <p>
+ * Up to {@code maxInFlight} orders run concurrently. Further orders wait in a bounded queue, in
+ * arrival order; an order is rejected with {@link OrderRejectedException} when the queue is full
+ * or when it has waited longer than the queue timeout. Rejecting early keeps the orders that are
+ * admitted fast instead of letting every order slow down until they all time out.
+ * <p>
+ * Unless configured, {@code maxInFlight} is derived from the R2DBC pool size and, when reservations
+ * are batched, from how many reservations inventory-service is sent at once.
+ * <p>
+ * Publishes the {@value #QUEUED_GAUGE} and {@value #IN_FLIGHT_GAUGE} gauges, the {@value #WAIT_TIMER}
+ * time spent queued, and {@value #REJECTED_COUNTER} per reason.
+ */
+@Component
+@Slf4j
+public class AdmissionController implements DisposableBean {
+
+    public static final String QUEUED_GAUGE = "order.admission.queued";
+    public static final String IN_FLIGHT_GAUGE = "order.admission.in-flight";
+    public static final String WAIT_TIMER = "order.admission.wait";
+    public static final String REJECTED_COUNTER = "order.admission.rejected";
+
+    private static final Duration EMIT_TIMEOUT = Duration.ofMillis(100);
+
+    private final EnvironmentConfig.Admission config;
+    private final int maxInFlight;
+    private final MeterRegistry meterRegistry;
+    private final Timer waitTimer;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Sinks.Many<Ticket<?>> tickets = Sinks.many().unicast().onBackpressureBuffer();
+    private final Disposable subscription;
+
+    @Autowired
+    public AdmissionController(EnvironmentConfig environmentConfig,
+                               R2dbcProperties r2dbcProperties,
+                               MeterRegistry meterRegistry) {
+        this(environmentConfig.getAdmission(), maxInFlight(environmentConfig, r2dbcProperties), meterRegistry);
+    }
+
+    public AdmissionController(EnvironmentConfig.Admission config, int maxInFlight, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.maxInFlight = maxInFlight;
+        this.meterRegistry = meterRegistry;
+        this.waitTimer = Timer.builder(WAIT_TIMER)
+                .description("Time orders wait for an admission slot")
+                .register(meterRegistry);
+        Gauge.builder(QUEUED_GAUGE, queued, AtomicInteger::get)
+                .description("Orders waiting for an admission slot")
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_GAUGE, inFlight, AtomicInteger::get)
+                .description("Orders being processed")
+                .register(meterRegistry);
+        this.subscription = tickets.asFlux()
+                .flatMap(this::run, maxInFlight)
+                .subscribe();
+        log.info("Order admission {}: max {} in flight, max {} queued for {} ms",
+                config.isEnabled() ? "enabled" : "disabled", maxInFlight, config.getMaxQueue(), config.getQueueTimeoutMs());
+    }
+
+    /**
+     * Runs the work once a slot is free.
+     *
+     * @param work The order processing to admit; it is only subscribed to once admitted.
+     * @return Mono emitting the work's result, or an {@link OrderRejectedException} if it was shed.
+     */
+    public <T> Mono<T> admit(Mono<T> work) {
+        if (!config.isEnabled()) {
+            return work;
+        }
+        return Mono.defer(() -> {
+            if (queued.incrementAndGet() > config.getMaxQueue()) {
+                queued.decrementAndGet();
+                return reject("queue_full", "too many orders waiting");
+            }
+            Ticket<T> ticket = new Ticket<>(work);
+            // Orders are admitted from many threads; busy-looping resolves the concurrent emissions
+            tickets.emitNext(ticket, Sinks.EmitFailureHandler.busyLooping(EMIT_TIMEOUT));
+            Mono<T> expiry = Mono.delay(Duration.ofMillis(config.getQueueTimeoutMs()))
+                    .then(Mono.defer(() -> abandon(ticket)
+                            ? reject("timeout", "no capacity within " + config.getQueueTimeoutMs() + " ms")
+                            : Mono.never()));
+            return Mono.firstWithSignal(ticket.result.asMono(), expiry)
+                    .doOnCancel(() -> {
+                        if (!abandon(ticket)) {
+                            ticket.cancel();
+                        }
+                    });
+        });
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    private Mono<Void> run(Ticket<?> ticket) {
+        if (!ticket.start()) {
+            return Mono.empty();
+        }
+        queued.decrementAndGet();
+        inFlight.incrementAndGet();
+        waitTimer.record(System.nanoTime() - ticket.enqueuedAt, TimeUnit.NANOSECONDS);
+        return ticket.execute()
+                .doFinally(signal -> inFlight.decrementAndGet());
+    }
+
+    private boolean abandon(Ticket<?> ticket) {
+        if (ticket.abandon()) {
+            queued.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private <T> Mono<T> reject(String reason, String message) {
+        meterRegistry.counter(REJECTED_COUNTER, "reason", reason).increment();
+        log.warn("Order rejected: {}", message);
+        return Mono.error(new OrderRejectedException(message, config.getRetryAfterSeconds()));
+    }
+
+    /**
+     * Orders allowed in flight: the configured value, or the pool size times the orders each connection
+     * can serve, capped by how many reservations the batched calls to inventory-service can carry.
+     */
+    static int maxInFlight(EnvironmentConfig environmentConfig, R2dbcProperties r2dbcProperties) {
+        EnvironmentConfig.Admission admission = environmentConfig.getAdmission();
+        if (admission.getMaxInFlight() > 0) {
+            return admission.getMaxInFlight();
+        }
+        int limit = r2dbcProperties.getPool().getMaxSize() * admission.getOrdersPerConnection();
+        EnvironmentConfig.ReservationBatch batch = environmentConfig.getReservationBatch();
+        if (batch.isEnabled()) {
+            limit = Math.min(limit, batch.getMaxSize() * batch.getMaxInFlight());
+        }
+        return Math.max(1, limit);
+    }
+
+    @Override
+    public void destroy() {
+        subscription.dispose();
+    }
+
+    /**
+     * An order waiting for, or holding, a slot. It is started or abandoned exactly once.
+     */
+    private static final class Ticket<T> {
+
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int ABANDONED = 2;
+
+        private final Mono<T> work;
+        private final Sinks.One<T> result = Sinks.one();
+        private final Sinks.One<Boolean> cancelled = Sinks.one();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private final long enqueuedAt = System.nanoTime();
+
+        private Ticket(Mono<T> work) {
+            this.work = work;
+        }
+
+        private boolean start() {
+            return state.compareAndSet(QUEUED, RUNNING);
+        }
+
+        private boolean abandon() {
+            return state.compareAndSet(QUEUED, ABANDONED);
+        }
+
+        private void cancel() {
+            cancelled.tryEmitValue(Boolean.TRUE);
+        }
+
+        private Mono<Void> execute() {
+            return work.takeUntilOther(cancelled.asMono())
+                    .doOnSuccess(value -> {
+                        if (value == null) {
+                            result.tryEmitEmpty();
+                        } else {
+                            result.tryEmitValue(value);
+                        }
+                    })
+                    .doOnError(result::tryEmitError)
+                    .onErrorResume(e -> Mono.empty())
+                    .then();
+        }
+    }
+}
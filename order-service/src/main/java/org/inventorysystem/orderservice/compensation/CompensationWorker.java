@@ -0,0 +1,208 @@
+package org.inventorysystem.orderservice.compensation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.orderservice.config.EnvironmentConfig;
+import org.inventorysystem.orderservice.entity.InventoryCompensationEntity;
+import org.inventorysystem.orderservice.repository.InventoryCompensationRepository;
+import org.inventorysystem.orderservice.service.facade.InventoryFacade;
+import org.inventorysystem.orderservice.service.facade.request.CompensationRequest;
+import org.inventorysystem.orderservice.service.facade.response.CompensationBatchResponse;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Returns the stock of failed orders to inventory-service from the compensation journal.
+ * <p>
+ * Each poll sends the due compensations in batches, each with its idempotency key, so a batch
+ * whose outcome was lost can be sent again without adding the stock twice; several instances can
+ * run the worker for the same reason. When a batch fails, its compensations are rescheduled with
+ * exponential backoff and the poll stops, so an outage of inventory-service costs one call per
+ * poll instead of one per failed order.
+ * <p>
+ * Publishes the {@value #PENDING_GAUGE} gauge and {@value #PROCESSED_COUNTER} per outcome.
+ */
+@Component
+@Slf4j
+public class CompensationWorker implements DisposableBean {
+
+    public static final String PENDING_GAUGE = "order.compensation.pending";
+    public static final String PROCESSED_COUNTER = "order.compensation.processed";
+
+    private static final int MAX_ERROR_LENGTH = 1_000;
+    private static final String PRODUCT_NOT_FOUND = "Product not found in inventory-service";
+    private static final String RESERVATION_PENDING = "Reservation still being applied by inventory-service";
+
+    private final InventoryCompensationRepository compensationRepository;
+    private final InventoryFacade inventoryFacade;
+    private final EnvironmentConfig.Compensation config;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong pending = new AtomicLong();
+
+    private Disposable worker;
+
+    public CompensationWorker(InventoryCompensationRepository compensationRepository,
+                              InventoryFacade inventoryFacade,
+                              EnvironmentConfig environmentConfig,
+                              MeterRegistry meterRegistry) {
+        this.compensationRepository = compensationRepository;
+        this.inventoryFacade = inventoryFacade;
+        this.config = environmentConfig.getCompensation();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder(PENDING_GAUGE, pending, AtomicLong::get)
+                .description("Stock compensations not yet applied by inventory-service")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isWorkerEnabled()) {
+            log.info("Compensation worker disabled on this instance");
+            return;
+        }
+        worker = Flux.interval(Duration.ofMillis(config.getPollIntervalMs()))
+                .onBackpressureDrop()
+                .concatMap(tick -> drain()
+                        .then(refreshPending())
+                        .onErrorResume(e -> {
+                            log.error("Compensation cycle failed", e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+        log.info("Compensation worker started, polling every {} ms", config.getPollIntervalMs());
+    }
+
+    /**
+     * Sends due compensations until none is left or a batch fails.
+     *
+     * @return Mono completing once the due compensations have been handled.
+     */
+    public Mono<Void> drain() {
+        return sendBatch()
+                .expand(sent -> sent == config.getBatchSize() ? sendBatch() : Mono.empty())
+                .then();
+    }
+
+    /**
+     * @return Mono emitting the number of compensations sent, or 0 if the batch failed.
+     */
+    private Mono<Integer> sendBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        return compensationRepository.findDue(now, config.getBatchSize())
+                .collectList()
+                .flatMap(due -> due.isEmpty()
+                        ? Mono.just(0)
+                        : inventoryFacade.applyCompensations(toRequests(due))
+                                .flatMap(results -> recordResults(due, results))
+                                .thenReturn(due.size())
+                                .onErrorResume(e -> reschedule(due, e).thenReturn(0)));
+    }
+
+    private List<CompensationRequest> toRequests(List<InventoryCompensationEntity> due) {
+        return due.stream()
+                .map(c -> new CompensationRequest(c.getCompensationKey(), c.getProductId(), c.getQuantity(),
+                        c.getReservationKey()))
+                .toList();
+    }
+
+    /**
+     * Completes the compensations that were applied now or before, or whose reservation never took the
+     * stock, and abandons those whose product no longer exists. Compensations whose reservation is still
+     * being applied are rescheduled with backoff. Compensations missing from the response stay due and
+     * are sent again.
+     */
+    private Mono<Void> recordResults(List<InventoryCompensationEntity> due,
+                                     List<CompensationBatchResponse.Result> results) {
+        Map<String, String> statusByKey = results.stream()
+                .collect(Collectors.toMap(CompensationBatchResponse.Result::getKey,
+                        CompensationBatchResponse.Result::getStatus, (first, second) -> first));
+        List<Long> completed = new ArrayList<>();
+        List<Long> notReserved = new ArrayList<>();
+        List<Long> abandoned = new ArrayList<>();
+        List<Long> deferred = new ArrayList<>();
+        for (InventoryCompensationEntity compensation : due) {
+            String status = statusByKey.get(compensation.getCompensationKey());
+            if (CompensationBatchResponse.APPLIED.equals(status) || CompensationBatchResponse.DUPLICATE.equals(status)) {
+                completed.add(compensation.getId());
+            } else if (CompensationBatchResponse.NOT_RESERVED.equals(status)) {
+                log.info("Stock compensation {} not needed, reservation {} was not applied",
+                        compensation.getCompensationKey(), compensation.getReservationKey());
+                notReserved.add(compensation.getId());
+            } else if (CompensationBatchResponse.PENDING.equals(status)) {
+                deferred.add(compensation.getId());
+            } else if (CompensationBatchResponse.NOT_FOUND.equals(status)) {
+                log.warn("Abandoning stock compensation {} for productId={}: {}",
+                        compensation.getCompensationKey(), compensation.getProductId(), PRODUCT_NOT_FOUND);
+                abandoned.add(compensation.getId());
+            }
+        }
+        counter("applied").increment(completed.size());
+        counter("not_reserved").increment(notReserved.size());
+        counter("abandoned").increment(abandoned.size());
+        counter("deferred").increment(deferred.size());
+        completed.addAll(notReserved);
+        LocalDateTime now = LocalDateTime.now();
+        return Mono.when(
+                completed.isEmpty() ? Mono.empty() : compensationRepository.markCompleted(completed, now),
+                abandoned.isEmpty() ? Mono.empty() : compensationRepository.markAbandoned(abandoned, now, PRODUCT_NOT_FOUND),
+                deferred.isEmpty() ? Mono.empty() : compensationRepository.reschedule(deferred, now,
+                        config.getInitialBackoffMs(), config.getMaxBackoffMs(), RESERVATION_PENDING));
+    }
+
+    private Mono<Integer> reschedule(List<InventoryCompensationEntity> due, Throwable error) {
+        log.warn("Could not send {} stock compensation(s), retrying later: {}", due.size(), error.getMessage());
+        counter("failed").increment(due.size());
+        List<Long> ids = due.stream().map(InventoryCompensationEntity::getId).toList();
+        return compensationRepository.reschedule(ids, LocalDateTime.now(),
+                config.getInitialBackoffMs(), config.getMaxBackoffMs(), truncate(error.getMessage()));
+    }
+
+    private Mono<Void> refreshPending() {
+        return compensationRepository.countPending()
+                .doOnNext(pending::set)
+                .then();
+    }
+
+    /**
+     * @return Number of pending compensations as of the last poll.
+     */
+    public long getPending() {
+        return pending.get();
+    }
+
+    private Counter counter(String outcome) {
+        return Counter.builder(PROCESSED_COUNTER)
+                .description("Stock compensations handled by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @Override
+    public void destroy() {
+        if (worker != null) {
+            worker.dispose();
+        }
+    }
+}
@@ -10,7 +10,15 @@ import org.springframework.context.annotation.Configuration;
 public class EnvironmentConfig {
 
     private Domains domains;
+    private HttpClient httpClient = new HttpClient();
     private Retry retry;
+    private Resilience resilience = new Resilience();
+    private ReservationBatch reservationBatch = new ReservationBatch();
+    private OrderIntake orderIntake = new OrderIntake();
+    private Compensation compensation = new Compensation();
+    private Listing listing = new Listing();
+    private Admission admission = new Admission();
+    private Idempotency idempotency = new Idempotency();
 
     @Data
     public static class Domains {
@@ -20,6 +28,175 @@ public class EnvironmentConfig {
     @Data
     public static class Retry {
         private int maxAttempts;
+        /**
+         * First backoff between attempts, doubled on each retry. Kept short so every attempt fits
+         * within {@link Resilience#getTotalTimeoutMs()}.
+         */
         private long delayMs;
     }
+
+    @Data
+    public static class Resilience {
+        /**
+         * Deadline for one call to inventory-service.
+         */
+        private long callTimeoutMs = 1_000;
+        /**
+         * Deadline for a call to inventory-service including its retries.
+         */
+        private long totalTimeoutMs = 3_000;
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+        /**
+         * Settings shared by the circuit breaker of every inventory endpoint.
+         */
+        @Data
+        public static class CircuitBreaker {
+            private float failureRateThreshold = 50;
+            private float slowCallRateThreshold = 80;
+            private long slowCallDurationMs = 500;
+            private int slidingWindowSize = 50;
+            private int minimumNumberOfCalls = 20;
+            private long waitInOpenStateMs = 5_000;
+            private int permittedCallsInHalfOpenState = 5;
+        }
+    }
+
+    @Data
+    public static class ReservationBatch {
+        /**
+         * Whether reservations from concurrent orders are coalesced into batched calls.
+         */
+        private boolean enabled = true;
+        /**
+         * Reservations sent in one call at most.
+         */
+        private int maxSize = 100;
+        /**
+         * How long the first reservation of a batch may wait for others to join it.
+         */
+        private long windowMs = 5;
+        /**
+         * Batched calls in flight at the same time.
+         */
+        private int maxInFlight = 8;
+        /**
+         * Reservations waiting for a batch at most; further orders are rejected.
+         */
+        private int maxQueued = 1_000;
+    }
+
+    @Data
+    public static class OrderIntake {
+        /**
+         * Whether this instance processes queued order requests.
+         */
+        private boolean workerEnabled = true;
+        private long pollIntervalMs = 200;
+        private int batchSize = 200;
+        /**
+         * Stores processed in parallel; requests of one store are always processed one at a time, in order.
+         */
+        private int concurrency = 16;
+        /**
+         * How long a request may stay in PROCESSING before it is taken as abandoned by a crashed
+         * instance and queued again. Must be well above the time one order takes.
+         */
+        private long processingLeaseMs = 60_000;
+        /**
+         * How often a status stream re-reads the request.
+         */
+        private long statusPollMs = 500;
+        /**
+         * How long a status stream waits for the request to finish.
+         */
+        private long statusTimeoutMs = 60_000;
+    }
+
+    @Data
+    public static class Compensation {
+        /**
+         * Whether this instance sends journaled stock compensations to inventory-service.
+         */
+        private boolean workerEnabled = true;
+        private long pollIntervalMs = 1_000;
+        /**
+         * Compensations sent per call.
+         */
+        private int batchSize = 100;
+        /**
+         * Delay before the first retry of a failed compensation; doubles with every further failure.
+         */
+        private long initialBackoffMs = 1_000;
+        private long maxBackoffMs = 300_000;
+    }
+
+    @Data
+    public static class Listing {
+        private int defaultPageSize = 100;
+        /**
+         * Largest page a client may request; streaming reads pages of this size.
+         */
+        private int maxPageSize = 1_000;
+    }
+
+    @Data
+    public static class Admission {
+        private boolean enabled = true;
+        /**
+         * Orders processed at once; 0 derives it from the connection pool and the reservation batching capacity.
+         */
+        private int maxInFlight = 0;
+        /**
+         * Orders allowed in flight per pooled connection when deriving the limit. An order holds a
+         * connection only for its write transaction and spends most of its time waiting on inventory.
+         */
+        private int ordersPerConnection = 4;
+        /**
+         * Orders allowed to wait for a slot; further orders are rejected at once.
+         */
+        private int maxQueue = 100;
+        /**
+         * How long an order may wait for a slot before it is rejected.
+         */
+        private long queueTimeoutMs = 500;
+        private long retryAfterSeconds = 1;
+    }
+
+    /**
+     * Connection pool and timeouts of the WebClient used to call other services.
+     */
+    @Data
+    public static class HttpClient {
+        private int connectTimeoutMs = 2_000;
+        /**
+         * Time allowed between sending a request and receiving its response headers.
+         */
+        private long responseTimeoutMs = 5_000;
+        private int maxConnections = 200;
+        /**
+         * Requests allowed to wait for a free connection; further requests fail at once.
+         */
+        private int pendingAcquireMaxCount = 1_000;
+        private long pendingAcquireTimeoutMs = 2_000;
+        /**
+         * Idle connections are closed after this time, before the server or a load balancer drops them.
+         */
+        private long maxIdleTimeMs = 30_000;
+        private long maxLifeTimeMs = 300_000;
+        private long evictInBackgroundMs = 30_000;
+        /**
+         * Whether to use HTTP/2 cleartext (h2c); the called service needs {@code server.http2.enabled}.
+         */
+        private boolean h2c = false;
+    }
+
+    @Data
+    public static class Idempotency {
+        /**
+         * Idempotency keys kept in memory; older keys are still answered from the database.
+         */
+        private int maxEntries = 10_000;
+        private long ttlMs = 600_000;
+    }
 }
@@ -1,11 +1,16 @@
 package org.inventorysystem.orderservice.config;
 
+import io.netty.channel.ChannelOption;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
@@ -20,6 +25,7 @@ public class WebClientConfig {
     public WebClient inventoryClient(WebClient.Builder builder) {
         return builder
                 .baseUrl(environmentConfig.getDomains().getInventory())
+                .clientConnector(new ReactorClientHttpConnector(httpClient("inventory", environmentConfig.getHttpClient())))
                 .filter(ExchangeFilterFunction.ofResponseProcessor(clientResponse -> {
                     if (clientResponse.statusCode().isError()) {
                         return clientResponse.createException()
@@ -30,6 +36,29 @@ public class WebClientConfig {
                 .build();
     }
 
+    /**
+     * Builds a client with its own connection pool. The pool publishes its Micrometer metrics
+     * (active, idle and pending connections, and acquire time) under
+     * {@code reactor.netty.connection.provider.*}, tagged with the pool name.
+     */
+    private static HttpClient httpClient(String name, EnvironmentConfig.HttpClient config) {
+        ConnectionProvider provider = ConnectionProvider.builder(name)
+                .maxConnections(config.getMaxConnections())
+                .pendingAcquireMaxCount(config.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(config.getPendingAcquireTimeoutMs()))
+                .maxIdleTime(Duration.ofMillis(config.getMaxIdleTimeMs()))
+                .maxLifeTime(Duration.ofMillis(config.getMaxLifeTimeMs()))
+                .evictInBackground(Duration.ofMillis(config.getEvictInBackgroundMs()))
+                .metrics(true)
+                .build();
+        return HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getConnectTimeoutMs())
+                .responseTimeout(Duration.ofMillis(config.getResponseTimeoutMs()))
+                .protocol(config.isH2c()
+                        ? new HttpProtocol[]{HttpProtocol.H2C, HttpProtocol.HTTP11}
+                        : new HttpProtocol[]{HttpProtocol.HTTP11});
+    }
+
     @Bean
     public Retry inventoryRetrySpec() {
         return Retry.backoff(
@@ -2,14 +2,28 @@ package org.inventorysystem.orderservice.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.orderservice.admission.AdmissionController;
+import org.inventorysystem.orderservice.dto.OrderPageResponse;
 import org.inventorysystem.orderservice.dto.OrderRequest;
+import org.inventorysystem.orderservice.dto.OrderRequestStatusResponse;
+import org.inventorysystem.orderservice.dto.OrderWithItemsPageResponse;
 import org.inventorysystem.orderservice.entity.OrderEntity;
 import org.inventorysystem.orderservice.entity.OrderItemEntity;
+import org.inventorysystem.orderservice.exception.IdempotencyKeyMismatchException;
+import org.inventorysystem.orderservice.exception.OrderRejectedException;
+import org.inventorysystem.orderservice.idempotency.OrderIdempotencyCache;
+import org.inventorysystem.orderservice.service.OrderIntakeService;
 import org.inventorysystem.orderservice.service.OrderService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -26,14 +40,24 @@ import io.swagger.v3.oas.annotations.media.Schema;
 @Slf4j
 public class OrderController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final OrderService orderService;
+    private final AdmissionController admissionController;
+    private final OrderIntakeService orderIntakeService;
+    private final OrderIdempotencyCache orderIdempotencyCache;
 
     @Operation(
             summary = "Create a new order",
-            description = "Creates an order for the given store and user with the provided list of items.",
+            description = "Creates an order for the given store and user with the provided list of items. "
+                    + "Requests of a user repeated with the same Idempotency-Key return the order of the first one instead "
+                    + "of creating another.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Order created successfully",
                             content = @Content(schema = @Schema(implementation = OrderEntity.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid Idempotency-Key"),
+                    @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different order"),
+                    @ApiResponse(responseCode = "429", description = "Service at capacity; retry after the Retry-After delay"),
                     @ApiResponse(responseCode = "500", description = "Internal server error")
             }
     )
@@ -43,45 +67,166 @@ public class OrderController {
                     description = "Order request payload",
                     required = true,
                     content = @Content(schema = @Schema(implementation = OrderRequest.class)))
-            @RequestBody OrderRequest request) {
+            @RequestBody OrderRequest request,
+            @Parameter(description = "Client-generated key that makes retries of this request safe")
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
 
         log.info("Creating new order for user {} at store {}", request.getUserId(), request.getStoreId());
 
-        return orderService.createOrder(request)
+        Mono<OrderEntity> order = idempotencyKey == null
+                ? admissionController.admit(orderService.createOrder(request))
+                : orderIdempotencyCache.submit(request, idempotencyKey,
+                        key -> admissionController.admit(orderService.createOrder(request, key)));
+        return order
                 .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+                // Shed orders, invalid keys and reused keys are answered with 429, 400 and 422 by the exception handler
+                .onErrorResume(e -> !(e instanceof OrderRejectedException || e instanceof ServerWebInputException
+                        || e instanceof IdempotencyKeyMismatchException), e -> {
                     log.error("Failed to create order", e);
                     return Mono.just(ResponseEntity.internalServerError().build());
                 });
     }
 
+    @Operation(
+            summary = "Submit an order for asynchronous processing",
+            description = "Stores the order and returns immediately; stock is reserved and the order written in the "
+                    + "background. Follow the Location header to check the outcome.",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Order accepted",
+                            content = @Content(schema = @Schema(implementation = OrderRequestStatusResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Missing store, user or items")
+            }
+    )
+    @PostMapping("/requests")
+    public Mono<ResponseEntity<OrderRequestStatusResponse>> submitOrder(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Order request payload",
+                    required = true,
+                    content = @Content(schema = @Schema(implementation = OrderRequest.class)))
+            @RequestBody OrderRequest request) {
+        return orderIntakeService.enqueue(request)
+                .map(status -> ResponseEntity
+                        .accepted()
+                        .location(URI.create("/api/orders/requests/" + status.getRequestId()))
+                        .body(status));
+    }
+
+    @Operation(
+            summary = "Get order request status",
+            description = "Retrieves the status of an order submitted asynchronously.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Status retrieved",
+                            content = @Content(schema = @Schema(implementation = OrderRequestStatusResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Order request not found")
+            }
+    )
+    @GetMapping("/requests/{requestId}")
+    public Mono<ResponseEntity<OrderRequestStatusResponse>> getOrderRequest(
+            @Parameter(description = "Order request ID") @PathVariable Long requestId) {
+        return orderIntakeService.getStatus(requestId)
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(
+            summary = "Follow order request status",
+            description = "Streams the status of an order submitted asynchronously as NDJSON, one line per change, "
+                    + "until it is COMPLETED or REJECTED."
+    )
+    @GetMapping(value = "/requests/{requestId}/events", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderRequestStatusResponse> watchOrderRequest(
+            @Parameter(description = "Order request ID") @PathVariable Long requestId) {
+        return orderIntakeService.watchStatus(requestId);
+    }
+
     @Operation(
             summary = "Get orders by user",
-            description = "Retrieves all orders placed by a specific user.",
+            description = "Retrieves one page of the orders placed by a specific user, newest first.",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Orders retrieved",
-                            content = @Content(schema = @Schema(implementation = OrderEntity.class)))
+                    @ApiResponse(responseCode = "200", description = "Page of orders; pass nextCursor as 'cursor' for the next one",
+                            content = @Content(schema = @Schema(implementation = OrderPageResponse.class)))
             }
     )
     @GetMapping("/user/{userId}")
-    public Mono<ResponseEntity<List<OrderEntity>>> getOrdersByUser(
-            @Parameter(description = "User ID") @PathVariable Long userId) {
-        return orderService.getOrdersByUser(userId)
+    public Mono<ResponseEntity<OrderPageResponse>> getOrdersByUser(
+            @Parameter(description = "User ID") @PathVariable Long userId,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Only orders created at or after this time") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Only orders created before this time") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer limit) {
+        return orderService.getOrdersByUser(userId, cursor, from, to, limit)
                 .map(ResponseEntity::ok);
     }
 
+    @Operation(
+            summary = "Stream orders by user",
+            description = "Streams every order placed by a specific user as NDJSON, newest first."
+    )
+    @GetMapping(value = "/user/{userId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderEntity> streamOrdersByUser(
+            @Parameter(description = "User ID") @PathVariable Long userId,
+            @Parameter(description = "Only orders created at or after this time") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Only orders created before this time") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return orderService.streamOrdersByUser(userId, from, to);
+    }
+
     @Operation(
             summary = "Get orders by store",
-            description = "Retrieves all orders associated with a given store.",
+            description = "Retrieves one page of the orders associated with a given store, newest first.",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Orders retrieved",
-                            content = @Content(schema = @Schema(implementation = OrderEntity.class)))
+                    @ApiResponse(responseCode = "200", description = "Page of orders; pass nextCursor as 'cursor' for the next one",
+                            content = @Content(schema = @Schema(implementation = OrderPageResponse.class)))
             }
     )
     @GetMapping("/store/{storeId}")
-    public Mono<ResponseEntity<List<OrderEntity>>> getOrdersByStore(
-            @Parameter(description = "Store ID") @PathVariable Long storeId) {
-        return orderService.getOrdersByStore(storeId)
+    public Mono<ResponseEntity<OrderPageResponse>> getOrdersByStore(
+            @Parameter(description = "Store ID") @PathVariable Long storeId,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Only orders created at or after this time") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Only orders created before this time") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer limit) {
+        return orderService.getOrdersByStore(storeId, cursor, from, to, limit)
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(
+            summary = "Stream orders by store",
+            description = "Streams every order associated with a given store as NDJSON, newest first."
+    )
+    @GetMapping(value = "/store/{storeId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderEntity> streamOrdersByStore(
+            @Parameter(description = "Store ID") @PathVariable Long storeId,
+            @Parameter(description = "Only orders created at or after this time") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Only orders created before this time") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return orderService.streamOrdersByStore(storeId, from, to);
+    }
+
+    @Operation(
+            summary = "Get orders with items by store",
+            description = "Retrieves one page of the orders associated with a given store, newest first, "
+                    + "each with its items embedded.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Page of orders; pass nextCursor as 'cursor' for the next one",
+                            content = @Content(schema = @Schema(implementation = OrderWithItemsPageResponse.class)))
+            }
+    )
+    @GetMapping("/store/{storeId}/with-items")
+    public Mono<ResponseEntity<OrderWithItemsPageResponse>> getOrdersWithItemsByStore(
+            @Parameter(description = "Store ID") @PathVariable Long storeId,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Only orders created at or after this time") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Only orders created before this time") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer limit) {
+        return orderService.getOrdersWithItemsByStore(storeId, cursor, from, to, limit)
                 .map(ResponseEntity::ok);
     }
 
@@ -0,0 +1,24 @@
+package org.inventorysystem.orderservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.inventorysystem.orderservice.entity.OrderEntity;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of orders, newest first")
+public class OrderPageResponse {
+
+    @Schema(description = "Orders in this page")
+    private List<OrderEntity> items;
+
+    @Schema(description = "Value to pass as 'cursor' to get the next page; null on the last page")
+    private String nextCursor;
+}
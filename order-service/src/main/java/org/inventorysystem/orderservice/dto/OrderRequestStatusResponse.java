@@ -0,0 +1,54 @@
+package org.inventorysystem.orderservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.inventorysystem.orderservice.entity.OrderRequestEntity;
+import org.inventorysystem.orderservice.entity.OrderRequestStatus;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progress of an order submitted asynchronously")
+public class OrderRequestStatusResponse {
+
+    @Schema(description = "Order request ID", example = "1")
+    private Long requestId;
+
+    @Schema(description = "Store ID", example = "1")
+    private Long storeId;
+
+    @Schema(description = "User ID", example = "42")
+    private Long userId;
+
+    @Schema(description = "Current status", example = "PENDING")
+    private OrderRequestStatus status;
+
+    @Schema(description = "ID of the created order, once COMPLETED", example = "1001")
+    private Long orderId;
+
+    @Schema(description = "Why the order was not created, once REJECTED")
+    private String error;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    public static OrderRequestStatusResponse from(OrderRequestEntity entity) {
+        return OrderRequestStatusResponse.builder()
+                .requestId(entity.getId())
+                .storeId(entity.getStoreId())
+                .userId(entity.getUserId())
+                .status(entity.getStatus())
+                .orderId(entity.getOrderId())
+                .error(entity.getError())
+                .createdAt(entity.getCreatedAt())
+                .updatedAt(entity.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package org.inventorysystem.orderservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of orders with their items, newest first")
+public class OrderWithItemsPageResponse {
+
+    @Schema(description = "Orders in this page")
+    private List<OrderWithItemsResponse> items;
+
+    @Schema(description = "Value to pass as 'cursor' to get the next page; null on the last page")
+    private String nextCursor;
+}
@@ -0,0 +1,33 @@
+package org.inventorysystem.orderservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.inventorysystem.orderservice.entity.OrderItemEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Order with its items")
+public class OrderWithItemsResponse {
+
+    @Schema(description = "Order ID", example = "1001")
+    private Long id;
+
+    @Schema(description = "Store ID", example = "1")
+    private Long storeId;
+
+    @Schema(description = "User ID", example = "42")
+    private Long userId;
+
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Items of the order")
+    private List<OrderItemEntity> items;
+}
@@ -0,0 +1,57 @@
+package org.inventorysystem.orderservice.entity;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock to return to inventory-service for an order that failed after its reservation.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("inventory_compensations")
+public class InventoryCompensationEntity {
+
+    @Id
+    private Long id;
+
+    /**
+     * Idempotency key sent to inventory-service, so a compensation is applied once however often it is sent.
+     */
+    @Column("compensation_key")
+    private String compensationKey;
+
+    /**
+     * Key of the reservation the stock was taken by; inventory-service only returns the stock if
+     * that reservation was applied.
+     */
+    @Column("reservation_key")
+    private String reservationKey;
+
+    @Column("product_id")
+    private Long productId;
+
+    private Integer quantity;
+
+    private Integer attempts;
+
+    @Column("next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column("last_error")
+    private String lastError;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    /**
+     * Set once inventory-service has applied the compensation, or it was given up.
+     */
+    @Column("completed_at")
+    private LocalDateTime completedAt;
+}
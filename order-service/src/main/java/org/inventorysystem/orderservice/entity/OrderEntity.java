@@ -1,10 +1,14 @@
 package org.inventorysystem.orderservice.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.relational.core.mapping.Table;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @Builder
@@ -21,4 +25,18 @@ public class OrderEntity {
     private Long userId;
 
     private LocalDateTime createdAt;
+
+    /**
+     * Idempotency-Key the order was submitted with, if any. Unique per user and never returned to clients.
+     */
+    @JsonIgnore
+    private String idempotencyKey;
+
+    /**
+     * Inventory version of each product after this order's reservation, so callers can tell when a
+     * replica of the inventory reflects the order. Only set on the order returned by its creation.
+     */
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<Long, Long> stockVersions;
 }
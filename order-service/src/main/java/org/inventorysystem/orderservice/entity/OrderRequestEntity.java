@@ -0,0 +1,43 @@
+package org.inventorysystem.orderservice.entity;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("order_requests")
+public class OrderRequestEntity {
+
+    @Id
+    private Long id;
+
+    @Column("store_id")
+    private Long storeId;
+
+    @Column("user_id")
+    private Long userId;
+
+    /**
+     * The requested items, as JSON.
+     */
+    private String items;
+
+    private OrderRequestStatus status;
+
+    @Column("order_id")
+    private Long orderId;
+
+    private String error;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,24 @@
+package org.inventorysystem.orderservice.entity;
+
+public enum OrderRequestStatus {
+    /**
+     * Accepted and waiting for the worker.
+     */
+    PENDING,
+    /**
+     * Claimed by the worker; stock is being reserved and the order written.
+     */
+    PROCESSING,
+    /**
+     * The order was created; its ID is in {@code orderId}.
+     */
+    COMPLETED,
+    /**
+     * The order could not be created; the reason is in {@code error}.
+     */
+    REJECTED;
+
+    public boolean isFinal() {
+        return this == COMPLETED || this == REJECTED;
+    }
+}
@@ -9,5 +9,8 @@ public class ErrorCode {
 
     public static final String ORDER_NOT_COMPLETED_ERROR = BASE_CODE + "01";
     public static final String ORDER_NOT_FOUND = BASE_CODE + "02";
+    public static final String ORDER_REQUEST_NOT_FOUND = BASE_CODE + "03";
+    public static final String ORDER_REJECTED_OVERLOAD = BASE_CODE + "04";
+    public static final String IDEMPOTENCY_KEY_MISMATCH = BASE_CODE + "05";
 
 }
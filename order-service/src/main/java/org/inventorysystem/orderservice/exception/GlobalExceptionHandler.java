@@ -1,6 +1,7 @@
 package org.inventorysystem.orderservice.exception;
 
 import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -20,6 +21,28 @@ public class GlobalExceptionHandler {
                 .body("Order not found: " + ex.getMessage());
     }
 
+    @ExceptionHandler(OrderRequestNotFoundException.class)
+    public ResponseEntity<String> handleOrderRequestNotFound(OrderRequestNotFoundException ex) {
+        return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body("Order request not found: " + ex.getMessage());
+    }
+
+    @ExceptionHandler(OrderRejectedException.class)
+    public ResponseEntity<String> handleOrderRejected(OrderRejectedException ex) {
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body("Order rejected: " + ex.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<String> handleIdempotencyKeyMismatch(IdempotencyKeyMismatchException ex) {
+        return ResponseEntity
+                .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body("Idempotency-Key reused: " + ex.getMessage());
+    }
+
     @ExceptionHandler(ServerWebInputException.class)
     public ResponseEntity<String> handleWebInputException(ServerWebInputException ex) {
         return ResponseEntity
@@ -0,0 +1,17 @@
+package org.inventorysystem.orderservice.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when an Idempotency-Key is reused for an order that differs from the one it was first sent with.
+ */
+@Getter
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    private final String errorCode;
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+        this.errorCode = ErrorCode.IDEMPOTENCY_KEY_MISMATCH;
+    }
+}
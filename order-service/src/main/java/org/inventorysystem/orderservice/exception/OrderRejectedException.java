@@ -0,0 +1,19 @@
+package org.inventorysystem.orderservice.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when an order is shed because the service is at capacity.
+ */
+@Getter
+public class OrderRejectedException extends RuntimeException {
+
+    private final String errorCode;
+    private final long retryAfterSeconds;
+
+    public OrderRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.errorCode = ErrorCode.ORDER_REJECTED_OVERLOAD;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
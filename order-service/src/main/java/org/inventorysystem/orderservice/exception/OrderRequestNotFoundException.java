@@ -0,0 +1,14 @@
+package org.inventorysystem.orderservice.exception;
+
+import lombok.Getter;
+
+@Getter
+public class OrderRequestNotFoundException extends RuntimeException {
+
+    private final String errorCode;
+
+    public OrderRequestNotFoundException(Long id) {
+        super("Order request with ID " + id + " not found.");
+        this.errorCode = ErrorCode.ORDER_REQUEST_NOT_FOUND;
+    }
+}
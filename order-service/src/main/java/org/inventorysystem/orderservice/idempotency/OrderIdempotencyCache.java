@@ -0,0 +1,150 @@
+package org.inventorysystem.orderservice.idempotency;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.orderservice.config.EnvironmentConfig;
+import org.inventorysystem.orderservice.dto.OrderRequest;
+import org.inventorysystem.orderservice.entity.OrderEntity;
+import org.inventorysystem.orderservice.entity.OrderItemEntity;
+import org.inventorysystem.orderservice.exception.IdempotencyKeyMismatchException;
+import org.inventorysystem.orderservice.repository.OrderItemRepository;
+import org.inventorysystem.orderservice.repository.OrderRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Runs each order creation at most once per user and {@code Idempotency-Key}.
+ * <p>
+ * Keys live in a bounded in-memory cache, so concurrent requests with the same key share the
+ * first execution and later ones replay its order without touching the database. A key that is
+ * no longer cached is looked up in {@code orders}, whose unique key on {@code (user_id, idempotency_key)}
+ * also settles a race between instances: the losing creation releases its stock and the order
+ * of the winner is returned. Failed creations are not cached, so a retry runs again.
+ * <p>
+ * A key reused by the same user for a different store or different items is refused with
+ * {@link IdempotencyKeyMismatchException} instead of replaying an order the request did not ask for.
+ * <p>
+ * Hit, miss and eviction counters are published as {@code cache.*} meters tagged {@value #CACHE_NAME}.
+ */
+@Component
+@Slf4j
+public class OrderIdempotencyCache {
+
+    public static final String CACHE_NAME = "order.idempotency";
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final AsyncCache<Key, Created> orders;
+
+    public OrderIdempotencyCache(OrderRepository orderRepository,
+                                 OrderItemRepository orderItemRepository,
+                                 EnvironmentConfig environmentConfig,
+                                 MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        EnvironmentConfig.Idempotency config = environmentConfig.getIdempotency();
+        this.orders = Caffeine.newBuilder()
+                .maximumSize(config.getMaxEntries())
+                .expireAfterWrite(Duration.ofMillis(config.getTtlMs()))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, orders, CACHE_NAME);
+    }
+
+    /**
+     * Returns the order created for the user's key, creating it if the key has not been seen.
+     * Cancelling one request does not cancel a creation other requests are waiting on.
+     *
+     * @param request  The order being submitted.
+     * @param key      The client's idempotency key.
+     * @param creation Creates the order, storing the key with it.
+     * @return Mono emitting the order created for the key, or an {@link IdempotencyKeyMismatchException}
+     * if the key was first used for a different order.
+     */
+    public Mono<OrderEntity> submit(OrderRequest request, String key, Function<String, Mono<OrderEntity>> creation) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return Mono.error(new ServerWebInputException(
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters"));
+        }
+        Contents requested = Contents.of(request);
+        return Mono.fromFuture(() -> orders.get(new Key(request.getUserId(), key),
+                        (k, executor) -> createOnce(k, requested, creation).toFuture()), true)
+                .flatMap(created -> {
+                    if (!created.contents().equals(requested)) {
+                        log.warn("Idempotency key {} of user {} reused for a different order", key, request.getUserId());
+                        return Mono.error(new IdempotencyKeyMismatchException(
+                                "key was already used for order " + created.order().getId() + " with a different body"));
+                    }
+                    return Mono.just(created.order());
+                });
+    }
+
+    private Mono<Created> createOnce(Key key, Contents requested, Function<String, Mono<OrderEntity>> creation) {
+        return find(key)
+                .doOnNext(created -> log.info("Replaying order {} for idempotency key {}", created.order().getId(), key.value()))
+                .switchIfEmpty(Mono.defer(() -> creation.apply(key.value()))
+                        .map(order -> new Created(order, requested)))
+                .onErrorResume(OrderIdempotencyCache::isDuplicateKey, e -> {
+                    log.info("Order for idempotency key {} was created concurrently, replaying it", key.value());
+                    return find(key)
+                            .switchIfEmpty(Mono.error(e));
+                });
+    }
+
+    /**
+     * Looks up a stored order with the contents it was created with.
+     */
+    private Mono<Created> find(Key key) {
+        return orderRepository.findByUserIdAndIdempotencyKey(key.userId(), key.value())
+                .flatMap(order -> orderItemRepository.findByOrderId(order.getId())
+                        .collectList()
+                        .map(items -> new Created(order, Contents.of(order, items))));
+    }
+
+    private static boolean isDuplicateKey(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof DuplicateKeyException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Key(Long userId, String value) {
+    }
+
+    private record Created(OrderEntity order, Contents contents) {
+    }
+
+    /**
+     * What an order asks for: its store and the total quantity of each product.
+     */
+    private record Contents(Long storeId, Map<Long, Integer> quantities) {
+
+        static Contents of(OrderRequest request) {
+            Map<Long, Integer> quantities = new HashMap<>();
+            if (request.getItems() != null) {
+                request.getItems().forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+            }
+            return new Contents(request.getStoreId(), quantities);
+        }
+
+        static Contents of(OrderEntity order, List<OrderItemEntity> items) {
+            Map<Long, Integer> quantities = new HashMap<>();
+            items.forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+            return new Contents(order.getStoreId(), quantities);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.inventorysystem.orderservice.intake;
+
+import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.orderservice.config.EnvironmentConfig;
+import org.inventorysystem.orderservice.entity.OrderRequestEntity;
+import org.inventorysystem.orderservice.entity.OrderRequestStatus;
+import org.inventorysystem.orderservice.idempotency.OrderIdempotencyCache;
+import org.inventorysystem.orderservice.repository.OrderRequestRepository;
+import org.inventorysystem.orderservice.service.OrderIntakeService;
+import org.inventorysystem.orderservice.service.OrderService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Processes queued order requests in the background.
+ * <p>
+ * Each poll reads the oldest PENDING requests, groups them by store and processes the groups in
+ * parallel. Requests of one store are handled one after the other, in the order they were accepted,
+ * so concurrent orders of a store never compete for the same stock out of order. A request is
+ * claimed with a conditional update before it is processed, so several instances can run the
+ * worker without handling a request twice.
+ * <p>
+ * Processing is at least once: a request left in PROCESSING for longer than the configured lease,
+ * because the instance working on it crashed, is queued again. Its order is created under the
+ * idempotency key {@code intake-<request id>}, so a request processed again replays the order
+ * created the first time instead of reserving its stock twice.
+ */
+@Component
+@Slf4j
+public class OrderIntakeWorker implements DisposableBean {
+
+    private static final int MAX_ERROR_LENGTH = 1_000;
+    private static final String IDEMPOTENCY_KEY_PREFIX = "intake-";
+
+    private final OrderRequestRepository orderRequestRepository;
+    private final OrderService orderService;
+    private final OrderIntakeService orderIntakeService;
+    private final OrderIdempotencyCache orderIdempotencyCache;
+    private final EnvironmentConfig.OrderIntake config;
+
+    private Disposable worker;
+
+    public OrderIntakeWorker(OrderRequestRepository orderRequestRepository,
+                             OrderService orderService,
+                             OrderIntakeService orderIntakeService,
+                             OrderIdempotencyCache orderIdempotencyCache,
+                             EnvironmentConfig environmentConfig) {
+        this.orderRequestRepository = orderRequestRepository;
+        this.orderService = orderService;
+        this.orderIntakeService = orderIntakeService;
+        this.orderIdempotencyCache = orderIdempotencyCache;
+        this.config = environmentConfig.getOrderIntake();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isWorkerEnabled()) {
+            log.info("Order intake worker disabled on this instance");
+            return;
+        }
+        worker = Flux.interval(Duration.ZERO, Duration.ofMillis(config.getPollIntervalMs()))
+                .onBackpressureDrop()
+                .concatMap(tick -> requeueAbandoned()
+                        .then(drain())
+                        .onErrorResume(e -> {
+                            log.error("Order intake cycle failed", e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+        log.info("Order intake worker started, polling every {} ms", config.getPollIntervalMs());
+    }
+
+    /**
+     * Queues again the requests whose claim is older than the lease. Requests other instances are
+     * still working on keep their claim.
+     *
+     * @return Mono completing once the abandoned requests are PENDING again.
+     */
+    public Mono<Void> requeueAbandoned() {
+        LocalDateTime now = LocalDateTime.now();
+        return orderRequestRepository.requeueProcessing(now, now.minus(Duration.ofMillis(config.getProcessingLeaseMs())))
+                .doOnNext(requeued -> {
+                    if (requeued > 0) {
+                        log.warn("Requeued {} order request(s) left in PROCESSING past their lease", requeued);
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * Processes pending requests until none is left.
+     *
+     * @return Mono completing once the pending requests have been handled.
+     */
+    public Mono<Void> drain() {
+        return processBatch()
+                .expand(read -> read == config.getBatchSize() ? processBatch() : Mono.empty())
+                .then();
+    }
+
+    /**
+     * @return Mono emitting the number of pending requests read.
+     */
+    private Mono<Integer> processBatch() {
+        return orderRequestRepository.findPending(config.getBatchSize())
+                .collect(Collectors.groupingBy(OrderRequestEntity::getStoreId, LinkedHashMap::new, Collectors.toList()))
+                .flatMap(byStore -> Flux.fromIterable(byStore.values())
+                        .flatMap(this::processInOrder, config.getConcurrency())
+                        .then(Mono.just(byStore.values().stream().mapToInt(List::size).sum())));
+    }
+
+    private Flux<OrderRequestEntity> processInOrder(List<OrderRequestEntity> requests) {
+        return Flux.fromIterable(requests)
+                .concatMap(this::process);
+    }
+
+    /**
+     * Claims a request, creates its order, or replays the one an earlier run created, and records the outcome.
+     *
+     * @return Mono emitting the finished request, or empty if another worker claimed it first.
+     */
+    private Mono<OrderRequestEntity> process(OrderRequestEntity request) {
+        return orderRequestRepository.claim(request.getId(), LocalDateTime.now())
+                .filter(claimed -> claimed == 1)
+                .flatMap(claimed -> Mono.fromCallable(() -> orderIntakeService.toOrderRequest(request))
+                        .flatMap(orderRequest -> orderIdempotencyCache.submit(orderRequest, IDEMPOTENCY_KEY_PREFIX + request.getId(),
+                                key -> orderService.createOrder(orderRequest, key)))
+                        .map(order -> request.toBuilder()
+                                .status(OrderRequestStatus.COMPLETED)
+                                .orderId(order.getId())
+                                .build())
+                        .onErrorResume(e -> {
+                            log.warn("Order request {} rejected: {}", request.getId(), e.getMessage());
+                            return Mono.just(request.toBuilder()
+                                    .status(OrderRequestStatus.REJECTED)
+                                    .error(truncate(e.getMessage()))
+                                    .build());
+                        }))
+                .flatMap(finished -> {
+                    finished.setUpdatedAt(LocalDateTime.now());
+                    return orderRequestRepository.save(finished);
+                })
+                .onErrorResume(e -> {
+                    log.error("Could not record the outcome of order request {}, it stays in PROCESSING",
+                            request.getId(), e);
+                    return Mono.empty();
+                });
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @Override
+    public void destroy() {
+        if (worker != null) {
+            worker.dispose();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.inventorysystem.orderservice.repository;
+
+import org.inventorysystem.orderservice.entity.InventoryCompensationEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface InventoryCompensationRepository extends ReactiveCrudRepository<InventoryCompensationEntity, Long> {
+
+    @Query("SELECT * FROM inventory_compensations WHERE completed_at IS NULL AND next_attempt_at <= :now "
+            + "ORDER BY next_attempt_at, id LIMIT :limit")
+    Flux<InventoryCompensationEntity> findDue(LocalDateTime now, int limit);
+
+    @Query("SELECT COUNT(*) FROM inventory_compensations WHERE completed_at IS NULL")
+    Mono<Long> countPending();
+
+    @Modifying
+    @Query("UPDATE inventory_compensations SET completed_at = :now, attempts = attempts + 1 WHERE id IN (:ids)")
+    Mono<Integer> markCompleted(Collection<Long> ids, LocalDateTime now);
+
+    /**
+     * Gives up on compensations that can never be applied, keeping the reason.
+     */
+    @Modifying
+    @Query("UPDATE inventory_compensations SET completed_at = :now, attempts = attempts + 1, last_error = :error "
+            + "WHERE id IN (:ids)")
+    Mono<Integer> markAbandoned(Collection<Long> ids, LocalDateTime now, String error);
+
+    /**
+     * Schedules the next attempt of each compensation with exponential backoff on its own attempt count:
+     * {@code initialBackoffMs * 2^attempts}, capped at {@code maxBackoffMs}.
+     * MySQL evaluates the assignments left to right, so the delay is computed before attempts is incremented.
+     *
+     * @return number of compensations rescheduled.
+     */
+    @Modifying
+    @Query("UPDATE inventory_compensations SET "
+            + "next_attempt_at = DATE_ADD(:now, INTERVAL LEAST(:initialBackoffMs * POW(2, LEAST(attempts, 20)), :maxBackoffMs) * 1000 MICROSECOND), "
+            + "last_error = :error, attempts = attempts + 1 WHERE id IN (:ids)")
+    Mono<Integer> reschedule(Collection<Long> ids, LocalDateTime now, long initialBackoffMs, long maxBackoffMs, String error);
+}
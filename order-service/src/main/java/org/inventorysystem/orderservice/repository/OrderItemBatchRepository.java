@@ -0,0 +1,59 @@
+package org.inventorysystem.orderservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.inventorysystem.orderservice.entity.OrderItemEntity;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Inserts all the items of an order with a single multi-row statement.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderItemBatchRepository {
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Inserts the items in one INSERT and assigns their generated IDs.
+     * <p>
+     * A multi-row INSERT with an explicit row list is an InnoDB "simple insert": its auto-increment
+     * values are reserved at once and are consecutive, so the IDs are derived from the first one.
+     * This assumes {@code auto_increment_increment = 1}.
+     *
+     * @param items Items without IDs; they are updated in place.
+     * @return Mono emitting the same items with their IDs set.
+     */
+    public Mono<List<OrderItemEntity>> insertAll(List<OrderItemEntity> items) {
+        if (items.isEmpty()) {
+            return Mono.just(items);
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO order_items (order_id, product_id, quantity) VALUES ");
+        for (int i = 0; i < items.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:orderId").append(i)
+                    .append(", :productId").append(i)
+                    .append(", :quantity").append(i).append(')');
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                .filter(statement -> statement.returnGeneratedValues("id"));
+        for (int i = 0; i < items.size(); i++) {
+            OrderItemEntity item = items.get(i);
+            spec = spec.bind("orderId" + i, item.getOrderId())
+                    .bind("productId" + i, item.getProductId())
+                    .bind("quantity" + i, item.getQuantity());
+        }
+        return spec.map(row -> row.get("id", Long.class))
+                .first()
+                .map(firstId -> {
+                    for (int i = 0; i < items.size(); i++) {
+                        items.get(i).setId(firstId + i);
+                    }
+                    return items;
+                });
+    }
+}
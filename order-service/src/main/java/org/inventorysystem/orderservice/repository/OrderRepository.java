@@ -1,12 +1,39 @@
 package org.inventorysystem.orderservice.repository;
 
 import org.inventorysystem.orderservice.entity.OrderEntity;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
 
 @Repository
 public interface OrderRepository extends ReactiveCrudRepository<OrderEntity, Long> {
-    Flux<OrderEntity> findByUserId(Long userId);
-    Flux<OrderEntity> findByStoreId(Long storeId);
+
+    /**
+     * Orders of a user created at or after {@code from} and before the {@code (createdAt, id)}
+     * position, newest first. Served by {@code idx_orders_user_created}.
+     */
+    @Query("SELECT * FROM orders WHERE user_id = :userId AND created_at >= :from"
+            + " AND (created_at < :beforeCreatedAt OR (created_at = :beforeCreatedAt AND id < :beforeId))"
+            + " ORDER BY created_at DESC, id DESC LIMIT :limit")
+    Flux<OrderEntity> findPageByUserId(Long userId, LocalDateTime from,
+                                       LocalDateTime beforeCreatedAt, long beforeId, int limit);
+
+    /**
+     * Orders of a store created at or after {@code from} and before the {@code (createdAt, id)}
+     * position, newest first. Served by {@code idx_orders_store_created}.
+     */
+    @Query("SELECT * FROM orders WHERE store_id = :storeId AND created_at >= :from"
+            + " AND (created_at < :beforeCreatedAt OR (created_at = :beforeCreatedAt AND id < :beforeId))"
+            + " ORDER BY created_at DESC, id DESC LIMIT :limit")
+    Flux<OrderEntity> findPageByStoreId(Long storeId, LocalDateTime from,
+                                        LocalDateTime beforeCreatedAt, long beforeId, int limit);
+
+    /**
+     * The order a user submitted with an Idempotency-Key. Served by {@code uk_orders_user_idempotency_key}.
+     */
+    Mono<OrderEntity> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
 }
@@ -0,0 +1,37 @@
+package org.inventorysystem.orderservice.repository;
+
+import org.inventorysystem.orderservice.entity.OrderRequestEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface OrderRequestRepository extends ReactiveCrudRepository<OrderRequestEntity, Long> {
+
+    @Query("SELECT * FROM order_requests WHERE status = 'PENDING' ORDER BY id LIMIT :limit")
+    Flux<OrderRequestEntity> findPending(int limit);
+
+    /**
+     * Moves a request from PENDING to PROCESSING.
+     *
+     * @return 1 if this caller claimed the request, 0 if it was no longer pending.
+     */
+    @Modifying
+    @Query("UPDATE order_requests SET status = 'PROCESSING', updated_at = :now WHERE id = :id AND status = 'PENDING'")
+    Mono<Integer> claim(Long id, LocalDateTime now);
+
+    /**
+     * Returns requests claimed before {@code claimedBefore} and still in PROCESSING to PENDING.
+     *
+     * @return number of requests requeued.
+     */
+    @Modifying
+    @Query("UPDATE order_requests SET status = 'PENDING', updated_at = :now"
+            + " WHERE status = 'PROCESSING' AND updated_at < :claimedBefore")
+    Mono<Integer> requeueProcessing(LocalDateTime now, LocalDateTime claimedBefore);
+}
@@ -0,0 +1,95 @@
+package org.inventorysystem.orderservice.repository;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import lombok.RequiredArgsConstructor;
+import org.inventorysystem.orderservice.dto.OrderWithItemsResponse;
+import org.inventorysystem.orderservice.entity.OrderItemEntity;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Reads orders together with their items in one query.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderWithItemsRepository {
+
+    /**
+     * Same keyset page as {@link OrderRepository#findPageByStoreId}, joined with the items of
+     * each order. Rows come grouped by order, in page order, so they can be folded as they arrive.
+     */
+    private static final String STORE_PAGE_SQL = """
+            SELECT o.id, o.store_id, o.user_id, o.created_at,
+                   i.id AS item_id, i.product_id, i.quantity
+            FROM (SELECT id, store_id, user_id, created_at
+                  FROM orders
+                  WHERE store_id = :storeId AND created_at >= :from
+                    AND (created_at < :beforeCreatedAt OR (created_at = :beforeCreatedAt AND id < :beforeId))
+                  ORDER BY created_at DESC, id DESC
+                  LIMIT :limit) o
+            LEFT JOIN order_items i ON i.order_id = o.id
+            ORDER BY o.created_at DESC, o.id DESC, i.id
+            """;
+
+    private static final BiFunction<Row, RowMetadata, JoinedRow> ROW_MAPPER = (row, metadata) -> {
+        Long orderId = row.get("id", Long.class);
+        Long itemId = row.get("item_id", Long.class);
+        return new JoinedRow(
+                orderId,
+                row.get("store_id", Long.class),
+                row.get("user_id", Long.class),
+                row.get("created_at", LocalDateTime.class),
+                itemId == null ? null : new OrderItemEntity(itemId, orderId,
+                        row.get("product_id", Long.class), row.get("quantity", Integer.class)));
+    };
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Orders of a store created at or after {@code from} and before the {@code (createdAt, id)}
+     * position, newest first, each with its items.
+     */
+    public Flux<OrderWithItemsResponse> findPageByStoreId(Long storeId, LocalDateTime from,
+                                                          LocalDateTime beforeCreatedAt, long beforeId, int limit) {
+        return databaseClient.sql(STORE_PAGE_SQL)
+                .bind("storeId", storeId)
+                .bind("from", from)
+                .bind("beforeCreatedAt", beforeCreatedAt)
+                .bind("beforeId", beforeId)
+                .bind("limit", limit)
+                .map(ROW_MAPPER)
+                .all()
+                .bufferUntilChanged(JoinedRow::orderId)
+                .map(OrderWithItemsRepository::toOrder);
+    }
+
+    private static OrderWithItemsResponse toOrder(List<JoinedRow> rows) {
+        JoinedRow first = rows.get(0);
+        List<OrderItemEntity> items = new ArrayList<>(rows.size());
+        for (JoinedRow row : rows) {
+            if (row.item() != null) {
+                items.add(row.item());
+            }
+        }
+        return OrderWithItemsResponse.builder()
+                .id(first.orderId())
+                .storeId(first.storeId())
+                .userId(first.userId())
+                .createdAt(first.createdAt())
+                .items(items)
+                .build();
+    }
+
+    /**
+     * One row of the join: an order and one of its items, or no item for an order without any.
+     */
+    private record JoinedRow(Long orderId, Long storeId, Long userId, LocalDateTime createdAt, OrderItemEntity item) {
+    }
+}
@@ -0,0 +1,108 @@
+package org.inventorysystem.orderservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.orderservice.config.EnvironmentConfig;
+import org.inventorysystem.orderservice.dto.OrderRequest;
+import org.inventorysystem.orderservice.dto.OrderRequestStatusResponse;
+import org.inventorysystem.orderservice.entity.OrderRequestEntity;
+import org.inventorysystem.orderservice.entity.OrderRequestStatus;
+import org.inventorysystem.orderservice.exception.OrderRequestNotFoundException;
+import org.inventorysystem.orderservice.repository.OrderRequestRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Accepts orders for asynchronous processing and reports their progress.
+ * <p>
+ * An accepted order is stored as a PENDING row of {@code order_requests} and answered right away;
+ * {@link org.inventorysystem.orderservice.intake.OrderIntakeWorker} reserves the stock and writes
+ * the order later, so the caller no longer waits on the inventory service.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderIntakeService {
+
+    private final OrderRequestRepository orderRequestRepository;
+    private final EnvironmentConfig environmentConfig;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stores an order request for later processing.
+     *
+     * @param request Order creation request containing storeId, userId, and items.
+     * @return Mono emitting the PENDING request.
+     */
+    public Mono<OrderRequestStatusResponse> enqueue(OrderRequest request) {
+        if (request.getStoreId() == null || request.getUserId() == null
+                || request.getItems() == null || request.getItems().isEmpty()) {
+            return Mono.error(new ServerWebInputException("storeId, userId and at least one item are required"));
+        }
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(request.getItems()))
+                .map(items -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    return OrderRequestEntity.builder()
+                            .storeId(request.getStoreId())
+                            .userId(request.getUserId())
+                            .items(items)
+                            .status(OrderRequestStatus.PENDING)
+                            .createdAt(now)
+                            .updatedAt(now)
+                            .build();
+                })
+                .flatMap(orderRequestRepository::save)
+                .doOnSuccess(saved -> log.info("Accepted order request {} for storeId={}, userId={}",
+                        saved.getId(), saved.getStoreId(), saved.getUserId()))
+                .map(OrderRequestStatusResponse::from);
+    }
+
+    /**
+     * Retrieves the current status of an order request.
+     *
+     * @param requestId Order request ID.
+     * @return Mono emitting the request status, or an error if it does not exist.
+     */
+    public Mono<OrderRequestStatusResponse> getStatus(Long requestId) {
+        return orderRequestRepository.findById(requestId)
+                .switchIfEmpty(Mono.error(new OrderRequestNotFoundException(requestId)))
+                .map(OrderRequestStatusResponse::from);
+    }
+
+    /**
+     * Follows an order request until it is COMPLETED or REJECTED, emitting every status change.
+     * The stream ends after the final status, or when the configured timeout expires.
+     *
+     * @param requestId Order request ID.
+     * @return Flux emitting the current status and then each change.
+     */
+    public Flux<OrderRequestStatusResponse> watchStatus(Long requestId) {
+        EnvironmentConfig.OrderIntake config = environmentConfig.getOrderIntake();
+        return getStatus(requestId)
+                .concatWith(Flux.interval(Duration.ofMillis(config.getStatusPollMs()))
+                        .onBackpressureDrop()
+                        .concatMap(tick -> getStatus(requestId), 1))
+                .distinctUntilChanged(OrderRequestStatusResponse::getStatus)
+                .takeUntil(status -> status.getStatus().isFinal())
+                .take(Duration.ofMillis(config.getStatusTimeoutMs()));
+    }
+
+    /**
+     * Reads the items stored with a request.
+     */
+    public OrderRequest toOrderRequest(OrderRequestEntity entity) {
+        try {
+            return new OrderRequest(entity.getStoreId(), entity.getUserId(),
+                    objectMapper.readerForListOf(OrderRequest.OrderItemRequest.class).readValue(entity.getItems()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable items in order request " + entity.getId(), e);
+        }
+    }
+}
@@ -2,20 +2,33 @@ package org.inventorysystem.orderservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.orderservice.config.EnvironmentConfig;
+import org.inventorysystem.orderservice.dto.OrderPageResponse;
 import org.inventorysystem.orderservice.dto.OrderRequest;
+import org.inventorysystem.orderservice.dto.OrderWithItemsPageResponse;
+import org.inventorysystem.orderservice.dto.OrderWithItemsResponse;
+import org.inventorysystem.orderservice.entity.InventoryCompensationEntity;
 import org.inventorysystem.orderservice.entity.OrderEntity;
 import org.inventorysystem.orderservice.entity.OrderItemEntity;
+import org.inventorysystem.orderservice.exception.InsufficientStockException;
 import org.inventorysystem.orderservice.exception.OrderNotCompletedException;
 import org.inventorysystem.orderservice.exception.OrderNotFoundException;
+import org.inventorysystem.orderservice.exception.OrderRejectedException;
+import org.inventorysystem.orderservice.repository.InventoryCompensationRepository;
+import org.inventorysystem.orderservice.repository.OrderItemBatchRepository;
 import org.inventorysystem.orderservice.repository.OrderItemRepository;
 import org.inventorysystem.orderservice.repository.OrderRepository;
+import org.inventorysystem.orderservice.repository.OrderWithItemsRepository;
 import org.inventorysystem.orderservice.service.facade.InventoryFacade;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Service responsible for handling business logic related to order creation and queries.
@@ -25,41 +38,74 @@ import java.util.List;
 @Slf4j
 public class OrderService {
 
+    private static final LocalDateTime NO_LOWER_BOUND = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime NO_UPPER_BOUND = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final InventoryFacade inventoryFacade;
+    private final OrderItemBatchRepository orderItemBatchRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final EnvironmentConfig environmentConfig;
+    private final OrderWithItemsRepository orderWithItemsRepository;
+    private final InventoryCompensationRepository inventoryCompensationRepository;
 
     /**
      * Creates a new order:
-     * 1. Saves the order entity.
-     * 2. Validates and reserves stock for all requested items.
-     * 3. Saves the individual order items.
+     * 1. Validates and reserves stock for all requested items (all or nothing), under a key
+     * generated for the order.
+     * 2. Saves the order and all of its items in one transaction, journaling the
+     * release of the reserved stock if that fails.
+     * Nothing is written for an order whose reservation is rejected, and the writes
+     * take two statements however many items the order has. When the outcome of the
+     * reservation is unknown, because the call failed, timed out or was cancelled, the release
+     * is journaled as well; inventory-service only returns the stock if the reservation was applied.
+     * An order cancelled while it is being saved journals the release too.
      *
      * @param request Order creation request containing storeId, userId, and items.
      * @return Mono emitting the created OrderEntity.
      */
     public Mono<OrderEntity> createOrder(OrderRequest request) {
-        OrderEntity newOrder = OrderEntity.builder()
-                .createdAt(LocalDateTime.now())
-                .storeId(request.getStoreId())
-                .userId(request.getUserId())
-                .build();
-
-        return orderRepository.save(newOrder)
-                .doOnSuccess(o -> log.info("Order base saved for storeId={}, userId={}, orderId={}",
-                        o.getStoreId(), o.getUserId(), o.getId()))
+        return createOrder(request, null);
+    }
 
-                .flatMap(savedOrder -> inventoryFacade.validateAndReserveStock(request.getItems())
-                        .then(saveOrderItems(savedOrder.getId(), request.getItems()))
-                        .thenReturn(savedOrder)
-                        .doOnSuccess(o -> log.info("Order completed successfully for orderId={}", o.getId()))
+    /**
+     * Creates a new order as {@link #createOrder(OrderRequest)} does, storing the client's idempotency key
+     * with it. Saving fails with a duplicate key error if an order already exists for the key, in which
+     * case the reserved stock is released like for any other failed save.
+     *
+     * @param request        Order creation request containing storeId, userId, and items.
+     * @param idempotencyKey Key the order was submitted with, or null.
+     * @return Mono emitting the created OrderEntity, with the inventory version of each reserved product.
+     */
+    public Mono<OrderEntity> createOrder(OrderRequest request, String idempotencyKey) {
+        String reservationKey = UUID.randomUUID().toString();
+        AtomicBoolean journaled = new AtomicBoolean();
+        return inventoryFacade.validateAndReserveStock(reservationKey, request.getItems())
+                .onErrorResume(error -> !(error instanceof InsufficientStockException
+                        || error instanceof OrderRejectedException), error -> {
+                    log.error("Reservation {} outcome unknown, rolling back inventory. Error: {}",
+                            reservationKey, error.getMessage());
+                    return rollbackInventory(journaled, reservationKey, request.getItems())
+                            .then(Mono.error(error));
+                })
+                .flatMap(stockVersions -> saveOrder(request, idempotencyKey)
+                        .doOnNext(order -> order.setStockVersions(stockVersions))
                         .onErrorResume(error -> {
-                            log.error("Failed saving order items, rolling back inventory. Error: {}", error.getMessage());
-                            return rollbackInventory(request.getItems())
+                            log.error("Failed saving order, rolling back inventory. Error: {}", error.getMessage());
+                            return rollbackInventory(journaled, reservationKey, request.getItems())
                                     .then(Mono.error(error));
                         }))
+                // Covers a cancel while reserving and while saving; the save transaction rolls back on cancel
+                .doOnCancel(() -> {
+                    log.warn("Order with reservation {} cancelled, rolling back inventory", reservationKey);
+                    rollbackInventory(journaled, reservationKey, request.getItems()).subscribe();
+                })
+                .doOnSuccess(o -> log.info("Order completed successfully for storeId={}, userId={}, orderId={}",
+                        o.getStoreId(), o.getUserId(), o.getId()))
 
-                .onErrorResume(e -> {
+                // Shed orders keep their 429
+                .onErrorResume(e -> !(e instanceof OrderRejectedException), e -> {
                     OrderNotCompletedException wrapped =
                             new OrderNotCompletedException("Could not complete order: " + e.getMessage(), e);
                     log.error("[{}] {}", wrapped.getErrorCode(), wrapped.getMessage(), e);
@@ -67,72 +113,234 @@ public class OrderService {
                 });
     }
 
-    private Mono<Void> rollbackInventory(List<OrderRequest.OrderItemRequest> items) {
-        return Flux.fromIterable(items)
-                .flatMap(item -> inventoryFacade.increaseStock(item.getProductId(), item.getQuantity())
-                        .doOnSuccess(p ->
-                                log.info("Rolled back stock for productId={}, amount={}", item.getProductId(), item.getQuantity()))
-                        .onErrorResume(e -> {
-                            log.error("Failed to rollback stock for productId={}: {}", item.getProductId(), e.getMessage());
-                            return Mono.empty();
-                        }))
-                .then();
+    /**
+     * Records a compensation per item in the journal, in one transaction; the
+     * {@link org.inventorysystem.orderservice.compensation.CompensationWorker} returns the stock to
+     * inventory-service in the background. The order has already failed, so a journal write
+     * error is only logged.
+     * <p>
+     * The journal is written at most once per order, and the write is not cancelled with the
+     * order: a cancel that arrives while it runs must not lose the compensation.
+     *
+     * @param journaled      Set once the compensations of the order have been journaled.
+     * @param reservationKey Key of the reservation the stock was taken by.
+     * @param items          Items whose stock was reserved.
+     * @return Mono completing once the compensations are recorded.
+     */
+    private Mono<Void> rollbackInventory(AtomicBoolean journaled, String reservationKey,
+                                         List<OrderRequest.OrderItemRequest> items) {
+        if (!journaled.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<InventoryCompensationEntity> compensations = items.stream()
+                .map(item -> InventoryCompensationEntity.builder()
+                        .compensationKey(UUID.randomUUID().toString())
+                        .reservationKey(reservationKey)
+                        .productId(item.getProductId())
+                        .quantity(item.getQuantity())
+                        .attempts(0)
+                        .nextAttemptAt(now)
+                        .createdAt(now)
+                        .build())
+                .toList();
+        Mono<Void> journal = transactionalOperator.transactional(inventoryCompensationRepository.saveAll(compensations).then())
+                .doOnSuccess(v -> log.info("Recorded {} stock compensation(s)", compensations.size()))
+                .onErrorResume(e -> {
+                    log.error("Failed to record stock compensations for items={}: {}", items, e.getMessage());
+                    return Mono.empty();
+                });
+        return Mono.fromFuture(journal.toFuture(), true);
     }
 
     /**
-     * Saves the list of order items related to a specific order.
+     * Saves the order header and its items in one transaction, the items with a single multi-row insert.
      *
-     * @param orderId ID of the parent order.
-     * @param items   List of item requests to convert and persist.
-     * @return Flux emitting each saved OrderItemEntity.
+     * @param request        Order creation request.
+     * @param idempotencyKey Key to store with the order, or null.
+     * @return Mono emitting the saved OrderEntity once the transaction commits.
      */
-    private Mono<List<OrderItemEntity>> saveOrderItems(Long orderId, List<OrderRequest.OrderItemRequest> items) {
-        return Flux.fromIterable(items)
+    private Mono<OrderEntity> saveOrder(OrderRequest request, String idempotencyKey) {
+        OrderEntity newOrder = OrderEntity.builder()
+                .createdAt(LocalDateTime.now())
+                .storeId(request.getStoreId())
+                .userId(request.getUserId())
+                .idempotencyKey(idempotencyKey)
+                .build();
+
+        return transactionalOperator.transactional(orderRepository.save(newOrder)
+                .flatMap(savedOrder -> orderItemBatchRepository.insertAll(toItems(savedOrder.getId(), request.getItems()))
+                        .doOnNext(items -> log.info("Saved {} item(s) for orderId={}", items.size(), savedOrder.getId()))
+                        .thenReturn(savedOrder)));
+    }
+
+    private List<OrderItemEntity> toItems(Long orderId, List<OrderRequest.OrderItemRequest> items) {
+        return items.stream()
                 .map(item -> new OrderItemEntity(null, orderId, item.getProductId(), item.getQuantity()))
-                .flatMap(orderItemRepository::save)
-                .doOnNext(item -> log.info("Saved order item: orderId={}, productId={}, quantity={}",
-                        item.getOrderId(), item.getProductId(), item.getQuantity()))
-                .collectList();
+                .toList();
     }
 
     /**
-     * Retrieves all orders made by a specific user.
+     * Retrieves one page of the orders made by a specific user, newest first.
      *
      * @param userId ID of the user.
-     * @return Flux of OrderEntity instances.
+     * @param cursor Cursor returned with the previous page, or null for the first page.
+     * @param from   Only orders created at or after this time, if set.
+     * @param to     Only orders created before this time, if set.
+     * @param limit  Page size, capped at the configured maximum.
+     * @return Mono emitting the page, or an error if the user has no orders at all.
      */
-    public Mono<List<OrderEntity>> getOrdersByUser(Long userId) {
-        log.info("Fetching orders for userId={}", userId);
-        return orderRepository.findByUserId(userId)
-                .switchIfEmpty(Mono.error(new OrderNotFoundException()))
-                .collectList();
+    public Mono<OrderPageResponse> getOrdersByUser(Long userId, String cursor,
+                                                   LocalDateTime from, LocalDateTime to, Integer limit) {
+        log.info("Fetching orders for userId={} cursor={}", userId, cursor);
+        return getPage((lower, before, size) -> orderRepository.findPageByUserId(
+                        userId, lower, before.createdAt(), before.id(), size),
+                cursor, from, to, limit);
     }
 
     /**
-     * Retrieves all orders placed in a specific store.
+     * Retrieves one page of the orders placed in a specific store, newest first.
      *
      * @param storeId ID of the store.
-     * @return Flux of OrderEntity instances.
+     * @param cursor  Cursor returned with the previous page, or null for the first page.
+     * @param from    Only orders created at or after this time, if set.
+     * @param to      Only orders created before this time, if set.
+     * @param limit   Page size, capped at the configured maximum.
+     * @return Mono emitting the page, or an error if the store has no orders at all.
      */
-    public Mono<List<OrderEntity>> getOrdersByStore(Long storeId) {
-        log.info("Fetching orders for storeId={}", storeId);
-        return orderRepository.findByStoreId(storeId)
-                .switchIfEmpty(Mono.error(new OrderNotFoundException()))
-                .collectList();
+    public Mono<OrderPageResponse> getOrdersByStore(Long storeId, String cursor,
+                                                    LocalDateTime from, LocalDateTime to, Integer limit) {
+        log.info("Fetching orders for storeId={} cursor={}", storeId, cursor);
+        return getPage((lower, before, size) -> orderRepository.findPageByStoreId(
+                        storeId, lower, before.createdAt(), before.id(), size),
+                cursor, from, to, limit);
     }
 
     /**
-     * Retrieves all items associated with a given order.
+     * Streams every order made by a specific user in the given range, newest first. The history
+     * is read in keyset pages of the configured maximum size, one query at a time.
+     */
+    public Flux<OrderEntity> streamOrdersByUser(Long userId, LocalDateTime from, LocalDateTime to) {
+        log.info("Streaming orders for userId={}", userId);
+        return stream((lower, before, size) -> orderRepository.findPageByUserId(
+                userId, lower, before.createdAt(), before.id(), size), from, to);
+    }
+
+    /**
+     * Streams every order placed in a specific store in the given range, newest first. The history
+     * is read in keyset pages of the configured maximum size, one query at a time.
+     */
+    public Flux<OrderEntity> streamOrdersByStore(Long storeId, LocalDateTime from, LocalDateTime to) {
+        log.info("Streaming orders for storeId={}", storeId);
+        return stream((lower, before, size) -> orderRepository.findPageByStoreId(
+                storeId, lower, before.createdAt(), before.id(), size), from, to);
+    }
+
+    /**
+     * Retrieves one page of the orders placed in a specific store with their items embedded,
+     * newest first. The orders and their items are read with a single join query.
+     *
+     * @param storeId ID of the store.
+     * @param cursor  Cursor returned with the previous page, or null for the first page.
+     * @param from    Only orders created at or after this time, if set.
+     * @param to      Only orders created before this time, if set.
+     * @param limit   Page size, capped at the configured maximum.
+     * @return Mono emitting the page, or an error if the store has no orders at all.
+     */
+    public Mono<OrderWithItemsPageResponse> getOrdersWithItemsByStore(Long storeId, String cursor,
+                                                                      LocalDateTime from, LocalDateTime to, Integer limit) {
+        log.info("Fetching orders with items for storeId={} cursor={}", storeId, cursor);
+        int pageSize = pageSize(limit);
+        return Mono.fromCallable(() -> cursor != null ? OrderCursor.decode(cursor) : firstPosition(to))
+                .flatMap(start -> orderWithItemsRepository.findPageByStoreId(
+                        storeId, lowerBound(from), start.createdAt(), start.id(), pageSize + 1).collectList())
+                .flatMap(rows -> {
+                    if (rows.isEmpty() && cursor == null && from == null && to == null) {
+                        return Mono.error(new OrderNotFoundException());
+                    }
+                    boolean hasMore = rows.size() > pageSize;
+                    List<OrderWithItemsResponse> items = hasMore ? rows.subList(0, pageSize) : rows;
+                    OrderWithItemsResponse last = hasMore ? items.get(items.size() - 1) : null;
+                    return Mono.just(OrderWithItemsPageResponse.builder()
+                            .items(items)
+                            .nextCursor(hasMore ? new OrderCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                            .build());
+                });
+    }
+
+    private Mono<OrderPageResponse> getPage(PageQuery query, String cursor,
+                                            LocalDateTime from, LocalDateTime to, Integer limit) {
+        int pageSize = pageSize(limit);
+        return Mono.fromCallable(() -> cursor != null ? OrderCursor.decode(cursor) : firstPosition(to))
+                .flatMap(start -> query.find(lowerBound(from), start, pageSize + 1).collectList())
+                .flatMap(rows -> {
+                    if (rows.isEmpty() && cursor == null && from == null && to == null) {
+                        return Mono.error(new OrderNotFoundException());
+                    }
+                    boolean hasMore = rows.size() > pageSize;
+                    List<OrderEntity> items = hasMore ? rows.subList(0, pageSize) : rows;
+                    return Mono.just(OrderPageResponse.builder()
+                            .items(items)
+                            .nextCursor(hasMore ? OrderCursor.after(items.get(items.size() - 1)).encode() : null)
+                            .build());
+                });
+    }
+
+    private Flux<OrderEntity> stream(PageQuery query, LocalDateTime from, LocalDateTime to) {
+        int pageSize = environmentConfig.getListing().getMaxPageSize();
+        LocalDateTime lower = lowerBound(from);
+        return query.find(lower, firstPosition(to), pageSize).collectList()
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : query.find(lower, OrderCursor.after(page.get(page.size() - 1)), pageSize).collectList())
+                .flatMapIterable(page -> page);
+    }
+
+    private int pageSize(Integer limit) {
+        EnvironmentConfig.Listing listing = environmentConfig.getListing();
+        if (limit == null || limit <= 0) {
+            return listing.getDefaultPageSize();
+        }
+        return Math.min(limit, listing.getMaxPageSize());
+    }
+
+    /**
+     * Position just past the newest order to list: everything created before {@code to}.
+     */
+    private static OrderCursor firstPosition(LocalDateTime to) {
+        return new OrderCursor(to != null ? to : NO_UPPER_BOUND, 0L);
+    }
+
+    private static LocalDateTime lowerBound(LocalDateTime from) {
+        return from != null ? from : NO_LOWER_BOUND;
+    }
+
+    @FunctionalInterface
+    private interface PageQuery {
+        Flux<OrderEntity> find(LocalDateTime from, OrderCursor before, int limit);
+    }
+
+    /**
+     * Retrieves all items associated with a given order. The order itself is only looked up
+     * when it has no items, to tell an empty order from a missing one.
      *
      * @param orderId ID of the order.
      * @return Mono with the list of OrderItemEntity instances or error if not found.
-     * @throws OrderNotFoundException if no items are found for the given orderId.
+     * @throws OrderNotFoundException if the order does not exist.
      */
     public Mono<List<OrderItemEntity>> getItemsByOrderId(Long orderId) {
         log.info("Fetching items for orderId={}", orderId);
-        return orderRepository.findById(orderId)
-                .switchIfEmpty(Mono.error(new OrderNotFoundException(orderId)))
-                .flatMap(o -> orderItemRepository.findByOrderId(orderId).collectList());
+        return orderItemRepository.findByOrderId(orderId)
+                .collectList()
+                .flatMap(items -> {
+                    if (!items.isEmpty()) {
+                        return Mono.just(items);
+                    }
+                    return orderRepository.existsById(orderId)
+                            .flatMap(exists -> exists
+                                    ? Mono.just(items)
+                                    : Mono.<List<OrderItemEntity>>error(new OrderNotFoundException(orderId)));
+                });
     }
 }
 
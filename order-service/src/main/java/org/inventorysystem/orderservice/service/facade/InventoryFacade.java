@@ -1,12 +1,22 @@
 package org.inventorysystem.orderservice.service.facade;
 
-import lombok.RequiredArgsConstructor;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
 import lombok.extern.slf4j.Slf4j;
 import org.inventorysystem.orderservice.config.EnvironmentConfig;
 import org.inventorysystem.orderservice.dto.OrderRequest;
 import org.inventorysystem.orderservice.exception.InsufficientStockException;
-import org.inventorysystem.orderservice.service.facade.response.ProductResponse;
-import org.inventorysystem.orderservice.service.facade.response.ValidateStockResponse;
+import org.inventorysystem.orderservice.service.facade.request.BatchReservationRequest;
+import org.inventorysystem.orderservice.service.facade.request.CompensationBatchRequest;
+import org.inventorysystem.orderservice.service.facade.request.CompensationRequest;
+import org.inventorysystem.orderservice.service.facade.request.ReservationRequest;
+import org.inventorysystem.orderservice.service.facade.response.BatchReservationResponse;
+import org.inventorysystem.orderservice.service.facade.response.CompensationBatchResponse;
+import org.inventorysystem.orderservice.service.facade.response.ReservationResponse;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
@@ -15,106 +25,221 @@ import reactor.util.retry.Retry;
 import reactor.util.retry.RetryBackoffSpec;
 
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Facade responsible for communicating with the inventory-service.
- * Handles stock validation and reduction.
+ * Handles stock reservation and compensation.
+ * <p>
+ * Every call has a per-attempt deadline and goes through the circuit breaker of its endpoint,
+ * which fails fast while inventory-service keeps failing or answering slowly. Retries stay within
+ * an overall deadline and are not attempted while the circuit is open or after a timeout.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
-public class InventoryFacade {
+public class InventoryFacade implements DisposableBean {
+
+    public static final String RESERVATIONS = "inventory-reservations";
+    public static final String BATCH_RESERVATIONS = "inventory-batch-reservations";
+    public static final String COMPENSATIONS = "inventory-compensations";
 
     private final WebClient inventoryClient;
     private final EnvironmentConfig environmentConfig;
+    private final ReservationBatcher reservationBatcher;
+    private final CircuitBreakerRegistry circuitBreakers;
+
+    public InventoryFacade(WebClient inventoryClient, EnvironmentConfig environmentConfig) {
+        this.inventoryClient = inventoryClient;
+        this.environmentConfig = environmentConfig;
+        this.circuitBreakers = CircuitBreakerRegistry.of(
+                circuitBreakerConfig(environmentConfig.getResilience().getCircuitBreaker()));
+        EnvironmentConfig.ReservationBatch batch = environmentConfig.getReservationBatch();
+        this.reservationBatcher = batch.isEnabled()
+                ? new ReservationBatcher(this::reserveBatch, batch.getMaxSize(),
+                        Duration.ofMillis(batch.getWindowMs()), batch.getMaxInFlight(), batch.getMaxQueued(),
+                        environmentConfig.getAdmission().getRetryAfterSeconds())
+                : null;
+    }
 
     /**
-     * Validates and reserves stock for a list of order items by:
-     * 1. Validating availability via external inventory service.
-     * 2. Decreasing stock if available.
-     * Fails fast if any item has insufficient stock or validation error.
+     * Reserves stock for all order items with a single call to the inventory-service.
+     * The inventory-service applies every decrement in one transaction, so either
+     * all items are reserved or none is.
+     * When batching is enabled, the reservation travels in one call together with
+     * those of other orders placed within the same short window; it is still
+     * accepted or rejected on its own.
+     * Fails if any item has insufficient stock or does not exist.
+     * <p>
+     * inventory-service applies a reservation at most once per key, so a call that failed with a
+     * server error can be sent again. A call that timed out is not: inventory-service may still be
+     * applying it, and the caller compensates under the same key instead.
      *
-     * @param items List of order items.
-     * @return Mono<Void> indicating success or propagating error.
+     * @param reservationKey Idempotency key of the reservation.
+     * @param items          List of order items.
+     * @return Mono emitting the inventory version of each reserved product, or propagating the error.
+     * The map lacks the products whose version inventory-service did not report.
      */
-    public Mono<Void> validateAndReserveStock(List<OrderRequest.OrderItemRequest> items) {
-        return Flux.fromIterable(items)
-                .flatMap(item -> validateStock(item)
-                        .flatMap(response -> {
-                            if (Boolean.TRUE.equals(response.getIsValid())) {
-                                return decreaseStock(item);
-                            } else {
-                                String msg = String.format("Insufficient stock for productId=%d", item.getProductId());
-                                log.warn(msg);
-                                return Mono.error(new InsufficientStockException(item.getProductId(), item.getQuantity(), 0));
-                            }
-                        }))
-                .then();
+    public Mono<Map<Long, Long>> validateAndReserveStock(String reservationKey, List<OrderRequest.OrderItemRequest> items) {
+        ReservationRequest request = new ReservationRequest(items, reservationKey);
+        Mono<ReservationResponse> response = reservationBatcher != null
+                ? reservationBatcher.submit(request)
+                : reserve(request);
+        return response.flatMap(this::checkReserved);
+    }
+
+    private Mono<ReservationResponse> reserve(ReservationRequest request) {
+        int items = request.getItems().size();
+        return inventoryClient.post()
+                .uri("/api/inventory/reservations")
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(ReservationResponse.class)
+                .defaultIfEmpty(new ReservationResponse(false, List.of()))
+                .transform(call -> guarded(RESERVATIONS, call))
+                .doOnError(error ->
+                        log.warn("Reservation failed for {} item(s) with error: {}", items, error.getMessage()))
+                .retryWhen(retrySpec("Stock reservation", items + " item(s)"))
+                .timeout(totalTimeout());
     }
 
     /**
-     * Validates stock for a single product.
+     * Sends the reservations of several orders in one call. A batch of one uses the
+     * single reservation endpoint.
      *
-     * @param item Order item to validate.
-     * @return Mono indicating completion or error.
+     * @param requests Reservations to send.
+     * @return Mono emitting one response per reservation, in request order.
      */
-    private Mono<ValidateStockResponse> validateStock(OrderRequest.OrderItemRequest item) {
+    private Mono<List<ReservationResponse>> reserveBatch(List<ReservationRequest> requests) {
+        if (requests.size() == 1) {
+            return reserve(requests.get(0)).map(List::of);
+        }
         return inventoryClient.post()
-                .uri(environmentConfig.getDomains().getInventory() + "/api/inventory/validate-stock")
-                .bodyValue(item)
+                .uri("/api/inventory/reservations/batch")
+                .bodyValue(new BatchReservationRequest(requests))
                 .retrieve()
-                .bodyToMono(ValidateStockResponse.class)
-                .doOnSuccess(response ->
-                        log.info("Stock validated for productId={}", item.getProductId()))
+                .bodyToMono(BatchReservationResponse.class)
+                .map(BatchReservationResponse::getResults)
+                .transform(call -> guarded(BATCH_RESERVATIONS, call))
                 .doOnError(error ->
-                        log.warn("Validation failed for productId={} with error: {}",
-                                item.getProductId(), error.getMessage()))
-                .retryWhen(retrySpec("Stock validation", String.valueOf(item.getProductId())));
+                        log.warn("Batch reservation failed for {} order(s) with error: {}", requests.size(), error.getMessage()))
+                .retryWhen(retrySpec("Batch stock reservation", requests.size() + " order(s)"))
+                .timeout(totalTimeout());
     }
 
     /**
-     * Decreases stock for a single product.
+     * Turns a rejected reservation into an InsufficientStockException for the first failing line.
+     * A reservation of a batch that inventory-service could not process fails with an
+     * IllegalStateException, which the caller handles as an unknown outcome for that order only.
      *
-     * @param item Order item to decrease stock for.
-     * @return Mono indicating completion or error.
+     * @param response Reservation response returned by the inventory-service.
+     * @return Mono emitting the version of each reserved product if every item was reserved.
      */
-    private Mono<Void> decreaseStock(OrderRequest.OrderItemRequest item) {
-        return inventoryClient.put()
-                .uri(environmentConfig.getDomains().getInventory() + "/api/inventory/" + item.getProductId() + "/decrease?amount=" + item.getQuantity())
-                .retrieve()
-                .bodyToMono(Void.class)
-                .doOnSuccess(response ->
-                        log.info("Stock decreased for productId={}, quantity={}", item.getProductId(), item.getQuantity()))
-                .doOnError(error ->
-                        log.warn("Decrease failed for productId={} with error: {}",
-                                item.getProductId(), error.getMessage()))
-                .retryWhen(retrySpec("Stock decrease", String.valueOf(item.getProductId())));
+    private Mono<Map<Long, Long>> checkReserved(ReservationResponse response) {
+        if (response.getError() != null) {
+            log.warn("Reservation outcome unknown, inventory-service reported {}", response.getError());
+            return Mono.error(new IllegalStateException("Stock reservation failed with " + response.getError()));
+        }
+        if (Boolean.TRUE.equals(response.getReserved())) {
+            log.info("Stock reserved for {} product(s)", response.getItems().size());
+            Map<Long, Long> versions = new HashMap<>();
+            response.getItems().stream()
+                    .filter(line -> line.getVersion() != null)
+                    .forEach(line -> versions.put(line.getProductId(), line.getVersion()));
+            return Mono.just(versions);
+        }
+        return response.getItems().stream()
+                .filter(line -> !ReservationResponse.RESERVED.equals(line.getStatus())
+                        && !ReservationResponse.NOT_RESERVED.equals(line.getStatus()))
+                .findFirst()
+                .map(line -> {
+                    log.warn("Insufficient stock for productId={}, status={}", line.getProductId(), line.getStatus());
+                    int available = line.getAvailableQuantity() != null ? line.getAvailableQuantity() : 0;
+                    return Mono.<Map<Long, Long>>error(new InsufficientStockException(
+                            line.getProductId(), line.getRequestedQuantity(), available));
+                })
+                .orElseGet(() -> Mono.error(new IllegalStateException("Stock reservation rejected without a failing item")));
     }
 
-    public Mono<ProductResponse> increaseStock(Long productId, int amount) {
-        return inventoryClient.put()
-                .uri("/api/inventory/{id}/increase?amount={amount}", productId, amount)
+    /**
+     * Sends a batch of stock compensations. inventory-service applies each key at most once, so a
+     * batch whose outcome is unknown can be sent again. The call is not retried here; the caller
+     * reschedules failed batches with its own backoff.
+     *
+     * @param compensations Compensations to apply.
+     * @return Mono emitting one result per compensation, in request order.
+     */
+    public Mono<List<CompensationBatchResponse.Result>> applyCompensations(List<CompensationRequest> compensations) {
+        return inventoryClient.post()
+                .uri("/api/inventory/compensations/batch")
+                .bodyValue(new CompensationBatchRequest(compensations))
                 .retrieve()
-                .bodyToMono(ProductResponse.class)
-                .doOnSuccess(p -> log.info("Increased stock for productId={}, new quantity={}", productId, p.getQuantity()))
-                .doOnError(e -> log.error("Failed to increase stock for productId={}: {}", productId, e.getMessage()))
-                .retryWhen(retrySpec("Stock increase", String.valueOf(productId)));
+                .bodyToMono(CompensationBatchResponse.class)
+                .map(CompensationBatchResponse::getResults)
+                .transform(call -> guarded(COMPENSATIONS, call))
+                .doOnError(e -> log.warn("Failed to apply {} stock compensation(s): {}", compensations.size(), e.getMessage()));
+    }
+
+    /**
+     * Applies the per-attempt deadline and the circuit breaker of the endpoint to one call.
+     */
+    private <T> Mono<T> guarded(String endpoint, Mono<T> call) {
+        return call.timeout(Duration.ofMillis(environmentConfig.getResilience().getCallTimeoutMs()))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreakers.circuitBreaker(endpoint)));
+    }
+
+    private Duration totalTimeout() {
+        return Duration.ofMillis(environmentConfig.getResilience().getTotalTimeoutMs());
+    }
+
+    /**
+     * @param endpoint One of the endpoint names declared by this class.
+     * @return Current state of the endpoint's circuit breaker.
+     */
+    public CircuitBreaker.State circuitState(String endpoint) {
+        return circuitBreakers.circuitBreaker(endpoint).getState();
     }
 
     /**
-     * Builds a reusable RetryBackoffSpec based on configuration.
+     * Client errors are the caller's fault and do not count against inventory-service.
+     */
+    private static CircuitBreakerConfig circuitBreakerConfig(EnvironmentConfig.Resilience.CircuitBreaker config) {
+        return CircuitBreakerConfig.custom()
+                .failureRateThreshold(config.getFailureRateThreshold())
+                .slowCallRateThreshold(config.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(Duration.ofMillis(config.getSlowCallDurationMs()))
+                .slidingWindowSize(config.getSlidingWindowSize())
+                .minimumNumberOfCalls(config.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(Duration.ofMillis(config.getWaitInOpenStateMs()))
+                .permittedNumberOfCallsInHalfOpenState(config.getPermittedCallsInHalfOpenState())
+                .recordException(e -> !(e instanceof WebClientResponseException ex && ex.getStatusCode().is4xxClientError()))
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        if (reservationBatcher != null) {
+            reservationBatcher.dispose();
+        }
+    }
+
+    /**
+     * Builds a reusable RetryBackoffSpec based on configuration. Each backoff is capped at an
+     * even share of the total timeout, so the waits alone never use up the time left for retries.
      *
      * @return RetryBackoffSpec with filtering and logging.
      */
     private RetryBackoffSpec retrySpec(String context, String identifier) {
-        return Retry.backoff(environmentConfig.getRetry().getMaxAttempts(),
-                        Duration.ofMillis(environmentConfig.getRetry().getDelayMs()))
+        int maxAttempts = environmentConfig.getRetry().getMaxAttempts();
+        return Retry.backoff(maxAttempts, Duration.ofMillis(environmentConfig.getRetry().getDelayMs()))
+                .maxBackoff(totalTimeout().dividedBy(maxAttempts + 1L))
                 .filter(this::isRetryable)
                 .doBeforeRetry(retrySignal ->
                         log.warn("Retrying [{}] for {} due to error: {}", context, identifier, retrySignal.failure().getMessage()))
                 .onRetryExhaustedThrow((retryBackoffSpec, signal) ->
-                        new RuntimeException(context + " failed after retries for " + identifier));
+                        new RuntimeException(context + " failed after retries for " + identifier, signal.failure()));
     }
 
     /**
@@ -124,6 +249,12 @@ public class InventoryFacade {
      * @return true if the error is retryable; false otherwise.
      */
     private boolean isRetryable(Throwable throwable) {
+        if (throwable instanceof CallNotPermittedException) {
+            return false; // Circuit open: fail fast instead of waiting out the backoff
+        }
+        if (throwable instanceof TimeoutException) {
+            return false; // Slow service: the call may still succeed, and retrying only adds load
+        }
         if (throwable instanceof WebClientResponseException ex) {
             return ex.getStatusCode().is5xxServerError(); // Retry only on server errors
         }
@@ -0,0 +1,131 @@
+package org.inventorysystem.orderservice.service.facade;
+
+import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.orderservice.exception.OrderRejectedException;
+import org.inventorysystem.orderservice.service.facade.request.ReservationRequest;
+import org.inventorysystem.orderservice.service.facade.response.ReservationResponse;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Coalesces reservations submitted by concurrent orders into batched calls.
+ * <p>
+ * Submitted reservations are buffered until {@code maxSize} are pending or {@code window}
+ * has passed since the first one, then sent together through {@code sender}. The results,
+ * which the sender returns in request order, are handed back to each waiting caller.
+ * If the batched call fails, every reservation in it fails with the same error.
+ * <p>
+ * At most {@code maxQueued} reservations wait for a batch; further ones are rejected with
+ * {@link OrderRejectedException}. A reservation whose caller cancelled before its batch was sent
+ * is left out of the batch. Once sent, it cannot be recalled: the caller releases it by
+ * compensating under its reservation key, which inventory-service only honours if the
+ * reservation was applied.
+ */
+@Slf4j
+class ReservationBatcher implements Disposable {
+
+    private final Function<List<ReservationRequest>, Mono<List<ReservationResponse>>> sender;
+    private final Sinks.Many<Pending> pending;
+    private final Object emitLock = new Object();
+    private final long retryAfterSeconds;
+    private final Disposable subscription;
+
+    ReservationBatcher(Function<List<ReservationRequest>, Mono<List<ReservationResponse>>> sender,
+                       int maxSize, Duration window, int maxInFlight, int maxQueued, long retryAfterSeconds) {
+        this.sender = sender;
+        this.pending = Sinks.many().unicast().onBackpressureBuffer(new ArrayBlockingQueue<>(maxQueued));
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.subscription = pending.asFlux()
+                .bufferTimeout(maxSize, window, true)
+                .flatMap(this::dispatch, maxInFlight)
+                .subscribe();
+    }
+
+    /**
+     * Queues a reservation for the next batch.
+     *
+     * @param request The reservation of one order.
+     * @return Mono emitting that order's reservation outcome once its batch completes,
+     * or an {@link OrderRejectedException} if too many reservations are already waiting.
+     */
+    Mono<ReservationResponse> submit(ReservationRequest request) {
+        return Mono.defer(() -> {
+            Pending entry = new Pending(request, Sinks.one(), new AtomicBoolean());
+            Sinks.EmitResult result = emit(entry);
+            if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                log.warn("Reservation queue full, rejecting order");
+                return Mono.error(new OrderRejectedException("Too many reservations waiting for inventory-service",
+                        retryAfterSeconds));
+            }
+            result.orThrow();
+            return entry.result().asMono()
+                    .doOnCancel(() -> entry.cancelled().set(true));
+        });
+    }
+
+    /**
+     * Orders submit from many threads, often Netty event loops; the lock serializes them so no
+     * emission fails as non-serialized. The critical section only enqueues. Unlike
+     * {@code emitNext}, an overflow is returned instead of terminating the sink.
+     */
+    private Sinks.EmitResult emit(Pending entry) {
+        synchronized (emitLock) {
+            return pending.tryEmitNext(entry);
+        }
+    }
+
+    private Mono<Void> dispatch(List<Pending> queued) {
+        List<Pending> batch = queued.stream()
+                .filter(entry -> !entry.cancelled().get())
+                .toList();
+        if (batch.size() < queued.size()) {
+            log.debug("Skipping {} cancelled reservation(s)", queued.size() - batch.size());
+        }
+        if (batch.isEmpty()) {
+            return Mono.empty();
+        }
+        log.debug("Dispatching batch of {} reservation(s)", batch.size());
+        return sender.apply(batch.stream().map(Pending::request).toList())
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Empty response for a batch of reservations")))
+                .doOnNext(results -> {
+                    if (results.size() != batch.size()) {
+                        throw new IllegalStateException("Expected " + batch.size()
+                                + " reservation result(s) but received " + results.size());
+                    }
+                    for (int i = 0; i < batch.size(); i++) {
+                        Pending entry = batch.get(i);
+                        if (entry.cancelled().get() && Boolean.TRUE.equals(results.get(i).getReserved())) {
+                            log.warn("Reservation {} applied after its order was cancelled; released by its compensation",
+                                    entry.request().getKey());
+                        }
+                        entry.result().tryEmitValue(results.get(i));
+                    }
+                })
+                .doOnError(e -> {
+                    log.warn("Batch of {} reservation(s) failed: {}", batch.size(), e.getMessage());
+                    batch.forEach(entry -> entry.result().tryEmitError(e));
+                })
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    @Override
+    public void dispose() {
+        subscription.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return subscription.isDisposed();
+    }
+
+    private record Pending(ReservationRequest request, Sinks.One<ReservationResponse> result, AtomicBoolean cancelled) {
+    }
+}
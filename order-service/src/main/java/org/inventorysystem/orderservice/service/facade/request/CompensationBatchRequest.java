@@ -0,0 +1,16 @@
+package org.inventorysystem.orderservice.service.facade.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompensationBatchRequest {
+
+    private List<CompensationRequest> compensations;
+
+}
@@ -0,0 +1,20 @@
+package org.inventorysystem.orderservice.service.facade.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompensationRequest {
+
+    private String key;
+
+    private Long productId;
+
+    private Integer quantity;
+
+    private String reservationKey;
+
+}
@@ -0,0 +1,22 @@
+package org.inventorysystem.orderservice.service.facade.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.inventorysystem.orderservice.dto.OrderRequest;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequest {
+
+    private List<OrderRequest.OrderItemRequest> items;
+
+    /**
+     * Idempotency key; inventory-service applies a reservation at most once per key.
+     */
+    private String key;
+
+}
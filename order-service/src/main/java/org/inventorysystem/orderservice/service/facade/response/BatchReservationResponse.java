@@ -6,21 +6,18 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @Builder
-@AllArgsConstructor
 @NoArgsConstructor
+@AllArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class ProductResponse {
-
-    private Long id;
-
-    private String name;
-
-    private Long categoryId;
-
-    private Integer quantity;
+public class BatchReservationResponse {
 
-    private String description;
+    /**
+     * One result per reservation, in request order.
+     */
+    private List<ReservationResponse> results;
 
 }
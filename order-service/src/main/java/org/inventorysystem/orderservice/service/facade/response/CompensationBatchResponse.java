@@ -0,0 +1,42 @@
+package org.inventorysystem.orderservice.service.facade.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CompensationBatchResponse {
+
+    public static final String APPLIED = "APPLIED";
+    public static final String DUPLICATE = "DUPLICATE";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String NOT_RESERVED = "NOT_RESERVED";
+    public static final String PENDING = "PENDING";
+
+    /**
+     * One result per compensation, in request order.
+     */
+    private List<Result> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Result {
+
+        private String key;
+
+        private Long productId;
+
+        private String status;
+    }
+}
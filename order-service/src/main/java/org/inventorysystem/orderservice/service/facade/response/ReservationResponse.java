@@ -0,0 +1,54 @@
+package org.inventorysystem.orderservice.service.facade.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ReservationResponse {
+
+    public static final String RESERVED = "RESERVED";
+    public static final String NOT_RESERVED = "NOT_RESERVED";
+
+    private Boolean reserved;
+
+    private List<LineResult> items;
+
+    /**
+     * Error code of a reservation of a batch that inventory-service could not process; its outcome is unknown.
+     */
+    private String error;
+
+    public ReservationResponse(Boolean reserved, List<LineResult> items) {
+        this(reserved, items, null);
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class LineResult {
+
+        private Long productId;
+
+        private Integer requestedQuantity;
+
+        private Integer availableQuantity;
+
+        private String status;
+
+        /**
+         * Product version after the reservation; only set on lines reserved by this request.
+         */
+        private Long version;
+    }
+}
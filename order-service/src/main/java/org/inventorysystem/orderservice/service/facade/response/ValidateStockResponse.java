@@ -1,16 +0,0 @@
-package org.inventorysystem.orderservice.service.facade.response;
-
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-public class ValidateStockResponse {
-
-    private Boolean isValid;
-
-}
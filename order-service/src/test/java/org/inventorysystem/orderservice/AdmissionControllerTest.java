@@ -0,0 +1,132 @@
+package org.inventorysystem.orderservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.inventorysystem.orderservice.admission.AdmissionController;
+import org.inventorysystem.orderservice.config.EnvironmentConfig;
+import org.inventorysystem.orderservice.exception.OrderRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControllerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private EnvironmentConfig.Admission config;
+    private AdmissionController admissionController;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        config = new EnvironmentConfig.Admission();
+        config.setMaxQueue(1);
+        config.setQueueTimeoutMs(5_000);
+        config.setRetryAfterSeconds(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (admissionController != null) {
+            admissionController.destroy();
+        }
+    }
+
+    @Test
+    void admit_shouldQueueBeyondLimitAndRunWhenASlotFrees() {
+        admissionController = new AdmissionController(config, 1, meterRegistry);
+        Sinks.One<String> first = Sinks.one();
+        AtomicReference<String> firstResult = new AtomicReference<>();
+        AtomicBoolean secondStarted = new AtomicBoolean();
+        admissionController.admit(first.asMono()).subscribe(firstResult::set);
+
+        StepVerifier.create(admissionController.admit(Mono.fromSupplier(() -> {
+                    secondStarted.set(true);
+                    return "second";
+                })))
+                .then(() -> {
+                    assertThat(secondStarted).isFalse();
+                    assertThat(meterRegistry.get(AdmissionController.QUEUED_GAUGE).gauge().value()).isEqualTo(1.0);
+                    first.tryEmitValue("first");
+                })
+                .expectNext("second")
+                .verifyComplete();
+
+        assertThat(firstResult).hasValue("first");
+        assertThat(meterRegistry.get(AdmissionController.QUEUED_GAUGE).gauge().value()).isZero();
+        assertThat(meterRegistry.get(AdmissionController.IN_FLIGHT_GAUGE).gauge().value()).isZero();
+    }
+
+    @Test
+    void admit_whenQueueIsFull_shouldRejectAtOnce() {
+        admissionController = new AdmissionController(config, 1, meterRegistry);
+        admissionController.admit(Mono.never()).subscribe();
+        admissionController.admit(Mono.never()).subscribe();
+
+        StepVerifier.create(admissionController.admit(Mono.just("third")))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOf(OrderRejectedException.class)
+                        .extracting("retryAfterSeconds").isEqualTo(2L))
+                .verify(Duration.ofSeconds(1));
+
+        assertThat(meterRegistry.get(AdmissionController.REJECTED_COUNTER).tag("reason", "queue_full").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void admit_whenWaitingTooLong_shouldRejectWithoutRunning() {
+        config.setQueueTimeoutMs(50);
+        admissionController = new AdmissionController(config, 1, meterRegistry);
+        AtomicBoolean started = new AtomicBoolean();
+        admissionController.admit(Mono.never()).subscribe();
+
+        StepVerifier.create(admissionController.admit(Mono.fromRunnable(() -> started.set(true))))
+                .expectError(OrderRejectedException.class)
+                .verify(Duration.ofSeconds(1));
+
+        assertThat(started).isFalse();
+        assertThat(meterRegistry.get(AdmissionController.REJECTED_COUNTER).tag("reason", "timeout").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get(AdmissionController.QUEUED_GAUGE).gauge().value()).isZero();
+    }
+
+    @Test
+    void admit_whenDisabled_shouldRunDirectly() {
+        config.setEnabled(false);
+        admissionController = new AdmissionController(config, 1, meterRegistry);
+        admissionController.admit(Mono.never()).subscribe();
+
+        StepVerifier.create(admissionController.admit(Mono.just("order")))
+                .expectNext("order")
+                .verifyComplete();
+    }
+
+    @Test
+    void maxInFlight_shouldDeriveFromPoolAndReservationCapacity() {
+        EnvironmentConfig environmentConfig = new EnvironmentConfig();
+        R2dbcProperties r2dbcProperties = new R2dbcProperties();
+        r2dbcProperties.getPool().setMaxSize(20);
+
+        admissionController = new AdmissionController(environmentConfig, r2dbcProperties, meterRegistry);
+        assertThat(admissionController.getMaxInFlight()).isEqualTo(80);
+        admissionController.destroy();
+
+        environmentConfig.getReservationBatch().setMaxSize(5);
+        environmentConfig.getReservationBatch().setMaxInFlight(2);
+        admissionController = new AdmissionController(environmentConfig, r2dbcProperties, new SimpleMeterRegistry());
+        assertThat(admissionController.getMaxInFlight()).isEqualTo(10);
+        admissionController.destroy();
+
+        environmentConfig.getAdmission().setMaxInFlight(7);
+        admissionController = new AdmissionController(environmentConfig, r2dbcProperties, new SimpleMeterRegistry());
+        assertThat(admissionController.getMaxInFlight()).isEqualTo(7);
+    }
+}
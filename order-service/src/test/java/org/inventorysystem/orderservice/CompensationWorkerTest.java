@@ -0,0 +1,163 @@
+package org.inventorysystem.orderservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.inventorysystem.orderservice.compensation.CompensationWorker;
+import org.inventorysystem.orderservice.config.EnvironmentConfig;
+import org.inventorysystem.orderservice.entity.InventoryCompensationEntity;
+import org.inventorysystem.orderservice.repository.InventoryCompensationRepository;
+import org.inventorysystem.orderservice.service.facade.InventoryFacade;
+import org.inventorysystem.orderservice.service.facade.request.CompensationRequest;
+import org.inventorysystem.orderservice.service.facade.response.CompensationBatchResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CompensationWorkerTest {
+
+    @Mock
+    private InventoryCompensationRepository compensationRepository;
+
+    @Mock
+    private InventoryFacade inventoryFacade;
+
+    private EnvironmentConfig environmentConfig;
+    private SimpleMeterRegistry meterRegistry;
+    private CompensationWorker worker;
+
+    @BeforeEach
+    void setup() {
+        environmentConfig = new EnvironmentConfig();
+        environmentConfig.getCompensation().setBatchSize(2);
+        environmentConfig.getCompensation().setInitialBackoffMs(500);
+        environmentConfig.getCompensation().setMaxBackoffMs(60_000);
+        meterRegistry = new SimpleMeterRegistry();
+        worker = new CompensationWorker(compensationRepository, inventoryFacade, environmentConfig, meterRegistry);
+    }
+
+    @Test
+    void drain_shouldSendDueCompensationsInBatchesWithTheirKeys() {
+        InventoryCompensationEntity first = compensation(1L, "k1", 100L, 3);
+        InventoryCompensationEntity second = compensation(2L, "k2", 101L, 1);
+        InventoryCompensationEntity third = compensation(3L, "k3", 100L, 2);
+        when(compensationRepository.findDue(any(), eq(2)))
+                .thenReturn(Flux.just(first, second))
+                .thenReturn(Flux.just(third));
+        when(inventoryFacade.applyCompensations(anyList())).thenAnswer(inv -> {
+            List<CompensationRequest> requests = inv.getArgument(0);
+            return Mono.just(requests.stream()
+                    .map(r -> new CompensationBatchResponse.Result(r.getKey(), r.getProductId(),
+                            "k2".equals(r.getKey()) ? CompensationBatchResponse.DUPLICATE : CompensationBatchResponse.APPLIED))
+                    .toList());
+        });
+        when(compensationRepository.markCompleted(anyList(), any())).thenReturn(Mono.just(1));
+
+        StepVerifier.create(worker.drain())
+                .verifyComplete();
+
+        verify(inventoryFacade).applyCompensations(argThat(requests -> requests.size() == 2
+                && requests.get(0).getKey().equals("k1")
+                && requests.get(0).getQuantity() == 3));
+        verify(inventoryFacade).applyCompensations(argThat(requests -> requests.size() == 1));
+        verify(compensationRepository).markCompleted(eq(List.of(1L, 2L)), any());
+        verify(compensationRepository).markCompleted(eq(List.of(3L)), any());
+        assertThat(meterRegistry.get(CompensationWorker.PROCESSED_COUNTER).tag("outcome", "applied").counter().count())
+                .isEqualTo(3.0);
+    }
+
+    @Test
+    void drain_unknownProduct_shouldAbandonCompensation() {
+        when(compensationRepository.findDue(any(), eq(2))).thenReturn(Flux.just(compensation(1L, "k1", 999L, 3)));
+        when(inventoryFacade.applyCompensations(anyList())).thenReturn(Mono.just(List.of(
+                new CompensationBatchResponse.Result("k1", 999L, CompensationBatchResponse.NOT_FOUND))));
+        when(compensationRepository.markAbandoned(anyList(), any(), anyString())).thenReturn(Mono.just(1));
+
+        StepVerifier.create(worker.drain())
+                .verifyComplete();
+
+        verify(compensationRepository).markAbandoned(eq(List.of(1L)), any(), anyString());
+        verify(compensationRepository, never()).markCompleted(anyList(), any());
+    }
+
+    @Test
+    void drain_reservationNotApplied_shouldCompleteOrDeferCompensation() {
+        when(compensationRepository.findDue(any(), eq(2))).thenReturn(Flux.just(
+                compensation(1L, "k1", 100L, 3), compensation(2L, "k2", 101L, 1)));
+        when(inventoryFacade.applyCompensations(anyList())).thenReturn(Mono.just(List.of(
+                new CompensationBatchResponse.Result("k1", 100L, CompensationBatchResponse.NOT_RESERVED),
+                new CompensationBatchResponse.Result("k2", 101L, CompensationBatchResponse.PENDING))));
+        when(compensationRepository.markCompleted(anyList(), any())).thenReturn(Mono.just(1));
+        when(compensationRepository.reschedule(anyList(), any(), anyLong(), anyLong(), anyString())).thenReturn(Mono.just(1));
+
+        StepVerifier.create(worker.drain())
+                .verifyComplete();
+
+        verify(compensationRepository).markCompleted(eq(List.of(1L)), any());
+        verify(compensationRepository).reschedule(eq(List.of(2L)), any(), eq(500L), eq(60_000L), anyString());
+        assertThat(meterRegistry.get(CompensationWorker.PROCESSED_COUNTER).tag("outcome", "not_reserved").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void drain_inventoryDown_shouldRescheduleWithBackoffAndStop() {
+        List<InventoryCompensationEntity> due = LongStream.rangeClosed(1, 2)
+                .mapToObj(id -> compensation(id, "k" + id, 100L, 1))
+                .toList();
+        when(compensationRepository.findDue(any(), eq(2))).thenReturn(Flux.fromIterable(due));
+        when(inventoryFacade.applyCompensations(anyList())).thenReturn(Mono.error(new RuntimeException("Connection refused")));
+        when(compensationRepository.reschedule(anyList(), any(), anyLong(), anyLong(), anyString())).thenReturn(Mono.just(2));
+
+        StepVerifier.create(worker.drain())
+                .verifyComplete();
+
+        // A full batch failed: the cycle ends instead of reading the next one
+        verify(compensationRepository, times(1)).findDue(any(), anyInt());
+        verify(compensationRepository).reschedule(eq(List.of(1L, 2L)), any(), eq(500L), eq(60_000L), eq("Connection refused"));
+        assertThat(meterRegistry.get(CompensationWorker.PROCESSED_COUNTER).tag("outcome", "failed").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void drain_nothingDue_shouldNotCallInventory() {
+        when(compensationRepository.findDue(any(), eq(2))).thenReturn(Flux.empty());
+
+        StepVerifier.create(worker.drain())
+                .verifyComplete();
+
+        verify(inventoryFacade, never()).applyCompensations(anyList());
+    }
+
+    private static InventoryCompensationEntity compensation(Long id, String key, Long productId, int quantity) {
+        return InventoryCompensationEntity.builder()
+                .id(id)
+                .compensationKey(key)
+                .productId(productId)
+                .quantity(quantity)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,198 @@
+package org.inventorysystem.orderservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.inventorysystem.orderservice.config.EnvironmentConfig;
+import org.inventorysystem.orderservice.dto.OrderRequest;
+import org.inventorysystem.orderservice.entity.OrderEntity;
+import org.inventorysystem.orderservice.entity.OrderItemEntity;
+import org.inventorysystem.orderservice.exception.IdempotencyKeyMismatchException;
+import org.inventorysystem.orderservice.exception.OrderNotCompletedException;
+import org.inventorysystem.orderservice.idempotency.OrderIdempotencyCache;
+import org.inventorysystem.orderservice.repository.OrderItemRepository;
+import org.inventorysystem.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIdempotencyCacheTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    private OrderIdempotencyCache cache;
+    private OrderRequest request;
+    private OrderEntity order;
+
+    @BeforeEach
+    void setup() {
+        cache = new OrderIdempotencyCache(orderRepository, orderItemRepository, new EnvironmentConfig(), new SimpleMeterRegistry());
+        request = new OrderRequest(1L, 42L, List.of(new OrderRequest.OrderItemRequest(100L, 3)));
+        order = OrderEntity.builder()
+                .id(99L)
+                .storeId(1L)
+                .userId(42L)
+                .createdAt(LocalDateTime.now())
+                .idempotencyKey("key-1")
+                .build();
+    }
+
+    @Test
+    void submit_repeatedKey_shouldReplayWithoutCreatingAgain() {
+        AtomicInteger creations = new AtomicInteger();
+        when(orderRepository.findByUserIdAndIdempotencyKey(42L, "key-1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(cache.submit(request, "key-1", key -> Mono.fromCallable(() -> {
+                    creations.incrementAndGet();
+                    return order;
+                })))
+                .expectNext(order)
+                .verifyComplete();
+        StepVerifier.create(cache.submit(request, "key-1", key -> Mono.error(new AssertionError("must not run"))))
+                .expectNext(order)
+                .verifyComplete();
+
+        assertThat(creations).hasValue(1);
+        verify(orderRepository, times(1)).findByUserIdAndIdempotencyKey(42L, "key-1");
+    }
+
+    @Test
+    void submit_inFlightDuplicate_shouldWaitForFirstExecution() {
+        Sinks.One<OrderEntity> firstExecution = Sinks.one();
+        AtomicInteger creations = new AtomicInteger();
+        when(orderRepository.findByUserIdAndIdempotencyKey(42L, "key-1")).thenReturn(Mono.empty());
+
+        AtomicReference<OrderEntity> first = new AtomicReference<>();
+        AtomicReference<OrderEntity> second = new AtomicReference<>();
+        cache.submit(request, "key-1", key -> {
+            creations.incrementAndGet();
+            return firstExecution.asMono();
+        }).subscribe(first::set);
+        cache.submit(request, "key-1", key -> {
+            creations.incrementAndGet();
+            return Mono.just(OrderEntity.builder().id(100L).build());
+        }).subscribe(second::set);
+
+        assertThat(first.get()).isNull();
+        assertThat(second.get()).isNull();
+
+        firstExecution.tryEmitValue(order);
+
+        assertThat(first.get()).isSameAs(order);
+        assertThat(second.get()).isSameAs(order);
+        assertThat(creations).hasValue(1);
+    }
+
+    @Test
+    void submit_keyNoLongerCached_shouldReplayOrderFromDatabase() {
+        when(orderRepository.findByUserIdAndIdempotencyKey(42L, "key-1")).thenReturn(Mono.just(order));
+        when(orderItemRepository.findByOrderId(99L)).thenReturn(Flux.just(new OrderItemEntity(1L, 99L, 100L, 3)));
+
+        StepVerifier.create(cache.submit(request, "key-1", key -> Mono.error(new AssertionError("must not run"))))
+                .expectNext(order)
+                .verifyComplete();
+    }
+
+    @Test
+    void submit_failedCreation_shouldRunAgainOnRetry() {
+        when(orderRepository.findByUserIdAndIdempotencyKey(42L, "key-1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(cache.submit(request, "key-1", key -> Mono.error(new OrderNotCompletedException("Out of stock"))))
+                .expectError(OrderNotCompletedException.class)
+                .verify();
+        StepVerifier.create(cache.submit(request, "key-1", key -> Mono.just(order)))
+                .expectNext(order)
+                .verifyComplete();
+    }
+
+    @Test
+    void submit_createdConcurrentlyElsewhere_shouldReplayWinningOrder() {
+        when(orderRepository.findByUserIdAndIdempotencyKey(42L, "key-1"))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.just(order));
+        when(orderItemRepository.findByOrderId(99L)).thenReturn(Flux.just(new OrderItemEntity(1L, 99L, 100L, 3)));
+
+        StepVerifier.create(cache.submit(request, "key-1", key -> Mono.error(new OrderNotCompletedException(
+                        "Could not complete order", new DuplicateKeyException("uk_orders_user_idempotency_key")))))
+                .expectNext(order)
+                .verifyComplete();
+    }
+
+    @Test
+    void submit_keyReusedWithDifferentItems_shouldBeRejected() {
+        when(orderRepository.findByUserIdAndIdempotencyKey(42L, "key-1")).thenReturn(Mono.empty());
+        OrderRequest different = new OrderRequest(1L, 42L, List.of(new OrderRequest.OrderItemRequest(100L, 5)));
+
+        StepVerifier.create(cache.submit(request, "key-1", key -> Mono.just(order)))
+                .expectNext(order)
+                .verifyComplete();
+        StepVerifier.create(cache.submit(different, "key-1", key -> Mono.error(new AssertionError("must not run"))))
+                .expectError(IdempotencyKeyMismatchException.class)
+                .verify();
+    }
+
+    @Test
+    void submit_storedOrderForDifferentStore_shouldBeRejected() {
+        OrderRequest otherStore = new OrderRequest(2L, 42L, request.getItems());
+        when(orderRepository.findByUserIdAndIdempotencyKey(42L, "key-1")).thenReturn(Mono.just(order));
+        when(orderItemRepository.findByOrderId(99L)).thenReturn(Flux.just(new OrderItemEntity(1L, 99L, 100L, 3)));
+
+        StepVerifier.create(cache.submit(otherStore, "key-1", key -> Mono.error(new AssertionError("must not run"))))
+                .expectError(IdempotencyKeyMismatchException.class)
+                .verify();
+    }
+
+    @Test
+    void submit_sameKeyFromAnotherUser_shouldCreateItsOwnOrder() {
+        OrderRequest otherUser = new OrderRequest(1L, 7L, request.getItems());
+        OrderEntity otherOrder = OrderEntity.builder().id(100L).storeId(1L).userId(7L).build();
+        when(orderRepository.findByUserIdAndIdempotencyKey(42L, "key-1")).thenReturn(Mono.empty());
+        when(orderRepository.findByUserIdAndIdempotencyKey(7L, "key-1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(cache.submit(request, "key-1", key -> Mono.just(order)))
+                .expectNext(order)
+                .verifyComplete();
+        StepVerifier.create(cache.submit(otherUser, "key-1", key -> Mono.just(otherOrder)))
+                .expectNext(otherOrder)
+                .verifyComplete();
+    }
+
+    @Test
+    void submit_oversizedKey_shouldBeRejected() {
+        StepVerifier.create(cache.submit(request, "k".repeat(OrderIdempotencyCache.MAX_KEY_LENGTH + 1), key -> Mono.just(order)))
+                .expectError(ServerWebInputException.class)
+                .verify();
+
+        verifyNoInteractions(orderRepository, orderItemRepository);
+    }
+
+    @Test
+    void order_serialized_shouldNotExposeIdempotencyKey() throws Exception {
+        String json = new ObjectMapper().findAndRegisterModules().writeValueAsString(order);
+
+        assertThat(json).contains("\"id\":99").doesNotContain("idempotencyKey").doesNotContain("key-1");
+    }
+}
@@ -0,0 +1,198 @@
+package org.inventorysystem.orderservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.inventorysystem.orderservice.config.EnvironmentConfig;
+import org.inventorysystem.orderservice.dto.OrderRequest;
+import org.inventorysystem.orderservice.entity.OrderEntity;
+import org.inventorysystem.orderservice.entity.OrderItemEntity;
+import org.inventorysystem.orderservice.entity.OrderRequestEntity;
+import org.inventorysystem.orderservice.entity.OrderRequestStatus;
+import org.inventorysystem.orderservice.exception.OrderNotCompletedException;
+import org.inventorysystem.orderservice.idempotency.OrderIdempotencyCache;
+import org.inventorysystem.orderservice.intake.OrderIntakeWorker;
+import org.inventorysystem.orderservice.repository.OrderItemRepository;
+import org.inventorysystem.orderservice.repository.OrderRepository;
+import org.inventorysystem.orderservice.repository.OrderRequestRepository;
+import org.inventorysystem.orderservice.service.OrderIntakeService;
+import org.inventorysystem.orderservice.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIntakeWorkerTest {
+
+    @Mock
+    private OrderRequestRepository orderRequestRepository;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    private OrderIntakeService orderIntakeService;
+    private OrderIntakeWorker worker;
+
+    @BeforeEach
+    void setup() {
+        EnvironmentConfig environmentConfig = new EnvironmentConfig();
+        orderIntakeService = new OrderIntakeService(orderRequestRepository, environmentConfig, new ObjectMapper());
+        OrderIdempotencyCache orderIdempotencyCache =
+                new OrderIdempotencyCache(orderRepository, orderItemRepository, environmentConfig, new SimpleMeterRegistry());
+        worker = new OrderIntakeWorker(orderRequestRepository, orderService, orderIntakeService,
+                orderIdempotencyCache, environmentConfig);
+
+        lenient().when(orderRequestRepository.save(any(OrderRequestEntity.class)))
+                .thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        lenient().when(orderRepository.findByUserIdAndIdempotencyKey(any(), anyString())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void enqueue_shouldStorePendingRequest() {
+        OrderRequest request = new OrderRequest(1L, 42L, List.of(new OrderRequest.OrderItemRequest(100L, 3)));
+        when(orderRequestRepository.save(any(OrderRequestEntity.class))).thenAnswer(inv -> {
+            OrderRequestEntity entity = inv.getArgument(0);
+            entity.setId(7L);
+            return Mono.just(entity);
+        });
+
+        StepVerifier.create(orderIntakeService.enqueue(request))
+                .assertNext(status -> {
+                    assertThat(status.getRequestId()).isEqualTo(7L);
+                    assertThat(status.getStatus()).isEqualTo(OrderRequestStatus.PENDING);
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<OrderRequestEntity> saved = ArgumentCaptor.forClass(OrderRequestEntity.class);
+        verify(orderRequestRepository).save(saved.capture());
+        assertThat(orderIntakeService.toOrderRequest(saved.getValue())).isEqualTo(request);
+    }
+
+    @Test
+    void enqueue_withoutItems_shouldFail() {
+        StepVerifier.create(orderIntakeService.enqueue(new OrderRequest(1L, 42L, List.of())))
+                .expectError(ServerWebInputException.class)
+                .verify();
+
+        verifyNoInteractions(orderRequestRepository);
+    }
+
+    @Test
+    void drain_shouldProcessRequestsOfAStoreInOrderAndRecordOutcome() {
+        OrderRequestEntity first = pending(1L, 10L);
+        OrderRequestEntity second = pending(2L, 10L);
+        OrderRequestEntity other = pending(3L, 20L);
+        when(orderRequestRepository.findPending(anyInt())).thenReturn(Flux.just(first, second, other));
+        when(orderRequestRepository.claim(any(), any())).thenReturn(Mono.just(1));
+        when(orderService.createOrder(any(), anyString())).thenAnswer(inv -> {
+            OrderRequest request = inv.getArgument(0);
+            if (request.getStoreId() == 10L && request.getItems().get(0).getQuantity() == 2) {
+                return Mono.error(new OrderNotCompletedException("Could not complete order: Insufficient stock"));
+            }
+            return Mono.just(OrderEntity.builder().id(500L + request.getStoreId()).storeId(request.getStoreId()).build());
+        });
+
+        StepVerifier.create(worker.drain()).verifyComplete();
+
+        verify(orderService).createOrder(any(), eq("intake-1"));
+        InOrder storeOrder = inOrder(orderRequestRepository);
+        storeOrder.verify(orderRequestRepository).claim(eq(1L), any());
+        storeOrder.verify(orderRequestRepository).claim(eq(2L), any());
+
+        ArgumentCaptor<OrderRequestEntity> finished = ArgumentCaptor.forClass(OrderRequestEntity.class);
+        verify(orderRequestRepository, times(3)).save(finished.capture());
+        assertThat(finished.getAllValues())
+                .extracting(OrderRequestEntity::getId, OrderRequestEntity::getStatus, OrderRequestEntity::getOrderId)
+                .containsExactlyInAnyOrder(
+                        tuple(1L, OrderRequestStatus.COMPLETED, 510L),
+                        tuple(2L, OrderRequestStatus.REJECTED, null),
+                        tuple(3L, OrderRequestStatus.COMPLETED, 520L));
+        assertThat(finished.getAllValues())
+                .filteredOn(request -> request.getId() == 2L)
+                .singleElement()
+                .satisfies(request -> assertThat(request.getError()).contains("Insufficient stock"));
+    }
+
+    @Test
+    void drain_whenRequestAlreadyClaimed_shouldSkipIt() {
+        when(orderRequestRepository.findPending(anyInt())).thenReturn(Flux.just(pending(1L, 10L)));
+        when(orderRequestRepository.claim(eq(1L), any())).thenReturn(Mono.just(0));
+
+        StepVerifier.create(worker.drain()).verifyComplete();
+
+        verifyNoInteractions(orderService);
+        verify(orderRequestRepository, never()).save(any(OrderRequestEntity.class));
+    }
+
+    @Test
+    void drain_requestProcessedBefore_shouldReplayItsOrderWithoutCreatingAnother() {
+        OrderEntity existing = OrderEntity.builder().id(510L).storeId(10L).userId(42L).idempotencyKey("intake-1").build();
+        when(orderRequestRepository.findPending(anyInt())).thenReturn(Flux.just(pending(1L, 10L)));
+        when(orderRequestRepository.claim(eq(1L), any())).thenReturn(Mono.just(1));
+        when(orderRepository.findByUserIdAndIdempotencyKey(42L, "intake-1")).thenReturn(Mono.just(existing));
+        when(orderItemRepository.findByOrderId(510L)).thenReturn(Flux.just(new OrderItemEntity(1L, 510L, 100L, 1)));
+
+        StepVerifier.create(worker.drain()).verifyComplete();
+
+        verifyNoInteractions(orderService);
+        verify(orderRequestRepository).save(argThat(request ->
+                request.getStatus() == OrderRequestStatus.COMPLETED && request.getOrderId() == 510L));
+    }
+
+    @Test
+    void requeueAbandoned_shouldOnlyRequeueClaimsOlderThanTheLease() {
+        when(orderRequestRepository.requeueProcessing(any(), any())).thenReturn(Mono.just(2));
+
+        StepVerifier.create(worker.requeueAbandoned()).verifyComplete();
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> claimedBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(orderRequestRepository).requeueProcessing(now.capture(), claimedBefore.capture());
+        assertThat(Duration.between(claimedBefore.getValue(), now.getValue()))
+                .isEqualTo(Duration.ofMillis(new EnvironmentConfig().getOrderIntake().getProcessingLeaseMs()));
+    }
+
+    private OrderRequestEntity pending(Long id, Long storeId) {
+        return OrderRequestEntity.builder()
+                .id(id)
+                .storeId(storeId)
+                .userId(42L)
+                .items("[{\"productId\":100,\"quantity\":" + id + "}]")
+                .status(OrderRequestStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+}
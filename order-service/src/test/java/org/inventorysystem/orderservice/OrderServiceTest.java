@@ -1,29 +1,55 @@
 package org.inventorysystem.orderservice;
 
+import org.inventorysystem.orderservice.config.EnvironmentConfig;
 import org.inventorysystem.orderservice.dto.OrderRequest;
+import org.inventorysystem.orderservice.dto.OrderWithItemsResponse;
+import org.inventorysystem.orderservice.entity.InventoryCompensationEntity;
 import org.inventorysystem.orderservice.entity.OrderEntity;
 import org.inventorysystem.orderservice.entity.OrderItemEntity;
+import org.inventorysystem.orderservice.exception.InsufficientStockException;
 import org.inventorysystem.orderservice.exception.OrderNotCompletedException;
 import org.inventorysystem.orderservice.exception.OrderNotFoundException;
+import org.inventorysystem.orderservice.exception.OrderRejectedException;
+import org.inventorysystem.orderservice.repository.InventoryCompensationRepository;
+import org.inventorysystem.orderservice.repository.OrderItemBatchRepository;
 import org.inventorysystem.orderservice.repository.OrderItemRepository;
 import org.inventorysystem.orderservice.repository.OrderRepository;
+import org.inventorysystem.orderservice.repository.OrderWithItemsRepository;
+import org.inventorysystem.orderservice.service.OrderCursor;
 import org.inventorysystem.orderservice.service.OrderService;
 import org.inventorysystem.orderservice.service.facade.InventoryFacade;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +64,21 @@ class OrderServiceTest {
     @Mock
     private InventoryFacade inventoryFacade;
 
+    @Mock
+    private OrderItemBatchRepository orderItemBatchRepository;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Mock
+    private OrderWithItemsRepository orderWithItemsRepository;
+
+    @Mock
+    private InventoryCompensationRepository inventoryCompensationRepository;
+
+    @Spy
+    private EnvironmentConfig environmentConfig = new EnvironmentConfig();
+
     @InjectMocks
     private OrderService orderService;
 
@@ -58,92 +99,306 @@ class OrderServiceTest {
                 .userId(42L)
                 .createdAt(LocalDateTime.now())
                 .build();
+
+        lenient().when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
     }
 
     @Test
     void createOrder_success() {
+        when(inventoryFacade.validateAndReserveStock(any(), any())).thenReturn(Mono.just(Map.of(100L, 8L)));
         when(orderRepository.save(any())).thenReturn(Mono.just(savedOrder));
-        when(inventoryFacade.validateAndReserveStock(any())).thenReturn(Mono.empty());
-        when(orderItemRepository.save(any())).thenReturn(Mono.just(new OrderItemEntity(1L, 99L, 100L, 3)));
+        when(orderItemBatchRepository.insertAll(anyList())).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
 
         StepVerifier.create(orderService.createOrder(request))
+                .expectNextMatches(order -> order == savedOrder && order.getStockVersions().equals(Map.of(100L, 8L)))
+                .verifyComplete();
+
+        InOrder inOrder = inOrder(inventoryFacade, orderRepository, orderItemBatchRepository);
+        inOrder.verify(inventoryFacade).validateAndReserveStock(any(), eq(request.getItems()));
+        inOrder.verify(orderRepository).save(any());
+        inOrder.verify(orderItemBatchRepository).insertAll(argThat((List<OrderItemEntity> items) -> items.size() == 1
+                && items.get(0).getOrderId().equals(99L)
+                && items.get(0).getProductId().equals(100L)));
+        verify(transactionalOperator).transactional(any(Mono.class));
+    }
+
+    @Test
+    void createOrder_withIdempotencyKey_shouldStoreKeyWithOrder() {
+        when(inventoryFacade.validateAndReserveStock(any(), any())).thenReturn(Mono.just(Map.of(100L, 8L)));
+        when(orderRepository.save(any())).thenReturn(Mono.just(savedOrder));
+        when(orderItemBatchRepository.insertAll(anyList())).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        StepVerifier.create(orderService.createOrder(request, "key-1"))
                 .expectNext(savedOrder)
                 .verifyComplete();
 
+        verify(orderRepository).save(argThat(order -> "key-1".equals(order.getIdempotencyKey())));
+    }
+
+    @Test
+    void createOrder_manyItems_shouldInsertThemInOneStatement() {
+        request.setItems(List.of(
+                new OrderRequest.OrderItemRequest(100L, 3),
+                new OrderRequest.OrderItemRequest(101L, 1),
+                new OrderRequest.OrderItemRequest(102L, 2)));
+        when(inventoryFacade.validateAndReserveStock(any(), any())).thenReturn(Mono.just(Map.of(100L, 8L)));
+        when(orderRepository.save(any())).thenReturn(Mono.just(savedOrder));
+        when(orderItemBatchRepository.insertAll(anyList())).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        StepVerifier.create(orderService.createOrder(request))
+                .expectNext(savedOrder)
+                .verifyComplete();
+
+        verify(orderItemBatchRepository, times(1)).insertAll(argThat((List<OrderItemEntity> items) -> items.size() == 3));
+        verifyNoInteractions(orderItemRepository);
+    }
+
+    @Test
+    void createOrder_insufficientStock_shouldNotWriteOrRollback() {
+        when(inventoryFacade.validateAndReserveStock(any(), any()))
+                .thenReturn(Mono.error(new InsufficientStockException(100L, 3, 1)));
+
+        StepVerifier.create(orderService.createOrder(request))
+                .expectError(OrderNotCompletedException.class)
+                .verify();
+
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(inventoryCompensationRepository);
+    }
+
+    @Test
+    void createOrder_shedWhileReserving_shouldKeepRejectionAndNotJournal() {
+        when(inventoryFacade.validateAndReserveStock(any(), any()))
+                .thenReturn(Mono.error(new OrderRejectedException("Too many reservations", 1)));
+
+        StepVerifier.create(orderService.createOrder(request))
+                .expectError(OrderRejectedException.class)
+                .verify();
+
+        verifyNoInteractions(inventoryCompensationRepository);
+    }
+
+    @Test
+    void createOrder_reservationOutcomeUnknown_shouldJournalCompensationUnderReservationKey() {
+        ArgumentCaptor<String> reservationKey = ArgumentCaptor.forClass(String.class);
+        when(inventoryFacade.validateAndReserveStock(reservationKey.capture(), any()))
+                .thenReturn(Mono.error(new RuntimeException("Inventory error")));
+        when(inventoryCompensationRepository.saveAll(anyList())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
+
+        StepVerifier.create(orderService.createOrder(request))
+                .expectError(OrderNotCompletedException.class)
+                .verify();
+
+        verify(orderRepository, never()).save(any());
+        verify(inventoryCompensationRepository).saveAll(argThat((List<InventoryCompensationEntity> compensations) ->
+                compensations.size() == 1
+                        && compensations.get(0).getProductId().equals(100L)
+                        && reservationKey.getValue().equals(compensations.get(0).getReservationKey())));
+    }
+
+    @Test
+    void createOrder_cancelledDuringReservation_shouldJournalCompensation() {
+        when(inventoryFacade.validateAndReserveStock(any(), any())).thenReturn(Mono.never());
+        when(inventoryCompensationRepository.saveAll(anyList())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
+
+        StepVerifier.create(orderService.createOrder(request))
+                .thenCancel()
+                .verify();
+
+        verify(orderRepository, never()).save(any());
+        verify(inventoryCompensationRepository).saveAll(argThat((List<InventoryCompensationEntity> compensations) ->
+                compensations.size() == 1 && compensations.get(0).getReservationKey() != null));
+    }
+
+    @Test
+    void createOrder_cancelledWhileSaving_shouldJournalCompensationOnce() {
+        ArgumentCaptor<String> reservationKey = ArgumentCaptor.forClass(String.class);
+        when(inventoryFacade.validateAndReserveStock(reservationKey.capture(), any())).thenReturn(Mono.just(Map.of(100L, 8L)));
+        when(orderRepository.save(any())).thenReturn(Mono.never());
+        when(inventoryCompensationRepository.saveAll(anyList())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
+
+        StepVerifier.create(orderService.createOrder(request))
+                .expectSubscription()
+                .thenCancel()
+                .verify();
+
         verify(orderRepository).save(any());
-        verify(orderItemRepository).save(any());
-        verify(inventoryFacade).validateAndReserveStock(request.getItems());
+        verify(inventoryCompensationRepository, times(1)).saveAll(argThat((List<InventoryCompensationEntity> compensations) ->
+                compensations.size() == 1
+                        && compensations.get(0).getQuantity() == 3
+                        && reservationKey.getValue().equals(compensations.get(0).getReservationKey())));
     }
 
     @Test
-    void createOrder_inventoryFails_shouldRollback() {
+    void createOrder_itemSaveFails_shouldJournalCompensation() {
+        when(inventoryFacade.validateAndReserveStock(any(), any())).thenReturn(Mono.just(Map.of(100L, 8L)));
         when(orderRepository.save(any())).thenReturn(Mono.just(savedOrder));
-        when(inventoryFacade.validateAndReserveStock(any())).thenReturn(Mono.error(new RuntimeException("Inventory error")));
-        when(inventoryFacade.increaseStock(100L, 3)).thenReturn(Mono.empty());
+        when(orderItemBatchRepository.insertAll(anyList())).thenReturn(Mono.error(new RuntimeException("DB error")));
+        when(inventoryCompensationRepository.saveAll(anyList())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
 
         StepVerifier.create(orderService.createOrder(request))
                 .expectError(OrderNotCompletedException.class)
                 .verify();
 
-        verify(inventoryFacade).increaseStock(100L, 3);
+        verify(inventoryCompensationRepository).saveAll(argThat((List<InventoryCompensationEntity> compensations) ->
+                compensations.size() == 1
+                        && compensations.get(0).getProductId().equals(100L)
+                        && compensations.get(0).getQuantity() == 3
+                        && compensations.get(0).getCompensationKey() != null
+                        && compensations.get(0).getReservationKey() != null
+                        && compensations.get(0).getCompletedAt() == null));
     }
 
     @Test
-    void getOrdersByUser_found() {
-        OrderEntity order1 = OrderEntity.builder().id(1L).userId(42L).storeId(1L).createdAt(LocalDateTime.now()).build();
+    void createOrder_journalWriteFails_shouldStillReportOrderError() {
+        when(inventoryFacade.validateAndReserveStock(any(), any())).thenReturn(Mono.just(Map.of(100L, 8L)));
+        when(orderRepository.save(any())).thenReturn(Mono.just(savedOrder));
+        when(orderItemBatchRepository.insertAll(anyList())).thenReturn(Mono.error(new RuntimeException("DB error")));
+        when(inventoryCompensationRepository.saveAll(anyList())).thenReturn(Flux.error(new RuntimeException("DB down")));
 
-        when(orderRepository.findByUserId(42L)).thenReturn(Flux.just(order1));
+        StepVerifier.create(orderService.createOrder(request))
+                .expectErrorMatches(e -> e instanceof OrderNotCompletedException && e.getMessage().contains("DB error"))
+                .verify();
+    }
+
+    @Test
+    void getOrdersByUser_shouldReturnPageWithCursor() {
+        LocalDateTime now = LocalDateTime.of(2025, 3, 1, 12, 0);
+        OrderEntity newest = OrderEntity.builder().id(3L).userId(42L).storeId(1L).createdAt(now).build();
+        OrderEntity older = OrderEntity.builder().id(2L).userId(42L).storeId(1L).createdAt(now.minusHours(1)).build();
+        OrderEntity oldest = OrderEntity.builder().id(1L).userId(42L).storeId(1L).createdAt(now.minusHours(2)).build();
+
+        when(orderRepository.findPageByUserId(eq(42L), any(), any(), eq(0L), eq(3)))
+                .thenReturn(Flux.just(newest, older, oldest));
+
+        StepVerifier.create(orderService.getOrdersByUser(42L, null, null, null, 2))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).containsExactly(newest, older);
+                    assertThat(OrderCursor.decode(page.getNextCursor())).isEqualTo(new OrderCursor(older.getCreatedAt(), 2L));
+                })
+                .verifyComplete();
+    }
 
-        StepVerifier.create(orderService.getOrdersByUser(42L))
-                .expectNext(List.of(order1))
+    @Test
+    void getOrdersByUser_withCursorAndRange_shouldContinueFromCursor() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime cursorTime = LocalDateTime.of(2025, 3, 1, 11, 0);
+        OrderEntity last = OrderEntity.builder().id(1L).userId(42L).storeId(1L).createdAt(cursorTime.minusHours(1)).build();
+        String cursor = new OrderCursor(cursorTime, 2L).encode();
+
+        when(orderRepository.findPageByUserId(42L, from, cursorTime, 2L, 101)).thenReturn(Flux.just(last));
+
+        StepVerifier.create(orderService.getOrdersByUser(42L, cursor, from, null, null))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).containsExactly(last);
+                    assertThat(page.getNextCursor()).isNull();
+                })
                 .verifyComplete();
     }
 
     @Test
     void getOrdersByUser_notFound() {
-        when(orderRepository.findByUserId(42L)).thenReturn(Flux.empty());
+        when(orderRepository.findPageByUserId(eq(42L), any(), any(), anyLong(), anyInt())).thenReturn(Flux.empty());
 
-        StepVerifier.create(orderService.getOrdersByUser(42L))
+        StepVerifier.create(orderService.getOrdersByUser(42L, null, null, null, null))
                 .expectError(OrderNotFoundException.class)
                 .verify();
     }
 
     @Test
-    void getOrdersByStore_found() {
-        OrderEntity order = OrderEntity.builder().id(1L).storeId(1L).userId(5L).createdAt(LocalDateTime.now()).build();
+    void getOrdersByUser_withInvalidCursor_shouldFail() {
+        StepVerifier.create(orderService.getOrdersByUser(42L, "not-a-cursor", null, null, null))
+                .expectError(ServerWebInputException.class)
+                .verify();
+
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void getOrdersByStore_withRange_shouldReturnEmptyPage() {
+        LocalDateTime to = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(orderRepository.findPageByStoreId(eq(1L), any(), eq(to), eq(0L), anyInt())).thenReturn(Flux.empty());
 
-        when(orderRepository.findByStoreId(1L)).thenReturn(Flux.just(order));
+        StepVerifier.create(orderService.getOrdersByStore(1L, null, null, to, null))
+                .assertNext(page -> assertThat(page.getItems()).isEmpty())
+                .verifyComplete();
+    }
 
-        StepVerifier.create(orderService.getOrdersByStore(1L))
-                .expectNext(List.of(order))
+    @Test
+    void streamOrdersByStore_shouldReadKeysetPages() {
+        environmentConfig.getListing().setMaxPageSize(2);
+        LocalDateTime now = LocalDateTime.of(2025, 3, 1, 12, 0);
+        OrderEntity first = OrderEntity.builder().id(3L).storeId(1L).userId(5L).createdAt(now).build();
+        OrderEntity second = OrderEntity.builder().id(2L).storeId(1L).userId(5L).createdAt(now).build();
+        OrderEntity third = OrderEntity.builder().id(1L).storeId(1L).userId(5L).createdAt(now.minusDays(1)).build();
+
+        when(orderRepository.findPageByStoreId(eq(1L), any(), any(), eq(0L), eq(2))).thenReturn(Flux.just(first, second));
+        when(orderRepository.findPageByStoreId(eq(1L), any(), eq(now), eq(2L), eq(2))).thenReturn(Flux.just(third));
+
+        StepVerifier.create(orderService.streamOrdersByStore(1L, null, null))
+                .expectNext(first, second, third)
                 .verifyComplete();
     }
 
     @Test
-    void getOrdersByStore_notFound() {
-        when(orderRepository.findByStoreId(1L)).thenReturn(Flux.empty());
+    void getOrdersWithItemsByStore_shouldReturnOrdersWithItemsFromOneQuery() {
+        LocalDateTime now = LocalDateTime.of(2025, 3, 1, 12, 0);
+        OrderWithItemsResponse newest = OrderWithItemsResponse.builder().id(3L).storeId(1L).userId(5L).createdAt(now)
+                .items(List.of(new OrderItemEntity(7L, 3L, 100L, 2), new OrderItemEntity(8L, 3L, 101L, 1)))
+                .build();
+        OrderWithItemsResponse older = OrderWithItemsResponse.builder().id(2L).storeId(1L).userId(5L)
+                .createdAt(now.minusHours(1)).items(List.of()).build();
+
+        when(orderWithItemsRepository.findPageByStoreId(eq(1L), any(), any(), eq(0L), eq(2)))
+                .thenReturn(Flux.just(newest, older));
+
+        StepVerifier.create(orderService.getOrdersWithItemsByStore(1L, null, null, null, 1))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).containsExactly(newest);
+                    assertThat(page.getItems().get(0).getItems()).hasSize(2);
+                    assertThat(OrderCursor.decode(page.getNextCursor())).isEqualTo(new OrderCursor(now, 3L));
+                })
+                .verifyComplete();
 
-        StepVerifier.create(orderService.getOrdersByStore(1L))
+        verifyNoInteractions(orderRepository, orderItemRepository);
+    }
+
+    @Test
+    void getOrdersWithItemsByStore_notFound() {
+        when(orderWithItemsRepository.findPageByStoreId(eq(1L), any(), any(), anyLong(), anyInt())).thenReturn(Flux.empty());
+
+        StepVerifier.create(orderService.getOrdersWithItemsByStore(1L, null, null, null, null))
                 .expectError(OrderNotFoundException.class)
                 .verify();
     }
 
     @Test
     void getItemsByOrderId_found() {
-        OrderEntity order = OrderEntity.builder().id(10L).storeId(1L).userId(1L).createdAt(LocalDateTime.now()).build();
         OrderItemEntity item = new OrderItemEntity(1L, 10L, 100L, 2);
 
-        when(orderRepository.findById(10L)).thenReturn(Mono.just(order));
         when(orderItemRepository.findByOrderId(10L)).thenReturn(Flux.just(item));
 
         StepVerifier.create(orderService.getItemsByOrderId(10L))
                 .expectNext(List.of(item))
                 .verifyComplete();
+
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void getItemsByOrderId_orderWithoutItems() {
+        when(orderItemRepository.findByOrderId(10L)).thenReturn(Flux.empty());
+        when(orderRepository.existsById(10L)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(orderService.getItemsByOrderId(10L))
+                .expectNext(List.of())
+                .verifyComplete();
     }
 
     @Test
     void getItemsByOrderId_orderNotFound() {
-        when(orderRepository.findById(10L)).thenReturn(Mono.empty());
+        when(orderItemRepository.findByOrderId(10L)).thenReturn(Flux.empty());
+        when(orderRepository.existsById(10L)).thenReturn(Mono.just(false));
 
         StepVerifier.create(orderService.getItemsByOrderId(10L))
                 .expectError(OrderNotFoundException.class)
@@ -2,25 +2,41 @@ package org.inventorysystem.orderservice.facade;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import org.inventorysystem.orderservice.config.EnvironmentConfig;
 import org.inventorysystem.orderservice.dto.OrderRequest;
 import org.inventorysystem.orderservice.exception.InsufficientStockException;
+import org.inventorysystem.orderservice.exception.OrderRejectedException;
 import org.inventorysystem.orderservice.service.facade.InventoryFacade;
-import org.inventorysystem.orderservice.service.facade.response.ProductResponse;
-import org.inventorysystem.orderservice.service.facade.response.ValidateStockResponse;
+import org.inventorysystem.orderservice.service.facade.response.BatchReservationResponse;
+import org.inventorysystem.orderservice.service.facade.response.ReservationResponse;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.reactive.function.client.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -56,48 +72,267 @@ class InventoryFacadeTest {
         inventoryFacade = new InventoryFacade(webClient, environmentConfig);
     }
 
+    @AfterEach
+    void tearDown() {
+        inventoryFacade.destroy();
+    }
+
     @Test
     void validateAndReserveStock_shouldSucceed() {
         OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest(1L, 3);
-        ValidateStockResponse response = new ValidateStockResponse(true);
+        ReservationResponse response = new ReservationResponse(true, List.of(
+                new ReservationResponse.LineResult(1L, 3, 7, ReservationResponse.RESERVED, 12L)));
 
-        // Mock POST /validate-stock
+        // Mock POST /reservations
         when(exchangeFunction.exchange(any(ClientRequest.class)))
-                .thenReturn(Mono.just(mockResponse(HttpStatus.OK, response)))
-                .thenReturn(Mono.just(mockResponse(HttpStatus.OK, null))); // For PUT decrease
+                .thenReturn(Mono.just(mockResponse(HttpStatus.OK, response)));
 
-        StepVerifier.create(inventoryFacade.validateAndReserveStock(List.of(item)))
+        StepVerifier.create(inventoryFacade.validateAndReserveStock("r1", List.of(item)))
+                .expectNext(Map.of(1L, 12L))
                 .verifyComplete();
+
+        verify(exchangeFunction, times(1)).exchange(any(ClientRequest.class));
     }
 
     @Test
     void validateAndReserveStock_shouldFail_dueToStock() {
         OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest(1L, 3);
-        ValidateStockResponse response = new ValidateStockResponse(false);
+        OrderRequest.OrderItemRequest other = new OrderRequest.OrderItemRequest(2L, 1);
+        ReservationResponse response = new ReservationResponse(false, List.of(
+                new ReservationResponse.LineResult(1L, 3, 2, "INSUFFICIENT_STOCK", null),
+                new ReservationResponse.LineResult(2L, 1, 5, ReservationResponse.NOT_RESERVED, null)));
 
         when(exchangeFunction.exchange(any(ClientRequest.class)))
-                .thenReturn(Mono.just(mockResponse(HttpStatus.OK, response))); // POST validate fails
+                .thenReturn(Mono.just(mockResponse(HttpStatus.OK, response))); // Reservation rejected
 
-        StepVerifier.create(inventoryFacade.validateAndReserveStock(List.of(item)))
+        StepVerifier.create(inventoryFacade.validateAndReserveStock("r1", List.of(item, other)))
                 .expectError(InsufficientStockException.class)
                 .verify();
     }
 
     @Test
-    void increaseStock_shouldSucceed() {
-        ProductResponse response = ProductResponse.builder()
-                .id(1L)
-                .quantity(10)
-                .build();
+    void validateAndReserveStock_concurrentOrders_shouldShareOneBatchedCall() {
+        useBatchedFacade(2);
+        BatchReservationResponse response = new BatchReservationResponse(List.of(
+                new ReservationResponse(true, List.of(
+                        new ReservationResponse.LineResult(1L, 3, 7, ReservationResponse.RESERVED, 12L))),
+                new ReservationResponse(false, List.of(
+                        new ReservationResponse.LineResult(2L, 4, 1, "INSUFFICIENT_STOCK", null)))));
+
+        when(exchangeFunction.exchange(any(ClientRequest.class)))
+                .thenReturn(Mono.just(mockResponse(HttpStatus.OK, response)));
+
+        Mono<Signal<Map<Long, Long>>> first = inventoryFacade
+                .validateAndReserveStock("r1", List.of(new OrderRequest.OrderItemRequest(1L, 3))).materialize();
+        Mono<Signal<Map<Long, Long>>> second = inventoryFacade
+                .validateAndReserveStock("r2", List.of(new OrderRequest.OrderItemRequest(2L, 4))).materialize();
+
+        StepVerifier.create(Mono.zip(first, second))
+                .assertNext(results -> {
+                    assertThat(results.getT1().get()).isEqualTo(Map.of(1L, 12L));
+                    assertThat(results.getT2().getThrowable()).isInstanceOf(InsufficientStockException.class);
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<ClientRequest> request = ArgumentCaptor.forClass(ClientRequest.class);
+        verify(exchangeFunction, times(1)).exchange(request.capture());
+        assertThat(request.getValue().url().getPath()).isEqualTo("/api/inventory/reservations/batch");
+    }
+
+    @Test
+    void validateAndReserveStock_oneReservationOfBatchFails_shouldFailOnlyThatOrder() {
+        useBatchedFacade(2);
+        BatchReservationResponse response = new BatchReservationResponse(List.of(
+                new ReservationResponse(false, List.of(), "INV-0005"),
+                new ReservationResponse(true, List.of(
+                        new ReservationResponse.LineResult(2L, 4, 1, ReservationResponse.RESERVED, 5L)))));
 
         when(exchangeFunction.exchange(any(ClientRequest.class)))
                 .thenReturn(Mono.just(mockResponse(HttpStatus.OK, response)));
 
-        StepVerifier.create(inventoryFacade.increaseStock(1L, 5))
-                .expectNextMatches(p -> p.getQuantity() == 10)
+        Mono<Signal<Map<Long, Long>>> first = inventoryFacade
+                .validateAndReserveStock("r1", List.of(new OrderRequest.OrderItemRequest(1L, 3))).materialize();
+        Mono<Signal<Map<Long, Long>>> second = inventoryFacade
+                .validateAndReserveStock("r2", List.of(new OrderRequest.OrderItemRequest(2L, 4))).materialize();
+
+        StepVerifier.create(Mono.zip(first, second))
+                .assertNext(results -> {
+                    assertThat(results.getT1().getThrowable())
+                            .isInstanceOf(IllegalStateException.class)
+                            .hasMessageContaining("INV-0005");
+                    assertThat(results.getT2().get()).isEqualTo(Map.of(2L, 5L));
+                })
                 .verifyComplete();
     }
 
+    @Test
+    void validateAndReserveStock_batchedCallFails_shouldFailEveryOrderInBatch() {
+        useBatchedFacade(2);
+        when(exchangeFunction.exchange(any(ClientRequest.class)))
+                .thenReturn(Mono.just(mockResponse(HttpStatus.BAD_REQUEST, null)));
+
+        Mono<Signal<Map<Long, Long>>> first = inventoryFacade
+                .validateAndReserveStock("r1", List.of(new OrderRequest.OrderItemRequest(1L, 3))).materialize();
+        Mono<Signal<Map<Long, Long>>> second = inventoryFacade
+                .validateAndReserveStock("r2", List.of(new OrderRequest.OrderItemRequest(2L, 4))).materialize();
+
+        StepVerifier.create(Mono.zip(first, second))
+                .assertNext(results -> {
+                    assertThat(results.getT1().getThrowable()).isInstanceOf(WebClientResponseException.class);
+                    assertThat(results.getT2().getThrowable()).isInstanceOf(WebClientResponseException.class);
+                })
+                .verifyComplete();
+
+        verify(exchangeFunction, times(1)).exchange(any(ClientRequest.class));
+    }
+
+    @Test
+    void validateAndReserveStock_cancelledBeforeBatchIsSent_shouldBeLeftOut() {
+        useBatchedFacade(2);
+        ReservationResponse response = new ReservationResponse(true, List.of(
+                new ReservationResponse.LineResult(2L, 4, 6, ReservationResponse.RESERVED, 5L)));
+
+        when(exchangeFunction.exchange(any(ClientRequest.class)))
+                .thenReturn(Mono.just(mockResponse(HttpStatus.OK, response)));
+
+        inventoryFacade.validateAndReserveStock("r1", List.of(new OrderRequest.OrderItemRequest(1L, 3)))
+                .subscribe()
+                .dispose();
+
+        StepVerifier.create(inventoryFacade.validateAndReserveStock("r2", List.of(new OrderRequest.OrderItemRequest(2L, 4))))
+                .expectNext(Map.of(2L, 5L))
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        ArgumentCaptor<ClientRequest> request = ArgumentCaptor.forClass(ClientRequest.class);
+        verify(exchangeFunction, times(1)).exchange(request.capture());
+        assertThat(request.getValue().url().getPath()).isEqualTo("/api/inventory/reservations");
+    }
+
+    @Test
+    void validateAndReserveStock_whenBatchQueueIsFull_shouldRejectOrder() {
+        environmentConfig.getReservationBatch().setMaxInFlight(1);
+        environmentConfig.getReservationBatch().setMaxQueued(1);
+        useBatchedFacade(1);
+
+        when(exchangeFunction.exchange(any(ClientRequest.class))).thenReturn(Mono.never());
+
+        for (int i = 0; i < 10; i++) {
+            inventoryFacade.validateAndReserveStock("r" + i, List.of(new OrderRequest.OrderItemRequest(1L, 1)))
+                    .subscribe(v -> { }, e -> { });
+        }
+
+        StepVerifier.create(inventoryFacade.validateAndReserveStock("r10", List.of(new OrderRequest.OrderItemRequest(1L, 1))))
+                .expectError(OrderRejectedException.class)
+                .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void validateAndReserveStock_submittedFromManyThreadsAtOnce_shouldQueueEveryOrder() {
+        useBatchedFacade(1);
+        ReservationResponse response = new ReservationResponse(true, List.of(
+                new ReservationResponse.LineResult(1L, 1, 9, ReservationResponse.RESERVED, 12L)));
+
+        when(exchangeFunction.exchange(any(ClientRequest.class)))
+                .thenAnswer(invocation -> Mono.just(mockResponse(HttpStatus.OK, response)));
+
+        int orders = 16;
+        CyclicBarrier start = new CyclicBarrier(orders);
+        Flux<Map<Long, Long>> reserved = Flux.range(0, orders)
+                .flatMap(i -> Mono.fromRunnable(() -> await(start))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .then(inventoryFacade.validateAndReserveStock("r" + i,
+                                List.of(new OrderRequest.OrderItemRequest(1L, 1)))), orders);
+
+        StepVerifier.create(reserved)
+                .expectNextCount(orders)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void validateAndReserveStock_whenInventoryFailsBriefly_shouldFitEveryRetryWithinTotalTimeout() {
+        environmentConfig.getRetry().setDelayMs(1_000);
+        environmentConfig.getResilience().setTotalTimeoutMs(1_200);
+        recreateFacade();
+        ReservationResponse response = new ReservationResponse(true, List.of(
+                new ReservationResponse.LineResult(1L, 3, 7, ReservationResponse.RESERVED, 12L)));
+
+        when(exchangeFunction.exchange(any(ClientRequest.class)))
+                .thenReturn(Mono.just(mockResponse(HttpStatus.SERVICE_UNAVAILABLE, null)))
+                .thenReturn(Mono.just(mockResponse(HttpStatus.SERVICE_UNAVAILABLE, null)))
+                .thenReturn(Mono.just(mockResponse(HttpStatus.SERVICE_UNAVAILABLE, null)))
+                .thenReturn(Mono.just(mockResponse(HttpStatus.OK, response)));
+
+        StepVerifier.create(inventoryFacade.validateAndReserveStock("r1", List.of(new OrderRequest.OrderItemRequest(1L, 3))))
+                .expectNext(Map.of(1L, 12L))
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+        verify(exchangeFunction, times(4)).exchange(any(ClientRequest.class));
+    }
+
+    @Test
+    void validateAndReserveStock_whenCircuitIsOpen_shouldFailFastWithoutCallingInventory() {
+        environmentConfig.getRetry().setMaxAttempts(0);
+        EnvironmentConfig.Resilience.CircuitBreaker circuitBreaker = environmentConfig.getResilience().getCircuitBreaker();
+        circuitBreaker.setSlidingWindowSize(2);
+        circuitBreaker.setMinimumNumberOfCalls(2);
+        recreateFacade();
+        List<OrderRequest.OrderItemRequest> items = List.of(new OrderRequest.OrderItemRequest(1L, 3));
+
+        when(exchangeFunction.exchange(any(ClientRequest.class)))
+                .thenReturn(Mono.just(mockResponse(HttpStatus.INTERNAL_SERVER_ERROR, null)));
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(inventoryFacade.validateAndReserveStock("r" + i, items))
+                    .expectError()
+                    .verify();
+        }
+        assertThat(inventoryFacade.circuitState(InventoryFacade.RESERVATIONS)).isEqualTo(CircuitBreaker.State.OPEN);
+
+        StepVerifier.create(inventoryFacade.validateAndReserveStock("r2", items))
+                .expectError(CallNotPermittedException.class)
+                .verify();
+        verify(exchangeFunction, times(2)).exchange(any(ClientRequest.class));
+    }
+
+    @Test
+    void validateAndReserveStock_whenInventoryIsSlow_shouldTimeOutWithoutRetrying() {
+        environmentConfig.getRetry().setMaxAttempts(1);
+        environmentConfig.getRetry().setDelayMs(10);
+        environmentConfig.getResilience().setCallTimeoutMs(50);
+        recreateFacade();
+
+        when(exchangeFunction.exchange(any(ClientRequest.class))).thenReturn(Mono.never());
+
+        StepVerifier.create(inventoryFacade.validateAndReserveStock("r1", List.of(new OrderRequest.OrderItemRequest(1L, 3))))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(2));
+        verify(exchangeFunction, times(1)).exchange(any(ClientRequest.class));
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(2, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void recreateFacade() {
+        inventoryFacade.destroy();
+        inventoryFacade = new InventoryFacade(webClient, environmentConfig);
+    }
+
+    /**
+     * Replaces the facade with one that sends a batch as soon as {@code maxSize} orders are pending.
+     */
+    private void useBatchedFacade(int maxSize) {
+        environmentConfig.getReservationBatch().setMaxSize(maxSize);
+        environmentConfig.getReservationBatch().setWindowMs(10_000);
+        recreateFacade();
+    }
+
     // Utilidad para simular respuesta JSON
     private <T> ClientResponse mockResponse(HttpStatus status, T body) {
         return ClientResponse.create(status)
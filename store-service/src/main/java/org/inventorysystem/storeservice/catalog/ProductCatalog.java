@@ -0,0 +1,213 @@
+package org.inventorysystem.storeservice.catalog;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongAVLTreeSet;
+import it.unimi.dsi.fastutil.longs.LongBidirectionalIterator;
+import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.storeservice.config.EnvironmentConfig;
+import org.inventorysystem.storeservice.entity.ProductEntity;
+import org.inventorysystem.storeservice.event.InventoryUpdatedEvent;
+import org.inventorysystem.storeservice.repository.StoreInventoryRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Memory-resident copy of the store's products, answering product reads without a database round trip.
+ * <p>
+ * Products are kept in a map keyed by the primitive product ID, and each category keeps the sorted IDs
+ * of its products so pages are read by ID like the {@code (category_id, id)} index. The catalog is loaded
+ * from {@code products} once the application is ready and then follows the inventory events as they are
+ * written, with the same version rule as the database upsert, so an event written during the load and a
+ * row loaded after it converge on the newer state. MySQL stays the durable copy; until the load completes,
+ * {@link #isLoaded()} is false and reads go to the database.
+ * <p>
+ * Publishes the {@value #SIZE_GAUGE} gauge.
+ */
+@Component
+@Slf4j
+public class ProductCatalog {
+
+    public static final String SIZE_GAUGE = "store.catalog.products";
+
+    private final StoreInventoryRepository storeInventoryRepository;
+    private final EnvironmentConfig.Catalog config;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Long2ObjectOpenHashMap<Entry> products = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<LongAVLTreeSet> productIdsByCategory = new Long2ObjectOpenHashMap<>();
+
+    private volatile boolean loaded;
+
+    public ProductCatalog(StoreInventoryRepository storeInventoryRepository,
+                          EnvironmentConfig environmentConfig,
+                          MeterRegistry meterRegistry) {
+        this.storeInventoryRepository = storeInventoryRepository;
+        this.config = environmentConfig.getCatalog();
+        Gauge.builder(SIZE_GAUGE, this, ProductCatalog::size)
+                .description("Products held in the in-memory catalog")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("In-memory product catalog disabled, reads go to the database");
+            return;
+        }
+        load().subscribe(
+                null,
+                e -> log.error("Failed to load the product catalog, reads stay on the database", e));
+    }
+
+    /**
+     * Reads every product from the database into the catalog and marks it as loaded.
+     *
+     * @return Mono completing once the catalog is loaded.
+     */
+    public Mono<Void> load() {
+        return storeInventoryRepository.findAll()
+                .buffer(config.getLoadBatchSize())
+                .doOnNext(this::loadAll)
+                .then()
+                .doOnSuccess(unused -> {
+                    loaded = true;
+                    log.info("Product catalog loaded with {} product(s)", size());
+                });
+    }
+
+    /**
+     * @return whether the catalog holds every product and can answer reads.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * @param productId The product ID.
+     * @return a copy of the product, or null if it is not in the catalog.
+     */
+    public ProductEntity find(long productId) {
+        lock.readLock().lock();
+        try {
+            Entry entry = products.get(productId);
+            return entry != null ? entry.toProduct(productId) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads one page of a category, ordered by ID.
+     *
+     * @param categoryId The category ID.
+     * @param afterId    Only products with a greater ID are returned; 0 for the first page.
+     * @param limit      Maximum number of products.
+     * @return copies of the products of the page.
+     */
+    public List<ProductEntity> page(long categoryId, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            LongAVLTreeSet ids = productIdsByCategory.get(categoryId);
+            if (ids == null) {
+                return List.of();
+            }
+            List<ProductEntity> page = new ArrayList<>(Math.min(limit, ids.size()));
+            LongBidirectionalIterator it = ids.iterator(afterId);
+            while (it.hasNext() && page.size() < limit) {
+                long id = it.nextLong();
+                page.add(products.get(id).toProduct(id));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies inventory events that have been written to the database.
+     *
+     * @param events The written events.
+     */
+    public void applyAll(List<InventoryUpdatedEvent> events) {
+        lock.writeLock().lock();
+        try {
+            for (InventoryUpdatedEvent event : events) {
+                merge(event.getProductId(), event.getProductName(), event.getPrice(), event.getCategoryId(),
+                        event.getNewQuantity(), event.getDescription(), event.effectiveVersion());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void loadAll(List<ProductEntity> rows) {
+        lock.writeLock().lock();
+        try {
+            for (ProductEntity row : rows) {
+                merge(row.getId(), row.getName(), row.getPrice(), row.getCategoryId(),
+                        row.getQuantity(), row.getDescription(), row.getVersion() != null ? row.getVersion() : 0);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a missing product, or updates the quantity of an existing one if the version is newer,
+     * as {@code OrdersService} does in the database. Must be called with the write lock held.
+     */
+    private void merge(long id, String name, double price, long categoryId,
+                       int quantity, String description, long version) {
+        Entry current = products.get(id);
+        if (current == null) {
+            products.put(id, new Entry(name, price, categoryId, quantity, description, version));
+            LongAVLTreeSet ids = productIdsByCategory.get(categoryId);
+            if (ids == null) {
+                ids = new LongAVLTreeSet();
+                productIdsByCategory.put(categoryId, ids);
+            }
+            ids.add(id);
+        } else if (version == InventoryUpdatedEvent.UNVERSIONED || version > current.version()) {
+            products.put(id, current.withQuantity(quantity, Math.max(version, current.version())));
+        }
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return products.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Product fields held per ID; the ID itself is the map key.
+     */
+    private record Entry(String name, double price, long categoryId, int quantity, String description, long version) {
+
+        private Entry withQuantity(int newQuantity, long newVersion) {
+            return new Entry(name, price, categoryId, newQuantity, description, newVersion);
+        }
+
+        private ProductEntity toProduct(long id) {
+            return ProductEntity.builder()
+                    .id(id)
+                    .name(name)
+                    .price(price)
+                    .categoryId(categoryId)
+                    .quantity(quantity)
+                    .description(description)
+                    .version(version)
+                    .build();
+        }
+    }
+}
@@ -9,9 +9,76 @@ import org.springframework.context.annotation.Configuration;
 @Data
 public class EnvironmentConfig {
     private Domains domains;
+    private HttpClient httpClient = new HttpClient();
+    private Listing listing = new Listing();
+    private Catalog catalog = new Catalog();
+    private BasketCheck basketCheck = new BasketCheck();
 
     @Data
     public static class Domains {
         private String order;
     }
-}
\ No newline at end of file
+
+    @Data
+    public static class Listing {
+        private int defaultPageSize = 100;
+        /**
+         * Upper bound for a requested page size, and the rows read per query when streaming.
+         */
+        private int maxPageSize = 1_000;
+    }
+
+    @Data
+    public static class Catalog {
+        /**
+         * Whether product reads are answered from the in-memory catalog. It only sees the events consumed
+         * by this instance, so it must be disabled when several instances share the store database.
+         */
+        private boolean enabled = true;
+        /**
+         * Rows applied to the catalog per write lock while loading it.
+         */
+        private int loadBatchSize = 1_000;
+    }
+
+    @Data
+    public static class BasketCheck {
+        /**
+         * Whether orders are checked against the local inventory before being sent to the order-service.
+         */
+        private boolean enabled = true;
+        /**
+         * Upper bound on how long the units of an order stay held, if its call never completes or the
+         * local inventory does not catch up with it.
+         */
+        private long holdTtlMs = 10_000;
+    }
+
+    /**
+     * Connection pool and timeouts of the WebClient used to call other services.
+     */
+    @Data
+    public static class HttpClient {
+        private int connectTimeoutMs = 2_000;
+        /**
+         * Time allowed between sending a request and receiving its response headers.
+         */
+        private long responseTimeoutMs = 5_000;
+        private int maxConnections = 200;
+        /**
+         * Requests allowed to wait for a free connection; further requests fail at once.
+         */
+        private int pendingAcquireMaxCount = 1_000;
+        private long pendingAcquireTimeoutMs = 2_000;
+        /**
+         * Idle connections are closed after this time, before the server or a load balancer drops them.
+         */
+        private long maxIdleTimeMs = 30_000;
+        private long maxLifeTimeMs = 300_000;
+        private long evictInBackgroundMs = 30_000;
+        /**
+         * Whether to use HTTP/2 cleartext (h2c); the called service needs {@code server.http2.enabled}.
+         */
+        private boolean h2c = false;
+    }
+}
@@ -1,33 +1,75 @@
 package org.inventorysystem.storeservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.inventorysystem.storeservice.event.CategoryCreatedEvent;
 import org.inventorysystem.storeservice.event.InventoryUpdatedEvent;
+import org.inventorysystem.storeservice.kafka.ReplicaErrorHandler;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Properties;
 
+/**
+ * Kafka consumers of the store replica.
+ * <p>
+ * Listeners block until their write completes, so each consumer thread has one write in flight and
+ * offsets are committed only after the records of a poll have been written. A failed write is retried
+ * with exponential backoff, without a limit, instead of being committed, which holds back its partitions
+ * while the database is unavailable or saturated. Only records that can never be applied, because they
+ * cannot be deserialized or fail validation, go to a dead letter topic; see {@link ReplicaErrorHandler}.
+ * Events can therefore be delivered more than once, so every write is an idempotent upsert.
+ * <p>
+ * The consumers publish the Kafka client metrics, including {@code kafka.consumer.fetch.manager.records.lag}
+ * and {@code kafka.consumer.fetch.manager.records.lag.max} per partition.
+ */
 @Configuration
+@RequiredArgsConstructor
 public class KafkaConsumerConfig {
 
+    private final MeterRegistry meterRegistry;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
     @Value("${spring.kafka.consumer.group-id:store-group}")
     private String groupId;
 
+    @Value("${kafka.batch.max-poll-records:500}")
+    private int batchMaxPollRecords;
+
+    @Value("${kafka.retry.initial-interval-ms:500}")
+    private long initialIntervalMs;
+
+    @Value("${kafka.retry.max-interval-ms:10000}")
+    private long maxIntervalMs;
+
     @Bean
     public ConsumerFactory<String, InventoryUpdatedEvent> consumerFactory() {
-        JsonDeserializer<InventoryUpdatedEvent> deserializer = new JsonDeserializer<>(InventoryUpdatedEvent.class);
-        deserializer.addTrustedPackages("*");
+        JsonDeserializer<InventoryUpdatedEvent> json = new JsonDeserializer<>(InventoryUpdatedEvent.class);
+        json.addTrustedPackages("*");
+        ErrorHandlingDeserializer<InventoryUpdatedEvent> deserializer = new ErrorHandlingDeserializer<>(json);
 
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
@@ -35,14 +77,19 @@ public class KafkaConsumerConfig {
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, deserializer);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
+        DefaultKafkaConsumerFactory<String, InventoryUpdatedEvent> factory =
+                new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
     public ConsumerFactory<String, CategoryCreatedEvent> categoryConsumerFactory() {
-        JsonDeserializer<CategoryCreatedEvent> deserializer = new JsonDeserializer<>(CategoryCreatedEvent.class);
-        deserializer.addTrustedPackages("*");
+        JsonDeserializer<CategoryCreatedEvent> json = new JsonDeserializer<>(CategoryCreatedEvent.class);
+        json.addTrustedPackages("*");
+        ErrorHandlingDeserializer<CategoryCreatedEvent> deserializer = new ErrorHandlingDeserializer<>(json);
 
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
@@ -50,8 +97,12 @@ public class KafkaConsumerConfig {
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, deserializer);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
+        DefaultKafkaConsumerFactory<String, CategoryCreatedEvent> factory =
+                new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean(name = "categoryKafkaListenerContainerFactory")
@@ -59,6 +110,7 @@ public class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, CategoryCreatedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(categoryConsumerFactory());
+        commitAfterWrite(factory);
         return factory;
     }
 
@@ -68,6 +120,50 @@ public class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, InventoryUpdatedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        commitAfterWrite(factory);
         return factory;
     }
-}
\ No newline at end of file
+
+    /**
+     * Delivers each poll to the listener as one list of up to {@code kafka.batch.max-poll-records} events.
+     */
+    @Bean(name = "batchKafkaListenerContainerFactory")
+    public ConcurrentKafkaListenerContainerFactory<String, InventoryUpdatedEvent> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, InventoryUpdatedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(batchMaxPollRecords));
+        factory.getContainerProperties().setKafkaConsumerProperties(overrides);
+        commitAfterWrite(factory);
+        return factory;
+    }
+
+    /**
+     * Publishes the records that cannot be applied to their dead letter topic: the original bytes of
+     * records that could not be deserialized, and the others as JSON.
+     */
+    @Bean
+    public KafkaTemplate<Object, Object> deadLetterTemplate() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+
+        Map<Class<?>, Serializer<?>> serializers = new LinkedHashMap<>();
+        serializers.put(byte[].class, new ByteArraySerializer());
+        serializers.put(String.class, new StringSerializer());
+        serializers.put(Object.class, new JsonSerializer<>());
+        DelegatingByTypeSerializer serializer = new DelegatingByTypeSerializer(serializers, true);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props, serializer, serializer));
+    }
+
+    /**
+     * Commits the offsets of a poll once the listener has returned for all of its records, and
+     * retries the records whose write failed instead of committing them.
+     */
+    private void commitAfterWrite(ConcurrentKafkaListenerContainerFactory<String, ?> factory) {
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(new ReplicaErrorHandler(deadLetterTemplate(), initialIntervalMs, maxIntervalMs));
+    }
+}
@@ -26,11 +26,13 @@ public class OrdersController {
 
     @Operation(
             summary = "Place a new order",
-            description = "Creates a new order with the specified items, user, and store."
+            description = "Creates a new order with the specified items, user, and store. "
+                    + "Retries sent with the same Idempotency-Key return the order of the first request."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Order placed successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid request"),
+            @ApiResponse(responseCode = "409", description = "The store does not have enough stock for the order"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping
@@ -39,8 +41,10 @@ public class OrdersController {
                     description = "Order request with user ID, store ID and list of items",
                     required = true
             )
-            @RequestBody OrderRequest request) {
-        return ordersService.placeOrder(request)
+            @RequestBody OrderRequest request,
+            @Parameter(description = "Client-generated key that makes retries of this request safe")
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ordersService.placeOrder(request, idempotencyKey)
                 .map(ResponseEntity::ok);
     }
 }
@@ -5,17 +5,19 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.inventorysystem.storeservice.dto.response.ProductPageResponse;
 import org.inventorysystem.storeservice.entity.ProductEntity;
 import org.inventorysystem.storeservice.service.ProductsService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
@@ -39,15 +41,31 @@ public class ProductsController {
 
     @Operation(
             summary = "Get products by category ID",
-            description = "Fetches all products that belong to the specified category."
+            description = "Fetches one page of the products that belong to the specified category, ordered by ID."
     )
-    @ApiResponse(responseCode = "200", description = "List of products in the category")
+    @ApiResponse(responseCode = "200", description = "Page of products; pass nextCursor as 'after' for the next one")
     @GetMapping("/category/{categoryId}")
-    public Mono<ResponseEntity<List<ProductEntity>>> getProductByCategoryId(
+    public Mono<ResponseEntity<ProductPageResponse>> getProductByCategoryId(
             @Parameter(description = "Category ID", required = true)
-            @PathVariable Long categoryId) {
-        return productsService.getInventoryByCategoryId(categoryId)
+            @PathVariable Long categoryId,
+            @Parameter(description = "Cursor returned by the previous page")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size")
+            @RequestParam(required = false) Integer limit) {
+        return productsService.getInventoryByCategoryId(categoryId, after, limit)
                 .map(ResponseEntity::ok);
     }
-}
 
+    @Operation(
+            summary = "Stream products by category ID",
+            description = "Streams every product that belongs to the specified category as NDJSON, ordered by ID."
+    )
+    @GetMapping(value = "/category/{categoryId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductEntity> streamProductsByCategoryId(
+            @Parameter(description = "Category ID", required = true)
+            @PathVariable Long categoryId,
+            @Parameter(description = "Only stream products with a greater ID")
+            @RequestParam(required = false) Long after) {
+        return productsService.streamInventoryByCategoryId(categoryId, after);
+    }
+}
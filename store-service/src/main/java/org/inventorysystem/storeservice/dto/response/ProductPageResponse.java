@@ -0,0 +1,24 @@
+package org.inventorysystem.storeservice.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.inventorysystem.storeservice.entity.ProductEntity;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of products, ordered by ID")
+public class ProductPageResponse {
+
+    @Schema(description = "Products in this page")
+    private List<ProductEntity> items;
+
+    @Schema(description = "Value to pass as 'after' to get the next page; null on the last page", example = "1042")
+    private Long nextCursor;
+}
@@ -27,4 +27,6 @@ public class ProductEntity {
     private Integer quantity;
 
     private String description;
+
+    private Long version;
 }
\ No newline at end of file
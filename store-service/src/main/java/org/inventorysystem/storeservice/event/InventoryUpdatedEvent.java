@@ -10,6 +10,12 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class InventoryUpdatedEvent {
+
+    /**
+     * Version of events published before versions existed. They are always applied and never raise the stored version.
+     */
+    public static final long UNVERSIONED = -1;
+
     private Long productId;
     private String productName;
     private String description;
@@ -18,4 +24,12 @@ public class InventoryUpdatedEvent {
     private String categoryName;
     private InventoryEventType eventType;
     private Double price;
+    private Long version;
+
+    /**
+     * @return the version, or {@value #UNVERSIONED} if the event has none.
+     */
+    public long effectiveVersion() {
+        return version != null ? version : UNVERSIONED;
+    }
 }
\ No newline at end of file
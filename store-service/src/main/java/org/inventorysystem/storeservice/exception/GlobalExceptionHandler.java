@@ -31,6 +31,18 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    /**
+     * Handles InsufficientStoreStockException when the local inventory cannot fill an order.
+     *
+     * @param ex the exception
+     * @return 409 Conflict with message
+     */
+    @ExceptionHandler(InsufficientStoreStockException.class)
+    public ResponseEntity<String> handleInsufficientStock(InsufficientStoreStockException ex) {
+        log.warn("Order rejected by store: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
     /**
      * Handles WebExchangeBindException (validation errors in @Valid request bodies).
      *
@@ -0,0 +1,19 @@
+package org.inventorysystem.storeservice.exception;
+
+import java.util.List;
+
+/**
+ * Exception thrown when the store's local inventory shows that an order cannot be filled,
+ * so it is rejected without being sent to the order-service.
+ */
+public class InsufficientStoreStockException extends RuntimeException {
+
+    /**
+     * Constructs a new exception with a message listing the products that are short.
+     *
+     * @param productIds The IDs of the products without enough unheld stock.
+     */
+    public InsufficientStoreStockException(List<Long> productIds) {
+        super("Insufficient stock in store for products " + productIds);
+    }
+}
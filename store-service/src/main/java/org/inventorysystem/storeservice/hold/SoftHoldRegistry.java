@@ -0,0 +1,229 @@
+package org.inventorysystem.storeservice.hold;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.inventorysystem.storeservice.config.EnvironmentConfig;
+import org.inventorysystem.storeservice.exception.InsufficientStoreStockException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived holds on the local stock of orders that are being sent to the order-service.
+ * <p>
+ * A basket is accepted only if every product has enough stock left once the units held by other
+ * in-flight orders are subtracted, and its units are then held. This way concurrent tills do not
+ * send more units than the replica shows. A failed order releases its hold at once. An accepted
+ * order keeps the units of each product held until the local replica applies the inventory
+ * version that its reservation produced, since the replica shows the old quantity until then.
+ * A hold is dropped after {@code app.basket-check.hold-ttl-ms} in any case, so an order whose call
+ * never completes, or whose versions are unknown, does not hold units forever.
+ * <p>
+ * Publishes {@value #CHECKS_COUNTER} per outcome and the units currently held ({@value #HELD_GAUGE}).
+ */
+@Component
+public class SoftHoldRegistry {
+
+    public static final String CHECKS_COUNTER = "store.basket-check";
+    public static final String HELD_GAUGE = "store.basket-check.held-units";
+
+    private final long ttlNanos;
+    private final Long2IntOpenHashMap heldByProduct = new Long2IntOpenHashMap();
+    /**
+     * Holds in creation order, which is also their expiry order since they share one TTL.
+     */
+    private final Set<Hold> holds = new LinkedHashSet<>();
+    /**
+     * Settled holds by product whose awaited version the replica has not applied yet.
+     */
+    private final Long2ObjectOpenHashMap<List<Hold>> awaitingByProduct = new Long2ObjectOpenHashMap<>();
+    /**
+     * Newest version applied to the replica per product since startup.
+     */
+    private final Long2LongOpenHashMap appliedVersions = new Long2LongOpenHashMap();
+    private final Counter accepted;
+    private final Counter rejected;
+    private long heldUnits;
+
+    public SoftHoldRegistry(EnvironmentConfig environmentConfig, MeterRegistry meterRegistry) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(environmentConfig.getBasketCheck().getHoldTtlMs());
+        this.appliedVersions.defaultReturnValue(Long.MIN_VALUE);
+        this.accepted = Counter.builder(CHECKS_COUNTER)
+                .description("Orders checked against the local inventory, by outcome")
+                .tag("outcome", "accepted")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(CHECKS_COUNTER)
+                .description("Orders checked against the local inventory, by outcome")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        Gauge.builder(HELD_GAUGE, this, SoftHoldRegistry::heldUnits)
+                .description("Units held by orders not yet reflected in the local inventory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks a whole basket against the local stock and holds its units if it can be filled.
+     * Products missing from the local stock are not checked, since the replica may not have
+     * received them yet; the order-service decides for them.
+     *
+     * @param basket Requested quantity by product ID.
+     * @param stock  Local quantity by product ID.
+     * @return the hold, to be settled or released once the order call completes.
+     * @throws InsufficientStoreStockException if any product is short, in which case nothing is held.
+     */
+    public synchronized Hold hold(Map<Long, Integer> basket, Map<Long, Integer> stock) {
+        expire(System.nanoTime());
+        List<Long> shortProducts = new ArrayList<>();
+        basket.forEach((productId, quantity) -> {
+            Integer available = stock.get(productId);
+            if (available != null && available - heldByProduct.get((long) productId) < quantity) {
+                shortProducts.add(productId);
+            }
+        });
+        if (!shortProducts.isEmpty()) {
+            rejected.increment();
+            throw new InsufficientStoreStockException(shortProducts);
+        }
+        Hold hold = new Hold(basket, System.nanoTime() + ttlNanos);
+        basket.forEach((productId, quantity) -> heldByProduct.addTo(productId, quantity));
+        heldUnits += hold.units;
+        holds.add(hold);
+        accepted.increment();
+        return hold;
+    }
+
+    /**
+     * Keeps the units of an accepted order held until the replica applies, per product, the version
+     * its reservation produced. Products already at that version are released at once; products
+     * without a version stay held until the hold expires.
+     *
+     * @param hold     The hold returned by {@link #hold(Map, Map)}.
+     * @param versions Inventory version of each product after the order's reservation; may be null.
+     */
+    public synchronized void settle(Hold hold, Map<Long, Long> versions) {
+        if (versions == null || !holds.contains(hold)) {
+            return;
+        }
+        for (Long productId : List.copyOf(hold.held.keySet())) {
+            Long version = versions.get(productId);
+            if (version == null) {
+                continue;
+            }
+            if (appliedVersions.get((long) productId) >= version) {
+                unhold(hold, productId);
+            } else {
+                hold.awaited.put((long) productId, (long) version);
+                List<Hold> awaiting = awaitingByProduct.get((long) productId);
+                if (awaiting == null) {
+                    awaiting = new ArrayList<>();
+                    awaitingByProduct.put((long) productId, awaiting);
+                }
+                awaiting.add(hold);
+            }
+        }
+        if (hold.held.isEmpty()) {
+            holds.remove(hold);
+        }
+    }
+
+    /**
+     * Releases the units of settled holds that the replica now reflects.
+     *
+     * @param productId The product written to the replica.
+     * @param version   The version written.
+     */
+    public synchronized void applied(long productId, long version) {
+        if (version > appliedVersions.get(productId)) {
+            appliedVersions.put(productId, version);
+        }
+        List<Hold> awaiting = awaitingByProduct.get(productId);
+        if (awaiting == null) {
+            return;
+        }
+        for (Hold hold : List.copyOf(awaiting)) {
+            if (hold.awaited.get(productId) <= version) {
+                unhold(hold, productId);
+                if (hold.held.isEmpty()) {
+                    holds.remove(hold);
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases a hold at once, for an order that failed. Releasing it again, or after it expired,
+     * has no effect.
+     *
+     * @param hold The hold returned by {@link #hold(Map, Map)}.
+     */
+    public synchronized void release(Hold hold) {
+        if (holds.remove(hold)) {
+            unholdAll(hold);
+        }
+    }
+
+    private void expire(long now) {
+        Iterator<Hold> it = holds.iterator();
+        while (it.hasNext()) {
+            Hold hold = it.next();
+            if (hold.expiresAt - now > 0) {
+                return;
+            }
+            it.remove();
+            unholdAll(hold);
+        }
+    }
+
+    private void unholdAll(Hold hold) {
+        for (Long productId : List.copyOf(hold.held.keySet())) {
+            unhold(hold, productId);
+        }
+    }
+
+    private void unhold(Hold hold, long productId) {
+        int quantity = hold.held.remove(productId);
+        if (heldByProduct.addTo(productId, -quantity) == quantity) {
+            heldByProduct.remove(productId);
+        }
+        heldUnits -= quantity;
+        if (hold.awaited.containsKey(productId)) {
+            hold.awaited.remove(productId);
+            List<Hold> awaiting = awaitingByProduct.get(productId);
+            awaiting.remove(hold);
+            if (awaiting.isEmpty()) {
+                awaitingByProduct.remove(productId);
+            }
+        }
+    }
+
+    private synchronized long heldUnits() {
+        return heldUnits;
+    }
+
+    /**
+     * Units held for one order.
+     */
+    public static final class Hold {
+
+        private final Long2IntOpenHashMap held = new Long2IntOpenHashMap();
+        private final Long2LongOpenHashMap awaited = new Long2LongOpenHashMap();
+        private final long expiresAt;
+        private final long units;
+
+        private Hold(Map<Long, Integer> basket, long expiresAt) {
+            basket.forEach((productId, quantity) -> held.put((long) productId, (int) quantity));
+            this.expiresAt = expiresAt;
+            this.units = basket.values().stream().mapToLong(Integer::longValue).sum();
+        }
+    }
+}
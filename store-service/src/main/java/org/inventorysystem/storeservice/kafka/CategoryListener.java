@@ -1,6 +1,6 @@
 package org.inventorysystem.storeservice.kafka;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.inventorysystem.storeservice.config.KafkaTopicsConfig;
 import org.inventorysystem.storeservice.event.CategoryCreatedEvent;
@@ -8,23 +8,40 @@ import org.inventorysystem.storeservice.service.CategoryService;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+/**
+ * Applies category creations to the store catalog, waiting for each write before taking the next
+ * event. A failed write is rethrown so that its offset is not committed and the container retries it.
+ * An event without an ID or name is rejected with {@link InvalidEventException} and not retried.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class CategoryListener {
 
     private final CategoryService categoryService;
     private final KafkaTopicsConfig kafkaTopics;
+    private final InFlightWrites inFlight;
+
+    public CategoryListener(CategoryService categoryService,
+                            KafkaTopicsConfig kafkaTopics,
+                            MeterRegistry meterRegistry) {
+        this.categoryService = categoryService;
+        this.kafkaTopics = kafkaTopics;
+        this.inFlight = new InFlightWrites(meterRegistry, "new-category");
+    }
 
     @KafkaListener(
             topicPattern = "#{@kafkaTopicsConfig.newCategory}",
             groupId = "store-group",
-            containerFactory = "categoryKafkaListenerContainerFactory"
+            containerFactory = "categoryKafkaListenerContainerFactory",
+            concurrency = "${kafka.concurrency.new-category:1}"
     )
     public void handleCategoryCreated(CategoryCreatedEvent event) {
         log.info("Received CategoryCreatedEvent from Kafka: {}", event);
-        categoryService.createFromEvent(event)
+        if (event.getCategoryId() == null || event.getCategoryName() == null) {
+            throw new InvalidEventException("Category event lacks a required field: " + event);
+        }
+        inFlight.track(categoryService.createFromEvent(event), 1)
                 .doOnError(e -> log.error("Failed to process category creation: {}", e.getMessage()))
-                .subscribe();
+                .block();
     }
 }
@@ -0,0 +1,37 @@
+package org.inventorysystem.storeservice.kafka;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the events a listener is writing to the database and publishes them as the
+ * {@value #GAUGE} gauge, tagged with the listener name.
+ */
+class InFlightWrites {
+
+    static final String GAUGE = "store.kafka.in-flight";
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    InFlightWrites(MeterRegistry meterRegistry, String listener) {
+        Gauge.builder(GAUGE, inFlight, AtomicInteger::get)
+                .description("Kafka events whose database write has not completed yet")
+                .tag("listener", listener)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param write  The write of the events.
+     * @param events Number of events the write carries.
+     * @return the write, counted as in flight from subscription until it terminates or is cancelled.
+     */
+    <T> Mono<T> track(Mono<T> write, int events) {
+        return Mono.defer(() -> {
+            inFlight.addAndGet(events);
+            return write.doFinally(signal -> inFlight.addAndGet(-events));
+        });
+    }
+}
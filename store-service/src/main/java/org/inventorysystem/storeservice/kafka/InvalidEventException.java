@@ -0,0 +1,12 @@
+package org.inventorysystem.storeservice.kafka;
+
+/**
+ * Thrown for an event that can never be applied to the replica, such as one that could not be
+ * deserialized or lacks a field the write needs. Such events are not retried; see {@link ReplicaErrorHandler}.
+ */
+public class InvalidEventException extends RuntimeException {
+
+    public InvalidEventException(String message) {
+        super(message);
+    }
+}
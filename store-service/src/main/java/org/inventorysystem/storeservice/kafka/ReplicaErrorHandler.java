@@ -0,0 +1,43 @@
+package org.inventorysystem.storeservice.kafka;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+/**
+ * Error handler of the replica's listeners.
+ * <p>
+ * A record whose write fails is retried with exponential backoff for as long as it keeps failing, and
+ * its offset is not committed meanwhile, so a database outage holds back the affected partitions instead
+ * of losing events. Records that can never be applied, because they cannot be deserialized or are
+ * rejected as {@link InvalidEventException}, are published to {@code <topic>}{@value #DLT_SUFFIX} at once
+ * and skipped.
+ */
+public class ReplicaErrorHandler extends DefaultErrorHandler {
+
+    public static final String DLT_SUFFIX = ".DLT";
+
+    /**
+     * @param deadLetters       Template used to publish the records that cannot be applied.
+     * @param initialIntervalMs Delay before the first retry.
+     * @param maxIntervalMs     Upper bound of the delay between retries.
+     */
+    public ReplicaErrorHandler(KafkaOperations<?, ?> deadLetters, long initialIntervalMs, long maxIntervalMs) {
+        super(new DeadLetterPublishingRecoverer(deadLetters,
+                        // Any partition: the dead letter topic need not have as many as the source
+                        (record, e) -> new TopicPartition(record.topic() + DLT_SUFFIX, -1)),
+                backOff(initialIntervalMs, maxIntervalMs));
+        addNotRetryableExceptions(InvalidEventException.class);
+    }
+
+    /**
+     * Exponential backoff without a limit on attempts or elapsed time.
+     */
+    private static ExponentialBackOff backOff(long initialIntervalMs, long maxIntervalMs) {
+        ExponentialBackOff backOff = new ExponentialBackOff(initialIntervalMs, 2.0);
+        backOff.setMaxInterval(maxIntervalMs);
+        return backOff;
+    }
+}
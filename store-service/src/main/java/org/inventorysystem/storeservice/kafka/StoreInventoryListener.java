@@ -1,43 +1,150 @@
 package org.inventorysystem.storeservice.kafka;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.inventorysystem.storeservice.config.KafkaTopicsConfig;
 import org.inventorysystem.storeservice.event.InventoryUpdatedEvent;
 import org.inventorysystem.storeservice.service.OrdersService;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
+/**
+ * Applies inventory events to the store catalog. Each container thread owns a set of partitions
+ * and waits for an event to be applied before taking the next one, so events for the same product,
+ * which share a partition, are applied in the order they were published, and a thread never has more
+ * than one write in flight. A failed write is rethrown so that its offset is not committed and the
+ * container retries it; see {@code KafkaConsumerConfig}.
+ * <p>
+ * Inventory updates are consumed either one at a time or, with {@code kafka.batch.inventory-updated},
+ * one poll at a time: the batch is reduced to the latest event per product and written with a single
+ * upsert. The batch listener publishes the events received ({@value #EVENTS_COUNTER}), the products
+ * written ({@value #ROWS_COUNTER}) and the events per written product of each batch ({@value #COALESCING_RATIO}).
+ * Events being written are published per listener as {@code store.kafka.in-flight}.
+ * <p>
+ * An event that could not be deserialized or lacks a field of the product row is rejected with
+ * {@link InvalidEventException} and sent to the dead letter topic instead of being retried. In a batch,
+ * the events before it are written first and reported as processed, so only the rest are delivered again.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class StoreInventoryListener {
 
+    public static final String EVENTS_COUNTER = "store.inventory-sync.events";
+    public static final String ROWS_COUNTER = "store.inventory-sync.rows";
+    public static final String COALESCING_RATIO = "store.inventory-sync.coalescing-ratio";
+
     private final OrdersService ordersService;
     private final KafkaTopicsConfig kafkaTopics;
+    private final Counter events;
+    private final Counter rows;
+    private final DistributionSummary coalescingRatio;
+    private final InFlightWrites inventoryUpdatesInFlight;
+    private final InFlightWrites newInventoryInFlight;
+
+    public StoreInventoryListener(OrdersService ordersService,
+                                  KafkaTopicsConfig kafkaTopics,
+                                  MeterRegistry meterRegistry) {
+        this.ordersService = ordersService;
+        this.kafkaTopics = kafkaTopics;
+        this.events = Counter.builder(EVENTS_COUNTER)
+                .description("Inventory update events received in batches")
+                .register(meterRegistry);
+        this.rows = Counter.builder(ROWS_COUNTER)
+                .description("Products written after coalescing inventory update batches")
+                .register(meterRegistry);
+        this.coalescingRatio = DistributionSummary.builder(COALESCING_RATIO)
+                .description("Inventory update events per product written, per batch")
+                .register(meterRegistry);
+        this.inventoryUpdatesInFlight = new InFlightWrites(meterRegistry, "inventory-updated");
+        this.newInventoryInFlight = new InFlightWrites(meterRegistry, "new-inventory");
+    }
 
     @KafkaListener(
             topicPattern = "#{@kafkaTopicsConfig.inventoryUpdated}",
             groupId = "store-group",
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "kafkaListenerContainerFactory",
+            concurrency = "${kafka.concurrency.inventory-updated:1}",
+            autoStartup = "#{!${kafka.batch.inventory-updated:true}}"
     )
     public void handleInventoryUpdate(InventoryUpdatedEvent event) {
         log.info("Received InventoryUpdatedEvent from Kafka: {}", event);
-        ordersService.syncInventoryFromEvent(event)
+        validate(event);
+        inventoryUpdatesInFlight.track(ordersService.syncInventoryFromEvent(event), 1)
                 .doOnError(e -> log.error("Failed to process inventory update: {}", e.getMessage()))
-                .subscribe();
+                .block();
+    }
+
+    @KafkaListener(
+            topicPattern = "#{@kafkaTopicsConfig.inventoryUpdated}",
+            groupId = "store-group",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            concurrency = "${kafka.concurrency.inventory-updated:1}",
+            autoStartup = "${kafka.batch.inventory-updated:true}"
+    )
+    public void handleInventoryUpdates(List<InventoryUpdatedEvent> batch) {
+        log.debug("Received batch of {} InventoryUpdatedEvent(s) from Kafka", batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            InvalidEventException rejection = rejection(batch.get(i));
+            if (rejection != null) {
+                write(batch.subList(0, i));
+                throw new BatchListenerFailedException(rejection.getMessage(), rejection, i);
+            }
+        }
+        write(batch);
+    }
+
+    private void write(List<InventoryUpdatedEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Integer written = inventoryUpdatesInFlight.track(ordersService.syncInventoryFromEvents(batch), batch.size())
+                .doOnError(e -> log.error("Failed to process inventory update batch: {}", e.getMessage()))
+                .block();
+        if (written != null && written > 0) {
+            events.increment(batch.size());
+            rows.increment(written);
+            coalescingRatio.record((double) batch.size() / written);
+        }
     }
 
     @KafkaListener(
             topicPattern = "#{@kafkaTopicsConfig.newInventory}",
             groupId = "store-group",
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "kafkaListenerContainerFactory",
+            concurrency = "${kafka.concurrency.new-inventory:1}"
     )
     public void handleNewInventory(InventoryUpdatedEvent event) {
         log.info("Received NEW Inventory Event from Kafka: {}", event);
-        ordersService.createInventoryFromEvent(event)
+        validate(event);
+        newInventoryInFlight.track(ordersService.createInventoryFromEvent(event), 1)
                 .doOnError(e -> log.error("Failed to save new inventory: {}", e.getMessage()))
-                .subscribe();
+                .block();
     }
-}
 
+    private static void validate(InventoryUpdatedEvent event) {
+        InvalidEventException rejection = rejection(event);
+        if (rejection != null) {
+            throw rejection;
+        }
+    }
+
+    /**
+     * @return the reason the product upsert cannot write the event, or null if it can. A null event is
+     * one the deserializer could not read.
+     */
+    private static InvalidEventException rejection(InventoryUpdatedEvent event) {
+        if (event == null) {
+            return new InvalidEventException("Inventory event could not be deserialized");
+        }
+        if (event.getProductId() == null || event.getProductName() == null || event.getPrice() == null
+                || event.getCategoryId() == null || event.getNewQuantity() == null) {
+            return new InvalidEventException("Inventory event lacks a required field: " + event);
+        }
+        return null;
+    }
+}
@@ -1,11 +1,22 @@
 package org.inventorysystem.storeservice.repository;
 
 import org.inventorysystem.storeservice.entity.ProductEntity;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 
 @Repository
 public interface StoreInventoryRepository extends ReactiveCrudRepository<ProductEntity, Long> {
-    Flux<ProductEntity> findByCategoryId(Long categoryId);
+
+    /**
+     * Reads one page of a category using the {@code (category_id, id)} index.
+     *
+     * @param categoryId the category ID
+     * @param afterId    only products with a greater ID are returned; 0 for the first page
+     * @param limit      maximum number of rows
+     * @return Flux emitting the products ordered by ID
+     */
+    @Query("SELECT * FROM products WHERE category_id = :categoryId AND id > :afterId ORDER BY id LIMIT :limit")
+    Flux<ProductEntity> findPageByCategoryId(Long categoryId, long afterId, int limit);
 }
@@ -16,16 +16,20 @@ import reactor.core.publisher.Mono;
 @AllArgsConstructor
 public class CategoryService {
 
+    private static final String INSERT_CATEGORY =
+            "INSERT INTO categories (id, name) VALUES (:id, :name) AS incoming ON DUPLICATE KEY UPDATE name = incoming.name";
+
     private final DatabaseClient databaseClient;
 
     /**
      * Persists a new category into the database based on a Kafka event.
+     * An event delivered again overwrites the category with the same values.
      *
      * @param event The CategoryCreatedEvent containing the category ID and name.
      * @return Mono<Void> indicating completion of the insertion.
      */
     public Mono<Void> createFromEvent(CategoryCreatedEvent event) {
-        return databaseClient.sql("INSERT INTO categories (id, name) VALUES (:id, :name)")
+        return databaseClient.sql(INSERT_CATEGORY)
                 .bind("id", event.getCategoryId())
                 .bind("name", event.getCategoryName())
                 .then()
@@ -2,16 +2,23 @@ package org.inventorysystem.storeservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.inventorysystem.storeservice.entity.ProductEntity;
+import org.inventorysystem.storeservice.catalog.ProductCatalog;
+import org.inventorysystem.storeservice.config.EnvironmentConfig;
 import org.inventorysystem.storeservice.event.InventoryUpdatedEvent;
-import org.inventorysystem.storeservice.repository.StoreInventoryRepository;
+import org.inventorysystem.storeservice.hold.SoftHoldRegistry;
 import org.inventorysystem.storeservice.service.facade.order.OrderFacade;
 import org.inventorysystem.storeservice.service.facade.order.request.OrderRequest;
 import org.inventorysystem.storeservice.service.facade.order.response.OrderResponse;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Service layer that handles order placement, retrieval and inventory synchronization logic.
  * Acts as intermediary between Kafka events, database layer, and order service facade.
@@ -21,68 +28,164 @@ import reactor.core.publisher.Mono;
 @Slf4j
 public class OrdersService {
 
-    private final StoreInventoryRepository storeInventoryRepository;
     private final OrderFacade orderFacade;
     private final DatabaseClient databaseClient;
+    private final ProductCatalog productCatalog;
+    private final ProductsService productsService;
+    private final SoftHoldRegistry softHoldRegistry;
+    private final EnvironmentConfig environmentConfig;
 
     /**
      * Synchronizes the inventory by updating or creating the product locally
      * based on the incoming Kafka event from the inventory service.
+     * The event is applied with a single versioned upsert, so it costs one round trip and
+     * an event older than the stored product is discarded by the database.
      *
      * @param event The inventory update event.
      * @return Mono<Void> indicating completion.
      */
     public Mono<Void> syncInventoryFromEvent(InventoryUpdatedEvent event) {
-        return storeInventoryRepository.findById(event.getProductId())
-                .flatMap(existing -> {
-                    existing.setQuantity(event.getNewQuantity());
-                    return storeInventoryRepository.save(existing);
+        return upsertProducts(List.of(event))
+                .doOnSuccess(unused -> log.info("Inventory synced for productId={}, quantity={}, version={}",
+                        event.getProductId(), event.getNewQuantity(), event.getVersion()));
+    }
+
+    /**
+     * Synchronizes a whole batch of inventory updates with one multi-row upsert.
+     * Only the newest event of each product is written: existing products get its quantity
+     * if it is newer than the stored one and missing ones are created from it.
+     * If the upsert fails, the events are applied one at a time, so one bad event does not
+     * hold back the rest of the batch; the batch still fails if any of them does, so that it is
+     * delivered again instead of being committed.
+     *
+     * @param events The inventory update events of one poll, in the order they were received.
+     * @return Mono emitting the number of products written.
+     */
+    public Mono<Integer> syncInventoryFromEvents(List<InventoryUpdatedEvent> events) {
+        Map<Long, InventoryUpdatedEvent> latest = new LinkedHashMap<>();
+        events.forEach(event -> latest.merge(event.getProductId(), event,
+                (current, incoming) -> incoming.effectiveVersion() >= current.effectiveVersion() ? incoming : current));
+        if (latest.isEmpty()) {
+            return Mono.just(0);
+        }
+        List<InventoryUpdatedEvent> rows = new ArrayList<>(latest.values());
+        return upsertProducts(rows)
+                .doOnSuccess(unused -> log.info("Inventory synced for {} product(s) from {} event(s)", rows.size(), events.size()))
+                .onErrorResume(e -> {
+                    log.warn("Batch inventory sync failed, applying {} event(s) one by one: {}", rows.size(), e.getMessage());
+                    return Flux.fromIterable(rows)
+                            .concatMapDelayError(event -> syncInventoryFromEvent(event)
+                                    .doOnError(error -> log.error("Failed to sync productId={}: {}",
+                                            event.getProductId(), error.getMessage())))
+                            .then();
                 })
-                .switchIfEmpty(storeInventoryRepository.save(
-                        ProductEntity.builder()
-                                .id(event.getProductId())
-                                .name(event.getProductName())
-                                .price(event.getPrice())
-                                .categoryId(event.getCategoryId())
-                                .quantity(event.getNewQuantity())
-                                .description(event.getDescription())
-                                .build()))
-                .doOnSuccess(updated -> log.info("Inventory synced for productId={}, quantity={}",
-                        updated.getId(), updated.getQuantity()))
-                .then();
+                .thenReturn(rows.size());
+    }
+
+    /**
+     * Inserts missing products and updates the quantity of existing ones, unless the stored
+     * version is already at least the event's. MySQL has no WHERE clause for
+     * {@code ON DUPLICATE KEY UPDATE}, so the guard is an IF per column. Assignments run left to
+     * right, which is why {@code version} is assigned after {@code quantity} has compared against it.
+     * Once written, the events are applied to the in-memory catalog with the same rule, and the
+     * soft holds of the orders they reflect are released.
+     */
+    private Mono<Void> upsertProducts(List<InventoryUpdatedEvent> rows) {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO products (id, name, price, category_id, quantity, description, version) VALUES ");
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:id").append(i)
+                    .append(", :name").append(i)
+                    .append(", :price").append(i)
+                    .append(", :categoryId").append(i)
+                    .append(", :quantity").append(i)
+                    .append(", :description").append(i)
+                    .append(", :version").append(i).append(')');
+        }
+        sql.append(" AS incoming ON DUPLICATE KEY UPDATE")
+                .append(" quantity = IF(incoming.version = ").append(InventoryUpdatedEvent.UNVERSIONED)
+                .append(" OR incoming.version > products.version, incoming.quantity, products.quantity),")
+                .append(" version = GREATEST(products.version, incoming.version)");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < rows.size(); i++) {
+            InventoryUpdatedEvent event = rows.get(i);
+            spec = spec.bind("id" + i, event.getProductId())
+                    .bind("name" + i, event.getProductName())
+                    .bind("price" + i, event.getPrice())
+                    .bind("categoryId" + i, event.getCategoryId())
+                    .bind("quantity" + i, event.getNewQuantity())
+                    .bind("version" + i, event.effectiveVersion());
+            spec = event.getDescription() != null
+                    ? spec.bind("description" + i, event.getDescription())
+                    : spec.bindNull("description" + i, String.class);
+        }
+        return spec.then()
+                .doOnSuccess(unused -> {
+                    productCatalog.applyAll(rows);
+                    rows.forEach(event -> softHoldRegistry.applied(event.getProductId(), event.effectiveVersion()));
+                });
     }
 
     /**
-     * Creates a new inventory record directly in the database using a raw SQL insert.
-     * Intended for Kafka-based event-driven insertions.
+     * Creates a new inventory record from a product creation event.
+     * Uses the same versioned upsert as updates, so a creation event that arrives after
+     * an update of the same product is discarded instead of failing on the duplicate key.
      *
      * @param event The inventory update event containing product details.
      * @return Mono<Void> indicating completion.
      */
     public Mono<Void> createInventoryFromEvent(InventoryUpdatedEvent event) {
-        return databaseClient.sql("""
-                    INSERT INTO products (id, name, price, category_id, quantity, description)
-                    VALUES (:id, :name, :price, :categoryId, :quantity, :description)
-                """)
-                .bind("id", event.getProductId())
-                .bind("name", event.getProductName())
-                .bind("price", event.getPrice())
-                .bind("categoryId", event.getCategoryId())
-                .bind("quantity", event.getNewQuantity())
-                .bind("description", event.getDescription())
-                .then()
+        return upsertProducts(List.of(event))
                 .doOnSuccess(unused -> log.info("Product inserted with ID: {}", event.getProductId()))
                 .doOnError(e -> log.error("Failed to insert product: {}", e.getMessage()));
     }
 
     /**
      * Sends the order to the order-service via the OrderFacade.
+     * The basket is first checked against the local inventory in one pass: an order that the store
+     * cannot fill is rejected without calling the order-service, and the units of the others are
+     * soft-held so concurrent orders do not claim them too. The hold is released if the call fails;
+     * if the order is accepted, it lasts until the local inventory reflects the order's reservation.
+     *
+     * @param request        OrderRequest containing userId, storeId, and item list.
+     * @param idempotencyKey Idempotency key supplied by the client, forwarded as is; may be null.
+     * @return Mono with OrderResponse, or InsufficientStoreStockException if the store cannot fill it.
+     */
+    public Mono<OrderResponse> placeOrder(OrderRequest request, String idempotencyKey) {
+        Map<Long, Integer> basket = basketOf(request);
+        if (basket.isEmpty() || !environmentConfig.getBasketCheck().isEnabled()) {
+            return orderFacade.sendOrder(request, idempotencyKey);
+        }
+        return Mono.usingWhen(
+                productsService.getQuantities(basket.keySet())
+                        .map(stock -> softHoldRegistry.hold(basket, stock)),
+                hold -> orderFacade.sendOrder(request, idempotencyKey)
+                        .doOnNext(order -> softHoldRegistry.settle(hold, order.getStockVersions())),
+                hold -> Mono.empty(),
+                (hold, error) -> Mono.fromRunnable(() -> softHoldRegistry.release(hold)),
+                hold -> Mono.fromRunnable(() -> softHoldRegistry.release(hold)));
+    }
+
+    /**
+     * Adds up the requested quantity per product. Baskets with incomplete items are left
+     * unchecked, so the order-service reports them as it always has.
      *
-     * @param request OrderRequest containing userId, storeId, and item list.
-     * @return Mono with OrderResponse.
+     * @return the quantity by product ID, or an empty map if the basket is not checked.
      */
-    public Mono<OrderResponse> placeOrder(OrderRequest request) {
-        return orderFacade.sendOrder(request);
+    private static Map<Long, Integer> basketOf(OrderRequest request) {
+        Map<Long, Integer> basket = new LinkedHashMap<>();
+        if (request.getItems() == null) {
+            return basket;
+        }
+        for (OrderRequest.OrderItemRequest item : request.getItems()) {
+            if (item == null || item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                return Map.of();
+            }
+            basket.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return basket;
     }
 }
 
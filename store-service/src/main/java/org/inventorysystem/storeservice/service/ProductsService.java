@@ -2,18 +2,25 @@ package org.inventorysystem.storeservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.inventorysystem.storeservice.catalog.ProductCatalog;
+import org.inventorysystem.storeservice.config.EnvironmentConfig;
+import org.inventorysystem.storeservice.dto.response.ProductPageResponse;
 import org.inventorysystem.storeservice.entity.ProductEntity;
 import org.inventorysystem.storeservice.exception.StoreInventoryNotFoundException;
 import org.inventorysystem.storeservice.repository.StoreInventoryRepository;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service layer that handles product inventory retrieval operations
- * for a specific store. Interacts with the StoreInventoryRepository
- * to fetch product data based on product ID or category ID.
+ * for a specific store. Reads are answered from the in-memory ProductCatalog
+ * once it is loaded, and from the StoreInventoryRepository otherwise.
  */
 @Service
 @RequiredArgsConstructor
@@ -21,6 +28,8 @@ import java.util.List;
 public class ProductsService {
 
     private final StoreInventoryRepository storeInventoryRepository;
+    private final EnvironmentConfig environmentConfig;
+    private final ProductCatalog productCatalog;
 
     /**
      * Retrieves a product from the store inventory by its ID.
@@ -29,21 +38,94 @@ public class ProductsService {
      * @return Mono emitting the ProductEntity if found, or error if not found
      */
     public Mono<ProductEntity> getInventoryByProductId(Long productId) {
-        return storeInventoryRepository.findById(productId)
+        Mono<ProductEntity> product = productCatalog.isLoaded()
+                ? Mono.fromSupplier(() -> productCatalog.find(productId))
+                : storeInventoryRepository.findById(productId);
+        return product
                 .switchIfEmpty(Mono.error(new StoreInventoryNotFoundException(productId)))
                 .doOnSuccess(item -> log.info("Fetched inventory for productId={}", productId));
     }
 
     /**
-     * Retrieves all products from the store inventory by category ID.
+     * Retrieves the local quantity of several products at once.
+     *
+     * @param productIds the IDs of the products
+     * @return Mono emitting the quantity by product ID; products not in the store are absent
+     */
+    public Mono<Map<Long, Integer>> getQuantities(Collection<Long> productIds) {
+        if (productCatalog.isLoaded()) {
+            return Mono.fromSupplier(() -> {
+                Map<Long, Integer> quantities = new HashMap<>();
+                for (Long productId : productIds) {
+                    ProductEntity product = productCatalog.find(productId);
+                    if (product != null) {
+                        quantities.put(productId, product.getQuantity());
+                    }
+                }
+                return quantities;
+            });
+        }
+        return storeInventoryRepository.findAllById(productIds)
+                .collectMap(ProductEntity::getId, ProductEntity::getQuantity);
+    }
+
+    /**
+     * Retrieves one page of products from the store inventory by category ID, ordered by ID.
+     * Pages are addressed by the last ID seen, so at most one page is held in memory.
+     *
+     * @param categoryId the category ID of the products to retrieve
+     * @param after      the nextCursor of the previous page, or null for the first page
+     * @param limit      the page size, or null for the default; capped at the configured maximum
+     * @return Mono emitting the page or error if the category has no products
+     */
+    public Mono<ProductPageResponse> getInventoryByCategoryId(Long categoryId, Long after, Integer limit) {
+        int pageSize = pageSize(limit);
+        return fetchPage(categoryId, after == null ? 0 : after, pageSize + 1)
+                .flatMap(rows -> {
+                    if (rows.isEmpty() && after == null) {
+                        return Mono.error(new StoreInventoryNotFoundException(categoryId));
+                    }
+                    boolean hasMore = rows.size() > pageSize;
+                    List<ProductEntity> items = hasMore ? rows.subList(0, pageSize) : rows;
+                    return Mono.just(ProductPageResponse.builder()
+                            .items(items)
+                            .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                            .build());
+                });
+    }
+
+    /**
+     * Streams every product of a category from the store inventory, ordered by ID.
+     * The category is read in keyset pages of the configured maximum size, one query at a time.
      *
      * @param categoryId the category ID of the products to retrieve
-     * @return Mono emitting a list of ProductEntity instances or error if none found
+     * @param after      only products with a greater ID are streamed; null to start at the beginning
+     * @return Flux emitting the products or error if the category has no products
      */
-    public Mono<List<ProductEntity>> getInventoryByCategoryId(Long categoryId) {
-        return storeInventoryRepository.findByCategoryId(categoryId)
-                .switchIfEmpty(Mono.error(new StoreInventoryNotFoundException(categoryId)))
-                .collectList();
+    public Flux<ProductEntity> streamInventoryByCategoryId(Long categoryId, Long after) {
+        int pageSize = environmentConfig.getListing().getMaxPageSize();
+        return fetchPage(categoryId, after == null ? 0 : after, pageSize)
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : fetchPage(categoryId, page.get(page.size() - 1).getId(), pageSize))
+                .flatMapIterable(page -> page)
+                .switchIfEmpty(Mono.defer(() -> after == null
+                        ? Mono.error(new StoreInventoryNotFoundException(categoryId))
+                        : Mono.empty()));
     }
 
+    private Mono<List<ProductEntity>> fetchPage(Long categoryId, long afterId, int pageSize) {
+        if (productCatalog.isLoaded()) {
+            return Mono.fromSupplier(() -> productCatalog.page(categoryId, afterId, pageSize));
+        }
+        return storeInventoryRepository.findPageByCategoryId(categoryId, afterId, pageSize).collectList();
+    }
+
+    private int pageSize(Integer limit) {
+        EnvironmentConfig.Listing listing = environmentConfig.getListing();
+        if (limit == null || limit <= 0) {
+            return listing.getDefaultPageSize();
+        }
+        return Math.min(limit, listing.getMaxPageSize());
+    }
 }
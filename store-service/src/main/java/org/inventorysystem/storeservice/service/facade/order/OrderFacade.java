@@ -4,12 +4,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.inventorysystem.storeservice.service.facade.order.request.OrderRequest;
 import org.inventorysystem.storeservice.service.facade.order.response.OrderItemResponse;
+import org.inventorysystem.storeservice.service.facade.order.response.OrderPageResponse;
 import org.inventorysystem.storeservice.service.facade.order.response.OrderResponse;
+import org.inventorysystem.storeservice.service.facade.order.response.OrderWithItemsPageResponse;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Facade responsible for communicating with the order-service via WebClient.
@@ -22,15 +25,24 @@ public class OrderFacade {
 
     private final WebClient orderClient;
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     /**
      * Sends an order creation request to the order-service.
+     * With an idempotency key, a repeated request returns the order created by the first one.
      *
-     * @param orderRequest the order to place.
+     * @param orderRequest   the order to place.
+     * @param idempotencyKey the client's idempotency key, or null.
      * @return Mono emitting the created OrderResponse.
      */
-    public Mono<OrderResponse> sendOrder(OrderRequest orderRequest) {
+    public Mono<OrderResponse> sendOrder(OrderRequest orderRequest, String idempotencyKey) {
         return orderClient.post()
                 .uri("/api/orders")
+                .headers(headers -> {
+                    if (idempotencyKey != null) {
+                        headers.set(IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+                    }
+                })
                 .bodyValue(orderRequest)
                 .retrieve()
                 .bodyToMono(OrderResponse.class)
@@ -39,31 +51,58 @@ public class OrderFacade {
     }
 
     /**
-     * Retrieves all orders made in a specific store from the order-service.
+     * Retrieves one page of the orders made in a specific store from the order-service, newest first.
      *
      * @param storeId ID of the store.
-     * @return Mono emitting a list of OrderResponse objects.
+     * @param cursor  Cursor returned with the previous page, or null for the first page.
+     * @param limit   Page size, or null for the order-service default.
+     * @return Mono emitting the page.
      */
-    public Mono<List<OrderResponse>> getOrdersByStore(Long storeId) {
+    public Mono<OrderPageResponse> getOrdersByStore(Long storeId, String cursor, Integer limit) {
         return orderClient.get()
-                .uri("/api/orders/store/{storeId}", storeId)
+                .uri(uriBuilder -> uriBuilder.path("/api/orders/store/{storeId}")
+                        .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
+                        .queryParamIfPresent("limit", Optional.ofNullable(limit))
+                        .build(storeId))
                 .retrieve()
-                .bodyToFlux(OrderResponse.class)
-                .collectList();
+                .bodyToMono(OrderPageResponse.class);
     }
 
     /**
-     * Retrieves all orders made by a specific user from the order-service.
+     * Retrieves one page of the orders made by a specific user from the order-service, newest first.
      *
      * @param userId ID of the user.
-     * @return Mono emitting a list of OrderResponse objects.
+     * @param cursor Cursor returned with the previous page, or null for the first page.
+     * @param limit  Page size, or null for the order-service default.
+     * @return Mono emitting the page.
      */
-    public Mono<List<OrderResponse>> getOrdersByUser(Long userId) {
+    public Mono<OrderPageResponse> getOrdersByUser(Long userId, String cursor, Integer limit) {
         return orderClient.get()
-                .uri("/api/orders/user/{userId}", userId)
+                .uri(uriBuilder -> uriBuilder.path("/api/orders/user/{userId}")
+                        .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
+                        .queryParamIfPresent("limit", Optional.ofNullable(limit))
+                        .build(userId))
                 .retrieve()
-                .bodyToFlux(OrderResponse.class)
-                .collectList();
+                .bodyToMono(OrderPageResponse.class);
+    }
+
+    /**
+     * Retrieves one page of the orders made in a specific store with their items embedded,
+     * in a single call to the order-service.
+     *
+     * @param storeId ID of the store.
+     * @param cursor  Cursor returned with the previous page, or null for the first page.
+     * @param limit   Page size, or null for the order-service default.
+     * @return Mono emitting the page.
+     */
+    public Mono<OrderWithItemsPageResponse> getOrdersWithItemsByStore(Long storeId, String cursor, Integer limit) {
+        return orderClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/orders/store/{storeId}/with-items")
+                        .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
+                        .queryParamIfPresent("limit", Optional.ofNullable(limit))
+                        .build(storeId))
+                .retrieve()
+                .bodyToMono(OrderWithItemsPageResponse.class);
     }
 
     /**
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -20,4 +21,10 @@ public class OrderResponse {
     private Long userId;
 
     private LocalDateTime createdAt;
+
+    /**
+     * Inventory version of each product after the order's reservation; null if the order-service
+     * did not report them.
+     */
+    private Map<Long, Long> stockVersions;
 }
\ No newline at end of file
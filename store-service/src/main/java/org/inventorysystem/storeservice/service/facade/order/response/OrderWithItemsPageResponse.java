@@ -0,0 +1,22 @@
+package org.inventorysystem.storeservice.service.facade.order.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OrderWithItemsPageResponse {
+
+    private List<OrderWithItemsResponse> items;
+
+    /**
+     * Cursor for the next page; null on the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,26 @@
+package org.inventorysystem.storeservice.service.facade.order.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OrderWithItemsResponse {
+
+    private Long id;
+
+    private Long storeId;
+
+    private Long userId;
+
+    private LocalDateTime createdAt;
+
+    private List<OrderItemResponse> items;
+}
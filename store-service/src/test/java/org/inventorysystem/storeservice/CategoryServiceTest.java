@@ -45,7 +45,8 @@ class CategoryServiceTest {
         StepVerifier.create(categoryService.createFromEvent(event))
                 .verifyComplete();
 
-        verify(databaseClient).sql("INSERT INTO categories (id, name) VALUES (:id, :name)");
+        verify(databaseClient).sql("INSERT INTO categories (id, name) VALUES (:id, :name)"
+                + " AS incoming ON DUPLICATE KEY UPDATE name = incoming.name");
         verify(genericExecuteSpec).bind("id", 1L);
         verify(genericExecuteSpec).bind("name", "Luxury");
         verify(genericExecuteSpec).then();
@@ -1,22 +1,31 @@
 package org.inventorysystem.storeservice;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.inventorysystem.storeservice.catalog.ProductCatalog;
+import org.inventorysystem.storeservice.config.EnvironmentConfig;
 import org.inventorysystem.storeservice.event.InventoryUpdatedEvent;
-import org.inventorysystem.storeservice.repository.StoreInventoryRepository;
+import org.inventorysystem.storeservice.exception.InsufficientStoreStockException;
+import org.inventorysystem.storeservice.hold.SoftHoldRegistry;
 import org.inventorysystem.storeservice.service.OrdersService;
+import org.inventorysystem.storeservice.service.ProductsService;
 import org.inventorysystem.storeservice.service.facade.order.OrderFacade;
 import org.inventorysystem.storeservice.service.facade.order.request.OrderRequest;
 import org.inventorysystem.storeservice.service.facade.order.response.OrderResponse;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.r2dbc.core.DatabaseClient;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.util.List;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -24,15 +33,24 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class OrdersServiceTest {
 
-    @Mock
-    private StoreInventoryRepository storeInventoryRepository;
-
     @Mock
     private OrderFacade orderFacade;
 
     @Mock
     private DatabaseClient databaseClient;
 
+    @Mock
+    private ProductCatalog productCatalog;
+
+    @Mock
+    private ProductsService productsService;
+
+    @Spy
+    private SoftHoldRegistry softHoldRegistry = new SoftHoldRegistry(new EnvironmentConfig(), new SimpleMeterRegistry());
+
+    @Spy
+    private EnvironmentConfig environmentConfig = new EnvironmentConfig();
+
     @InjectMocks
     private OrdersService ordersService;
 
@@ -57,7 +75,7 @@ class OrdersServiceTest {
         StepVerifier.create(ordersService.createInventoryFromEvent(event))
                 .verifyComplete();
 
-        verify(spec, times(6)).bind(anyString(), any());
+        verify(spec, times(7)).bind(anyString(), any());
         verify(spec).then();
     }
 
@@ -66,11 +84,163 @@ class OrdersServiceTest {
         OrderRequest request = new OrderRequest(1L, 1L, List.of());
         OrderResponse response = new OrderResponse();
 
-        when(orderFacade.sendOrder(request)).thenReturn(Mono.just(response));
+        when(orderFacade.sendOrder(request, "key-1")).thenReturn(Mono.just(response));
+
+        StepVerifier.create(ordersService.placeOrder(request, "key-1"))
+                .expectNext(response)
+                .verifyComplete();
+    }
+
+    @Test
+    void placeOrder_basketShortLocally_shouldRejectWithoutCallingOrderService() {
+        OrderRequest request = new OrderRequest(1L, 1L, List.of(
+                new OrderRequest.OrderItemRequest(1L, 2),
+                new OrderRequest.OrderItemRequest(1L, 1)));
+        when(productsService.getQuantities(any())).thenReturn(Mono.just(Map.of(1L, 2)));
+
+        StepVerifier.create(ordersService.placeOrder(request, null))
+                .expectError(InsufficientStoreStockException.class)
+                .verify();
+
+        verifyNoInteractions(orderFacade);
+    }
+
+    @Test
+    void placeOrder_shouldHoldUnitsUntilLocalInventoryReflectsTheOrder() {
+        OrderRequest request = new OrderRequest(1L, 1L, List.of(new OrderRequest.OrderItemRequest(1L, 3)));
+        OrderResponse response = new OrderResponse();
+        response.setStockVersions(Map.of(1L, 5L));
+        when(productsService.getQuantities(any())).thenReturn(Mono.just(Map.of(1L, 3)));
+        when(orderFacade.sendOrder(request, null)).thenReturn(Mono.just(response));
+
+        StepVerifier.create(ordersService.placeOrder(request, null))
+                .expectNext(response)
+                .verifyComplete();
+        // The replica still shows the units the first order took
+        StepVerifier.create(ordersService.placeOrder(request, null))
+                .expectError(InsufficientStoreStockException.class)
+                .verify();
+
+        DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class);
+        when(databaseClient.sql(anyString())).thenReturn(spec);
+        when(spec.bind(anyString(), any())).thenReturn(spec);
+        when(spec.bindNull(anyString(), any())).thenReturn(spec);
+        when(spec.then()).thenReturn(Mono.empty());
+        StepVerifier.create(ordersService.syncInventoryFromEvent(inventoryEvent(1L, 0, 5L)))
+                .verifyComplete();
 
-        StepVerifier.create(ordersService.placeOrder(request))
+        StepVerifier.create(ordersService.placeOrder(request, null))
                 .expectNext(response)
                 .verifyComplete();
+        verify(softHoldRegistry, never()).release(any());
+    }
+
+    @Test
+    void placeOrder_orderFails_shouldReleaseHoldAtOnce() {
+        OrderRequest request = new OrderRequest(1L, 1L, List.of(new OrderRequest.OrderItemRequest(1L, 3)));
+        when(productsService.getQuantities(any())).thenReturn(Mono.just(Map.of(1L, 3)));
+        when(orderFacade.sendOrder(request, null))
+                .thenReturn(Mono.error(new RuntimeException("order-service down")))
+                .thenReturn(Mono.just(new OrderResponse()));
+
+        StepVerifier.create(ordersService.placeOrder(request, null))
+                .expectError(RuntimeException.class)
+                .verify();
+        StepVerifier.create(ordersService.placeOrder(request, null))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(softHoldRegistry, times(1)).release(any());
+    }
+
+    @Test
+    void syncInventoryFromEvent_shouldApplyVersionedUpsertInOneStatement() {
+        DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class);
+        when(databaseClient.sql(anyString())).thenReturn(spec);
+        when(spec.bind(anyString(), any())).thenReturn(spec);
+        when(spec.bindNull(anyString(), any())).thenReturn(spec);
+        when(spec.then()).thenReturn(Mono.empty());
+
+        StepVerifier.create(ordersService.syncInventoryFromEvent(inventoryEvent(1L, 7, 4L)))
+                .verifyComplete();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(databaseClient, times(1)).sql(sql.capture());
+        assertThat(sql.getValue())
+                .contains("incoming.version > products.version")
+                .contains("version = GREATEST(products.version, incoming.version)");
+        verify(spec).bind("quantity0", 7);
+        verify(spec).bind("version0", 4L);
+    }
+
+    @Test
+    void syncInventoryFromEvents_shouldUpsertNewestEventPerProductInOneStatement() {
+        List<InventoryUpdatedEvent> events = List.of(
+                inventoryEvent(1L, 10, 1L),
+                inventoryEvent(2L, 5, 1L),
+                inventoryEvent(1L, 8, 3L),
+                inventoryEvent(1L, 9, 2L));
+
+        DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class);
+        when(databaseClient.sql(anyString())).thenReturn(spec);
+        when(spec.bind(anyString(), any())).thenReturn(spec);
+        when(spec.bindNull(anyString(), any())).thenReturn(spec);
+        when(spec.then()).thenReturn(Mono.empty());
+
+        StepVerifier.create(ordersService.syncInventoryFromEvents(events))
+                .expectNext(2)
+                .verifyComplete();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(databaseClient, times(1)).sql(sql.capture());
+        assertThat(sql.getValue()).contains("(:id1,").doesNotContain(":id2").contains("ON DUPLICATE KEY UPDATE");
+        verify(spec).bind("quantity0", 8);
+        verify(spec).bind("version0", 3L);
+        verify(spec).bind("quantity1", 5);
+        verify(productCatalog).applyAll(argThat(rows -> rows.size() == 2));
+    }
+
+    @Test
+    void syncInventoryFromEvents_upsertFails_shouldApplyEventsOneByOne() {
+        DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class);
+        when(databaseClient.sql(anyString())).thenReturn(spec);
+        when(spec.bind(anyString(), any())).thenReturn(spec);
+        when(spec.bindNull(anyString(), any())).thenReturn(spec);
+        when(spec.then()).thenReturn(Mono.error(new RuntimeException("Deadlock found")), Mono.empty());
+
+        StepVerifier.create(ordersService.syncInventoryFromEvents(List.of(inventoryEvent(1L, 3, 1L), inventoryEvent(2L, 4, 1L))))
+                .expectNext(2)
+                .verifyComplete();
+
+        verify(databaseClient, times(3)).sql(anyString());
     }
 
+    @Test
+    void syncInventoryFromEvents_eventFailsOneByOne_shouldFailBatchAfterApplyingTheRest() {
+        DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class);
+        when(databaseClient.sql(anyString())).thenReturn(spec);
+        when(spec.bind(anyString(), any())).thenReturn(spec);
+        when(spec.bindNull(anyString(), any())).thenReturn(spec);
+        when(spec.then()).thenReturn(
+                Mono.error(new RuntimeException("Deadlock found")),
+                Mono.error(new RuntimeException("Cannot add or update a child row")),
+                Mono.empty());
+
+        StepVerifier.create(ordersService.syncInventoryFromEvents(List.of(inventoryEvent(1L, 3, 1L), inventoryEvent(2L, 4, 1L))))
+                .expectErrorMessage("Cannot add or update a child row")
+                .verify();
+
+        verify(databaseClient, times(3)).sql(anyString());
+    }
+
+    private static InventoryUpdatedEvent inventoryEvent(Long productId, int quantity, long version) {
+        return InventoryUpdatedEvent.builder()
+                .productId(productId)
+                .productName("Product " + productId)
+                .price(10.0)
+                .categoryId(1L)
+                .newQuantity(quantity)
+                .version(version)
+                .build();
+    }
 }
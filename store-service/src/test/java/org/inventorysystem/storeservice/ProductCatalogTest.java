@@ -0,0 +1,125 @@
+package org.inventorysystem.storeservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.inventorysystem.storeservice.catalog.ProductCatalog;
+import org.inventorysystem.storeservice.config.EnvironmentConfig;
+import org.inventorysystem.storeservice.entity.ProductEntity;
+import org.inventorysystem.storeservice.event.InventoryUpdatedEvent;
+import org.inventorysystem.storeservice.repository.StoreInventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCatalogTest {
+
+    @Mock
+    private StoreInventoryRepository storeInventoryRepository;
+
+    private ProductCatalog productCatalog;
+
+    @BeforeEach
+    void setup() {
+        EnvironmentConfig environmentConfig = new EnvironmentConfig();
+        environmentConfig.getCatalog().setLoadBatchSize(2);
+        productCatalog = new ProductCatalog(storeInventoryRepository, environmentConfig, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void load_shouldServeProductsAndCategoryPages() {
+        when(storeInventoryRepository.findAll()).thenReturn(Flux.just(
+                product(4L, 5L, 1, 0L), product(1L, 5L, 2, 0L), product(2L, 6L, 3, 0L)));
+
+        StepVerifier.create(productCatalog.load())
+                .verifyComplete();
+
+        assertThat(productCatalog.isLoaded()).isTrue();
+        assertThat(productCatalog.find(2L).getQuantity()).isEqualTo(3);
+        assertThat(productCatalog.find(3L)).isNull();
+        assertThat(productCatalog.page(5L, 0L, 10)).extracting(ProductEntity::getId).containsExactly(1L, 4L);
+        assertThat(productCatalog.page(5L, 1L, 10)).extracting(ProductEntity::getId).containsExactly(4L);
+        assertThat(productCatalog.page(7L, 0L, 10)).isEmpty();
+    }
+
+    @Test
+    void applyAll_shouldIgnoreEventsNotNewerThanTheProduct() {
+        productCatalog.applyAll(List.of(event(1L, 10, 3L)));
+
+        productCatalog.applyAll(List.of(event(1L, 7, 2L), event(1L, 8, 3L)));
+        assertThat(productCatalog.find(1L).getQuantity()).isEqualTo(10);
+
+        productCatalog.applyAll(List.of(event(1L, 6, 4L)));
+        assertThat(productCatalog.find(1L).getQuantity()).isEqualTo(6);
+        assertThat(productCatalog.find(1L).getVersion()).isEqualTo(4L);
+    }
+
+    @Test
+    void applyAll_productMovedByPartitionIncrease_shouldEndAtNewestEventWhicheverPartitionDrainsFirst() {
+        // Versions 1-2 were published before the topic grew and wait on the old partition,
+        // versions 3-4 went to the partition the product now maps to
+        List<InventoryUpdatedEvent> oldPartition = List.of(event(1L, 9, 1L), event(1L, 8, 2L));
+        List<InventoryUpdatedEvent> newPartition = List.of(event(1L, 7, 3L), event(1L, 6, 4L));
+
+        for (List<List<InventoryUpdatedEvent>> drainOrder : List.of(
+                List.of(oldPartition, newPartition), List.of(newPartition, oldPartition))) {
+            ProductCatalog replica = new ProductCatalog(storeInventoryRepository, new EnvironmentConfig(), new SimpleMeterRegistry());
+            for (List<InventoryUpdatedEvent> partition : drainOrder) {
+                partition.forEach(event -> replica.applyAll(List.of(event)));
+            }
+
+            assertThat(replica.find(1L).getQuantity()).isEqualTo(6);
+            assertThat(replica.find(1L).getVersion()).isEqualTo(4L);
+        }
+    }
+
+    @Test
+    void load_afterNewerEvent_shouldKeepTheEvent() {
+        productCatalog.applyAll(List.of(event(1L, 10, 5L)));
+        when(storeInventoryRepository.findAll()).thenReturn(Flux.just(product(1L, 5L, 20, 4L)));
+
+        StepVerifier.create(productCatalog.load())
+                .verifyComplete();
+
+        assertThat(productCatalog.find(1L).getQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void find_shouldReturnCopies() {
+        productCatalog.applyAll(List.of(event(1L, 10, 1L)));
+
+        productCatalog.find(1L).setQuantity(0);
+
+        assertThat(productCatalog.find(1L).getQuantity()).isEqualTo(10);
+    }
+
+    private static ProductEntity product(Long id, Long categoryId, int quantity, long version) {
+        return ProductEntity.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(10.0)
+                .categoryId(categoryId)
+                .quantity(quantity)
+                .version(version)
+                .build();
+    }
+
+    private static InventoryUpdatedEvent event(Long productId, int quantity, long version) {
+        return InventoryUpdatedEvent.builder()
+                .productId(productId)
+                .productName("Product " + productId)
+                .price(10.0)
+                .categoryId(5L)
+                .newQuantity(quantity)
+                .version(version)
+                .build();
+    }
+}
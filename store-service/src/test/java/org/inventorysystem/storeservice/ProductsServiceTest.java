@@ -1,18 +1,23 @@
 package org.inventorysystem.storeservice;
 
+import org.inventorysystem.storeservice.catalog.ProductCatalog;
+import org.inventorysystem.storeservice.config.EnvironmentConfig;
 import org.inventorysystem.storeservice.entity.ProductEntity;
 import org.inventorysystem.storeservice.exception.StoreInventoryNotFoundException;
 import org.inventorysystem.storeservice.repository.StoreInventoryRepository;
 import org.inventorysystem.storeservice.service.ProductsService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
+
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,9 +26,19 @@ class ProductsServiceTest {
     @Mock
     private StoreInventoryRepository storeInventoryRepository;
 
-    @InjectMocks
+    @Mock
+    private ProductCatalog productCatalog;
+
     private ProductsService productsService;
 
+    @BeforeEach
+    void setup() {
+        EnvironmentConfig environmentConfig = new EnvironmentConfig();
+        environmentConfig.getListing().setDefaultPageSize(2);
+        environmentConfig.getListing().setMaxPageSize(3);
+        productsService = new ProductsService(storeInventoryRepository, environmentConfig, productCatalog);
+    }
+
     @Test
     void getInventoryByProductId_shouldReturnProduct_whenFound() {
         ProductEntity product = ProductEntity.builder().id(1L).name("Omega Speedmaster").build();
@@ -44,24 +59,61 @@ class ProductsServiceTest {
     }
 
     @Test
-    void getInventoryByCategoryId_shouldReturnProducts_whenFound() {
+    void getInventoryByProductId_catalogLoaded_shouldNotQueryDatabase() {
+        ProductEntity product = ProductEntity.builder().id(1L).name("Omega Speedmaster").build();
+        when(productCatalog.isLoaded()).thenReturn(true);
+        when(productCatalog.find(1L)).thenReturn(product);
+
+        StepVerifier.create(productsService.getInventoryByProductId(1L))
+                .expectNext(product)
+                .verifyComplete();
+
+        verifyNoInteractions(storeInventoryRepository);
+    }
+
+    @Test
+    void getInventoryByCategoryId_shouldReturnPageAndCursor_whenMoreRowsExist() {
         ProductEntity product1 = ProductEntity.builder().id(1L).categoryId(5L).name("Seiko").build();
         ProductEntity product2 = ProductEntity.builder().id(2L).categoryId(5L).name("Tudor").build();
+        ProductEntity product3 = ProductEntity.builder().id(4L).categoryId(5L).name("Omega").build();
 
-        when(storeInventoryRepository.findByCategoryId(5L)).thenReturn(Flux.just(product1, product2));
+        when(storeInventoryRepository.findPageByCategoryId(5L, 0L, 3)).thenReturn(Flux.just(product1, product2, product3));
 
-        StepVerifier.create(productsService.getInventoryByCategoryId(5L))
-                .expectNextMatches(list -> list.size() == 2 && list.contains(product1) && list.contains(product2))
+        StepVerifier.create(productsService.getInventoryByCategoryId(5L, null, null))
+                .expectNextMatches(page -> page.getItems().equals(List.of(product1, product2))
+                        && page.getNextCursor().equals(2L))
+                .verifyComplete();
+    }
+
+    @Test
+    void getInventoryByCategoryId_shouldReturnEmptyLastPage_afterCursor() {
+        when(storeInventoryRepository.findPageByCategoryId(5L, 4L, 2)).thenReturn(Flux.empty());
+
+        StepVerifier.create(productsService.getInventoryByCategoryId(5L, 4L, 1))
+                .expectNextMatches(page -> page.getItems().isEmpty() && page.getNextCursor() == null)
                 .verifyComplete();
     }
 
     @Test
     void getInventoryByCategoryId_shouldThrow_whenEmpty() {
-        when(storeInventoryRepository.findByCategoryId(99L)).thenReturn(Flux.empty());
+        when(storeInventoryRepository.findPageByCategoryId(99L, 0L, 3)).thenReturn(Flux.empty());
 
-        StepVerifier.create(productsService.getInventoryByCategoryId(99L))
+        StepVerifier.create(productsService.getInventoryByCategoryId(99L, null, null))
                 .expectError(StoreInventoryNotFoundException.class)
                 .verify();
     }
-}
 
+    @Test
+    void streamInventoryByCategoryId_shouldReadAllPages() {
+        ProductEntity product1 = ProductEntity.builder().id(1L).categoryId(5L).build();
+        ProductEntity product2 = ProductEntity.builder().id(2L).categoryId(5L).build();
+        ProductEntity product3 = ProductEntity.builder().id(3L).categoryId(5L).build();
+
+        when(storeInventoryRepository.findPageByCategoryId(5L, 0L, 3)).thenReturn(Flux.just(product1, product2, product3));
+        when(storeInventoryRepository.findPageByCategoryId(5L, 3L, 3)).thenReturn(Flux.empty());
+
+        StepVerifier.create(productsService.streamInventoryByCategoryId(5L, null))
+                .expectNext(product1, product2, product3)
+                .verifyComplete();
+    }
+}
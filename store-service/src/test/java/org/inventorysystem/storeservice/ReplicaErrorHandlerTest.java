@@ -0,0 +1,88 @@
+package org.inventorysystem.storeservice;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.inventorysystem.storeservice.event.InventoryUpdatedEvent;
+import org.inventorysystem.storeservice.kafka.InvalidEventException;
+import org.inventorysystem.storeservice.kafka.ReplicaErrorHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaErrorHandlerTest {
+
+    private static final String TOPIC = "inventory-updated";
+
+    @Mock
+    private KafkaOperations<Object, Object> deadLetters;
+
+    @Mock
+    private Consumer<Object, Object> consumer;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    private ReplicaErrorHandler errorHandler;
+    private ConsumerRecord<Object, Object> record;
+
+    @BeforeEach
+    void setup() {
+        errorHandler = new ReplicaErrorHandler(deadLetters, 1, 1);
+        record = new ConsumerRecord<>(TOPIC, 3, 42L, "7",
+                InventoryUpdatedEvent.builder().productId(7L).newQuantity(5).build());
+    }
+
+    @Test
+    void handleRemaining_databaseKeepsFailing_shouldRetryWithoutEverSkippingTheRecord() {
+        // Well past any finite number of retries
+        for (int attempt = 0; attempt < 25; attempt++) {
+            catchThrowable(() -> errorHandler.handleRemaining(
+                    new DataAccessResourceFailureException("Connection refused"), List.of(record), consumer, container));
+        }
+
+        verify(consumer, times(25)).seek(new TopicPartition(TOPIC, 3), 42L);
+        verify(deadLetters, never()).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    void handleRemaining_invalidEvent_shouldPublishToDeadLetterTopicAtOnce() {
+        when(deadLetters.send(any(ProducerRecord.class))).thenAnswer(inv -> {
+            ProducerRecord<Object, Object> published = inv.getArgument(0);
+            return CompletableFuture.completedFuture(new SendResult<>(published,
+                    new RecordMetadata(new TopicPartition(published.topic(), 0), 0L, 0, 0L, 0, 0)));
+        });
+
+        errorHandler.handleRemaining(new InvalidEventException("Inventory event lacks a required field"),
+                List.of(record), consumer, container);
+
+        ArgumentCaptor<ProducerRecord<Object, Object>> published = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(deadLetters).send(published.capture());
+        assertThat(published.getValue().topic()).isEqualTo(TOPIC + ReplicaErrorHandler.DLT_SUFFIX);
+        assertThat(published.getValue().partition()).isNull();
+        assertThat(published.getValue().value()).isEqualTo(record.value());
+        verify(consumer, never()).seek(any(TopicPartition.class), anyLong());
+    }
+}
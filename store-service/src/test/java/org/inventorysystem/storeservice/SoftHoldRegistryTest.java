@@ -0,0 +1,102 @@
+package org.inventorysystem.storeservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.inventorysystem.storeservice.config.EnvironmentConfig;
+import org.inventorysystem.storeservice.exception.InsufficientStoreStockException;
+import org.inventorysystem.storeservice.hold.SoftHoldRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+class SoftHoldRegistryTest {
+
+    @Test
+    void hold_shouldSubtractUnitsHeldByOtherOrders() {
+        SoftHoldRegistry registry = registry(10_000);
+
+        SoftHoldRegistry.Hold first = registry.hold(Map.of(1L, 2), Map.of(1L, 3));
+
+        assertThatThrownBy(() -> registry.hold(Map.of(1L, 2), Map.of(1L, 3)))
+                .isInstanceOf(InsufficientStoreStockException.class)
+                .hasMessageContaining("[1]");
+
+        registry.release(first);
+        registry.release(first);
+        assertThatCode(() -> registry.hold(Map.of(1L, 3), Map.of(1L, 3))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void hold_rejectedBasket_shouldHoldNothing() {
+        SoftHoldRegistry registry = registry(10_000);
+
+        assertThatThrownBy(() -> registry.hold(Map.of(1L, 1, 2L, 5), Map.of(1L, 1, 2L, 4)))
+                .isInstanceOf(InsufficientStoreStockException.class);
+
+        assertThatCode(() -> registry.hold(Map.of(1L, 1), Map.of(1L, 1))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void hold_shouldNotCheckProductsMissingLocally() {
+        SoftHoldRegistry registry = registry(10_000);
+
+        assertThatCode(() -> registry.hold(Map.of(9L, 5), Map.of())).doesNotThrowAnyException();
+    }
+
+    @Test
+    void hold_shouldIgnoreExpiredHolds() {
+        SoftHoldRegistry registry = registry(0);
+
+        registry.hold(Map.of(1L, 3), Map.of(1L, 3));
+
+        assertThatCode(() -> registry.hold(Map.of(1L, 3), Map.of(1L, 3))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void settle_shouldKeepUnitsHeldUntilReplicaAppliesOrderVersion() {
+        SoftHoldRegistry registry = registry(10_000);
+
+        SoftHoldRegistry.Hold hold = registry.hold(Map.of(1L, 2, 2L, 1), Map.of(1L, 3, 2L, 1));
+        registry.settle(hold, Map.of(1L, 7L, 2L, 4L));
+
+        registry.applied(1L, 6L);
+        registry.applied(2L, 4L);
+        assertThatThrownBy(() -> registry.hold(Map.of(1L, 2), Map.of(1L, 3)))
+                .isInstanceOf(InsufficientStoreStockException.class);
+        assertThatCode(() -> registry.hold(Map.of(2L, 1), Map.of(2L, 1))).doesNotThrowAnyException();
+
+        registry.applied(1L, 7L);
+        assertThatCode(() -> registry.hold(Map.of(1L, 3), Map.of(1L, 3))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void settle_versionAlreadyApplied_shouldReleaseAtOnce() {
+        SoftHoldRegistry registry = registry(10_000);
+        registry.applied(1L, 9L);
+
+        SoftHoldRegistry.Hold hold = registry.hold(Map.of(1L, 3), Map.of(1L, 3));
+        registry.settle(hold, Map.of(1L, 9L));
+
+        assertThatCode(() -> registry.hold(Map.of(1L, 3), Map.of(1L, 3))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void settle_withoutVersions_shouldHoldUntilExpiry() {
+        SoftHoldRegistry registry = registry(10_000);
+
+        SoftHoldRegistry.Hold hold = registry.hold(Map.of(1L, 3), Map.of(1L, 3));
+        registry.settle(hold, null);
+        registry.applied(1L, 100L);
+
+        assertThatThrownBy(() -> registry.hold(Map.of(1L, 1), Map.of(1L, 3)))
+                .isInstanceOf(InsufficientStoreStockException.class);
+    }
+
+    private static SoftHoldRegistry registry(long holdTtlMs) {
+        EnvironmentConfig environmentConfig = new EnvironmentConfig();
+        environmentConfig.getBasketCheck().setHoldTtlMs(holdTtlMs);
+        return new SoftHoldRegistry(environmentConfig, new SimpleMeterRegistry());
+    }
+}
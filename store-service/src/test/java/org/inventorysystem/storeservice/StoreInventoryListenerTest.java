@@ -0,0 +1,114 @@
+package org.inventorysystem.storeservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.inventorysystem.storeservice.config.KafkaTopicsConfig;
+import org.inventorysystem.storeservice.event.InventoryUpdatedEvent;
+import org.inventorysystem.storeservice.kafka.InvalidEventException;
+import org.inventorysystem.storeservice.kafka.StoreInventoryListener;
+import org.inventorysystem.storeservice.service.OrdersService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StoreInventoryListenerTest {
+
+    @Mock
+    private OrdersService ordersService;
+
+    private StoreInventoryListener listener;
+
+    @BeforeEach
+    void setup() {
+        listener = new StoreInventoryListener(ordersService, new KafkaTopicsConfig(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void handleInventoryUpdates_shouldReturnOnlyOnceTheBatchIsWritten() {
+        AtomicBoolean written = new AtomicBoolean();
+        when(ordersService.syncInventoryFromEvents(any())).thenReturn(
+                Mono.delay(Duration.ofMillis(50)).doOnNext(tick -> written.set(true)).thenReturn(2));
+
+        listener.handleInventoryUpdates(List.of(event(1L), event(2L)));
+
+        // The container commits the poll's offsets when the listener returns
+        assertThat(written).isTrue();
+    }
+
+    @Test
+    void handleInventoryUpdates_writeFails_shouldRethrowSoOffsetsAreNotCommitted() {
+        when(ordersService.syncInventoryFromEvents(any()))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("Connection refused")));
+
+        assertThatThrownBy(() -> listener.handleInventoryUpdates(List.of(event(1L))))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    @Test
+    void handleInventoryUpdates_invalidEvent_shouldWriteEventsBeforeItAndReportItsIndex() {
+        InventoryUpdatedEvent first = event(1L);
+        when(ordersService.syncInventoryFromEvents(List.of(first))).thenReturn(Mono.just(1));
+
+        assertThatThrownBy(() -> listener.handleInventoryUpdates(Arrays.asList(first, null, event(3L))))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> {
+                    assertThat(e.getIndex()).isEqualTo(1);
+                    assertThat(e.getCause()).isInstanceOf(InvalidEventException.class);
+                });
+
+        verify(ordersService).syncInventoryFromEvents(List.of(first));
+    }
+
+    @Test
+    void handleInventoryUpdate_eventWithoutQuantity_shouldBeRejectedWithoutWriting() {
+        InventoryUpdatedEvent event = event(1L);
+        event.setNewQuantity(null);
+
+        assertThatThrownBy(() -> listener.handleInventoryUpdate(event))
+                .isInstanceOf(InvalidEventException.class);
+
+        verifyNoInteractions(ordersService);
+    }
+
+    @Test
+    void listeners_shouldTakeTheirConcurrencyFromTheirTopicsSetting() throws NoSuchMethodException {
+        assertThat(listenerOf("handleInventoryUpdate", InventoryUpdatedEvent.class).concurrency())
+                .isEqualTo("${kafka.concurrency.inventory-updated:1}");
+        assertThat(listenerOf("handleInventoryUpdates", List.class).concurrency())
+                .isEqualTo("${kafka.concurrency.inventory-updated:1}");
+        assertThat(listenerOf("handleNewInventory", InventoryUpdatedEvent.class).concurrency())
+                .isEqualTo("${kafka.concurrency.new-inventory:1}");
+    }
+
+    private static KafkaListener listenerOf(String method, Class<?> parameter) throws NoSuchMethodException {
+        return StoreInventoryListener.class.getMethod(method, parameter).getAnnotation(KafkaListener.class);
+    }
+
+    private InventoryUpdatedEvent event(Long productId) {
+        return InventoryUpdatedEvent.builder()
+                .productId(productId)
+                .productName("Product " + productId)
+                .price(10.0)
+                .categoryId(1L)
+                .newQuantity(5)
+                .version(3L)
+                .build();
+    }
+}
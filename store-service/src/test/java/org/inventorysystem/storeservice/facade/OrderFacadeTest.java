@@ -6,7 +6,10 @@ import okhttp3.mockwebserver.MockWebServer;
 import org.inventorysystem.storeservice.service.facade.order.OrderFacade;
 import org.inventorysystem.storeservice.service.facade.order.request.OrderRequest;
 import org.inventorysystem.storeservice.service.facade.order.response.OrderItemResponse;
+import org.inventorysystem.storeservice.service.facade.order.response.OrderPageResponse;
 import org.inventorysystem.storeservice.service.facade.order.response.OrderResponse;
+import org.inventorysystem.storeservice.service.facade.order.response.OrderWithItemsPageResponse;
+import org.inventorysystem.storeservice.service.facade.order.response.OrderWithItemsResponse;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +21,8 @@ import reactor.test.StepVerifier;
 import java.io.IOException;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @ExtendWith(MockitoExtension.class)
 class OrderFacadeTest {
 
@@ -53,37 +58,74 @@ class OrderFacadeTest {
 
         OrderRequest request = new OrderRequest(); // Populate if needed
 
-        StepVerifier.create(orderFacade.sendOrder(request))
+        StepVerifier.create(orderFacade.sendOrder(request, null))
                 .expectNextMatches(resp -> resp != null)
                 .verifyComplete();
+
+        assertThat(mockWebServer.takeRequest().getHeader(OrderFacade.IDEMPOTENCY_KEY_HEADER)).isNull();
     }
 
     @Test
-    void getOrdersByStore_shouldReturnList() throws Exception {
-        OrderResponse mockResponse = new OrderResponse();
-        String responseJson = new ObjectMapper().writeValueAsString(List.of(mockResponse));
+    void sendOrder_withIdempotencyKey_shouldForwardHeader() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(new ObjectMapper().writeValueAsString(new OrderResponse()))
+                .addHeader("Content-Type", "application/json"));
+
+        StepVerifier.create(orderFacade.sendOrder(new OrderRequest(), "pos-7-000123"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(mockWebServer.takeRequest().getHeader(OrderFacade.IDEMPOTENCY_KEY_HEADER)).isEqualTo("pos-7-000123");
+    }
+
+    @Test
+    void getOrdersByStore_shouldReturnPage() throws Exception {
+        OrderPageResponse mockResponse = new OrderPageResponse(List.of(new OrderResponse()), "next");
+        String responseJson = new ObjectMapper().writeValueAsString(mockResponse);
 
         mockWebServer.enqueue(new MockResponse()
                 .setBody(responseJson)
                 .addHeader("Content-Type", "application/json"));
 
-        StepVerifier.create(orderFacade.getOrdersByStore(1L))
-                .expectNextMatches(list -> !list.isEmpty())
+        StepVerifier.create(orderFacade.getOrdersByStore(1L, "abc", 50))
+                .expectNextMatches(page -> page.getItems().size() == 1 && "next".equals(page.getNextCursor()))
+                .verifyComplete();
+
+        assertThat(mockWebServer.takeRequest().getPath()).isEqualTo("/api/orders/store/1?cursor=abc&limit=50");
+    }
+
+    @Test
+    void getOrdersByUser_shouldReturnPage() throws Exception {
+        OrderPageResponse mockResponse = new OrderPageResponse(List.of(new OrderResponse()), null);
+        String responseJson = new ObjectMapper().writeValueAsString(mockResponse);
+
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(responseJson)
+                .addHeader("Content-Type", "application/json"));
+
+        StepVerifier.create(orderFacade.getOrdersByUser(1L, null, null))
+                .expectNextMatches(page -> !page.getItems().isEmpty() && page.getNextCursor() == null)
                 .verifyComplete();
+
+        assertThat(mockWebServer.takeRequest().getPath()).isEqualTo("/api/orders/user/1");
     }
 
     @Test
-    void getOrdersByUser_shouldReturnList() throws Exception {
-        OrderResponse mockResponse = new OrderResponse();
-        String responseJson = new ObjectMapper().writeValueAsString(List.of(mockResponse));
+    void getOrdersWithItemsByStore_shouldReturnOrdersWithItems() throws Exception {
+        OrderWithItemsResponse order = new OrderWithItemsResponse(5L, 1L, 2L, null,
+                List.of(new OrderItemResponse(9L, 5L, 100L, 3)));
+        String responseJson = new ObjectMapper().writeValueAsString(new OrderWithItemsPageResponse(List.of(order), null));
 
         mockWebServer.enqueue(new MockResponse()
                 .setBody(responseJson)
                 .addHeader("Content-Type", "application/json"));
 
-        StepVerifier.create(orderFacade.getOrdersByUser(1L))
-                .expectNextMatches(list -> !list.isEmpty())
+        StepVerifier.create(orderFacade.getOrdersWithItemsByStore(1L, null, 50))
+                .expectNextMatches(page -> page.getItems().get(0).getItems().get(0).getProductId() == 100L)
                 .verifyComplete();
+
+        assertThat(mockWebServer.takeRequest().getPath()).isEqualTo("/api/orders/store/1/with-items?limit=50");
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
     }
 
     @Test